@@ -52,10 +52,12 @@ import java.util.Map;
 import java.util.Map.Entry;
 
 import javax.script.Bindings;
+import javax.script.Compilable;
+import javax.script.CompiledScript;
 import javax.script.ScriptContext;
 import javax.script.ScriptEngine;
 import javax.script.ScriptEngineFactory;
-import javax.script.ScriptEngineManager;
+import javax.script.SimpleScriptContext;
 
 import org.objectweb.proactive.annotation.PublicAPI;
 import org.ow2.proactive.utils.BoundedStringWriter;
@@ -300,6 +302,17 @@ public abstract class Script<E> implements Serializable {
      */
     public ScriptResult<E> execute(Map<String, Object> aBindings, PrintStream outputSink,
             PrintStream errorSink) {
+        if (ScriptEngineCache.isEnabled()) {
+            // reuse the engine of this thread and the script it already compiled
+            ScriptEngineCache.CachedEngine cachedEngine = ScriptEngineCache.getEngine(this);
+            if (cachedEngine == null) {
+                return new ScriptResult<E>(new Exception("No Script Engine Found for name or extension " +
+                    scriptEngineLookup));
+            }
+            return execute(cachedEngine.getEngine(), cachedEngine.getCompiledScript(this), aBindings,
+                    outputSink, errorSink);
+        }
+
         ScriptEngine engine = createScriptEngine();
 
         if (engine == null) {
@@ -332,17 +345,79 @@ public abstract class Script<E> implements Serializable {
 
             return result;
         } catch (Throwable e) {
-            ByteArrayOutputStream baos = new ByteArrayOutputStream();
-            PrintStream ps = new PrintStream(baos);
-            e.printStackTrace(ps);
-            ps.flush();
-            String stack = baos.toString();
-            if (e.getMessage() != null) {
-                stack = e.getMessage() + System.getProperty("line.separator") + stack;
+            return createErrorResult(e);
+        }
+    }
+
+    /**
+     * Execute the script with an engine which is reused for other executions.
+     * The script is evaluated in a new context, so that the executions do not share their bindings.
+     *
+     * @param engine the engine to use, created by {@link #createScriptEngine()}
+     * @param compiledScript the script compiled by this engine, null to evaluate the script source
+     * @param aBindings the additional user bindings to add if needed. Can be null or empty.
+     * @param outputSink where the script output is printed to.
+     * @param errorSink where the script error stream is printed to.
+     * @return a ScriptResult object.
+     */
+    protected ScriptResult<E> execute(ScriptEngine engine, CompiledScript compiledScript,
+            Map<String, Object> aBindings, PrintStream outputSink, PrintStream errorSink) {
+        BoundedStringWriter outputBoundedWriter = new BoundedStringWriter(outputSink, DEFAULT_OUTPUT_MAX_SIZE);
+        BoundedStringWriter errorBoundedWriter = new BoundedStringWriter(errorSink, DEFAULT_OUTPUT_MAX_SIZE);
+
+        ScriptContext context = new SimpleScriptContext();
+        context.setBindings(engine.createBindings(), ScriptContext.ENGINE_SCOPE);
+        context.setWriter(new PrintWriter(outputBoundedWriter));
+        context.setErrorWriter(new PrintWriter(errorBoundedWriter));
+        context.setAttribute(ScriptEngine.FILENAME, getScriptName(), ScriptContext.ENGINE_SCOPE);
+
+        try {
+            Bindings bindings = context.getBindings(ScriptContext.ENGINE_SCOPE);
+            //add additional bindings
+            if (aBindings != null) {
+                for (Entry<String, Object> e : aBindings.entrySet()) {
+                    bindings.put(e.getKey(), e.getValue());
+                }
             }
-            logger.error(e.getMessage(), e);
-            return new ScriptResult<E>(new Exception(stack));
+            prepareBindings(bindings);
+            if (compiledScript != null) {
+                compiledScript.eval(context);
+            } else {
+                engine.eval(getReader(), context);
+            }
+
+            // Add output to the script result
+            ScriptResult<E> result = this.getResult(bindings);
+            result.setOutput(outputBoundedWriter.toString());
+
+            return result;
+        } catch (Throwable e) {
+            return createErrorResult(e);
+        }
+    }
+
+    /**
+     * Compile the script with the given engine.
+     *
+     * @param engine an engine created by {@link #createScriptEngine()}
+     * @return the compiled script
+     * @throws javax.script.ScriptException if the script cannot be compiled
+     */
+    protected CompiledScript compile(Compilable engine) throws javax.script.ScriptException {
+        return engine.compile(getReader());
+    }
+
+    private ScriptResult<E> createErrorResult(Throwable e) {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        PrintStream ps = new PrintStream(baos);
+        e.printStackTrace(ps);
+        ps.flush();
+        String stack = baos.toString();
+        if (e.getMessage() != null) {
+            stack = e.getMessage() + System.getProperty("line.separator") + stack;
         }
+        logger.error(e.getMessage(), e);
+        return new ScriptResult<E>(new Exception(stack));
     }
 
     /** String identifying the script.
@@ -355,20 +430,8 @@ public abstract class Script<E> implements Serializable {
 
     /** The Script Engine used to evaluate the script. */
     protected ScriptEngine createScriptEngine() {
-        for (ScriptEngineFactory factory : new ScriptEngineManager().getEngineFactories()) {
-            for (String name : factory.getNames()) {
-                if (name.equalsIgnoreCase(scriptEngineLookup)) {
-                    return factory.getScriptEngine();
-                }
-            }
-            for (String ext : factory.getExtensions()) {
-                String scriptEngineLookupLowercase = scriptEngineLookup.toLowerCase();
-                if (scriptEngineLookupLowercase.endsWith(ext.toLowerCase())) {
-                    return factory.getScriptEngine();
-                }
-            }
-        }
-        return null;
+        ScriptEngineFactory factory = ScriptEngineCache.findFactory(scriptEngineLookup);
+        return factory == null ? null : factory.getScriptEngine();
     }
 
     /** Specify the variable awaited from the script execution */
@@ -0,0 +1,268 @@
+/*
+ * ################################################################
+ *
+ * ProActive Parallel Suite(TM): The Java(TM) library for
+ *    Parallel, Distributed, Multi-Core Computing for
+ *    Enterprise Grids & Clouds
+ *
+ * Copyright (C) 1997-2011 INRIA/University of
+ *                 Nice-Sophia Antipolis/ActiveEon
+ * Contact: proactive@ow2.org or contact@activeeon.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation; version 3 of
+ * the License.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307
+ * USA
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ *
+ *  Initial developer(s):               The ProActive Team
+ *                        http://proactive.inria.fr/team_members.htm
+ *  Contributor(s):
+ *
+ * ################################################################
+ * $$PROACTIVE_INITIAL_DEV$$
+ */
+package org.ow2.proactive.scripting;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.script.Compilable;
+import javax.script.CompiledScript;
+import javax.script.ScriptEngine;
+import javax.script.ScriptEngineFactory;
+import javax.script.ScriptEngineManager;
+
+import org.apache.log4j.Logger;
+
+
+/**
+ * Script engines and compiled scripts reused by the executions of the scripts.
+ * <p>
+ * Engine factories are looked up once per class loader and engine name. Script engines are not
+ * always thread safe, so each thread has its own engines, one per class loader and engine name,
+ * and each engine has its own compiled scripts. Factories and engines reference the classes of
+ * their class loader, so only the ones of the system class loader and of the class loader of
+ * this class are kept, the class loaders of the tasks are never retained. Compiled scripts are keyed by a digest of the
+ * script content and the least recently used ones are removed when the cache of an engine is full.
+ * <p>
+ * The number of compiled scripts kept per engine is set by the {@value #CACHE_SIZE_PROPERTY}
+ * system property, 0 disables the reuse of the engines.
+ */
+final class ScriptEngineCache {
+
+    private static final Logger logger = Logger.getLogger(ScriptEngineCache.class);
+
+    static final String CACHE_SIZE_PROPERTY = "pa.scripting.cache.size";
+
+    private static final int DEFAULT_CACHE_SIZE = 100;
+
+    private static final int cacheSize = Integer.getInteger(CACHE_SIZE_PROPERTY, DEFAULT_CACHE_SIZE);
+
+    /** class loader => engine name => factory, only for the cacheable class loaders */
+    private static final Map<ClassLoader, Map<String, ScriptEngineFactory>> factories = new HashMap<ClassLoader, Map<String, ScriptEngineFactory>>();
+
+    /** class loader => engine name => engine of the current thread, only for the cacheable class loaders */
+    private static final ThreadLocal<Map<ClassLoader, Map<String, CachedEngine>>> engines = new ThreadLocal<Map<ClassLoader, Map<String, CachedEngine>>>() {
+        @Override
+        protected Map<ClassLoader, Map<String, CachedEngine>> initialValue() {
+            return new HashMap<ClassLoader, Map<String, CachedEngine>>();
+        }
+    };
+
+    private static final AtomicLong createdEngines = new AtomicLong();
+
+    private static final AtomicLong hits = new AtomicLong();
+
+    private static final AtomicLong misses = new AtomicLong();
+
+    private ScriptEngineCache() {
+    }
+
+    /**
+     * @return true if the engines used by the current thread are reused
+     */
+    static boolean isEnabled() {
+        return cacheSize > 0 && isCacheable(Thread.currentThread().getContextClassLoader());
+    }
+
+    /**
+     * The system class loader and the class loader of this class live as long as the cache,
+     * engines and factories of other class loaders would keep them loaded forever.
+     */
+    private static boolean isCacheable(ClassLoader classLoader) {
+        return classLoader != null &&
+            (classLoader == ClassLoader.getSystemClassLoader() || classLoader == ScriptEngineCache.class
+                    .getClassLoader());
+    }
+
+    /**
+     * Finds the factory of the engine with the given name or supporting the given extension.
+     *
+     * @param scriptEngineLookup name of the engine or path of the script file
+     * @return the factory, null if there is no such engine
+     */
+    static ScriptEngineFactory findFactory(String scriptEngineLookup) {
+        ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        if (!isCacheable(classLoader)) {
+            return lookupFactory(scriptEngineLookup);
+        }
+        synchronized (factories) {
+            Map<String, ScriptEngineFactory> loaderFactories = factories.get(classLoader);
+            if (loaderFactories == null) {
+                loaderFactories = new HashMap<String, ScriptEngineFactory>();
+                factories.put(classLoader, loaderFactories);
+            }
+            ScriptEngineFactory factory = loaderFactories.get(scriptEngineLookup);
+            if (factory == null) {
+                factory = lookupFactory(scriptEngineLookup);
+                if (factory != null) {
+                    loaderFactories.put(scriptEngineLookup, factory);
+                }
+            }
+            return factory;
+        }
+    }
+
+    private static ScriptEngineFactory lookupFactory(String scriptEngineLookup) {
+        for (ScriptEngineFactory factory : new ScriptEngineManager().getEngineFactories()) {
+            for (String name : factory.getNames()) {
+                if (name.equalsIgnoreCase(scriptEngineLookup)) {
+                    return factory;
+                }
+            }
+            for (String ext : factory.getExtensions()) {
+                String scriptEngineLookupLowercase = scriptEngineLookup.toLowerCase();
+                if (scriptEngineLookupLowercase.endsWith(ext.toLowerCase())) {
+                    return factory;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the engine of the current thread for the given script, creating it if needed.
+     * Must be called only if {@link #isEnabled()}.
+     *
+     * @param script the script to execute
+     * @return the engine, null if there is no engine for this script
+     */
+    static CachedEngine getEngine(Script<?> script) {
+        ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        Map<ClassLoader, Map<String, CachedEngine>> threadEngines = engines.get();
+        Map<String, CachedEngine> loaderEngines = threadEngines.get(classLoader);
+        if (loaderEngines == null) {
+            loaderEngines = new HashMap<String, CachedEngine>();
+            threadEngines.put(classLoader, loaderEngines);
+        }
+        String scriptEngineLookup = script.scriptEngineLookup;
+        CachedEngine cachedEngine = loaderEngines.get(scriptEngineLookup);
+        if (cachedEngine == null) {
+            ScriptEngine engine = script.createScriptEngine();
+            if (engine == null) {
+                return null;
+            }
+            createdEngines.incrementAndGet();
+            cachedEngine = new CachedEngine(engine);
+            loaderEngines.put(scriptEngineLookup, cachedEngine);
+        }
+        return cachedEngine;
+    }
+
+    static long getCreatedEngines() {
+        return createdEngines.get();
+    }
+
+    static long getHits() {
+        return hits.get();
+    }
+
+    static long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * An engine of a thread with the scripts it compiled.
+     */
+    static final class CachedEngine {
+
+        private final ScriptEngine engine;
+
+        /** script digest => compiled script, the least recently used is removed first */
+        private final Map<String, CompiledScript> compiledScripts = new LinkedHashMap<String, CompiledScript>(16,
+            0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CompiledScript> eldest) {
+                return size() > cacheSize;
+            }
+        };
+
+        private CachedEngine(ScriptEngine engine) {
+            this.engine = engine;
+        }
+
+        ScriptEngine getEngine() {
+            return engine;
+        }
+
+        /**
+         * @param script the script to execute
+         * @return the script compiled by this engine, null if the engine cannot compile it
+         */
+        CompiledScript getCompiledScript(Script<?> script) {
+            if (!(engine instanceof Compilable) || script.getScript() == null) {
+                return null;
+            }
+            String digest = digest(script.getScript());
+            CompiledScript compiledScript = compiledScripts.get(digest);
+            if (compiledScript != null) {
+                hits.incrementAndGet();
+                return compiledScript;
+            }
+            misses.incrementAndGet();
+            try {
+                compiledScript = script.compile((Compilable) engine);
+                compiledScripts.put(digest, compiledScript);
+                return compiledScript;
+            } catch (javax.script.ScriptException e) {
+                // the evaluation of the source will report the error
+                return null;
+            }
+        }
+    }
+
+    private static String digest(String script) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-1").digest(script.getBytes("UTF-8"));
+            StringBuilder hex = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            logger.debug("Cannot compute the digest of the script", e);
+            return script;
+        } catch (java.io.UnsupportedEncodingException e) {
+            logger.debug("Cannot compute the digest of the script", e);
+            return script;
+        }
+    }
+
+}
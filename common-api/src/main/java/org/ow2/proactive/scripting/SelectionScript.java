@@ -86,6 +86,9 @@ public class SelectionScript extends Script<Boolean> {
      */
     protected byte[] id_;
 
+    /** MD5 digest of the id, computed once */
+    private transient volatile String digest;
+
     /** ProActive needed constructor */
     public SelectionScript() {
     }
@@ -211,6 +214,7 @@ public class SelectionScript extends Script<Boolean> {
             logger.error("", e);
             this.id_ = stringId.getBytes();
         }
+        this.digest = null;
     }
 
     /**
@@ -304,6 +308,21 @@ public class SelectionScript extends Script<Boolean> {
         return MessageDigest.getInstance("MD5").digest(id_);
     }
 
+    /**
+     * Get MD5 hash value as a string. It is computed only once for this script.
+     *
+     * @return MD5 hash value as a string
+     * @throws NoSuchAlgorithmException
+     */
+    public String getDigest() throws NoSuchAlgorithmException {
+        String result = digest;
+        if (result == null) {
+            result = new String(digest());
+            digest = result;
+        }
+        return result;
+    }
+
     /**
      * Get MD5 hash value of the script without parameters
      */
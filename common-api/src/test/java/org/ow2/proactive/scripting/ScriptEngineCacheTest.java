@@ -0,0 +1,181 @@
+/*
+ *  *
+ * ProActive Parallel Suite(TM): The Java(TM) library for
+ *    Parallel, Distributed, Multi-Core Computing for
+ *    Enterprise Grids & Clouds
+ *
+ * Copyright (C) 1997-2013 INRIA/University of
+ *                 Nice-Sophia Antipolis/ActiveEon
+ * Contact: proactive@ow2.org or contact@activeeon.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation; version 3 of
+ * the License.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307
+ * USA
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ *
+ *  Initial developer(s):               The ProActive Team
+ *                        http://proactive.inria.fr/team_members.htm
+ *  Contributor(s):
+ *
+ *  * $$PROACTIVE_INITIAL_DEV$$
+ */
+package org.ow2.proactive.scripting;
+
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.Collections;
+
+import org.junit.Test;
+
+
+public class ScriptEngineCacheTest {
+
+    private static final int EXECUTIONS_NUMBER = 10;
+
+    @Test
+    public void testEngineAndCompiledScriptReused() throws Exception {
+        SimpleScript script = new SimpleScript("result = 1 + 1", "javascript");
+        assertNull(script.execute().getException());
+
+        long createdEngines = ScriptEngineCache.getCreatedEngines();
+        long hits = ScriptEngineCache.getHits();
+
+        ScriptResult<Object> result = script.execute();
+
+        assertNull(result.getException());
+        assertEquals(createdEngines, ScriptEngineCache.getCreatedEngines());
+        assertEquals(hits + 1, ScriptEngineCache.getHits());
+    }
+
+    @Test
+    public void testExecutionsDoNotShareBindings() throws Exception {
+        SelectionScript script = new SelectionScript(
+            "if (typeof counter == 'undefined') { counter = 0; } counter++; selected = (counter == 1);",
+            "javascript");
+
+        for (int i = 0; i < 3; i++) {
+            ScriptResult<Boolean> result = script.execute();
+            assertNull(result.getException());
+            assertTrue(result.getResult());
+        }
+    }
+
+    @Test
+    public void testAdditionalBindingsNotKept() throws Exception {
+        SelectionScript script = new SelectionScript("selected = (typeof value == 'undefined');", "javascript");
+
+        ScriptResult<Boolean> result = script.execute(Collections.<String, Object> singletonMap("value", 1),
+                System.out, System.err);
+        assertEquals(Boolean.FALSE, result.getResult());
+
+        result = script.execute();
+        assertEquals(Boolean.TRUE, result.getResult());
+    }
+
+    @Test
+    public void testEachThreadHasItsOwnEngine() throws Exception {
+        final SimpleScript script = new SimpleScript("result = 1", "javascript");
+        assertNull(script.execute().getException());
+        long createdEngines = ScriptEngineCache.getCreatedEngines();
+
+        Thread thread = new Thread() {
+            @Override
+            public void run() {
+                script.execute();
+            }
+        };
+        thread.start();
+        thread.join();
+
+        assertEquals(createdEngines + 1, ScriptEngineCache.getCreatedEngines());
+    }
+
+    @Test
+    public void testSyntaxErrorReported() throws Exception {
+        SimpleScript script = new SimpleScript("result = (;", "javascript");
+
+        for (int i = 0; i < 2; i++) {
+            assertNotNull(script.execute(null, nullStream(), nullStream()).getException());
+        }
+    }
+
+    @Test
+    public void testJavaScriptCompiledOnceAndExecutedInIsolation() throws Exception {
+        assertCompiledOnceAndExecutedInIsolation(new SelectionScript(
+            "selected = (typeof counter == 'undefined'); counter = 1;", "javascript"));
+    }
+
+    @Test
+    public void testGroovyCompiledOnceAndExecutedInIsolation() throws Exception {
+        assertCompiledOnceAndExecutedInIsolation(new SelectionScript(
+            "selected = !binding.hasVariable('counter'); counter = 1", "groovy"));
+    }
+
+    @Test
+    public void testEnginesOfOtherClassLoadersNotCached() throws Exception {
+        SimpleScript script = new SimpleScript("var loader = 'other';", "javascript");
+        ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+        Thread.currentThread().setContextClassLoader(
+                new URLClassLoader(new URL[0], ScriptEngineCacheTest.class.getClassLoader()));
+        try {
+            long createdEngines = ScriptEngineCache.getCreatedEngines();
+            long hits = ScriptEngineCache.getHits();
+            long misses = ScriptEngineCache.getMisses();
+
+            for (int i = 0; i < 2; i++) {
+                assertNull(script.execute().getException());
+            }
+
+            assertEquals(createdEngines, ScriptEngineCache.getCreatedEngines());
+            assertEquals(hits, ScriptEngineCache.getHits());
+            assertEquals(misses, ScriptEngineCache.getMisses());
+        } finally {
+            Thread.currentThread().setContextClassLoader(contextClassLoader);
+        }
+    }
+
+    private void assertCompiledOnceAndExecutedInIsolation(SelectionScript script) {
+        long hits = ScriptEngineCache.getHits();
+        long misses = ScriptEngineCache.getMisses();
+
+        for (int i = 0; i < EXECUTIONS_NUMBER; i++) {
+            ScriptResult<Boolean> result = script.execute(null, nullStream(), nullStream());
+            assertNull(result.getException());
+            // the variable set by the previous execution is not visible
+            assertTrue(result.getResult());
+        }
+
+        assertEquals(misses + 1, ScriptEngineCache.getMisses());
+        assertEquals(hits + EXECUTIONS_NUMBER - 1, ScriptEngineCache.getHits());
+    }
+
+    private static PrintStream nullStream() {
+        return new PrintStream(new OutputStream() {
+            @Override
+            public void write(int b) {
+            }
+        });
+    }
+
+}
@@ -36,11 +36,15 @@ package org.ow2.proactive.scripting;
 
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 import java.io.File;
 import java.io.Reader;
 
 import javax.script.Bindings;
+import javax.script.Compilable;
+import javax.script.CompiledScript;
+import javax.script.ScriptEngine;
 
 import org.junit.Test;
 
@@ -91,6 +95,25 @@ public class ScriptTest {
         assertNull(result.getException());
     }
 
+    @Test
+    public void testReusedEngine_ExecutionsDoNotShareBindings() throws Exception {
+        SelectionScript script = new SelectionScript(
+            "if (typeof counter == 'undefined') { counter = 0; } counter++; selected = (counter == 1);",
+            "javascript");
+        ScriptEngine engine = script.createScriptEngine();
+        CompiledScript compiledScript = script.compile((Compilable) engine);
+
+        for (int i = 0; i < 2; i++) {
+            ScriptResult<Boolean> result = script.execute(engine, compiledScript, null, System.out,
+                    System.err);
+            assertNull(result.getException());
+            assertTrue(result.getResult());
+        }
+
+        ScriptResult<Boolean> result = script.execute(engine, null, null, System.out, System.err);
+        assertTrue(result.getResult());
+    }
+
     class ScriptForTests extends Script<Object> {
 
         @Override
@@ -38,7 +38,12 @@ package org.ow2.proactive.jmx;
 
 import java.io.File;
 import java.io.IOException;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
 
 import javax.management.MBeanAttributeInfo;
 import javax.management.StandardMBean;
@@ -47,6 +52,8 @@ import org.ow2.proactive.utils.FileToBytesConverter;
 import org.apache.log4j.Logger;
 import org.rrd4j.ConsolFun;
 import org.rrd4j.DsType;
+import org.rrd4j.core.FetchData;
+import org.rrd4j.core.FetchRequest;
 import org.rrd4j.core.RrdDb;
 import org.rrd4j.core.RrdDef;
 import org.rrd4j.core.Sample;
@@ -54,11 +61,25 @@ import org.rrd4j.core.Sample;
 
 /**
  * This class (thread) dump all properties of MBean to RRD data base with specific period.
+ * <p>
+ * The history of each data source over the time ranges of {@link #HISTORY_RANGES} is kept
+ * in memory and refreshed after each sample, so that it can be queried with
+ * {@link #getHistory(String[], String)} without reading the data base.
  */
 public class RRDDataStore extends Thread {
 
     private static final int DEFAULT_STEP_IN_SECONDS = 4;
 
+    /**
+     * Time ranges of the history, one character each: 'a' 1 minute, 'm' 10 minutes, 'h' 1 hour,
+     * 'H' 8 hours, 'd' 1 day, 'w' 1 week, 'M' 1 month, 'y' 1 year
+     */
+    public static final String HISTORY_RANGES = "amhHdwMy";
+
+    /** Durations in seconds of the time ranges of {@link #HISTORY_RANGES} */
+    private static final long[] HISTORY_RANGE_DURATIONS = { 60, 60 * 10, 60 * 60, 60 * 60 * 8,
+            60 * 60 * 24, 60 * 60 * 24 * 7, 60 * 60 * 24 * 28, 60 * 60 * 24 * 365 };
+
     private StandardMBean mbean;
     protected int step = DEFAULT_STEP_IN_SECONDS; //secs
     protected String dataBaseFile;
@@ -66,6 +87,20 @@ public class RRDDataStore extends Thread {
     protected volatile boolean terminate = false;
     protected Logger logger;
 
+    /**
+     * Values of each data source over each time range, as JSON arrays. Replaced as a whole
+     * when refreshed, so that it can be read without lock.
+     */
+    private volatile Map<String, String[]> history = Collections.emptyMap();
+
+    /** End time (in seconds) of the last fetch of each time range */
+    private final long[] historyFetchTimes = new long[HISTORY_RANGES.length()];
+
+    /** Resolution (in seconds) of the archive used for each time range */
+    private final long[] historyResolutions = new long[HISTORY_RANGES.length()];
+
+    private DecimalFormat historyFormatter;
+
     protected RRDDataStore(String dataBaseFilePath, int step, Logger logger) {
         this.step = step;
         this.dataBaseFile = dataBaseFilePath;
@@ -165,6 +200,7 @@ public class RRDDataStore extends Thread {
             Sample sample = dataBase.createSample();
 
             logger.debug("RRD data base configuration:\n" + dataBase.getRrdDef().dump());
+            refreshHistory(dataBase);
 
             while (!terminate) {
                 try {
@@ -186,6 +222,7 @@ public class RRDDataStore extends Thread {
 
                         sample.setTime(System.currentTimeMillis() / 1000);
                         sample.update();
+                        refreshHistory(dataBase);
                     }
                 } catch (Exception e) {
                     logger.error(e.getMessage(), e);
@@ -197,6 +234,109 @@ public class RRDDataStore extends Thread {
         }
     }
 
+    /**
+     * Updates the in memory history after a sample. The values of a time range only change
+     * when the archive used for this range gets a new consolidated value, the other ranges
+     * are not fetched again.
+     *
+     * @param dataBase the data base, opened by the calling thread
+     * @throws IOException when the data base cannot be read
+     */
+    protected void refreshHistory(RrdDb dataBase) throws IOException {
+        if (historyFormatter == null) {
+            // force float separator for JSON parsing
+            DecimalFormatSymbols symbols = new DecimalFormatSymbols(Locale.US);
+            symbols.setDecimalSeparator('.');
+            // formatting will greatly reduce response size
+            historyFormatter = new DecimalFormat("###.###", symbols);
+        }
+
+        long timeEnd = dataBase.getLastUpdateTime();
+        Map<String, String[]> refreshed = null;
+
+        for (int i = 0; i < HISTORY_RANGES.length(); i++) {
+            long resolution = historyResolutions[i];
+            if (resolution > 0 && timeEnd / resolution == historyFetchTimes[i] / resolution) {
+                // no new consolidated value since the last fetch
+                continue;
+            }
+            if (refreshed == null) {
+                refreshed = new HashMap<String, String[]>();
+                for (Map.Entry<String, String[]> entry : history.entrySet()) {
+                    refreshed.put(entry.getKey(), entry.getValue().clone());
+                }
+            }
+
+            FetchRequest request = dataBase.createFetchRequest(ConsolFun.AVERAGE, timeEnd -
+                HISTORY_RANGE_DURATIONS[i], timeEnd);
+            FetchData fetchData = request.fetchData();
+            for (String dataSource : fetchData.getDsNames()) {
+                String[] ranges = refreshed.get(dataSource);
+                if (ranges == null) {
+                    ranges = new String[HISTORY_RANGES.length()];
+                    refreshed.put(dataSource, ranges);
+                }
+                ranges[i] = toJSONArray(fetchData.getValues(dataSource));
+            }
+
+            historyFetchTimes[i] = timeEnd;
+            historyResolutions[i] = fetchData.getStep();
+        }
+
+        if (refreshed != null) {
+            history = refreshed;
+        }
+    }
+
+    private String toJSONArray(double[] values) {
+        StringBuilder result = new StringBuilder(values.length * 4 + 2);
+        result.append('[');
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                result.append(',');
+            }
+            if (Double.isNaN(values[i])) {
+                result.append("null");
+            } else {
+                result.append(historyFormatter.format(values[i]));
+            }
+        }
+        result.append(']');
+        return result.toString();
+    }
+
+    /**
+     * Returns the history of the given data sources as a JSON object, with a key for each data
+     * source and an array of values as value. Only the requested data sources are returned,
+     * the data base is not read.
+     *
+     * @param dataSources the names of the data sources
+     * @param ranges the time range of each data source, one character of {@link #HISTORY_RANGES}
+     * per data source, 'a' for the missing or unknown ones
+     * @return the history as a JSON object
+     */
+    public String getHistory(String[] dataSources, String ranges) {
+        Map<String, String[]> currentHistory = history;
+
+        StringBuilder result = new StringBuilder();
+        result.append('{');
+        for (int i = 0; i < dataSources.length; i++) {
+            int range = i < ranges.length() ? HISTORY_RANGES.indexOf(ranges.charAt(i)) : 0;
+            String[] values = currentHistory.get(dataSources[i]);
+            if (i > 0) {
+                result.append(',');
+            }
+            result.append('"').append(dataSources[i]).append("\":");
+            if (values == null || values[Math.max(range, 0)] == null) {
+                result.append("[]");
+            } else {
+                result.append(values[Math.max(range, 0)]);
+            }
+        }
+        result.append('}');
+        return result.toString();
+    }
+
     /**
      * Converts the data base into the bytes array in order to send it to a client.
      *
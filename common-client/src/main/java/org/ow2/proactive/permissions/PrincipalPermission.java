@@ -108,6 +108,13 @@ public class PrincipalPermission extends ClientPermission {
     public boolean hasPrincipal(IdentityPrincipal principal) {
         return principals.contains(principal);
     }
+
+    /**
+     * @return the principals this permission is limited to
+     */
+    public List<IdentityPrincipal> getPrincipals() {
+        return Collections.unmodifiableList(principals);
+    }
 }
 
 final class PrincipalPermissionCollection extends PermissionCollection implements Serializable {
@@ -0,0 +1,109 @@
+package org.ow2.proactive.jmx;
+
+import java.io.File;
+import java.util.Locale;
+
+import org.apache.log4j.BasicConfigurator;
+import org.apache.log4j.Logger;
+import org.apache.log4j.varia.NullAppender;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.rrd4j.core.RrdDb;
+import org.rrd4j.core.Sample;
+
+import static org.junit.Assert.*;
+
+
+public class RRDDataStoreTest {
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    private RRDDataStore store;
+
+    private RrdDb dataBase;
+
+    private Locale defaultLocale;
+
+    @BeforeClass
+    public static void configureLog4J() {
+        BasicConfigurator.configure(new NullAppender());
+    }
+
+    @Before
+    public void createDataBase() throws Exception {
+        defaultLocale = Locale.getDefault();
+
+        File rrdFile = new File(temp.newFolder(), "test.rrd");
+        store = new RRDDataStore(rrdFile.getPath(), 4, Logger.getLogger("test"));
+        store.dataSources.put("FreeNodesCount", "FreeNodesCount");
+        store.dataSources.put("AverageActivity", "AverageActivity");
+        store.initDatabase();
+        dataBase = new RrdDb(rrdFile.getPath());
+    }
+
+    @After
+    public void closeDataBase() throws Exception {
+        dataBase.close();
+        Locale.setDefault(defaultLocale);
+    }
+
+    @Test
+    public void onlyRequestedSourcesAreReturned() throws Exception {
+        sample(10);
+
+        String history = store.getHistory(new String[] { "AverageActivity" }, "a");
+
+        assertTrue(history, history.startsWith("{\"AverageActivity\":["));
+        assertTrue(history, history.contains("1.042"));
+        assertFalse(history, history.contains("FreeNodesCount"));
+    }
+
+    @Test
+    public void decimalSeparatorIsAlwaysDot() throws Exception {
+        Locale.setDefault(Locale.FRANCE);
+        sample(10);
+
+        String history = store.getHistory(new String[] { "AverageActivity" }, "a");
+
+        assertTrue(history, history.contains("1.042"));
+        assertFalse(history, history.contains("1,042"));
+    }
+
+    @Test
+    public void unknownSourcesAreEmpty() throws Exception {
+        sample(1);
+
+        String history = store.getHistory(new String[] { "Unknown", "FreeNodesCount" }, "ay");
+
+        assertTrue(history, history.startsWith("{\"Unknown\":[],\"FreeNodesCount\":["));
+    }
+
+    @Test
+    public void historyIsRefreshedAfterSamples() throws Exception {
+        sample(10);
+        String before = store.getHistory(new String[] { "FreeNodesCount" }, "a");
+
+        sample(10);
+        String after = store.getHistory(new String[] { "FreeNodesCount" }, "a");
+
+        assertNotEquals(before, after);
+    }
+
+    private void sample(int count) throws Exception {
+        long time = Math.max(dataBase.getLastUpdateTime(), System.currentTimeMillis() / 1000);
+        for (int i = 1; i <= count; i++) {
+            Sample sample = dataBase.createSample();
+            sample.setValue("FreeNodesCount", i);
+            sample.setValue("AverageActivity", 1.042);
+            sample.setTime(time + i * 4);
+            sample.update();
+            store.refreshHistory(dataBase);
+        }
+    }
+
+}
@@ -144,8 +144,10 @@ public interface SchedulerRestInterface {
      * @param pending fetch pending jobs
      * @param running fetch running jobs
      * @param finished fetch finished jobs
+     * @param since optional, the revision returned by the previous call. If no job
+     * of the list changed since this revision, nothing is returned (no content)
      * @return a map containing one entry with the revision id as key and the 
-     * list of UserJobData as value.
+     * list of UserJobData as value, null if no job changed since the given revision.
      */
     @GET
     @GZIP
@@ -164,7 +166,9 @@ public interface SchedulerRestInterface {
     @DefaultValue("true")
     boolean running, @QueryParam("finished")
     @DefaultValue("true")
-    boolean finished) throws PermissionRestException, NotConnectedRestException;
+    boolean finished, @QueryParam("since")
+    @DefaultValue("-1")
+    long since) throws PermissionRestException, NotConnectedRestException;
 
     /**
      * Returns the revision number of the scheduler state
@@ -602,6 +606,21 @@ public interface SchedulerRestInterface {
     PathSegment pathSegment, MultipartFormDataInput multipart) throws JobCreationRestException,
             NotConnectedRestException, PermissionRestException, SubmissionClosedRestException, IOException;
 
+    /**
+     * Submits several jobs to the scheduler, either all of them are submitted or none
+     * @param sessionId a valid session id
+     * @param multipart a form with one job file (xml or archive) per form data
+     * @return the <code>jobid</code> of the newly created jobs, in the order of the form data
+     */
+    @POST
+    @Path("{path:submitjobs}")
+    @Consumes(MediaType.MULTIPART_FORM_DATA)
+    @Produces("application/json")
+    public List<JobIdData> submitJobs(@HeaderParam("sessionid")
+    String sessionId, @PathParam("path")
+    PathSegment pathSegment, MultipartFormDataInput multipart) throws JobCreationRestException,
+            NotConnectedRestException, PermissionRestException, SubmissionClosedRestException, IOException;
+
     /**
      * Pushes a file from the local file system into the given DataSpace
      * @param sessionId a valid session id
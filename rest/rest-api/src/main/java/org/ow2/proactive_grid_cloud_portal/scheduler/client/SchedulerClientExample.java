@@ -101,7 +101,7 @@ public class SchedulerClientExample {
         System.out.println(users.size());
 
         Map<Long, List<UserJobData>> map = scheduler.revisionAndjobsinfo(sessionId, 0, 50, true, true, true,
-                true);
+                true, -1);
         System.out.println(map);
 
         System.out.println(scheduler.getSchedulerStatus(sessionId));
@@ -58,6 +58,7 @@ import javax.ws.rs.Produces;
 import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.client.Entity;
 import javax.ws.rs.core.GenericEntity;
+import javax.ws.rs.core.GenericType;
 import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.MultivaluedMap;
@@ -124,6 +125,51 @@ public class SchedulerRestClient {
         return submit(sessionId, jobArchive, MediaType.APPLICATION_OCTET_STREAM_TYPE, variables);
     }
 
+    /**
+     * Submit several XML job descriptors in a single request. Either all the jobs are
+     * submitted or none of them.
+     *
+     * @return the ids of the submitted jobs, in the order of the given descriptors
+     */
+    public List<JobIdData> submitXmls(String sessionId, List<InputStream> jobXmls) throws Exception {
+        return submitXmls(sessionId, jobXmls, null);
+    }
+
+    public List<JobIdData> submitXmls(String sessionId, List<InputStream> jobXmls,
+            Map<String, String> variables) throws Exception {
+        String uriTmpl = restEndpointURL + addSlashIfMissing(restEndpointURL) + "scheduler/submitjobs";
+
+        ResteasyClient client = new ResteasyClientBuilder().httpEngine(httpEngine).providerFactory(
+                providerFactory).build();
+        ResteasyWebTarget target = client.target(uriTmpl);
+        if (variables != null) {
+            for (String key : variables.keySet()) {
+                target = target.matrixParam(key, variables.get(key));
+            }
+        }
+
+        MultipartFormDataOutput formData = new MultipartFormDataOutput();
+        for (int i = 0; i < jobXmls.size(); i++) {
+            formData.addFormData("file" + i, jobXmls.get(i), MediaType.APPLICATION_XML_TYPE);
+        }
+        GenericEntity<MultipartFormDataOutput> entity = new GenericEntity<MultipartFormDataOutput>(formData) {
+        };
+
+        Response response = target.request().header("sessionid", sessionId).post(
+                Entity.entity(entity, MediaType.MULTIPART_FORM_DATA_TYPE));
+
+        if (response.getStatus() != HttpURLConnection.HTTP_OK) {
+            if (response.getStatus() == HttpURLConnection.HTTP_UNAUTHORIZED) {
+                throw new NotConnectedRestException("User not authenticated or session timeout.");
+            } else {
+                throwException(String.format("Jobs submission failed status code: %d", response.getStatus()),
+                        response);
+            }
+        }
+        return response.readEntity(new GenericType<List<JobIdData>>() {
+        });
+    }
+
     public boolean pushFile(String sessionId, String space, String path, String fileName,
             InputStream fileContent) throws Exception {
         String uriTmpl = (new StringBuilder(restEndpointURL)).append(addSlashIfMissing(restEndpointURL))
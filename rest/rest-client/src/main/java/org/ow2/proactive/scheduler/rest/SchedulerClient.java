@@ -38,6 +38,7 @@ import java.io.Closeable;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.Serializable;
 import java.lang.reflect.Proxy;
 import java.nio.charset.Charset;
@@ -604,6 +605,26 @@ public class SchedulerClient extends ClientBase implements ISchedulerClient {
         return jobId(jobIdData);
     }
 
+    @Override
+    public List<JobId> submit(List<Job> jobs) throws NotConnectedException, PermissionException,
+            SubmissionClosedException, JobCreationException {
+        List<JobId> jobIds = new ArrayList<JobId>(jobs.size());
+        try {
+            Job2XMLTransformer transformer = new Job2XMLTransformer();
+            List<InputStream> jobXmls = new ArrayList<InputStream>(jobs.size());
+            for (Job job : jobs) {
+                String jobXml = transformer.jobToxml((TaskFlowJob) job);
+                jobXmls.add(IOUtils.toInputStream(jobXml, String.valueOf(Charset.defaultCharset())));
+            }
+            for (JobIdData jobIdData : restApiClient().submitXmls(sid, jobXmls)) {
+                jobIds.add(jobId(jobIdData));
+            }
+        } catch (Exception e) {
+            throwNCEOrPEOrSCEOrJCE(e);
+        }
+        return jobIds;
+    }
+
     @Override
     public JobId submitAsJobArchive(Job job) throws NotConnectedException, PermissionException,
             SubmissionClosedException, JobCreationException {
@@ -36,7 +36,7 @@
  */
 package org.ow2.proactive_grid_cloud_portal.common;
 
-import java.util.HashMap;
+import java.util.concurrent.ConcurrentHashMap;
 
 
 /**
@@ -47,6 +47,7 @@ import java.util.HashMap;
  * <p>
  * This class will store the result of the requests along with the parameter,
  * so that future request matching the same parameter are directly retrieved from the cache.
+ * The cache can be read concurrently by the requests.
  * 
  * @author mschnoor
  *
@@ -82,17 +83,15 @@ public class StatHistoryCaching {
         }
     }
 
-    private HashMap<String, StatHistoryCacheEntry> statHistoryCache = null;
+    private final ConcurrentHashMap<String, StatHistoryCacheEntry> statHistoryCache;
 
-    private static StatHistoryCaching instance = null;
+    private static final StatHistoryCaching instance = new StatHistoryCaching();
 
     private StatHistoryCaching() {
-        this.statHistoryCache = new HashMap<String, StatHistoryCacheEntry>();
+        this.statHistoryCache = new ConcurrentHashMap<String, StatHistoryCacheEntry>();
     }
 
-    public static synchronized StatHistoryCaching getInstance() {
-        if (instance == null)
-            instance = new StatHistoryCaching();
+    public static StatHistoryCaching getInstance() {
         return instance;
     }
 
@@ -100,20 +99,21 @@ public class StatHistoryCaching {
      * @param key key of the cache element to retrieve
      * @return the cache entry if it exists and has not expired, or null
      */
-    public synchronized StatHistoryCacheEntry getEntry(String key) {
+    public StatHistoryCacheEntry getEntry(String key) {
         StatHistoryCacheEntry entry = this.statHistoryCache.get(key);
         if (entry == null)
             return null;
 
         if (System.currentTimeMillis() - entry.timeStamp > MAX_DURATION) {
-            this.statHistoryCache.remove(key);
+            // do not remove an entry refreshed in the meantime
+            this.statHistoryCache.remove(key, entry);
             return null;
         }
 
         return entry;
     }
 
-    public synchronized void addEntry(String key, long timeStamp, String value) {
+    public void addEntry(String key, long timeStamp, String value) {
         StatHistoryCacheEntry entry = new StatHistoryCacheEntry(value, timeStamp);
         this.statHistoryCache.put(key, entry);
     }
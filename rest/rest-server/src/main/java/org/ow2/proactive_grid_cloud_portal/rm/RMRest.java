@@ -36,23 +36,16 @@
  */
 package org.ow2.proactive_grid_cloud_portal.rm;
 
-import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.OutputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.security.KeyException;
-import java.text.DecimalFormat;
-import java.text.DecimalFormatSymbols;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
-import java.util.Locale;
+import java.util.Map;
 import java.util.Set;
 
-import javax.management.Attribute;
-import javax.management.AttributeList;
 import javax.management.InstanceNotFoundException;
 import javax.management.IntrospectionException;
 import javax.management.MBeanException;
@@ -81,6 +74,7 @@ import org.objectweb.proactive.core.node.NodeFactory;
 import org.ow2.proactive.authentication.crypto.CredData;
 import org.ow2.proactive.authentication.crypto.Credentials;
 import org.ow2.proactive.resourcemanager.common.RMState;
+import org.ow2.proactive.resourcemanager.common.event.RMEvent;
 import org.ow2.proactive.resourcemanager.common.event.RMInitialState;
 import org.ow2.proactive.resourcemanager.common.util.RMProxyUserInterface;
 import org.ow2.proactive.resourcemanager.core.jmx.RMJMXBeans;
@@ -100,10 +94,6 @@ import org.ow2.proactive_grid_cloud_portal.common.StatHistoryCaching.StatHistory
 import org.ow2.proactive_grid_cloud_portal.common.dto.LoginForm;
 import org.jboss.resteasy.annotations.GZIP;
 import org.jboss.resteasy.annotations.providers.multipart.MultipartForm;
-import org.rrd4j.ConsolFun;
-import org.rrd4j.core.FetchData;
-import org.rrd4j.core.FetchRequest;
-import org.rrd4j.core.RrdDb;
 
 
 @Path("/rm")
@@ -243,6 +233,64 @@ public class RMRest implements RMRestInterface {
         return RMStateCaching.getRMInitialState();
     }
 
+    /**
+     * Returns the initial state of the resource manager with its revision
+     * @param sessionId a valid session id
+     * @return a map with the revision of the state as key and the state as value
+     * @throws NotConnectedException 
+     */
+    @Override
+    @GET
+    @GZIP
+    @Path("revisionmonitoring")
+    @Produces("application/json")
+    public Map<Long, RMInitialState> getRevisionAndInitialState(@HeaderParam("sessionid")
+    String sessionId) throws NotConnectedException {
+        checkAccess(sessionId);
+        return RMStateCaching.getRevisionAndRMInitialState();
+    }
+
+    /**
+     * Returns the revision of the initial state of the resource manager,
+     * incremented by each node and node source event
+     * @param sessionId a valid session id
+     * @return the revision of the resource manager state
+     * @throws NotConnectedException 
+     */
+    @Override
+    @GET
+    @Path("monitoring/revision")
+    @Produces("application/json")
+    public long getStateRevision(@HeaderParam("sessionid")
+    String sessionId) throws NotConnectedException {
+        checkAccess(sessionId);
+        return RMStateCaching.getRevision();
+    }
+
+    /**
+     * Returns the events changing the initial state of the resource manager
+     * since the given revision
+     * @param sessionId a valid session id
+     * @param since a revision previously returned by <code>revisionmonitoring</code> or
+     * <code>monitoring/events</code>
+     * @return a map with the current revision as key and the events since the given
+     * revision as value. The value is null if these events are not available anymore,
+     * in this case the whole state has to be fetched again.
+     * @throws NotConnectedException 
+     */
+    @Override
+    @GET
+    @GZIP
+    @Path("monitoring/events")
+    @Produces("application/json")
+    public Map<Long, List<RMEvent>> getStateEvents(@HeaderParam("sessionid")
+    String sessionId, @QueryParam("since")
+    @DefaultValue("-1")
+    long since) throws NotConnectedException {
+        checkAccess(sessionId);
+        return RMStateCaching.getEventsSince(since);
+    }
+
     /**
      * Returns true if the resource manager is operational.
      *
@@ -784,7 +832,8 @@ public class RMRest implements RMRestInterface {
     public String getStatHistory(@HeaderParam("sessionid")
     String sessionId, @QueryParam("range")
     String range) throws InstanceNotFoundException, IntrospectionException, ReflectionException, IOException,
-            MalformedObjectNameException, NullPointerException, InterruptedException, NotConnectedException {
+            MalformedObjectNameException, NullPointerException, InterruptedException, NotConnectedException,
+            MBeanException {
 
         RMProxyUserInterface rm = checkAccess(sessionId);
 
@@ -806,91 +855,10 @@ public class RMRest implements RMRestInterface {
 
         long l1 = System.currentTimeMillis();
 
+        // the history is kept in memory by the RM, only the requested sources and ranges are sent
         ObjectName on = new ObjectName(RMJMXBeans.RUNTIMEDATA_MBEAN_NAME);
-        AttributeList attrs = rm.getMBeanAttributes(on, new String[] { "StatisticHistory" });
-        Attribute attr = (Attribute) attrs.get(0);
-        // content of the RRD4J database backing file
-        byte[] rrd4j = (byte[]) attr.getValue();
-
-        File rrd4jDb = File.createTempFile("database", "rr4dj");
-        rrd4jDb.deleteOnExit();
-
-        OutputStream out = new FileOutputStream(rrd4jDb);
-        out.write(rrd4j);
-        out.close();
-
-        // create RRD4J DB, should be identical to the one held by the RM
-        RrdDb db = new RrdDb(rrd4jDb.getAbsolutePath(), true);
-
-        long timeEnd = db.getLastUpdateTime();
-        // force float separator for JSON parsing
-        DecimalFormatSymbols otherSymbols = new DecimalFormatSymbols(Locale.US);
-        otherSymbols.setDecimalSeparator('.');
-        // formatting will greatly reduce response size
-        DecimalFormat formatter = new DecimalFormat("###.###", otherSymbols);
-
-        // construct the JSON response directly in a String
-        StringBuilder result = new StringBuilder();
-        result.append("{");
-
-        for (int i = 0; i < dataSources.length; i++) {
-            String dataSource = dataSources[i];
-            char zone = range.charAt(i);
-            long timeStart;
-
-            switch (zone) {
-                default:
-                case 'a': // 1 minute
-                    timeStart = timeEnd - 60;
-                    break;
-                case 'm': // 10 minute
-                    timeStart = timeEnd - 60 * 10;
-                    break;
-                case 'h': // 1 hours
-                    timeStart = timeEnd - 60 * 60;
-                    break;
-                case 'H': // 8 hours
-                    timeStart = timeEnd - 60 * 60 * 8;
-                    break;
-                case 'd': // 1 day
-                    timeStart = timeEnd - 60 * 60 * 24;
-                    break;
-                case 'w': // 1 week
-                    timeStart = timeEnd - 60 * 60 * 24 * 7;
-                    break;
-                case 'M': // 1 month
-                    timeStart = timeEnd - 60 * 60 * 24 * 28;
-                    break;
-                case 'y': // 1 year
-                    timeStart = timeEnd - 60 * 60 * 24 * 365;
-                    break;
-            }
-
-            FetchRequest req = db.createFetchRequest(ConsolFun.AVERAGE, timeStart, timeEnd);
-            req.setFilter(dataSource);
-            FetchData fetchData = req.fetchData();
-            result.append("\"").append(dataSource).append("\":[");
-
-            double[] values = fetchData.getValues(dataSource);
-            for (int j = 0; j < values.length; j++) {
-                if (Double.compare(Double.NaN, values[j]) == 0) {
-                    result.append("null");
-                } else {
-                    result.append(formatter.format(values[j]));
-                }
-                if (j < values.length - 1)
-                    result.append(',');
-            }
-            result.append(']');
-            if (i < dataSources.length - 1)
-                result.append(',');
-        }
-        result.append("}");
-
-        db.close();
-        rrd4jDb.delete();
-
-        String ret = result.toString();
+        String ret = (String) rm.invokeMBeanOperation(on, "queryStatisticHistory", new Object[] { dataSources,
+                range }, new String[] { String[].class.getName(), String.class.getName() });
 
         StatHistoryCaching.getInstance().addEntry(range, l1, ret);
 
@@ -38,6 +38,7 @@ import java.io.IOException;
 import java.security.KeyException;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import javax.management.InstanceNotFoundException;
@@ -62,6 +63,7 @@ import javax.ws.rs.core.MediaType;
 import org.objectweb.proactive.ActiveObjectCreationException;
 import org.objectweb.proactive.core.node.NodeException;
 import org.ow2.proactive.resourcemanager.common.RMState;
+import org.ow2.proactive.resourcemanager.common.event.RMEvent;
 import org.ow2.proactive.resourcemanager.common.event.RMInitialState;
 import org.ow2.proactive.resourcemanager.exception.RMException;
 import org.ow2.proactive.resourcemanager.frontend.topology.Topology;
@@ -110,6 +112,28 @@ public interface RMRestInterface {
     RMInitialState getInitialState(@HeaderParam("sessionid")
     String sessionId) throws NotConnectedException;
 
+    @GET
+    @GZIP
+    @Path("revisionmonitoring")
+    @Produces("application/json")
+    Map<Long, RMInitialState> getRevisionAndInitialState(@HeaderParam("sessionid")
+    String sessionId) throws NotConnectedException;
+
+    @GET
+    @Path("monitoring/revision")
+    @Produces("application/json")
+    long getStateRevision(@HeaderParam("sessionid")
+    String sessionId) throws NotConnectedException;
+
+    @GET
+    @GZIP
+    @Path("monitoring/events")
+    @Produces("application/json")
+    Map<Long, List<RMEvent>> getStateEvents(@HeaderParam("sessionid")
+    String sessionId, @QueryParam("since")
+    @DefaultValue("-1")
+    long since) throws NotConnectedException;
+
     @GET
     @Path("isactive")
     @Produces("application/json")
@@ -279,7 +303,8 @@ public interface RMRestInterface {
     String getStatHistory(@HeaderParam("sessionid")
     String sessionId, @QueryParam("range")
     String range) throws InstanceNotFoundException, IntrospectionException, ReflectionException, IOException,
-            MalformedObjectNameException, NullPointerException, InterruptedException, NotConnectedException;
+            MalformedObjectNameException, NullPointerException, InterruptedException, NotConnectedException,
+            MBeanException;
 
     @GET
     @Path("version")
@@ -37,49 +37,215 @@
 package org.ow2.proactive_grid_cloud_portal.rm;
 
 import java.io.File;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 import org.objectweb.proactive.api.PAActiveObject;
 import org.objectweb.proactive.api.PAFuture;
+import org.objectweb.proactive.core.mop.MOPClassLoader;
 import org.objectweb.proactive.core.util.log.ProActiveLogger;
 import org.objectweb.proactive.utils.Sleeper;
 import org.ow2.proactive.authentication.crypto.CredData;
 import org.ow2.proactive.authentication.crypto.Credentials;
+import org.ow2.proactive.resourcemanager.common.event.RMEvent;
 import org.ow2.proactive.resourcemanager.common.event.RMInitialState;
+import org.ow2.proactive.resourcemanager.common.event.RMNodeEvent;
+import org.ow2.proactive.resourcemanager.common.event.RMNodeSourceEvent;
 import org.ow2.proactive.resourcemanager.common.util.RMProxyUserInterface;
 import org.ow2.proactive_grid_cloud_portal.webapp.PortalConfiguration;
 import org.apache.log4j.Logger;
 
 
 /**
- * Periodically request {@link RMCore#getMonitoring()}, store it locally
+ * Keeps a local copy of the {@link RMInitialState} of the RM
  * <p>
  * the {@link RMInitialState} fetched from {@link RMCore} is a large object
  * that is long to serialize, but is always the same for every client.
  * <p>
- * Use this class to start a thread that will periodically get this object
- * using a watcher account, making the cached version available to any client instantly.
+ * Use this class to register once a listener of the RM events using a watcher account.
+ * The node and node source events are applied to a local model, making the cached
+ * version available to any client instantly. Each event increments the revision of
+ * the state, and the last events are kept so that a client can fetch only the events
+ * since the revision it knows.
  * <p>
- * Refresh rate can be configured using {@link PortalConfiguration#rm_cache_refreshrate}
- * 
- * 
- * 
+ * The connection to the RM is checked with the period configured by
+ * {@link PortalConfiguration#rm_cache_refreshrate}, the listener is registered again
+ * if the RM has been restarted.
  */
 public class RMStateCaching {
 
     private static Logger logger = ProActiveLogger.getLogger(RMStateCaching.class);
 
+    /** Number of events kept to answer the clients asking for the events since a revision */
+    private static final int MAX_EVENTS = 10000;
+
+    /*
+     * Object shared between event listener active object and RMStateCaching
+     */
+    static class State {
+
+        /** Last event of each node, by node url */
+        private final Map<String, RMNodeEvent> nodes = new LinkedHashMap<String, RMNodeEvent>();
+
+        /** Node sources, by name */
+        private final Map<String, RMNodeSourceEvent> nodeSources = new LinkedHashMap<String, RMNodeSourceEvent>();
+
+        /** Last events, the last one is the event of the current revision */
+        private final ArrayDeque<RMEvent> events = new ArrayDeque<RMEvent>();
+
+        private final int maxEvents;
+
+        private long revision = -1;
+
+        /** Built on demand, never modified once returned */
+        private RMInitialState snapshot = new RMInitialState();
+
+        private volatile boolean connected;
+
+        State(int maxEvents) {
+            this.maxEvents = maxEvents;
+        }
+
+        /**
+         * Replace the state by the initial state received when registering the listener.
+         * The previous events are discarded, the clients have to fetch the whole state again.
+         */
+        synchronized void reset(RMInitialState initialState) {
+            nodes.clear();
+            nodeSources.clear();
+            events.clear();
+            for (RMNodeSourceEvent event : initialState.getNodeSource()) {
+                nodeSources.put(event.getSourceName(), event);
+            }
+            for (RMNodeEvent event : initialState.getNodesEvents()) {
+                nodes.put(event.getNodeUrl(), event);
+            }
+            revision++;
+            snapshot = null;
+            connected = true;
+        }
+
+        synchronized void rmEvent(RMEvent event) {
+            switch (event.getEventType()) {
+                case SHUTTING_DOWN:
+                case SHUTDOWN:
+                    // the listener will be registered again once the RM is back
+                    connected = false;
+                    break;
+                default:
+                    break;
+            }
+            addEvent(event);
+        }
+
+        synchronized void nodeSourceEvent(RMNodeSourceEvent event) {
+            switch (event.getEventType()) {
+                case NODESOURCE_CREATED:
+                    nodeSources.put(event.getSourceName(), event);
+                    break;
+                case NODESOURCE_REMOVED:
+                    nodeSources.remove(event.getSourceName());
+                    break;
+                default:
+                    break;
+            }
+            addEvent(event);
+        }
+
+        synchronized void nodeEvent(RMNodeEvent event) {
+            switch (event.getEventType()) {
+                case NODE_ADDED:
+                case NODE_STATE_CHANGED:
+                    // an updated node keeps its position
+                    nodes.put(event.getNodeUrl(), event);
+                    break;
+                case NODE_REMOVED:
+                    nodes.remove(event.getNodeUrl());
+                    break;
+                default:
+                    break;
+            }
+            addEvent(event);
+        }
+
+        private void addEvent(RMEvent event) {
+            events.addLast(event);
+            if (events.size() > maxEvents) {
+                events.removeFirst();
+            }
+            revision++;
+            snapshot = null;
+        }
+
+        boolean isConnected() {
+            return connected;
+        }
+
+        void disconnected() {
+            connected = false;
+        }
+
+        synchronized long getRevision() {
+            return revision;
+        }
+
+        synchronized RMInitialState getRMInitialState() {
+            if (snapshot == null) {
+                snapshot = new RMInitialState(new ArrayList<RMNodeEvent>(nodes.values()),
+                    new ArrayList<RMNodeSourceEvent>(nodeSources.values()));
+            }
+            return snapshot;
+        }
+
+        synchronized Map<Long, RMInitialState> getRevisionAndRMInitialState() {
+            Map<Long, RMInitialState> result = new HashMap<Long, RMInitialState>(1);
+            result.put(revision, getRMInitialState());
+            return result;
+        }
+
+        /**
+         * @param since a revision previously returned to the client
+         * @return the events received after the given revision, with the current revision as key,
+         * null as value if these events are not kept anymore
+         */
+        synchronized Map<Long, List<RMEvent>> getEventsSince(long since) {
+            List<RMEvent> result = null;
+            long count = revision - since;
+            if (since >= 0 && count >= 0 && count <= events.size()) {
+                result = new ArrayList<RMEvent>((int) count);
+                Iterator<RMEvent> it = events.iterator();
+                for (long i = events.size() - count; i > 0; i--) {
+                    it.next();
+                }
+                while (it.hasNext()) {
+                    result.add(it.next());
+                }
+            }
+            Map<Long, List<RMEvent>> map = new HashMap<Long, List<RMEvent>>(1);
+            map.put(revision, result);
+            return map;
+        }
+    }
+
     private static RMProxyUserInterface rm;
-    private static RMInitialState state;
+    private static RMStateEventListener eventListener;
+    private static final State state = new State(MAX_EVENTS);
 
     private static Thread rmUpdater;
     private static int refreshInterval;
 
-    private static boolean kill = false;
+    private static volatile boolean kill = false;
 
     /**
-     * Start a thread that will periodically fetch {@link RMCore#getMonitoring()}
+     * Start a thread that will register a listener of the RM events
      * <p>
-     * Thread frequency can be customized using {@link PortalConfiguration#rm_cache_refreshrate}
+     * The connection to the RM is checked with the period configured by
+     * {@link PortalConfiguration#rm_cache_refreshrate}
      * <p>
      * Cached object can be retrieved using {@link #getRMInitialState()}
      * <p>
@@ -89,8 +255,6 @@ public class RMStateCaching {
         new Thread(new Runnable() {
             @Override
             public void run() {
-                state = new RMInitialState();
-
                 init_();
                 run_();
             }
@@ -101,7 +265,7 @@ public class RMStateCaching {
         refreshInterval = Integer.parseInt(PortalConfiguration.getProperties().getProperty(
                 PortalConfiguration.rm_cache_refreshrate));
 
-        while (rm == null) {
+        while (rm == null && !kill) {
             String url = PortalConfiguration.getProperties().getProperty(PortalConfiguration.rm_url);
             String cred_path = PortalConfiguration.getProperties().getProperty(
                     PortalConfiguration.rm_cache_credential);
@@ -119,18 +283,37 @@ public class RMStateCaching {
                                 PortalConfiguration.rm_cache_password);
                         rm.init(url, new CredData(login, password));
                     }
+
+                    long t1 = System.currentTimeMillis();
+                    RMStateEventListener listener = new RMStateEventListener(state);
+                    // for PROACTIVE-1027 PROACTIVE-1233
+                    synchronized (MOPClassLoader.getMOPClassLoader()) {
+                        eventListener = PAActiveObject.turnActive(listener);
+                    }
+                    PAFuture.waitFor(eventListener.register(rm));
+                    long t2 = System.currentTimeMillis();
+                    logger.debug("registered RM state listener in " + (t2 - t1) + "ms");
                 }
             } catch (Exception e) {
-                if (rm != null) {
-                    PAActiveObject.terminateActiveObject(rm, true);
-                    rm = null;
-                }
+                disconnect();
                 new Sleeper(8 * 1000, logger).sleep();
                 continue;
             }
         }
     }
 
+    private static void disconnect() {
+        state.disconnected();
+        if (eventListener != null) {
+            PAActiveObject.terminateActiveObject(eventListener, true);
+            eventListener = null;
+        }
+        if (rm != null) {
+            PAActiveObject.terminateActiveObject(rm, true);
+            rm = null;
+        }
+    }
+
     private static void run_() {
         rmUpdater = new Thread(new Runnable() {
             @Override
@@ -138,14 +321,14 @@ public class RMStateCaching {
                 while (!kill) {
 
                     try {
-                        long t1 = System.currentTimeMillis();
-                        state = PAFuture.getFutureValue(rm.getRMInitialState());
-                        long t2 = System.currentTimeMillis();
-                        logger.debug("updated RM initial state in " + (t2 - t1) + "ms");
+                        // the state is updated by the events, only check the RM is still there
+                        if (!state.isConnected() || !PAFuture.getFutureValue(rm.isActive()).getBooleanValue()) {
+                            throw new IllegalStateException("RM is not active");
+                        }
                     } catch (Throwable t) {
-                        logger
-                                .error("Exception occurrend while updating RM state cache, connection reset",
-                                        t);
+                        logger.error("Exception occurrend while checking RM state cache, connection reset",
+                                t);
+                        disconnect();
                         init_();
                     }
 
@@ -162,11 +345,34 @@ public class RMStateCaching {
      * @return cached RM State as returned by {@link RMCore#getMonitoring()}
      */
     public static RMInitialState getRMInitialState() {
-        return state;
+        return state.getRMInitialState();
+    }
+
+    /**
+     * @return the revision of the cached RM state, incremented by each event
+     */
+    public static long getRevision() {
+        return state.getRevision();
+    }
+
+    /**
+     * @return the cached RM state, with its revision as key
+     */
+    public static Map<Long, RMInitialState> getRevisionAndRMInitialState() {
+        return state.getRevisionAndRMInitialState();
+    }
+
+    /**
+     * @param revision a revision of the cached RM state
+     * @return the events applied to the state since this revision, with the current revision as key.
+     * The value is null if the events are not available anymore, the whole state has to be fetched.
+     */
+    public static Map<Long, List<RMEvent>> getEventsSince(long revision) {
+        return state.getEventsSince(revision);
     }
 
     /**
-     * @return stop the RM State polling thread
+     * @return stop the RM State listener
      */
     public static void kill() {
         RMStateCaching.kill = true;
@@ -0,0 +1,137 @@
+/*
+ * ################################################################
+ *
+ * ProActive Parallel Suite(TM): The Java(TM) library for
+ *    Parallel, Distributed, Multi-Core Computing for
+ *    Enterprise Grids & Clouds
+ *
+ * Copyright (C) 1997-2011 INRIA/University of
+ *                 Nice-Sophia Antipolis/ActiveEon
+ * Contact: proactive@ow2.org or contact@activeeon.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation; version 3 of
+ * the License.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307
+ * USA
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ *
+ *  Initial developer(s):               The ProActive Team
+ *                        http://proactive.inria.fr/team_members.htm
+ *  Contributor(s):
+ *
+ * ################################################################
+ * $$PROACTIVE_INITIAL_DEV$$
+ */
+package org.ow2.proactive_grid_cloud_portal.rm;
+
+import org.objectweb.proactive.api.PAActiveObject;
+import org.objectweb.proactive.api.PAFuture;
+import org.objectweb.proactive.core.util.wrapper.BooleanWrapper;
+import org.ow2.proactive.resourcemanager.common.event.RMEvent;
+import org.ow2.proactive.resourcemanager.common.event.RMInitialState;
+import org.ow2.proactive.resourcemanager.common.event.RMNodeEvent;
+import org.ow2.proactive.resourcemanager.common.event.RMNodeSourceEvent;
+import org.ow2.proactive.resourcemanager.common.util.RMProxyUserInterface;
+import org.ow2.proactive.resourcemanager.exception.RMException;
+import org.ow2.proactive.resourcemanager.frontend.RMEventListener;
+import org.ow2.proactive_grid_cloud_portal.rm.RMStateCaching.State;
+import org.apache.log4j.Logger;
+
+
+/**
+ * Active object applying the RM events to the state cached by {@link RMStateCaching}.
+ * <p>
+ * If an event is missing, the listener is registered again and the whole state is replaced.
+ */
+public class RMStateEventListener implements RMEventListener {
+
+    private static final Logger logger = Logger.getLogger(RMStateEventListener.class);
+
+    private State state;
+
+    private RMProxyUserInterface rm;
+
+    /** Counter of the last event received since the registration */
+    private long counter = 0;
+
+    public RMStateEventListener() {
+    }
+
+    public RMStateEventListener(State state) {
+        this.state = state;
+    }
+
+    /**
+     * Register this listener on the RM and replace the cached state by the RM initial state.
+     * This method is served by the active object, so events received meanwhile are applied afterwards.
+     *
+     * @param rm the RM proxy used to register the listener
+     * @return true once registered
+     */
+    public BooleanWrapper register(RMProxyUserInterface rm) {
+        this.rm = rm;
+        subscribe();
+        return new BooleanWrapper(true);
+    }
+
+    private void subscribe() {
+        RMInitialState initialState = PAFuture.getFutureValue(rm.getMonitoring().addRMEventListener(
+                (RMEventListener) PAActiveObject.getStubOnThis()));
+        counter = 0;
+        state.reset(initialState);
+        logger.debug("RM state cache initialized with " + initialState.getNodesEvents().size() + " nodes");
+    }
+
+    /**
+     * @return true if the event follows the previous one, otherwise the listener is registered again
+     */
+    private boolean checkCounter(RMEvent event) {
+        if (counter > 0 && counter != event.getCounter() - 1) {
+            logger.warn("Missing events detected - resetting the rm state");
+            logger.warn("Local event counter is " + counter + " vs. rm event counter " + event.getCounter());
+            try {
+                rm.getMonitoring().removeRMEventListener();
+            } catch (RMException e) {
+                logger.error(e.getMessage(), e);
+            }
+            subscribe();
+            return false;
+        }
+        counter = event.getCounter();
+        return true;
+    }
+
+    @Override
+    public void rmEvent(RMEvent event) {
+        if (checkCounter(event)) {
+            state.rmEvent(event);
+        }
+    }
+
+    @Override
+    public void nodeSourceEvent(RMNodeSourceEvent event) {
+        if (checkCounter(event)) {
+            state.nodeSourceEvent(event);
+        }
+    }
+
+    @Override
+    public void nodeEvent(RMNodeEvent event) {
+        if (checkCounter(event)) {
+            state.nodeEvent(event);
+        }
+    }
+
+}
@@ -23,16 +23,26 @@ public class EventListener implements SchedulerEventListener {
 
     @Override
     public void jobStateUpdatedEvent(NotificationData<JobInfo> data) {
-        state.incrementRevision();
+        state.jobChanged(data.getData().getJobOwner());
     }
 
     @Override
     public void jobSubmittedEvent(JobState jobState) {
-        state.incrementRevision();
+        state.jobChanged(jobState.getOwner());
     }
 
     @Override
     public void schedulerStateUpdatedEvent(SchedulerEvent event) {
+        switch (event) {
+            case SHUTTING_DOWN:
+            case SHUTDOWN:
+            case KILLED:
+                // the listener will be registered again once the scheduler is back
+                state.disconnected();
+                break;
+            default:
+                break;
+        }
         state.incrementRevision();
         // event doesn't provide current state, just reset stored value so that state will be re-read on demand
         state.setStatus(null);
@@ -40,7 +50,8 @@ public class EventListener implements SchedulerEventListener {
 
     @Override
     public void taskStateUpdatedEvent(NotificationData<TaskInfo> event) {
-        state.incrementRevision();
+        JobInfo jobInfo = event.getData().getJobInfo();
+        state.jobChanged(jobInfo != null ? jobInfo.getJobOwner() : null);
     }
 
     @Override
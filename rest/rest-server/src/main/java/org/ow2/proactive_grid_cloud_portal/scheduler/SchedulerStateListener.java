@@ -19,6 +19,9 @@ public class SchedulerStateListener {
 
     private static final Logger logger = Logger.getLogger(SchedulerStateListener.class);
 
+    /** Number of job changes kept to answer the clients asking for the changes since a revision */
+    private static final int MAX_JOB_CHANGES = 10000;
+
     private static final SchedulerStateListener instance = new SchedulerStateListener();
 
     public static SchedulerStateListener getInstance() {
@@ -34,10 +37,88 @@ public class SchedulerStateListener {
 
         private volatile SchedulerStatus status;
 
+        /** Ring buffer of the last job changes, the revision and the owner of each changed job */
+        private final long[] jobChangeRevisions;
+
+        private final String[] jobChangeOwners;
+
+        /** Number of job changes since the start */
+        private long jobChanges;
+
+        /** False while the listener is not registered, events may be missed */
+        private volatile boolean connected;
+
+        /** Revision at which the listener was registered, the events before it may have been missed */
+        private long connectionRevision;
+
+        State() {
+            this(MAX_JOB_CHANGES);
+        }
+
+        State(int maxJobChanges) {
+            jobChangeRevisions = new long[maxJobChanges];
+            jobChangeOwners = new String[maxJobChanges];
+        }
+
         void incrementRevision() {
             revision.incrementAndGet();
         }
 
+        /**
+         * Start a new connection epoch once the listener is registered. The clients knowing
+         * a previous revision have to load their jobs again.
+         */
+        synchronized void connected() {
+            connectionRevision = revision.incrementAndGet();
+            status = null;
+            connected = true;
+        }
+
+        void disconnected() {
+            connected = false;
+        }
+
+        boolean isConnected() {
+            return connected;
+        }
+
+        /**
+         * Increment the revision for a change of a job (submission, job or task state update)
+         *
+         * @param owner the owner of the changed job, null if unknown
+         */
+        synchronized void jobChanged(String owner) {
+            int index = (int) (jobChanges % jobChangeRevisions.length);
+            jobChangeRevisions[index] = revision.incrementAndGet();
+            jobChangeOwners[index] = owner;
+            jobChanges++;
+        }
+
+        /**
+         * @param since a revision previously returned to a client
+         * @param owner the owner of the jobs listed by the client, null for all jobs
+         * @return false only if it is known that no job of the owner changed after the revision,
+         * always true if the listener is not connected or was connected again after the revision
+         */
+        synchronized boolean isJobChangedSince(long since, String owner) {
+            if (!connected || since < connectionRevision || since > revision.get()) {
+                return true;
+            }
+            int kept = (int) Math.min(jobChanges, jobChangeRevisions.length);
+            for (int i = 1; i <= kept; i++) {
+                // from the last change to the oldest kept one
+                int index = (int) ((jobChanges - i) % jobChangeRevisions.length);
+                if (jobChangeRevisions[index] <= since) {
+                    return false;
+                }
+                if (owner == null || jobChangeOwners[index] == null || owner.equals(jobChangeOwners[index])) {
+                    return true;
+                }
+            }
+            // older changes are not kept anymore
+            return jobChanges > kept;
+        }
+
         long getRevision() {
             return revision.get();
         }
@@ -66,15 +147,18 @@ public class SchedulerStateListener {
             public void run() {
                 try {
                     connect();
+                    checkConnection();
                 } catch (InterruptedException e) {
                 }
             }
         }, "Scheduler connect thread");
+        connectThread.setDaemon(true);
         connectThread.start();
     }
 
     public void kill() {
         killed = true;
+        state.disconnected();
         if (scheduler != null) {
             try {
                 scheduler.disconnect();
@@ -113,22 +197,68 @@ public class SchedulerStateListener {
                     eventListener = PAActiveObject.turnActive(eventListener);
                 }
                 scheduler.addEventListener(eventListener, false, false);
+                state.connected();
             } catch (Exception e) {
                 logger.warn("no scheduler found on " + url + " retrying in 8 seconds", e);
-                if (scheduler != null) {
-                    PAActiveObject.terminateActiveObject(scheduler, true);
-                    scheduler = null;
-                }
+                disconnect();
                 Thread.sleep(8000);
                 continue;
             }
         }
     }
 
+    private void disconnect() {
+        state.disconnected();
+        if (eventListener != null) {
+            PAActiveObject.terminateActiveObject(eventListener, true);
+            eventListener = null;
+        }
+        if (scheduler != null) {
+            PAActiveObject.terminateActiveObject(scheduler, true);
+            scheduler = null;
+        }
+    }
+
+    /**
+     * Check the connection with the period configured by
+     * {@link PortalConfiguration#scheduler_cache_refreshrate}. The listener is registered again
+     * if the scheduler has been restarted or has disconnected it, as it may have missed events.
+     */
+    private void checkConnection() throws InterruptedException {
+        long refreshInterval = Long.parseLong(PortalConfiguration.getProperties().getProperty(
+                PortalConfiguration.scheduler_cache_refreshrate, "3500"));
+        while (!killed) {
+            Thread.sleep(refreshInterval);
+            if (killed) {
+                return;
+            }
+            try {
+                if (!state.isConnected() || !scheduler.isConnected()) {
+                    throw new IllegalStateException("Scheduler listener is not connected");
+                }
+            } catch (Throwable t) {
+                logger.warn("Connection to the scheduler lost, registering the listener again", t);
+                disconnect();
+                connect();
+            }
+        }
+    }
+
     public long getSchedulerStateRevision() {
         return state.getRevision();
     }
 
+    /**
+     * @param revision a revision previously returned by {@link #getSchedulerStateRevision()}
+     * @param owner the owner of the jobs, null for all jobs
+     * @return false if no job of the owner has been submitted or updated since this revision,
+     * true if some jobs changed or if it cannot be known, for instance if the listener is not
+     * connected or was connected again since this revision
+     */
+    public boolean isJobChangedSince(long revision, String owner) {
+        return state.isJobChangedSince(revision, owner);
+    }
+
     public SchedulerStatus getSchedulerStatus(Scheduler scheduler) throws PermissionException,
             NotConnectedException {
         SchedulerStatus status = state.getStatus();
@@ -265,8 +265,13 @@ public class SchedulerStateRest implements SchedulerRestInterface {
      *            fetch running jobs
      * @param finished
      *            fetch finished jobs
+     * @param since
+     *            optional, the revision returned by the previous call. If no
+     *            job of the list changed since this revision, nothing is
+     *            returned (no content)
      * @return a map containing one entry with the revision id as key and the
-     *         list of UserJobData as value.
+     *         list of UserJobData as value, null if no job changed since the
+     *         given revision.
      */
     @Override
     @GET
@@ -286,13 +291,23 @@ public class SchedulerStateRest implements SchedulerRestInterface {
     @DefaultValue("true")
     boolean running, @QueryParam("finished")
     @DefaultValue("true")
-    boolean finished) throws PermissionRestException, NotConnectedRestException {
+    boolean finished, @QueryParam("since")
+    @DefaultValue("-1")
+    long since) throws PermissionRestException, NotConnectedRestException {
         try {
             Scheduler s = checkAccess(sessionId, "revisionjobsinfo?index=" + index + "&range=" + range);
             String user = sessionStore.get(sessionId).getUserName();
 
             boolean onlyUserJobs = (myJobs && user != null && user.trim().length() > 0);
 
+            // the revision is read before the jobs so that a change while loading them is not missed
+            long revision = SchedulerStateListener.getInstance().getSchedulerStateRevision();
+            if (since >= 0 &&
+                !SchedulerStateListener.getInstance().isJobChangedSince(since, onlyUserJobs ? user : null)) {
+                // nothing to load or to map, the client keeps its list
+                return null;
+            }
+
             List<JobInfo> jobsInfo = s.getJobs(index, range, new JobFilterCriteria(onlyUserJobs, pending,
                 running, finished), DEFAULT_JOB_SORT_PARAMS);
             List<UserJobData> jobs = new ArrayList<UserJobData>(jobsInfo.size());
@@ -301,7 +316,7 @@ public class SchedulerStateRest implements SchedulerRestInterface {
             }
 
             HashMap<Long, List<UserJobData>> map = new HashMap<Long, List<UserJobData>>(1);
-            map.put(SchedulerStateListener.getInstance().getSchedulerStateRevision(), jobs);
+            map.put(revision, jobs);
             return map;
         } catch (PermissionException e) {
             throw new PermissionRestException(e);
@@ -1507,50 +1522,14 @@ public class SchedulerStateRest implements SchedulerRestInterface {
 
                 InputPart part1 = multipart.getFormDataMap().get(name).get(0); // "file"
                 // is the name of the browser's input field
-                InputStream is = part1.getBody(new GenericType<InputStream>() {
-                });
-                tmp = File.createTempFile("job", "d");
-
-                IOUtils.copy(is, new FileOutputStream(tmp));
-
-                Map<String, String> variables = null;
-                MultivaluedMap<String, String> matrixParams = pathSegment.getMatrixParameters();
-                if (matrixParams != null && !matrixParams.isEmpty()) {
-                    variables = Maps.newHashMap();
-                    for (String key : matrixParams.keySet()) {
-                        variables.put(key, matrixParams.getFirst(key));
-                    }
-                }
+                tmp = copyToTempFile(part1);
+                boolean isAnArchive = isJobArchive(part1);
 
-                Job j;
-                boolean isAnArchive = false;
-                if (part1.getMediaType().toString().toLowerCase()
-                        .contains(MediaType.APPLICATION_XML.toLowerCase())) {
-                    // the job sent is the xml file
-                    j = JobFactory.getFactory().createJob(tmp.getAbsolutePath(), variables);
-                } else {
-                    // it is a job archive
-                    j = JobFactory.getFactory().createJobFromArchive(tmp.getAbsolutePath(), variables);
-                    isAnArchive = true;
-                }
+                Job j = createJob(tmp, isAnArchive, getVariables(pathSegment));
 
                 JobId jobid = s.submit(j);
 
-                File archiveToStore = new File(PortalConfiguration.jobIdToPath(jobid.value()));
-                if (isAnArchive) {
-                    logger.debug("saving archive to " + archiveToStore.getAbsolutePath());
-                    tmp.renameTo(archiveToStore);
-                } else {
-                    // the job is not an archive, however an archive file can
-                    // exist for this new job (due to an old submission)
-                    // In that case, we remove the existing file preventing erronous
-                    // access
-                    // to this previously submitted archive.
-
-                    if (archiveToStore.exists()) {
-                        archiveToStore.delete();
-                    }
-                }
+                storeJobArchive(jobid, tmp, isAnArchive);
 
                 return mapper.map(jobid, JobIdData.class);
 
@@ -1573,6 +1552,128 @@ public class SchedulerStateRest implements SchedulerRestInterface {
         }
     }
 
+    /**
+     * Submits several jobs to the scheduler, either all of them are submitted or none.
+     * The matrix parameters are used as variables of every job.
+     *
+     * @param sessionId
+     *            a valid session id
+     * @return the <code>jobid</code> of the newly created jobs, in the order of the form data
+     * @throws IOException
+     *             if the jobs were not correctly uploaded/stored
+     */
+    @Override
+    @POST
+    @Path("{path:submitjobs}")
+    @Consumes(MediaType.MULTIPART_FORM_DATA)
+    @Produces("application/json")
+    public List<JobIdData> submitJobs(@HeaderParam("sessionid")
+    String sessionId, @PathParam("path")
+    PathSegment pathSegment, MultipartFormDataInput multipart) throws JobCreationRestException,
+            NotConnectedRestException, PermissionRestException, SubmissionClosedRestException, IOException {
+        try {
+            Scheduler s = checkAccess(sessionId, "submitjobs");
+
+            List<InputPart> parts = multipart.getParts();
+            List<File> tmpFiles = new ArrayList<File>(parts.size());
+            try {
+                Map<String, String> variables = getVariables(pathSegment);
+                List<Job> jobs = new ArrayList<Job>(parts.size());
+                List<Boolean> archives = new ArrayList<Boolean>(parts.size());
+                for (InputPart part : parts) {
+                    File tmp = copyToTempFile(part);
+                    tmpFiles.add(tmp);
+                    boolean isAnArchive = isJobArchive(part);
+                    archives.add(isAnArchive);
+                    jobs.add(createJob(tmp, isAnArchive, variables));
+                }
+
+                List<JobId> jobIds = s.submit(jobs);
+
+                List<JobIdData> result = new ArrayList<JobIdData>(jobIds.size());
+                for (int i = 0; i < jobIds.size(); i++) {
+                    storeJobArchive(jobIds.get(i), tmpFiles.get(i), archives.get(i));
+                    result.add(mapper.map(jobIds.get(i), JobIdData.class));
+                }
+                return result;
+
+            } finally {
+                for (File tmp : tmpFiles) {
+                    // clean the temporary files
+                    tmp.delete();
+                }
+            }
+        } catch (IOException e) {
+            throw new IOException("I/O Error: " + e.getMessage(), e);
+        } catch (JobCreationException e) {
+            throw new JobCreationRestException(e);
+        } catch (NotConnectedException e) {
+            throw new NotConnectedRestException(e);
+        } catch (SubmissionClosedException e) {
+            throw new SubmissionClosedRestException(e);
+        } catch (PermissionException e) {
+            throw new PermissionRestException(e);
+        }
+    }
+
+    private File copyToTempFile(InputPart part) throws IOException {
+        InputStream is = part.getBody(new GenericType<InputStream>() {
+        });
+        File tmp = File.createTempFile("job", "d");
+        FileOutputStream os = new FileOutputStream(tmp);
+        try {
+            IOUtils.copy(is, os);
+        } finally {
+            os.close();
+        }
+        return tmp;
+    }
+
+    private boolean isJobArchive(InputPart part) {
+        return !part.getMediaType().toString().toLowerCase().contains(
+                MediaType.APPLICATION_XML.toLowerCase());
+    }
+
+    private Map<String, String> getVariables(PathSegment pathSegment) {
+        Map<String, String> variables = null;
+        MultivaluedMap<String, String> matrixParams = pathSegment.getMatrixParameters();
+        if (matrixParams != null && !matrixParams.isEmpty()) {
+            variables = Maps.newHashMap();
+            for (String key : matrixParams.keySet()) {
+                variables.put(key, matrixParams.getFirst(key));
+            }
+        }
+        return variables;
+    }
+
+    private Job createJob(File jobFile, boolean isAnArchive, Map<String, String> variables)
+            throws JobCreationException {
+        if (isAnArchive) {
+            return JobFactory.getFactory().createJobFromArchive(jobFile.getAbsolutePath(), variables);
+        } else {
+            // the job sent is the xml file
+            return JobFactory.getFactory().createJob(jobFile.getAbsolutePath(), variables);
+        }
+    }
+
+    private void storeJobArchive(JobId jobId, File jobFile, boolean isAnArchive) {
+        File archiveToStore = new File(PortalConfiguration.jobIdToPath(jobId.value()));
+        if (isAnArchive) {
+            logger.debug("saving archive to " + archiveToStore.getAbsolutePath());
+            jobFile.renameTo(archiveToStore);
+        } else {
+            // the job is not an archive, however an archive file can
+            // exist for this new job (due to an old submission)
+            // In that case, we remove the existing file preventing erronous
+            // access
+            // to this previously submitted archive.
+
+            if (archiveToStore.exists()) {
+                archiveToStore.delete();
+            }
+        }
+    }
+
     /**
      * Pushes a file from the local file system into the given DataSpace
      * @param sessionId a valid session id
@@ -48,6 +48,7 @@ public class PortalConfiguration {
     public static String scheduler_cache_login = "scheduler.cache.login";
     public static String scheduler_cache_password = "scheduler.cache.password";
     public static String scheduler_cache_credential = "scheduler.cache.credential";
+    public static String scheduler_cache_refreshrate = "scheduler.cache.refreshrate";
     public static String scheduler_logforwardingservice_provider = "scheduler.logforwardingservice.provider";
     public static String rm_url = "rm.url";
     public static String rm_cache_login = "rm.cache.login";
@@ -41,11 +41,7 @@ import java.net.HttpURLConnection;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
-import java.util.Locale;
-import java.util.Random;
 
-import javax.management.Attribute;
-import javax.management.AttributeList;
 import javax.management.ObjectName;
 
 import org.objectweb.proactive.core.util.wrapper.BooleanWrapper;
@@ -65,15 +61,13 @@ import org.json.simple.JSONObject;
 import org.json.simple.parser.JSONParser;
 import org.junit.BeforeClass;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Matchers;
-import org.rrd4j.ConsolFun;
-import org.rrd4j.DsType;
-import org.rrd4j.core.RrdDb;
-import org.rrd4j.core.RrdDef;
-import org.rrd4j.core.Sample;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.reset;
 import static org.mockito.Mockito.verify;
@@ -89,54 +83,29 @@ public class RMRestTest extends RestTestServer {
         addResource(new RMRest());
     }
 
-    // PORTAL-286
     @Test
-    public void testStatsHistory_Locale_Fr() throws Exception {
-        Locale.setDefault(Locale.FRANCE);
-
-        JSONObject jsonObject = callGetStatHistory();
-
-        assertEquals(EXPECTED_RRD_VALUE, (Double) ((JSONArray) jsonObject.get("AverageActivity")).get(0),
-                0.001);
-
-    }
-
-    private JSONObject callGetStatHistory() throws Exception {
+    public void testStatsHistory_OnlyRequestedSourcesQueried() throws Exception {
         RMProxyUserInterface rmMock = mock(RMProxyUserInterface.class);
         String sessionId = SharedSessionStoreTestUtils.createValidSession(rmMock);
 
-        AttributeList value = new AttributeList(Collections.singletonList(new Attribute("test", createRrdDb()
-                .getBytes())));
-        when(rmMock.getMBeanAttributes(Matchers.<ObjectName> any(), Matchers.<String[]> any())).thenReturn(
-                value);
+        when(
+                rmMock.invokeMBeanOperation(Matchers.<ObjectName> any(), eq("queryStatisticHistory"),
+                        Matchers.<Object[]> any(), Matchers.<String[]> any())).thenReturn(
+                "{\"AverageActivity\":[" + EXPECTED_RRD_VALUE + "]}");
         RMRestInterface client = ProxyFactory.create(RMRestInterface.class, "http://localhost:" + port + "/");
 
-        String statHistory = client.getStatHistory(sessionId, "hhhhh");
-        return (JSONObject) new JSONParser().parse(statHistory);
-    }
+        String statHistory = client.getStatHistory(sessionId, "hh");
+        JSONObject jsonObject = (JSONObject) new JSONParser().parse(statHistory);
+
+        assertEquals(EXPECTED_RRD_VALUE, (Double) ((JSONArray) jsonObject.get("AverageActivity")).get(0),
+                0.001);
 
-    private RrdDb createRrdDb() throws IOException {
-        final long start = (System.currentTimeMillis() - 10000) / 1000;
-        final long end = System.currentTimeMillis() / 1000;
-
-        RrdDef rrdDef = new RrdDef("testDB", start - 1, 300);
-        for (String dataSource : RMRest.dataSources) {
-            rrdDef.addDatasource(dataSource, DsType.GAUGE, 600, 0, Double.NaN);
-        }
-        rrdDef.addArchive(ConsolFun.AVERAGE, 0.5, 1, 150);
-        RrdDb rrdDb = new RrdDb(rrdDef, org.rrd4j.core.RrdBackendFactory.getFactory("MEMORY"));
-        Sample sample = rrdDb.createSample();
-
-        long time = start;
-        while (time <= end + 172800L) {
-            sample.setTime(time);
-            for (String dataSource : RMRest.dataSources) {
-                sample.setValue(dataSource, 1.042);
-            }
-            sample.update();
-            time += new Random().nextDouble() * 300 + 1;
-        }
-        return rrdDb;
+        // the range is completed to have one character per source
+        ArgumentCaptor<Object[]> params = ArgumentCaptor.forClass(Object[].class);
+        verify(rmMock).invokeMBeanOperation(Matchers.<ObjectName> any(), eq("queryStatisticHistory"),
+                params.capture(), Matchers.<String[]> any());
+        assertArrayEquals(RMRest.dataSources, (String[]) params.getValue()[0]);
+        assertEquals("hhaaa", params.getValue()[1]);
     }
 
     @Test
@@ -0,0 +1,158 @@
+/*
+ * ################################################################
+ *
+ * ProActive Parallel Suite(TM): The Java(TM) library for
+ *    Parallel, Distributed, Multi-Core Computing for
+ *    Enterprise Grids & Clouds
+ *
+ * Copyright (C) 1997-2011 INRIA/University of
+ *                 Nice-Sophia Antipolis/ActiveEon
+ * Contact: proactive@ow2.org or contact@activeeon.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation; version 3 of
+ * the License.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307
+ * USA
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ *
+ *  Initial developer(s):               The ProActive Team
+ *                        http://proactive.inria.fr/team_members.htm
+ *  Contributor(s):
+ *
+ * ################################################################
+ * $$PROACTIVE_INITIAL_DEV$$
+ */
+package org.ow2.proactive_grid_cloud_portal.rm;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.ow2.proactive.resourcemanager.common.NodeState;
+import org.ow2.proactive.resourcemanager.common.event.RMEvent;
+import org.ow2.proactive.resourcemanager.common.event.RMEventType;
+import org.ow2.proactive.resourcemanager.common.event.RMInitialState;
+import org.ow2.proactive.resourcemanager.common.event.RMNodeDescriptor;
+import org.ow2.proactive.resourcemanager.common.event.RMNodeEvent;
+import org.ow2.proactive.resourcemanager.common.event.RMNodeSourceEvent;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+
+public class RMStateCachingTest {
+
+    private RMStateCaching.State state;
+
+    @Before
+    public void setUp() {
+        state = new RMStateCaching.State(3);
+        ArrayList<RMNodeEvent> nodes = new ArrayList<RMNodeEvent>();
+        nodes.add(nodeEvent("node1", NodeState.FREE, null));
+        ArrayList<RMNodeSourceEvent> nodeSources = new ArrayList<RMNodeSourceEvent>();
+        nodeSources.add(new RMNodeSourceEvent("Default", "", "admin"));
+        state.reset(new RMInitialState(nodes, nodeSources));
+    }
+
+    @Test
+    public void eventsAreAppliedToTheState() {
+        assertEquals(0, state.getRevision());
+        assertTrue(state.isConnected());
+
+        state.nodeEvent(nodeEvent("node2", NodeState.FREE, RMEventType.NODE_ADDED));
+        state.nodeEvent(nodeEvent("node1", NodeState.BUSY, RMEventType.NODE_STATE_CHANGED));
+        state.nodeEvent(nodeEvent("node2", NodeState.FREE, RMEventType.NODE_REMOVED));
+        state.nodeSourceEvent(new RMNodeSourceEvent(RMEventType.NODESOURCE_CREATED, "admin", "Other", "",
+            "admin"));
+
+        RMInitialState rmState = state.getRMInitialState();
+        assertEquals(4, state.getRevision());
+        assertEquals(1, rmState.getNodesEvents().size());
+        assertEquals("node1", rmState.getNodesEvents().get(0).getNodeUrl());
+        assertEquals(NodeState.BUSY, rmState.getNodesEvents().get(0).getNodeState());
+        assertEquals(2, rmState.getNodeSource().size());
+
+        // the snapshot is only built again after an event
+        assertSame(rmState, state.getRMInitialState());
+        state.nodeSourceEvent(new RMNodeSourceEvent(RMEventType.NODESOURCE_REMOVED, "admin", "Other", "",
+            "admin"));
+        assertEquals(1, state.getRMInitialState().getNodeSource().size());
+        // a returned snapshot is never modified
+        assertEquals(2, rmState.getNodeSource().size());
+    }
+
+    @Test
+    public void eventsSinceRevision() {
+        RMNodeEvent added = nodeEvent("node2", NodeState.FREE, RMEventType.NODE_ADDED);
+        RMNodeEvent changed = nodeEvent("node2", NodeState.BUSY, RMEventType.NODE_STATE_CHANGED);
+        state.nodeEvent(added);
+        state.nodeEvent(changed);
+
+        Map<Long, List<RMEvent>> events = state.getEventsSince(0);
+        assertEquals(2, events.get(2L).size());
+        assertSame(added, events.get(2L).get(0));
+        assertSame(changed, events.get(2L).get(1));
+
+        events = state.getEventsSince(1);
+        assertEquals(1, events.get(2L).size());
+        assertSame(changed, events.get(2L).get(0));
+
+        assertTrue(state.getEventsSince(2).get(2L).isEmpty());
+        assertNull(state.getEventsSince(3).get(2L));
+        assertNull(state.getEventsSince(-1).get(2L));
+    }
+
+    @Test
+    public void oldEventsAreNotKept() {
+        for (int i = 0; i < 4; i++) {
+            state.nodeEvent(nodeEvent("node1", NodeState.BUSY, RMEventType.NODE_STATE_CHANGED));
+        }
+
+        assertNull(state.getEventsSince(0).get(4L));
+        assertEquals(3, state.getEventsSince(1).get(4L).size());
+    }
+
+    @Test
+    public void eventsBeforeResetAreNotKept() {
+        state.nodeEvent(nodeEvent("node2", NodeState.FREE, RMEventType.NODE_ADDED));
+        state.reset(new RMInitialState());
+
+        assertEquals(2, state.getRevision());
+        assertNull(state.getEventsSince(1).get(2L));
+        assertTrue(state.getRMInitialState().getNodesEvents().isEmpty());
+    }
+
+    @Test
+    public void shutdownDisconnects() {
+        state.rmEvent(new RMEvent(RMEventType.SHUTDOWN));
+
+        assertFalse(state.isConnected());
+        assertEquals(1, state.getRevision());
+    }
+
+    private static RMNodeEvent nodeEvent(String url, NodeState nodeState, RMEventType type) {
+        RMNodeDescriptor descriptor = new RMNodeDescriptor();
+        descriptor.setNodeURL(url);
+        descriptor.setNodeSourceName("Default");
+        descriptor.setState(nodeState);
+        return new RMNodeEvent(descriptor, type, null, "admin");
+    }
+
+}
@@ -0,0 +1,120 @@
+/*
+ * ################################################################
+ *
+ * ProActive Parallel Suite(TM): The Java(TM) library for
+ *    Parallel, Distributed, Multi-Core Computing for
+ *    Enterprise Grids & Clouds
+ *
+ * Copyright (C) 1997-2011 INRIA/University of
+ *                 Nice-Sophia Antipolis/ActiveEon
+ * Contact: proactive@ow2.org or contact@activeeon.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation; version 3 of
+ * the License.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307
+ * USA
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ *
+ *  Initial developer(s):               The ProActive Team
+ *                        http://proactive.inria.fr/team_members.htm
+ *  Contributor(s):
+ *
+ * ################################################################
+ * $$PROACTIVE_INITIAL_DEV$$
+ */
+package org.ow2.proactive_grid_cloud_portal.scheduler;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+
+public class SchedulerStateListenerTest {
+
+    @Test
+    public void jobChangesSinceRevision() {
+        SchedulerStateListener.State state = new SchedulerStateListener.State(3);
+        state.connected();
+        state.incrementRevision();
+        long revision = state.getRevision();
+
+        assertFalse(state.isJobChangedSince(revision, null));
+        assertTrue(state.isJobChangedSince(-1, null));
+
+        state.incrementRevision();
+        assertFalse(state.isJobChangedSince(revision, null));
+
+        state.jobChanged("user");
+        assertTrue(state.isJobChangedSince(revision, null));
+        assertTrue(state.isJobChangedSince(revision, "user"));
+        assertFalse(state.isJobChangedSince(revision, "other"));
+        assertFalse(state.isJobChangedSince(state.getRevision(), null));
+
+        // owner is unknown, the job may belong to anybody
+        state.jobChanged(null);
+        assertTrue(state.isJobChangedSince(revision, "other"));
+    }
+
+    @Test
+    public void oldJobChangesAreNotKept() {
+        SchedulerStateListener.State state = new SchedulerStateListener.State(3);
+        state.connected();
+        state.incrementRevision();
+        long revision = state.getRevision();
+
+        for (int i = 0; i < 4; i++) {
+            state.jobChanged("user");
+        }
+
+        // the changes of user after the revision may not all be kept
+        assertTrue(state.isJobChangedSince(revision, "other"));
+        assertFalse(state.isJobChangedSince(state.getRevision() - 1, "other"));
+        assertTrue(state.isJobChangedSince(state.getRevision() - 1, "user"));
+    }
+
+    @Test
+    public void jobsChangedWhenNotConnected() {
+        SchedulerStateListener.State state = new SchedulerStateListener.State(3);
+        state.incrementRevision();
+        long revision = state.getRevision();
+
+        // events may be missed before the listener is registered
+        assertTrue(state.isJobChangedSince(revision, null));
+
+        state.connected();
+        assertTrue(state.isJobChangedSince(revision, null));
+        revision = state.getRevision();
+        assertFalse(state.isJobChangedSince(revision, null));
+
+        state.disconnected();
+        assertTrue(state.isJobChangedSince(revision, null));
+    }
+
+    @Test
+    public void jobsChangedWhenConnectedAgain() {
+        SchedulerStateListener.State state = new SchedulerStateListener.State(3);
+        state.connected();
+        long revision = state.getRevision();
+
+        // the events received while the listener was disconnected are lost
+        state.disconnected();
+        state.connected();
+
+        assertTrue(state.isJobChangedSince(revision, "user"));
+        assertFalse(state.isJobChangedSince(state.getRevision(), "user"));
+    }
+
+}
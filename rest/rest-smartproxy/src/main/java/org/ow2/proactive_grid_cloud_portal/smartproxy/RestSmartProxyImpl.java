@@ -172,6 +172,20 @@ public class RestSmartProxyImpl extends AbstractSmartProxy<RestJobTrackerImpl> i
     @Override
     public JobId submit(Job job) throws NotConnectedException, PermissionException,
             SubmissionClosedException, JobCreationException {
+        checkDataSpaces(job);
+        return restSchedulerClient.submit(job);
+    }
+
+    @Override
+    public List<JobId> submit(List<Job> jobs) throws NotConnectedException, PermissionException,
+            SubmissionClosedException, JobCreationException {
+        for (Job job : jobs) {
+            checkDataSpaces(job);
+        }
+        return restSchedulerClient.submit(jobs);
+    }
+
+    private void checkDataSpaces(Job job) {
         String inputSpace = job.getInputSpace();
         if (inputSpace == null) {
             throw new IllegalArgumentException(
@@ -184,7 +198,6 @@ public class RestSmartProxyImpl extends AbstractSmartProxy<RestJobTrackerImpl> i
                     "'OutputSpace' is NULL. The OutputSpace must be set in order to retrieve outputfiles by"
                             + " the SmartProxy. As a default, you may use the 'UserSpace' value.");
         }
-        return restSchedulerClient.submit(job);
     }
 
     @Override
@@ -44,6 +44,7 @@ import java.util.Set;
 import javax.management.AttributeList;
 import javax.management.InstanceNotFoundException;
 import javax.management.IntrospectionException;
+import javax.management.MBeanException;
 import javax.management.MBeanInfo;
 import javax.management.ObjectName;
 import javax.management.ReflectionException;
@@ -299,6 +300,25 @@ public class RMProxyUserInterface extends RMListenerProxy implements ResourceMan
         return this.jmxClient.getConnector().getMBeanServerConnection().getAttributes(name, attributes);
     }
 
+    /**
+     * invokes the operation <code>operationName</code> of the MBean with the name <code>name</code>
+     * @param name the object name of the mbean
+     * @param operationName the name of the operation
+     * @param params the parameters of the operation
+     * @param signature the class names of the parameters
+     * @return the value returned by the operation
+     * @throws InstanceNotFoundException
+     * @throws MBeanException
+     * @throws ReflectionException
+     * @throws IOException
+     */
+    public Object invokeMBeanOperation(ObjectName name, String operationName, Object[] params,
+            String[] signature) throws InstanceNotFoundException, MBeanException, ReflectionException,
+            IOException {
+        return this.jmxClient.getConnector().getMBeanServerConnection().invoke(name, operationName, params,
+                signature);
+    }
+
     public BooleanWrapper isNodeAdmin(String nodeUrl) {
         return this.target.isNodeAdmin(nodeUrl);
     }
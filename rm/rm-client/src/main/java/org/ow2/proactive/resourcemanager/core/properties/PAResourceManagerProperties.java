@@ -170,6 +170,9 @@ public enum PAResourceManagerProperties {
     /** Max number of threads in the core for cleaning nodes after computations */
     RM_CLEANING_MAX_THREAD_NUMBER("pa.rm.cleaning.maxthreadnumber", PropertyType.INTEGER),
 
+    /** Number of threads in the core serving read only requests in parallel, 0 to serve them in the core thread */
+    RM_CORE_READERS_THREAD_NUMBER("pa.rm.core.readers.maxthreadnumber", PropertyType.INTEGER),
+
     /** Path to the Resource Manager credentials for adding local nodes */
     RM_CREDS("pa.rm.credentials", PropertyType.STRING),
 
@@ -0,0 +1,318 @@
+/*
+ * ################################################################
+ *
+ * ProActive Parallel Suite(TM): The Java(TM) library for
+ *    Parallel, Distributed, Multi-Core Computing for
+ *    Enterprise Grids & Clouds
+ *
+ * Copyright (C) 1997-2011 INRIA/University of
+ *                 Nice-Sophia Antipolis/ActiveEon
+ * Contact: proactive@ow2.org or contact@activeeon.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation; version 3 of
+ * the License.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307
+ * USA
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ *
+ *  Initial developer(s):               The ProActive Team
+ *                        http://proactive.inria.fr/team_members.htm
+ *  Contributor(s):
+ *
+ * ################################################################
+ * $$PROACTIVE_INITIAL_DEV$$
+ */
+package org.ow2.proactive.scheduler.resourcemanager.nodesource.policy;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.ow2.proactive.scheduler.common.job.JobId;
+import org.ow2.proactive.scheduler.common.task.TaskId;
+
+
+/**
+ * Nodes demand of the scheduler, updated incrementally by the scheduler events.
+ * <p>
+ * The demand of a job is the number of nodes of its pending and running tasks. It is computed
+ * once when the job is submitted, then only updated with the task counters of the job and the
+ * finished tasks given by the events, the job state is never fetched from the scheduler.
+ * <p>
+ * To acquire nodes before they are needed and to keep them between close submissions, the nodes
+ * are computed for the end of the deployment of a node: the arrival rate of the tasks is smoothed
+ * exponentially and, according to the average observed task duration, the current tasks and the
+ * tasks submitted meanwhile which are still running at this time are counted. The current demand
+ * is always counted entirely.
+ * <p>
+ * The time is always given by the caller so that the decisions can be replayed offline.
+ */
+class SchedulerLoadingModel {
+
+    enum Decision {
+        NONE, ACQUIRE_NODE, REMOVE_NODE
+    }
+
+    /** Weight of a new task duration in the average task duration */
+    private static final double DURATION_WEIGHT = 0.2;
+
+    private static class JobDemand {
+
+        /** Pending and running tasks */
+        int activeTasks;
+
+        /** Nodes in addition to the first one of the not finished multi-nodes tasks */
+        final Map<TaskId, Integer> extraNodes = new HashMap<TaskId, Integer>();
+
+        int extraNodesNumber;
+
+        int getNodesNumber() {
+            return activeTasks + extraNodesNumber;
+        }
+
+        void addMultiNodesTasks(Map<TaskId, Integer> multiNodesTasks) {
+            for (Map.Entry<TaskId, Integer> task : multiNodesTasks.entrySet()) {
+                if (task.getValue() > 1) {
+                    Integer previous = extraNodes.put(task.getKey(), task.getValue() - 1);
+                    extraNodesNumber += task.getValue() - 1 - (previous != null ? previous : 0);
+                }
+            }
+        }
+
+        void removeTask(TaskId taskId) {
+            Integer nodes = extraNodes.remove(taskId);
+            if (nodes != null) {
+                extraNodesNumber -= nodes;
+            }
+        }
+    }
+
+    private final int minNodes;
+    private final int maxNodes;
+    private final int loadFactor;
+
+    /** Time (ms) to look ahead, the time needed to deploy a node */
+    private final long lookAhead;
+
+    /** Time constant (ms) of the exponential smoothing of the arrival rate */
+    private final long smoothing;
+
+    private final Map<JobId, JobDemand> jobs = new HashMap<JobId, JobDemand>();
+
+    /** Nodes needed by the pending and running tasks */
+    private int demand;
+
+    /** Smoothed arrival rate in nodes per ms, at arrivalTime */
+    private double arrivalRate;
+    private long arrivalTime;
+
+    /** Average duration of the finished tasks (ms), 0 if unknown */
+    private double averageDuration;
+
+    private int requiredNodes;
+    private long acquireDecisions;
+    private long removeDecisions;
+
+    /**
+     * @param minNodes minimum number of nodes of the node source
+     * @param maxNodes maximum number of nodes of the node source
+     * @param loadFactor number of tasks per node
+     * @param lookAhead time (ms) to look ahead, the time needed to deploy a node
+     * @param smoothing time constant (ms) of the smoothing of the arrival rate, 0 to disable the prediction
+     */
+    SchedulerLoadingModel(int minNodes, int maxNodes, int loadFactor, long lookAhead, long smoothing) {
+        this.minNodes = minNodes;
+        this.maxNodes = maxNodes;
+        this.loadFactor = loadFactor;
+        this.lookAhead = lookAhead;
+        this.smoothing = smoothing;
+    }
+
+    /**
+     * A job is submitted, or is pending or running when the policy is activated.
+     *
+     * @param jobId the id of the job
+     * @param activeTasks number of pending and running tasks of the job
+     * @param multiNodesTasks number of nodes of the multi-nodes tasks of the job, by task id
+     * @param time current time (ms)
+     * @param submitted true for a new submission, counted in the arrival rate
+     */
+    void jobSubmitted(JobId jobId, int activeTasks, Map<TaskId, Integer> multiNodesTasks, long time,
+            boolean submitted) {
+        JobDemand job = new JobDemand();
+        job.activeTasks = activeTasks;
+        job.addMultiNodesTasks(multiNodesTasks);
+        JobDemand previous = jobs.put(jobId, job);
+        if (previous != null) {
+            demand -= previous.getNodesNumber();
+        }
+        demand += job.getNodesNumber();
+        if (submitted) {
+            arrived(job.getNodesNumber(), time);
+        }
+    }
+
+    /**
+     * The task counters of a job changed, when tasks are replicated or skipped for instance.
+     *
+     * @param jobId the id of the job
+     * @param activeTasks number of pending and running tasks of the job
+     * @param multiNodesTasks number of nodes of the new or modified multi-nodes tasks, by task id
+     * @param skippedTasks the tasks which will not be executed, their extra nodes are released
+     */
+    void jobUpdated(JobId jobId, int activeTasks, Map<TaskId, Integer> multiNodesTasks,
+            Collection<TaskId> skippedTasks) {
+        JobDemand job = jobs.get(jobId);
+        if (job == null) {
+            return;
+        }
+        int before = job.getNodesNumber();
+        job.activeTasks = Math.max(activeTasks, 0);
+        job.addMultiNodesTasks(multiNodesTasks);
+        for (TaskId taskId : skippedTasks) {
+            job.removeTask(taskId);
+        }
+        demand += job.getNodesNumber() - before;
+    }
+
+    /**
+     * A task of a job is finished.
+     *
+     * @param jobId the id of the job
+     * @param taskId the id of the task
+     * @param activeTasks number of pending and running tasks of the job after the termination
+     * of the task, -1 if unknown
+     * @param duration execution duration of the task (ms), 0 if unknown
+     */
+    void taskFinished(JobId jobId, TaskId taskId, int activeTasks, long duration) {
+        JobDemand job = jobs.get(jobId);
+        if (job == null) {
+            return;
+        }
+        int before = job.getNodesNumber();
+        job.activeTasks = Math.max(activeTasks >= 0 ? activeTasks : job.activeTasks - 1, 0);
+        job.removeTask(taskId);
+        demand += job.getNodesNumber() - before;
+
+        if (duration > 0) {
+            averageDuration = averageDuration == 0 ? duration : averageDuration + DURATION_WEIGHT *
+                (duration - averageDuration);
+        }
+    }
+
+    /**
+     * A job is finished, it does not need nodes anymore.
+     *
+     * @param jobId the id of the job
+     */
+    void jobFinished(JobId jobId) {
+        JobDemand job = jobs.remove(jobId);
+        if (job != null) {
+            demand -= job.getNodesNumber();
+        }
+    }
+
+    private void arrived(int nodes, long time) {
+        if (smoothing <= 0) {
+            return;
+        }
+        arrivalRate = getArrivalRate(time) + (double) nodes / smoothing;
+        arrivalTime = time;
+    }
+
+    /**
+     * @return the smoothed arrival rate (nodes per ms) at the given time
+     */
+    double getArrivalRate(long time) {
+        if (smoothing <= 0 || arrivalRate == 0) {
+            return 0;
+        }
+        return arrivalRate * Math.exp(-(double) Math.max(time - arrivalTime, 0) / smoothing);
+    }
+
+    /**
+     * @return the nodes needed by the pending and running tasks
+     */
+    int getDemand() {
+        return demand;
+    }
+
+    /**
+     * @return the nodes expected to be needed once a node is deployed: the running tasks still
+     * running at this time and the tasks submitted in the meantime, at least the current demand
+     */
+    int getPredictedDemand(long time) {
+        double running = demand;
+        long window = lookAhead;
+        if (averageDuration > 0) {
+            // tasks are supposed to be at any point of their execution
+            running = demand * Math.max(0, 1 - lookAhead / averageDuration);
+            // tasks submitted at t in [0, lookAhead] are still running at lookAhead if they last more than lookAhead - t
+            window = Math.min(lookAhead, (long) averageDuration);
+        }
+        // rounded so that a decaying arrival rate does not keep a node forever
+        int predicted = (int) Math.round(running + getArrivalRate(time) * window);
+        return Math.max(demand, predicted);
+    }
+
+    /**
+     * Decide whether a node should be acquired or removed.
+     *
+     * @param time current time (ms)
+     * @param nodesInNodeSource usable nodes of the node source
+     * @param nodesInRM usable nodes of the RM
+     * @return the decision
+     */
+    Decision decide(long time, int nodesInNodeSource, int nodesInRM) {
+        int predicted = getPredictedDemand(time);
+        requiredNodes = predicted / loadFactor + (predicted % loadFactor == 0 ? 0 : 1);
+
+        Decision decision = Decision.NONE;
+        if (nodesInNodeSource < minNodes) {
+            decision = Decision.ACQUIRE_NODE;
+        } else if (nodesInNodeSource > maxNodes) {
+            decision = Decision.REMOVE_NODE;
+        } else if (requiredNodes > nodesInRM && nodesInNodeSource < maxNodes) {
+            decision = Decision.ACQUIRE_NODE;
+        } else if (requiredNodes < nodesInRM && nodesInNodeSource > minNodes) {
+            decision = Decision.REMOVE_NODE;
+        }
+
+        if (decision == Decision.ACQUIRE_NODE) {
+            acquireDecisions++;
+        } else if (decision == Decision.REMOVE_NODE) {
+            removeDecisions++;
+        }
+        return decision;
+    }
+
+    /**
+     * @param time current time (ms)
+     * @return the current values of the model and the number of decisions taken
+     */
+    HashMap<String, Number> getMetrics(long time) {
+        HashMap<String, Number> metrics = new HashMap<String, Number>();
+        metrics.put("jobs", jobs.size());
+        metrics.put("demand", demand);
+        metrics.put("predictedDemand", getPredictedDemand(time));
+        metrics.put("arrivalRatePerSecond", getArrivalRate(time) * 1000);
+        metrics.put("averageTaskDuration", (long) averageDuration);
+        metrics.put("requiredNodes", requiredNodes);
+        metrics.put("acquireDecisions", acquireDecisions);
+        metrics.put("removeDecisions", removeDecisions);
+        return metrics;
+    }
+
+}
@@ -36,8 +36,11 @@
  */
 package org.ow2.proactive.scheduler.resourcemanager.nodesource.policy;
 
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
 
 import org.apache.log4j.Logger;
 import org.objectweb.proactive.Body;
@@ -59,22 +62,31 @@ import org.ow2.proactive.resourcemanager.nodesource.common.Configurable;
 import org.ow2.proactive.scheduler.common.NotificationData;
 import org.ow2.proactive.scheduler.common.SchedulerEvent;
 import org.ow2.proactive.scheduler.common.SchedulerEventListener;
-import org.ow2.proactive.scheduler.common.job.JobId;
 import org.ow2.proactive.scheduler.common.job.JobInfo;
 import org.ow2.proactive.scheduler.common.job.JobState;
+import org.ow2.proactive.scheduler.common.task.TaskId;
 import org.ow2.proactive.scheduler.common.task.TaskInfo;
 import org.ow2.proactive.scheduler.common.task.TaskState;
-import org.ow2.proactive.scheduler.common.task.TaskStatus;
+import org.ow2.proactive.scheduler.job.JobInfoImpl;
 
 
+/**
+ * Acquires and releases nodes according to the nodes demand of the scheduler.
+ * <p>
+ * The demand is maintained incrementally from the scheduler events by a {@link SchedulerLoadingModel},
+ * which also anticipates the tasks submitted while a node is deployed. The decisions are taken once
+ * per refresh period and can be monitored with {@link #getMetrics()}.
+ */
 @ActiveObject
 public class SchedulerLoadingPolicy extends SchedulerAwarePolicy implements InitActive, RunActive,
         RMEventListener {
 
     protected static Logger logger = Logger.getLogger(SchedulerLoadingPolicy.class);
 
-    private Map<JobId, Integer> activeTasks;
-    private int activeTask = 0;
+    /** Time constant (ms) of the smoothing of the tasks arrival rate */
+    private static final long ARRIVAL_RATE_SMOOTHING = 60 * 1000;
+
+    private SchedulerLoadingModel model;
 
     @Configurable(description = "refresh frequency (ms)")
     private int refreshTime = 1000;
@@ -108,8 +120,6 @@ public class SchedulerLoadingPolicy extends SchedulerAwarePolicy implements Init
         super.configure(policyParameters);
 
         try {
-            activeTasks = new HashMap<JobId, Integer>();
-
             int index = 4;
             refreshTime = Integer.parseInt(policyParameters[index++].toString());
             minNodes = Integer.parseInt(policyParameters[index++].toString());
@@ -119,6 +129,9 @@ public class SchedulerLoadingPolicy extends SchedulerAwarePolicy implements Init
         } catch (RuntimeException e) {
             throw new IllegalArgumentException(e);
         }
+        // nodes are acquired one deployment timeout ahead of the load
+        model = new SchedulerLoadingModel(minNodes, maxNodes, loadFactor, nodeDeploymentTimeout,
+            ARRIVAL_RATE_SMOOTHING);
         return new BooleanWrapper(true);
     }
 
@@ -162,22 +175,19 @@ public class SchedulerLoadingPolicy extends SchedulerAwarePolicy implements Init
             return activationStatus;
         }
 
+        long now = System.currentTimeMillis();
         for (JobState js : state.getPendingJobs()) {
-            int nodesForThisJob = this.computeRequiredNodesForPendingJob(js);
-            activeTask += nodesForThisJob;
-            activeTasks.put(js.getId(), nodesForThisJob);
+            jobDemand(js, now, false);
         }
 
         for (JobState js : state.getRunningJobs()) {
-            int nodesForThisJob = this.computeRequiredNodesForRunningJob(js);
-            activeTask += nodesForThisJob;
-            activeTasks.put(js.getId(), nodesForThisJob);
+            jobDemand(js, now, false);
         }
         nodeSourceName = nodeSource.getName();
 
         thisStub.registerRMListener();
 
-        logger.debug("Policy activated. Current number of tasks " + activeTask);
+        logger.debug("Policy activated. Current number of tasks " + model.getDemand());
         return new BooleanWrapper(true);
     }
 
@@ -201,36 +211,37 @@ public class SchedulerLoadingPolicy extends SchedulerAwarePolicy implements Init
             return;
         }
 
-        if (nodesNumberInNodeSource < minNodes) {
-            logger.debug("Node deployment request");
-            timeStamp = System.currentTimeMillis();
-            acquireNodes(1);
-            return;
-        }
-
-        if (nodesNumberInNodeSource > maxNodes) {
-            logger.debug("Node removal request");
-            timeStamp = -System.currentTimeMillis();
-            removeNode();
-            return;
+        long now = System.currentTimeMillis();
+        SchedulerLoadingModel.Decision decision = model.decide(now, nodesNumberInNodeSource,
+                nodesNumberInRM);
+        if (logger.isDebugEnabled()) {
+            logger.debug("Scheduler loading " + model.getMetrics(now));
         }
 
-        int requiredNodesNumber = activeTask / loadFactor + (activeTask % loadFactor == 0 ? 0 : 1);
-        logger.debug("Required node number according to scheduler loading " + requiredNodesNumber);
-
-        if (requiredNodesNumber > nodesNumberInRM && nodesNumberInNodeSource < maxNodes) {
-            logger.debug("Node deployment request");
-            timeStamp = System.currentTimeMillis();
-            acquireNodes(1);
-            return;
+        switch (decision) {
+            case ACQUIRE_NODE:
+                logger.debug("Node deployment request");
+                timeStamp = now;
+                acquireNodes(1);
+                break;
+            case REMOVE_NODE:
+                logger.debug("Node removal request");
+                timeStamp = -now;
+                removeNode();
+                break;
+            default:
+                break;
         }
+    }
 
-        if (requiredNodesNumber < nodesNumberInRM && nodesNumberInNodeSource > minNodes) {
-            logger.debug("Node removal request");
-            timeStamp = -System.currentTimeMillis();
-            removeNode();
-            return;
-        }
+    /**
+     * Returns the current nodes demand of the scheduler as estimated by the policy and the
+     * number of nodes acquisitions and removals decided since the activation.
+     *
+     * @return the metrics of the policy by name
+     */
+    public HashMap<String, Number> getMetrics() {
+        return model.getMetrics(System.currentTimeMillis());
     }
 
     /**
@@ -244,7 +255,8 @@ public class SchedulerLoadingPolicy extends SchedulerAwarePolicy implements Init
     @Override
     protected SchedulerEvent[] getEventsList() {
         return new SchedulerEvent[] { SchedulerEvent.JOB_RUNNING_TO_FINISHED, SchedulerEvent.JOB_SUBMITTED,
-                SchedulerEvent.TASK_RUNNING_TO_FINISHED, SchedulerEvent.JOB_PENDING_TO_FINISHED };
+                SchedulerEvent.TASK_RUNNING_TO_FINISHED, SchedulerEvent.JOB_PENDING_TO_FINISHED,
+                SchedulerEvent.TASK_REPLICATED, SchedulerEvent.TASK_SKIPPED };
     }
 
     @Override
@@ -282,10 +294,8 @@ public class SchedulerLoadingPolicy extends SchedulerAwarePolicy implements Init
     @Override
     public void jobSubmittedEvent(JobState jobState) {
         //computing the required number of nodes regarding tasks' parallel environment
-        int nodesForThisJob = this.computeRequiredNodesForPendingJob(jobState);
-        activeTasks.put(jobState.getId(), nodesForThisJob);
-        activeTask += nodesForThisJob;
-        logger.debug("Job submitted. Current number of tasks " + activeTask);
+        jobDemand(jobState, System.currentTimeMillis(), true);
+        logger.debug("Job submitted. Current number of tasks " + model.getDemand());
     }
 
     /**
@@ -293,30 +303,35 @@ public class SchedulerLoadingPolicy extends SchedulerAwarePolicy implements Init
      */
     @Override
     public void jobStateUpdatedEvent(NotificationData<JobInfo> notification) {
+        JobInfo jobInfo = notification.getData();
         switch (notification.getEventType()) {
             case JOB_RUNNING_TO_FINISHED:
             case JOB_PENDING_TO_FINISHED:
-                int tasksLeft = activeTasks.remove(notification.getData().getJobId());
-                activeTask -= tasksLeft;
+                model.jobFinished(jobInfo.getJobId());
                 break;
             case TASK_REPLICATED:
+                // the job counters and the new tasks are up to date, no need to get the job state
+                Map<TaskId, Integer> multiNodesTasks = Collections.emptyMap();
+                if (jobInfo instanceof JobInfoImpl && ((JobInfoImpl) jobInfo).getModifiedTasks() != null) {
+                    multiNodesTasks = multiNodesTasks(((JobInfoImpl) jobInfo).getModifiedTasks());
+                }
+                model.jobUpdated(jobInfo.getJobId(), jobInfo.getNumberOfPendingTasks() +
+                    jobInfo.getNumberOfRunningTasks(), multiNodesTasks, Collections.<TaskId> emptySet());
+                logger.debug("Tasks replicated. Current number of tasks " + model.getDemand());
+                break;
             case TASK_SKIPPED:
-                JobId jid = notification.getData().getJobId();
-                //need to get an up to date job view from the scheduler
-                //computing the required number of nodes from 0...
-                JobState jobState = null;
-                try {
-                    jobState = this.scheduler.getJobState(jid);
-                } catch (Exception e) {
-                    logger.error("Cannot update the " + this.getClass().getSimpleName() +
-                        " state as an exception occured", e);
-                    break;
+                // the skipped multi-nodes tasks do not need their extra nodes anymore
+                Set<TaskId> skippedTasks = null;
+                if (jobInfo instanceof JobInfoImpl) {
+                    skippedTasks = ((JobInfoImpl) jobInfo).getTasksSkipped();
                 }
-                int nodesForThisTask = this.computeRequiredNodesForRunningJob(jobState);
-                int oldActiveTask = activeTasks.get(jid);
-                activeTasks.put(jid, nodesForThisTask);
-                activeTask += (nodesForThisTask - oldActiveTask);
-                logger.debug("Tasks replicated. Current number of tasks " + activeTask);
+                if (skippedTasks == null) {
+                    skippedTasks = Collections.emptySet();
+                }
+                model.jobUpdated(jobInfo.getJobId(), jobInfo.getNumberOfPendingTasks() +
+                    jobInfo.getNumberOfRunningTasks(), Collections.<TaskId, Integer> emptyMap(),
+                    skippedTasks);
+                logger.debug("Tasks skipped. Current number of tasks " + model.getDemand());
                 break;
         }
     }
@@ -387,68 +402,47 @@ public class SchedulerLoadingPolicy extends SchedulerAwarePolicy implements Init
     public void taskStateUpdatedEvent(NotificationData<TaskInfo> notification) {
         switch (notification.getEventType()) {
             case TASK_RUNNING_TO_FINISHED:
-                JobId id = notification.getData().getJobId();
-                if (activeTasks.containsKey(id)) {
-                    JobState jobState = null;
-                    int nodesForThisTask = 0;
-                    try {
-                        jobState = this.scheduler.getJobState(id);
-                        TaskState taskState = jobState.getHMTasks().get(notification.getData().getTaskId());
-                        if (taskState.isParallel()) {
-                            nodesForThisTask = taskState.getParallelEnvironment().getNodesNumber();
-                        } else {
-                            nodesForThisTask = 1;
-                        }
-                    } catch (Exception e) {
-                        logger.error("Cannot update " + this.getClass().getSimpleName() +
-                            "'s state because of an exception.", e);
-                        break;
-                    }
-                    activeTasks.put(id, activeTasks.get(id) - nodesForThisTask);
-                    activeTask -= nodesForThisTask;
-                    logger.debug("Task finished. Current number of tasks " + activeTask);
-                } else {
-                    logger.error("Unknown job id " + id);
+                TaskInfo taskInfo = notification.getData();
+                JobInfo jobInfo = taskInfo.getJobInfo();
+                int activeTasks = jobInfo != null ? jobInfo.getNumberOfPendingTasks() +
+                    jobInfo.getNumberOfRunningTasks() : -1;
+                long duration = taskInfo.getExecutionDuration();
+                if (duration <= 0 && taskInfo.getStartTime() > 0) {
+                    duration = taskInfo.getFinishedTime() - taskInfo.getStartTime();
                 }
+                model.taskFinished(taskInfo.getJobId(), taskInfo.getTaskId(), activeTasks, duration);
+                logger.debug("Task finished. Current number of tasks " + model.getDemand());
                 break;
         }
     }
 
     /**
-     * Returns the required number of nodes for a pending job
-     * @param jobState
-     * @return Returns the required number of nodes for a pending job
+     * Add the demand of a job to the model, from the job state given by the scheduler
+     * when the job is submitted or when the policy is activated.
+     *
+     * @param jobState the state of a pending or running job
+     * @param time the current time
+     * @param submitted true if the job has just been submitted
      */
-    private int computeRequiredNodesForPendingJob(JobState jobState) {
-        int nodesForThisJob = 0;
-        for (TaskState taskState : jobState.getTasks()) {
-            if (taskState.isParallel()) {
-                nodesForThisJob += taskState.getParallelEnvironment().getNodesNumber();
-            } else {
-                nodesForThisJob++;
-            }
-        }
-        return nodesForThisJob;
+    private void jobDemand(JobState jobState, long time, boolean submitted) {
+        // same counters as the ones of the next events of the job
+        int activeTasks = jobState.getNumberOfPendingTasks() + jobState.getNumberOfRunningTasks();
+        model.jobSubmitted(jobState.getId(), activeTasks, multiNodesTasks(jobState.getTasks()), time,
+                submitted);
     }
 
     /**
-     * Returns the required number of nodes for a running job
-     * @param jobState
-     * @return the required number of nodes for a running job
+     * @param tasks tasks of a job
+     * @return the number of nodes of the pending and running multi-nodes tasks, by task id
      */
-    private int computeRequiredNodesForRunningJob(JobState jobState) {
-        int nodesForThisJob = 0;
-        for (TaskState taskState : jobState.getTasks()) {
-            if (TaskStatus.PENDING.equals(taskState.getStatus()) ||
-                TaskStatus.RUNNING.equals(taskState.getStatus())) {
-                if (taskState.isParallel()) {
-                    nodesForThisJob += taskState.getParallelEnvironment().getNodesNumber();
-                } else {
-                    nodesForThisJob++;
-                }
+    private Map<TaskId, Integer> multiNodesTasks(Collection<? extends TaskState> tasks) {
+        Map<TaskId, Integer> multiNodesTasks = new HashMap<TaskId, Integer>();
+        for (TaskState taskState : tasks) {
+            if (taskState.getStatus().isTaskAlive() && taskState.isParallel()) {
+                multiNodesTasks.put(taskState.getId(), taskState.getParallelEnvironment().getNodesNumber());
             }
         }
-        return nodesForThisJob;
+        return multiNodesTasks;
     }
 
     /**
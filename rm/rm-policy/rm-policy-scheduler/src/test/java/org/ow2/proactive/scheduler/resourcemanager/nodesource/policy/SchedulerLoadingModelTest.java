@@ -0,0 +1,253 @@
+/*
+ * ################################################################
+ *
+ * ProActive Parallel Suite(TM): The Java(TM) library for
+ *    Parallel, Distributed, Multi-Core Computing for
+ *    Enterprise Grids & Clouds
+ *
+ * Copyright (C) 1997-2011 INRIA/University of
+ *                 Nice-Sophia Antipolis/ActiveEon
+ * Contact: proactive@ow2.org or contact@activeeon.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation; version 3 of
+ * the License.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307
+ * USA
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ *
+ *  Initial developer(s):               The ProActive Team
+ *                        http://proactive.inria.fr/team_members.htm
+ *  Contributor(s):
+ *
+ * ################################################################
+ * $$PROACTIVE_INITIAL_DEV$$
+ */
+package org.ow2.proactive.scheduler.resourcemanager.nodesource.policy;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.ow2.proactive.scheduler.common.job.JobId;
+import org.ow2.proactive.scheduler.common.task.TaskId;
+import org.ow2.proactive.scheduler.job.JobIdImpl;
+import org.ow2.proactive.scheduler.resourcemanager.nodesource.policy.SchedulerLoadingModel.Decision;
+import org.ow2.proactive.scheduler.task.TaskIdImpl;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+
+public class SchedulerLoadingModelTest {
+
+    private static final long DEPLOYMENT_TIME = 10000;
+
+    private static final long SMOOTHING = 60000;
+
+    private static final Map<TaskId, Integer> NO_MULTI_NODES_TASKS = Collections.emptyMap();
+
+    @Test
+    public void demand_is_updated_by_events() throws Exception {
+        SchedulerLoadingModel model = new SchedulerLoadingModel(0, 10, 1, DEPLOYMENT_TIME, 0);
+        JobId jobId = new JobIdImpl(1L, "job");
+        TaskId multiNodes = TaskIdImpl.createTaskId(jobId, "multi", 1, false);
+        TaskId single = TaskIdImpl.createTaskId(jobId, "single", 2, false);
+        Map<TaskId, Integer> multiNodesTasks = new HashMap<TaskId, Integer>();
+        multiNodesTasks.put(multiNodes, 4);
+
+        model.jobSubmitted(jobId, 2, multiNodesTasks, 0, true);
+        assertEquals(5, model.getDemand());
+
+        model.taskFinished(jobId, multiNodes, 1, 1000);
+        assertEquals(1, model.getDemand());
+
+        // a task is replicated
+        model.jobUpdated(jobId, 3, NO_MULTI_NODES_TASKS, Collections.<TaskId> emptySet());
+        assertEquals(3, model.getDemand());
+
+        // counters of the job unknown
+        model.taskFinished(jobId, single, -1, 0);
+        assertEquals(2, model.getDemand());
+
+        model.jobFinished(jobId);
+        assertEquals(0, model.getDemand());
+
+        model.taskFinished(jobId, single, 0, 1000);
+        assertEquals(0, model.getDemand());
+    }
+
+    @Test
+    public void extra_nodes_of_skipped_tasks_are_released() throws Exception {
+        SchedulerLoadingModel model = new SchedulerLoadingModel(0, 10, 1, DEPLOYMENT_TIME, 0);
+        JobId jobId = new JobIdImpl(1L, "job");
+        TaskId ifBranch = TaskIdImpl.createTaskId(jobId, "if", 1, false);
+        TaskId elseBranch = TaskIdImpl.createTaskId(jobId, "else", 2, false);
+        Map<TaskId, Integer> multiNodesTasks = new HashMap<TaskId, Integer>();
+        multiNodesTasks.put(ifBranch, 3);
+        multiNodesTasks.put(elseBranch, 4);
+
+        model.jobSubmitted(jobId, 2, multiNodesTasks, 0, true);
+        assertEquals(7, model.getDemand());
+
+        // the else branch is skipped, it will never finish
+        model.jobUpdated(jobId, 1, NO_MULTI_NODES_TASKS, Collections.singleton(elseBranch));
+        assertEquals(3, model.getDemand());
+
+        model.taskFinished(jobId, ifBranch, 0, 1000);
+        assertEquals(0, model.getDemand());
+    }
+
+    @Test
+    public void extra_nodes_of_replicated_tasks_are_added() throws Exception {
+        SchedulerLoadingModel model = new SchedulerLoadingModel(0, 10, 1, DEPLOYMENT_TIME, 0);
+        JobId jobId = new JobIdImpl(1L, "job");
+        TaskId replicated = TaskIdImpl.createTaskId(jobId, "replicated", 1, false);
+        TaskId replica = TaskIdImpl.createTaskId(jobId, "replicated*1", 2, false);
+        Map<TaskId, Integer> multiNodesTasks = new HashMap<TaskId, Integer>();
+        multiNodesTasks.put(replicated, 3);
+
+        model.jobSubmitted(jobId, 1, multiNodesTasks, 0, true);
+        assertEquals(3, model.getDemand());
+
+        // the new task and the modified task are both given by the event
+        Map<TaskId, Integer> modifiedTasks = new HashMap<TaskId, Integer>();
+        modifiedTasks.put(replicated, 3);
+        modifiedTasks.put(replica, 3);
+        model.jobUpdated(jobId, 2, modifiedTasks, Collections.<TaskId> emptySet());
+        assertEquals(6, model.getDemand());
+
+        model.taskFinished(jobId, replica, 1, 1000);
+        assertEquals(3, model.getDemand());
+
+        model.taskFinished(jobId, replicated, 0, 1000);
+        assertEquals(0, model.getDemand());
+    }
+
+    @Test
+    public void nodes_are_acquired_ahead_of_a_burst() throws Exception {
+        SchedulerLoadingModel predictive = new SchedulerLoadingModel(0, 20, 1, DEPLOYMENT_TIME, SMOOTHING);
+        SchedulerLoadingModel reactive = new SchedulerLoadingModel(0, 20, 1, DEPLOYMENT_TIME, 0);
+        for (int i = 0; i < 10; i++) {
+            predictive.jobSubmitted(new JobIdImpl(i, "job"), 1, NO_MULTI_NODES_TASKS, i * 100, true);
+            reactive.jobSubmitted(new JobIdImpl(i, "job"), 1, NO_MULTI_NODES_TASKS, i * 100, true);
+        }
+
+        assertEquals(10, predictive.getDemand());
+        assertEquals(12, predictive.getPredictedDemand(1000));
+        assertEquals(Decision.ACQUIRE_NODE, predictive.decide(1000, 10, 10));
+        assertEquals(Decision.NONE, reactive.decide(1000, 10, 10));
+    }
+
+    /**
+     * A job of 4 seconds is submitted every 5 seconds during 5 minutes: without prediction the
+     * node is removed after each job and acquired again for the next one.
+     */
+    @Test
+    public void periodic_load_simulation() throws Exception {
+        Simulation reactive = new Simulation(new SchedulerLoadingModel(0, 10, 1, DEPLOYMENT_TIME, 0));
+        reactive.run(5000, 4000, 300000, 500000);
+
+        Simulation predictive = new Simulation(new SchedulerLoadingModel(0, 10, 1, DEPLOYMENT_TIME,
+            SMOOTHING));
+        predictive.run(5000, 4000, 300000, 500000);
+
+        assertTrue(reactive.removalsOnSteadyLoad > 0);
+        assertEquals(0, predictive.removalsOnSteadyLoad);
+        assertTrue(predictive.acquisitions < reactive.acquisitions);
+
+        // nodes are released once the load is over
+        assertEquals(0, predictive.nodes);
+        assertEquals(predictive.acquisitions, predictive.model.getMetrics(500000).get("acquireDecisions"));
+        assertEquals(predictive.removals, predictive.model.getMetrics(500000).get("removeDecisions"));
+    }
+
+    /**
+     * Replays the decisions of the policy: one request at a time, a node is available
+     * {@link #DEPLOYMENT_TIME} ms after its acquisition, a removal is immediate.
+     */
+    private static class Simulation {
+
+        private static final long STEP = 500;
+
+        final SchedulerLoadingModel model;
+
+        int nodes;
+        long acquisitions;
+        long removals;
+        int removalsOnSteadyLoad;
+
+        Simulation(SchedulerLoadingModel model) {
+            this.model = model;
+        }
+
+        /**
+         * @param period time between two submissions
+         * @param duration duration of the single task of each job
+         * @param end time of the last submission
+         * @param horizon end of the simulation
+         */
+        void run(long period, long duration, long end, long horizon) {
+            Map<JobId, Long> running = new LinkedHashMap<JobId, Long>();
+            long nodeArrival = -1;
+            int jobs = 0;
+
+            for (long time = 0; time <= horizon; time += STEP) {
+                Iterator<Map.Entry<JobId, Long>> it = running.entrySet().iterator();
+                while (it.hasNext()) {
+                    Map.Entry<JobId, Long> job = it.next();
+                    if (job.getValue() <= time) {
+                        it.remove();
+                        model.taskFinished(job.getKey(), TaskIdImpl.createTaskId(job.getKey(), "task", 0,
+                                false), 0, duration);
+                        model.jobFinished(job.getKey());
+                    }
+                }
+                if (time < end && time % period == 0) {
+                    JobId jobId = new JobIdImpl(jobs++, "job");
+                    model.jobSubmitted(jobId, 1, NO_MULTI_NODES_TASKS, time, true);
+                    running.put(jobId, time + duration);
+                }
+
+                if (nodeArrival >= 0 && time >= nodeArrival) {
+                    nodes++;
+                    nodeArrival = -1;
+                }
+                if (nodeArrival >= 0) {
+                    // pending deployment
+                    continue;
+                }
+                switch (model.decide(time, nodes, nodes)) {
+                    case ACQUIRE_NODE:
+                        acquisitions++;
+                        nodeArrival = time + DEPLOYMENT_TIME;
+                        break;
+                    case REMOVE_NODE:
+                        removals++;
+                        nodes--;
+                        if (time >= 120000 && time < end) {
+                            removalsOnSteadyLoad++;
+                        }
+                        break;
+                    default:
+                        break;
+                }
+            }
+        }
+    }
+
+}
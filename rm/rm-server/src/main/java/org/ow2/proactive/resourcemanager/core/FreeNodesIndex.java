@@ -0,0 +1,192 @@
+/*
+ * ################################################################
+ *
+ * ProActive Parallel Suite(TM): The Java(TM) library for
+ *    Parallel, Distributed, Multi-Core Computing for
+ *    Enterprise Grids & Clouds
+ *
+ * Copyright (C) 1997-2011 INRIA/University of
+ *                 Nice-Sophia Antipolis/ActiveEon
+ * Contact: proactive@ow2.org or contact@activeeon.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation; version 3 of
+ * the License.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307
+ * USA
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ *
+ *  Initial developer(s):               The ProActive Team
+ *                        http://proactive.inria.fr/team_members.htm
+ *  Contributor(s):
+ *
+ * ################################################################
+ * $$PROACTIVE_INITIAL_DEV$$
+ */
+package org.ow2.proactive.resourcemanager.core;
+
+import java.security.Permission;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+import org.ow2.proactive.authentication.principals.IdentityPrincipal;
+import org.ow2.proactive.authentication.principals.TokenPrincipal;
+import org.ow2.proactive.permissions.PrincipalPermission;
+import org.ow2.proactive.resourcemanager.rmnode.RMNode;
+
+
+/**
+ * Index of the free nodes of the resource manager.
+ * <p>
+ * Nodes are indexed by their url, so that moving a node from free to busy
+ * (and back) does not require to scan all the free nodes. The index also
+ * maintains views of the free nodes partitioned by node source and by access
+ * token, so that operations working on a subset of the nodes only go through
+ * this subset.
+ * <p>
+ * The views keep the order in which the nodes were freed. The class is not
+ * thread safe, it is only modified from the RMCore active object thread.
+ * Only {@link #size()} can be called from other threads.
+ */
+public class FreeNodesIndex {
+
+    private final LinkedHashMap<String, RMNode> nodes = new LinkedHashMap<String, RMNode>();
+
+    private final Map<String, LinkedHashMap<String, RMNode>> nodesByNodeSource = new HashMap<String, LinkedHashMap<String, RMNode>>();
+
+    private final Map<String, LinkedHashMap<String, RMNode>> nodesByToken = new HashMap<String, LinkedHashMap<String, RMNode>>();
+
+    /** number of free nodes, read by the requests served outside of the core thread */
+    private volatile int size;
+
+    /**
+     * Adds a node to the index, does nothing if the node is already free.
+     *
+     * @param node the node which became free
+     */
+    public void add(RMNode node) {
+        String url = node.getNodeURL();
+        if (nodes.containsKey(url)) {
+            return;
+        }
+        nodes.put(url, node);
+        size = nodes.size();
+        addToView(nodesByNodeSource, node.getNodeSourceName(), url, node);
+        for (String token : getTokens(node)) {
+            addToView(nodesByToken, token, url, node);
+        }
+    }
+
+    /**
+     * Removes a node from the index.
+     *
+     * @param node the node which is not free anymore
+     * @return true if the node was in the index
+     */
+    public boolean remove(RMNode node) {
+        String url = node.getNodeURL();
+        if (nodes.remove(url) == null) {
+            return false;
+        }
+        size = nodes.size();
+        removeFromView(nodesByNodeSource, node.getNodeSourceName(), url);
+        for (String token : getTokens(node)) {
+            removeFromView(nodesByToken, token, url);
+        }
+        return true;
+    }
+
+    public boolean contains(RMNode node) {
+        return nodes.containsKey(node.getNodeURL());
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return a copy of the list of free nodes
+     */
+    public ArrayList<RMNode> getNodes() {
+        return new ArrayList<RMNode>(nodes.values());
+    }
+
+    /**
+     * @param nodeSourceName name of a node source
+     * @return a copy of the list of free nodes of this node source
+     */
+    public ArrayList<RMNode> getNodesOfNodeSource(String nodeSourceName) {
+        return copyOf(nodesByNodeSource.get(nodeSourceName));
+    }
+
+    /**
+     * @param token a node access token
+     * @return a copy of the list of free nodes protected by this token
+     */
+    public ArrayList<RMNode> getNodesWithToken(String token) {
+        return copyOf(nodesByToken.get(token));
+    }
+
+    private static ArrayList<RMNode> copyOf(LinkedHashMap<String, RMNode> view) {
+        if (view == null) {
+            return new ArrayList<RMNode>(0);
+        }
+        return new ArrayList<RMNode>(view.values());
+    }
+
+    private static void addToView(Map<String, LinkedHashMap<String, RMNode>> views, String key,
+            String url, RMNode node) {
+        LinkedHashMap<String, RMNode> view = views.get(key);
+        if (view == null) {
+            view = new LinkedHashMap<String, RMNode>();
+            views.put(key, view);
+        }
+        view.put(url, node);
+    }
+
+    private static void removeFromView(Map<String, LinkedHashMap<String, RMNode>> views, String key,
+            String url) {
+        LinkedHashMap<String, RMNode> view = views.get(key);
+        if (view != null) {
+            view.remove(url);
+            if (view.isEmpty()) {
+                views.remove(key);
+            }
+        }
+    }
+
+    private static Collection<String> getTokens(RMNode node) {
+        if (!node.isProtectedByToken()) {
+            return Collections.emptyList();
+        }
+        Permission permission = node.getUserPermission();
+        if (!(permission instanceof PrincipalPermission)) {
+            return Collections.emptyList();
+        }
+        List<String> tokens = new LinkedList<String>();
+        for (IdentityPrincipal principal : ((PrincipalPermission) permission).getPrincipals()) {
+            if (principal instanceof TokenPrincipal) {
+                tokens.add(principal.getName());
+            }
+        }
+        return tokens;
+    }
+
+}
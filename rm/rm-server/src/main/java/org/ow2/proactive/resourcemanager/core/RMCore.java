@@ -54,6 +54,7 @@ import org.objectweb.proactive.core.node.NodeException;
 import org.objectweb.proactive.core.util.wrapper.BooleanWrapper;
 import org.objectweb.proactive.core.util.wrapper.IntWrapper;
 import org.objectweb.proactive.extensions.annotation.ActiveObject;
+import org.objectweb.proactive.utils.NamedThreadFactory;
 import org.ow2.proactive.authentication.principals.IdentityPrincipal;
 import org.ow2.proactive.authentication.principals.UserNamePrincipal;
 import org.ow2.proactive.permissions.MethodCallPermission;
@@ -94,6 +95,7 @@ import org.ow2.proactive.resourcemanager.nodesource.policy.NodeSourcePolicyFacto
 import org.ow2.proactive.resourcemanager.nodesource.policy.StaticPolicy;
 import org.ow2.proactive.resourcemanager.rmnode.RMDeployingNode;
 import org.ow2.proactive.resourcemanager.rmnode.RMNode;
+import org.ow2.proactive.resourcemanager.rmnode.RMNodeImpl;
 import org.ow2.proactive.resourcemanager.selection.SelectionManager;
 import org.ow2.proactive.resourcemanager.selection.statistics.ProbablisticSelectionManager;
 import org.ow2.proactive.resourcemanager.selection.topology.TopologyManager;
@@ -113,6 +115,7 @@ import java.net.URI;
 import java.net.URISyntaxException;
 import java.security.Permission;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
@@ -122,6 +125,9 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -184,16 +190,16 @@ public class RMCore implements ResourceManager, InitActive, RunActive {
     /** authentication active object */
     private RMAuthenticationImpl authentication;
 
-    /** HashMap of NodeSource active objects */
-    private HashMap<String, NodeSource> nodeSources;
+    /** Map of NodeSource active objects, also read by the read only requests served in parallel */
+    private Map<String, NodeSource> nodeSources;
 
     private ArrayList<String> brokenNodeSources;
 
-    /** HashMaps of nodes known by the RMCore */
-    private HashMap<String, RMNode> allNodes;
+    /** Map of nodes known by the RMCore, also read by the read only requests served in parallel */
+    private Map<String, RMNode> allNodes;
 
-    /** list of all free nodes */
-    private ArrayList<RMNode> freeNodes;
+    /** index of all free nodes */
+    private FreeNodesIndex freeNodes;
 
     private SelectionManager selectionManager;
 
@@ -233,6 +239,17 @@ public class RMCore implements ResourceManager, InitActive, RunActive {
 
     private RMDBManager dataBaseManager;
 
+    /**
+     * Names of the methods which do not modify the core. They are served in parallel
+     * by the readers thread pool instead of the core thread.
+     */
+    private static final Set<String> READ_ONLY_METHODS = new HashSet<String>(Arrays.asList("getState",
+            "getRMInitialState", "listAliveNodeUrls", "getTopology", "getNodeState", "nodeIsAvailable",
+            "getNodesList", "getNodeSourcesList"));
+
+    /** thread pool serving the read only requests, null if they are served in the core thread */
+    private ExecutorService readersThreadPool;
+
     /**
      * ProActive Empty constructor
      */
@@ -256,10 +273,10 @@ public class RMCore implements ResourceManager, InitActive, RunActive {
         this.id = id;
         this.nodeRM = nodeRM;
 
-        nodeSources = new HashMap<String, NodeSource>();
+        nodeSources = new ConcurrentHashMap<String, NodeSource>();
         brokenNodeSources = new ArrayList<String>();
-        allNodes = new HashMap<String, RMNode>();
-        freeNodes = new ArrayList<RMNode>();
+        allNodes = new ConcurrentHashMap<String, RMNode>();
+        freeNodes = new FreeNodesIndex();
 
         this.accountsManager = new RMAccountsManager();
         this.jmxHelper = new RMJMXHelper(this.accountsManager);
@@ -400,7 +417,13 @@ public class RMCore implements ResourceManager, InitActive, RunActive {
      * RunActivity periodically send "alive" event to listeners
      */
     public void runActivity(Body body) {
-        Service service = new Service(body);
+        final Service service = new Service(body);
+
+        int readersThreadNumber = PAResourceManagerProperties.RM_CORE_READERS_THREAD_NUMBER.getValueAsInt();
+        if (readersThreadNumber > 0) {
+            readersThreadPool = Executors.newFixedThreadPool(readersThreadNumber, new NamedThreadFactory(
+                "RMCore readers threadpool"));
+        }
 
         // recalculating nodes number only once per policy period
         while (body.isActive()) {
@@ -413,9 +436,18 @@ public class RMCore implements ResourceManager, InitActive, RunActive {
                 if (request != null) {
                     try {
                         try {
-                            caller = checkMethodCallPermission(request.getMethodName(), request
+                            Client client = checkMethodCallPermission(request.getMethodName(), request
                                     .getSourceBodyID());
-                            service.serve(request);
+                            if (readersThreadPool != null &&
+                                READ_ONLY_METHODS.contains(request.getMethodName())) {
+                                // all the requests received before were already served, so the
+                                // reader sees their effects, it only runs concurrently with the
+                                // requests received after it
+                                serveInParallel(service, request);
+                            } else {
+                                caller = client;
+                                service.serve(request);
+                            }
                         } catch (SecurityException ex) {
                             logger.warn("Cannot serve request: " + request, ex);
                             service.serve(new ThrowExceptionRequest(request, ex));
@@ -428,6 +460,27 @@ public class RMCore implements ResourceManager, InitActive, RunActive {
                 logger.warn("runActivity interrupted", e);
             }
         }
+
+        if (readersThreadPool != null) {
+            readersThreadPool.shutdownNow();
+        }
+    }
+
+    /**
+     * Serves a read only request in the readers thread pool. Read only requests
+     * must not use the caller field which is only valid in the core thread.
+     */
+    private void serveInParallel(final Service service, final Request request) {
+        readersThreadPool.submit(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    service.serve(request);
+                } catch (Throwable e) {
+                    logger.error("Cannot serve request: " + request, e);
+                }
+            }
+        });
     }
 
     /**
@@ -543,6 +596,8 @@ public class RMCore implements ResourceManager, InitActive, RunActive {
             freeNodes.remove(rmnode);
         }
         this.allNodes.remove(rmnode.getNodeURL());
+        RMNodeImpl.removeHandler(rmnode.getNodeURL());
+        this.selectionManager.nodeRemoved(rmnode.getNodeURL());
         // create the event
         this.registerAndEmitNodeEvent(rmnode.createNodeEvent(RMEventType.NODE_REMOVED, rmnode.getState(),
                 initiator.getName()));
@@ -742,9 +797,9 @@ public class RMCore implements ResourceManager, InitActive, RunActive {
     public void removeNodes(int number, String nodeSourceName, boolean preemptive) {
         int numberOfRemovedNodes = 0;
 
-        // temporary list to avoid concurrent modification
+        // the index returns a copy which avoids concurrent modification
         List<RMNode> nodelList = new LinkedList<RMNode>();
-        nodelList.addAll(freeNodes);
+        nodelList.addAll(freeNodes.getNodesOfNodeSource(nodeSourceName));
 
         logger.debug("Free nodes size " + nodelList.size());
         for (RMNode node : nodelList) {
@@ -753,10 +808,8 @@ public class RMCore implements ResourceManager, InitActive, RunActive {
                 break;
             }
 
-            if (node.getNodeSource().getName().equals(nodeSourceName)) {
-                removeNode(node.getNodeURL(), preemptive);
-                numberOfRemovedNodes++;
-            }
+            removeNode(node.getNodeURL(), preemptive);
+            numberOfRemovedNodes++;
         }
 
         nodelList.clear();
@@ -1167,10 +1220,10 @@ public class RMCore implements ResourceManager, InitActive, RunActive {
     @Override
     public Set<String> listAliveNodeUrls() {
         HashSet<String> aliveNodes = new HashSet<String>();
-        for (String nodeurl : allNodes.keySet()) {
-            RMNode node = allNodes.get(nodeurl);
-            if (!node.isDown()) {
-                aliveNodes.add(nodeurl);
+        // entries are read together, a node can be removed by the core thread meanwhile
+        for (Entry<String, RMNode> entry : allNodes.entrySet()) {
+            if (!entry.getValue().isDown()) {
+                aliveNodes.add(entry.getKey());
             }
         }
         return aliveNodes;
@@ -1179,8 +1232,13 @@ public class RMCore implements ResourceManager, InitActive, RunActive {
     @Override
     public Set<String> listAliveNodeUrls(Set<String> nodeSourceNames) {
         HashSet<String> aliveNodes = new HashSet<String>();
-        for (String nodeSource : nodeSourceNames) {
-            for (Node node : nodeSources.get(nodeSource).getAliveNodes()) {
+        for (String nodeSourceName : nodeSourceNames) {
+            NodeSource nodeSource = nodeSources.get(nodeSourceName);
+            if (nodeSource == null) {
+                // removed by the core thread meanwhile
+                continue;
+            }
+            for (Node node : nodeSource.getAliveNodes()) {
                 aliveNodes.add(node.getNodeInformation().getURL());
             }
         }
@@ -1324,8 +1382,19 @@ public class RMCore implements ResourceManager, InitActive, RunActive {
         }
     }
 
+    /**
+     * @return a copy of the list of free nodes
+     */
     public ArrayList<RMNode> getFreeNodes() {
-        return freeNodes;
+        return freeNodes.getNodes();
+    }
+
+    /**
+     * @param token a node access token
+     * @return a copy of the list of free nodes protected by the given token
+     */
+    public ArrayList<RMNode> getFreeNodesWithToken(String token) {
+        return freeNodes.getNodesWithToken(token);
     }
 
     /**
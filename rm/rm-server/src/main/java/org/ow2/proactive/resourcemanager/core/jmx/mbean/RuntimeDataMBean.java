@@ -192,4 +192,14 @@ public interface RuntimeDataMBean {
      */
     public byte[] getStatisticHistory() throws IOException;
 
+    /**
+     * Returns the history of the given statistics, kept in memory by the RRD data store.
+     *
+     * @param dataSources the names of the statistics in the RRD data base
+     * @param ranges the time range of each statistic, one character per statistic
+     * (see {@link org.ow2.proactive.jmx.RRDDataStore#HISTORY_RANGES})
+     * @return a JSON object with the values of each statistic
+     */
+    public String queryStatisticHistory(String[] dataSources, String ranges);
+
 }
\ No newline at end of file
@@ -220,4 +220,11 @@ public class RuntimeDataMBeanImpl extends StandardMBean implements RuntimeDataMB
     public byte[] getStatisticHistory() throws IOException {
         return RMJMXHelper.getInstance().getDataStore().getBytes();
     }
+
+    /**
+     * @see org.ow2.proactive.resourcemanager.core.jmx.mbean.RuntimeDataMBean#queryStatisticHistory(String[], String)
+     */
+    public String queryStatisticHistory(String[] dataSources, String ranges) {
+        return RMJMXHelper.getInstance().getDataStore().getHistory(dataSources, ranges);
+    }
 }
\ No newline at end of file
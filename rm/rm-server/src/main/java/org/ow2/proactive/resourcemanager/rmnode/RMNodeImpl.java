@@ -40,7 +40,14 @@ import java.io.IOException;
 import java.io.Serializable;
 import java.security.Permission;
 import java.util.HashMap;
-
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.objectweb.proactive.api.PAActiveObject;
+import org.objectweb.proactive.core.body.UniversalBody;
 import org.objectweb.proactive.core.descriptor.data.VirtualNode;
 import org.objectweb.proactive.core.node.Node;
 import org.objectweb.proactive.core.node.NodeException;
@@ -58,6 +65,7 @@ import org.ow2.proactive.scripting.ScriptHandler;
 import org.ow2.proactive.scripting.ScriptLoader;
 import org.ow2.proactive.scripting.ScriptResult;
 import org.ow2.proactive.scripting.SelectionScript;
+import org.ow2.proactive.utils.ReusableActiveObject;
 import org.apache.log4j.Logger;
 
 
@@ -107,8 +115,12 @@ public class RMNodeImpl implements RMNode, Serializable {
     /** JVM name of the node */
     private String jvmName;
 
-    /** Script handled, manage scripts launching and results recovering */
-    private ScriptHandler handler = null;
+    /**
+     * Script handlers of the nodes, manage scripts launching and results recovering.
+     * A handler is kept for all the copies of the node and survives the node cleaning,
+     * so that its script engines stay warm.
+     */
+    private static final ConcurrentHashMap<String, ScriptHandler> handlers = new ConcurrentHashMap<String, ScriptHandler>();
 
     /** {@link NodeSource} Stub of NodeSource that handle the RMNode */
     private NodeSource nodeSource;
@@ -332,14 +344,35 @@ public class RMNodeImpl implements RMNode, Serializable {
         return nodeInfo;
     }
 
-    private void initHandler() throws NodeException {
-        if (this.handler == null) {
+    private ScriptHandler initHandler() throws NodeException {
+        ScriptHandler handler = handlers.get(this.nodeURL);
+        if (handler == null) {
             try {
-                this.handler = ScriptLoader.createHandler(this.node);
+                handler = ScriptLoader.createHandler(this.node);
             } catch (Exception e) {
                 throw new NodeException("Unable to create Script Handler on node ", e);
             }
+            ScriptHandler existing = handlers.putIfAbsent(this.nodeURL, handler);
+            if (existing != null) {
+                // created concurrently by another copy of this node
+                try {
+                    PAActiveObject.terminateActiveObject(handler, true);
+                } catch (RuntimeException e) {
+                    logger.debug(nodeURL + " : cannot terminate the script handler", e);
+                }
+                handler = existing;
+            }
         }
+        return handler;
+    }
+
+    /**
+     * Forgets the script handler of a node, when the node is removed from the resource manager.
+     *
+     * @param nodeUrl url of the node
+     */
+    public static void removeHandler(String nodeUrl) {
+        handlers.remove(nodeUrl);
     }
 
     /**
@@ -347,8 +380,7 @@ public class RMNodeImpl implements RMNode, Serializable {
      * @return the ProActive stub on the script handler.
      */
     public ScriptHandler getHandler() throws NodeException {
-        this.initHandler();
-        return this.handler;
+        return this.initHandler();
     }
 
     /**
@@ -359,30 +391,101 @@ public class RMNodeImpl implements RMNode, Serializable {
      *
      */
     public <T> ScriptResult<T> executeScript(Script<T> script) {
+        ScriptHandler handler;
         try {
-            this.initHandler();
+            handler = this.initHandler();
         } catch (NodeException e) {
             return new ScriptResult<T>(e);
         }
-        return this.handler.handle(script);
+        try {
+            return handler.handle(script);
+        } catch (RuntimeException e) {
+            // the handler is not reachable anymore, creating a new one
+            logger.debug(nodeURL + " : script handler is not reachable, creating a new one", e);
+            handlers.remove(this.nodeURL, handler);
+            try {
+                return this.initHandler().handle(script);
+            } catch (NodeException ne) {
+                return new ScriptResult<T>(ne);
+            }
+        }
     }
 
     /**
      * Clean the node.
-     * kill all active objects on the node.
+     * kill all active objects on the node except the script handler and the
+     * {@link ReusableActiveObject} which can be reused.
      * @throws IOException
      * @throws NodeException
      */
     public synchronized void clean() throws NodeException {
-        handler = null;
+        logger.debug(nodeURL + " : cleaning");
+        ScriptHandler handler = handlers.get(this.nodeURL);
+        try {
+            String handlerUrl = handler == null ? null : PAActiveObject.getUrl(handler);
+            boolean handlerAlive = false;
+            // active objects are identified by their url, class name => urls of the objects to terminate
+            Map<String, Set<String>> toTerminate = new HashMap<String, Set<String>>();
+            for (UniversalBody body : node.getProActiveRuntime().getActiveObjects(
+                    node.getNodeInformation().getName())) {
+                String url = body.getUrl();
+                if (url.equals(handlerUrl)) {
+                    handlerAlive = true;
+                } else {
+                    Set<String> urls = toTerminate.get(body.getReifiedClassName());
+                    if (urls == null) {
+                        urls = new HashSet<String>();
+                        toTerminate.put(body.getReifiedClassName(), urls);
+                    }
+                    urls.add(url);
+                }
+            }
+            // only the stubs of the objects to terminate are created
+            for (Entry<String, Set<String>> entry : toTerminate.entrySet()) {
+                boolean reusableClass = isReusableClass(entry.getKey());
+                for (Object activeObject : node.getActiveObjects(entry.getKey())) {
+                    if (entry.getValue().contains(PAActiveObject.getUrl(activeObject)) &&
+                        !(reusableClass && isReusable(activeObject))) {
+                        PAActiveObject.terminateActiveObject(activeObject, true);
+                    }
+                }
+            }
+            if (handler != null && !handlerAlive) {
+                handlers.remove(this.nodeURL, handler);
+            }
+            return;
+        } catch (Exception e) {
+            logger.debug(nodeURL + " : cannot clean the node keeping the reusable active objects", e);
+            if (handler != null) {
+                handlers.remove(this.nodeURL, handler);
+            }
+        }
         try {
-            logger.debug(nodeURL + " : cleaning");
             node.killAllActiveObjects();
         } catch (IOException e) {
             throw new NodeException("Node is down");
         }
     }
 
+    private boolean isReusableClass(String className) {
+        try {
+            return ReusableActiveObject.class.isAssignableFrom(Class.forName(className, false, Thread
+                    .currentThread().getContextClassLoader()));
+        } catch (ClassNotFoundException e) {
+            // not known by the resource manager, cannot be asked whether it is reusable
+            return false;
+        }
+    }
+
+    private boolean isReusable(Object activeObject) {
+        try {
+            return ((ReusableActiveObject) activeObject).isReusable();
+        } catch (RuntimeException e) {
+            logger.debug(nodeURL + " : cannot check if an active object is reusable", e);
+            return false;
+        }
+    }
+
     /**
      * Compare two RMNode objects
      * @return true if the two RMNode objects represent the same Node.
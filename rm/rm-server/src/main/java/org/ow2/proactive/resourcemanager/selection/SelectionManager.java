@@ -227,7 +227,9 @@ public abstract class SelectionManager {
         // can throw Exception if topology is disabled
         TopologyHandler handler = RMCore.topologyManager.getHandler(criteria.getTopology());
 
-        List<RMNode> freeNodes = rmcore.getFreeNodes();
+        // when a token is requested only the nodes protected by this token are eligible
+        List<RMNode> freeNodes = isNodeWithTokenRequested(criteria) ? rmcore.getFreeNodesWithToken(criteria
+                .getNodeAccessToken()) : rmcore.getFreeNodes();
         // filtering out the "free node list"
         // removing exclusion and checking permissions
         List<RMNode> filteredNodes = filterOut(freeNodes, criteria, client);
@@ -440,8 +442,7 @@ public abstract class SelectionManager {
 
         NodeSet exclusion = criteria.getBlackList();
 
-        boolean nodeWithTokenRequested = criteria.getNodeAccessToken() != null &&
-            criteria.getNodeAccessToken().length() > 0;
+        boolean nodeWithTokenRequested = isNodeWithTokenRequested(criteria);
 
         TokenPrincipal tokenPrincipal = null;
         if (nodeWithTokenRequested) {
@@ -490,6 +491,10 @@ public abstract class SelectionManager {
         return filteredList;
     }
 
+    private boolean isNodeWithTokenRequested(Criteria criteria) {
+        return criteria.getNodeAccessToken() != null && criteria.getNodeAccessToken().length() > 0;
+    }
+
     public <T> List<ScriptResult<T>> executeScript(final Script<T> script, final Collection<RMNode> nodes) {
         // TODO: add a specific timeout for script execution
         final int timeout = PAResourceManagerProperties.RM_EXECUTE_SCRIPT_TIMEOUT.getValueAsInt();
@@ -564,6 +569,15 @@ public abstract class SelectionManager {
         return results;
     }
 
+    /**
+     * Indicates that the node with specified url has been removed from the resource manager,
+     * the information kept about this node can be discarded.
+     *
+     * @param nodeUrl url of the removed node
+     */
+    public void nodeRemoved(String nodeUrl) {
+    }
+
     /**
      * Indicates that script execution is finished for the node with specified url.
      */
@@ -0,0 +1,109 @@
+/*
+ * ################################################################
+ *
+ * ProActive Parallel Suite(TM): The Java(TM) library for
+ *    Parallel, Distributed, Multi-Core Computing for
+ *    Enterprise Grids & Clouds
+ *
+ * Copyright (C) 1997-2011 INRIA/University of
+ *                 Nice-Sophia Antipolis/ActiveEon
+ * Contact: proactive@ow2.org or contact@activeeon.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation; version 3 of
+ * the License.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307
+ * USA
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ *
+ *  Initial developer(s):               The ProActive Team
+ *                        http://proactive.inria.fr/team_members.htm
+ *  Contributor(s):
+ *
+ * ################################################################
+ * $$PROACTIVE_INITIAL_DEV$$
+ */
+package org.ow2.proactive.resourcemanager.selection.statistics;
+
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+
+
+/**
+ * Dense ids of the nodes, used as indexes in the {@link ScriptProbabilities}.
+ * <p>
+ * The id of a removed node is given again to the next new node, lowest ids first,
+ * so that the probabilities arrays do not grow beyond the number of nodes.
+ * Lookups are lock free, allocations and removals are synchronized.
+ */
+public class NodeIds {
+
+    private final ConcurrentHashMap<String, Integer> ids = new ConcurrentHashMap<String, Integer>();
+
+    private final PriorityQueue<Integer> freeIds = new PriorityQueue<Integer>();
+
+    private int nextId = 0;
+
+    /**
+     * @param nodeUrl url of the node
+     * @return the id of the node, -1 if the node has no id
+     */
+    public int get(String nodeUrl) {
+        Integer id = ids.get(nodeUrl);
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * @param nodeUrl url of the node
+     * @return the id of the node, a free id is given to the node if it has none
+     */
+    public synchronized int getOrAllocate(String nodeUrl) {
+        Integer id = ids.get(nodeUrl);
+        if (id == null) {
+            id = freeIds.isEmpty() ? nextId++ : freeIds.poll();
+            ids.put(nodeUrl, id);
+        }
+        return id;
+    }
+
+    /**
+     * Free the id of the node, it will be given to another node.
+     *
+     * @param nodeUrl url of the removed node
+     * @return the freed id, -1 if the node had no id
+     */
+    public synchronized int remove(String nodeUrl) {
+        Integer id = ids.remove(nodeUrl);
+        if (id == null) {
+            return -1;
+        }
+        freeIds.add(id);
+        return id;
+    }
+
+    /**
+     * @return the number of nodes having an id
+     */
+    public int size() {
+        return ids.size();
+    }
+
+    /**
+     * @return the highest id given so far plus one
+     */
+    public synchronized int capacity() {
+        return nextId;
+    }
+
+}
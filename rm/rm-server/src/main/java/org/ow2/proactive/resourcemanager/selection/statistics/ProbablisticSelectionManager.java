@@ -40,7 +40,6 @@ import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
-import java.util.LinkedList;
 import java.util.List;
 
 import org.apache.log4j.Logger;
@@ -74,24 +73,21 @@ public class ProbablisticSelectionManager extends SelectionManager {
     private final static Logger logger = Logger.getLogger(ProbablisticSelectionManager.class);
 
     // contains an information about already executed scripts
-    // script digest => node => probability
-    private HashMap<String, HashMap<String, Probability>> probabilities;
+    // script digest => node id => probability
+    // when the number of scripts exceeds the limit the least recently used script is removed
+    private SelectionScriptsCache probabilities;
 
-    // in order to avoid OOM when the number of scripts exceeds the limit
-    // we could :
-    // 1. Reset all the probabilities for all scripts (simple but long to recover performance)
-    // 2. Remove the oldest script execution results (too expensive and complicated)
-    //	  need to store the time, update it each time, then sort when removing
-    //    the system will be too CPU consuming working on the limit
-    // 3. Removed the oldest added script. For this we have this queue. 
-    private LinkedList<String> digestQueue = new LinkedList<String>();
+    // dense ids of the nodes, used as indexes in the scripts probabilities
+    private NodeIds nodeIds;
 
     public ProbablisticSelectionManager() {
     }
 
     public ProbablisticSelectionManager(RMCore rmcore) {
         super(rmcore);
-        this.probabilities = new HashMap<String, HashMap<String, Probability>>();
+        this.probabilities = new SelectionScriptsCache(PAResourceManagerProperties.RM_SELECT_SCRIPT_CACHE_SIZE
+                .getValueAsInt());
+        this.nodeIds = new NodeIds();
     }
 
     /**
@@ -115,21 +111,29 @@ public class ProbablisticSelectionManager extends SelectionManager {
         }
 
         try {
+            // looking for the scripts results once for all the nodes
+            List<ScriptProbabilities> scriptsProbabilities = new ArrayList<ScriptProbabilities>(scripts
+                    .size());
+            for (SelectionScript script : scripts) {
+                scriptsProbabilities.add(probabilities.get(script.getDigest()));
+            }
+
             // finding intersection
             HashMap<RMNode, Probability> intersectionMap = new HashMap<RMNode, Probability>();
             for (RMNode rmnode : nodes) {
                 boolean intersection = true;
                 double intersectionProbability = 1;
-                for (SelectionScript script : scripts) {
-                    String digest = new String(script.digest());
-                    if (probabilities.containsKey(digest) &&
-                        probabilities.get(digest).containsKey(rmnode.getNodeURL())) {
-                        double probability = probabilities.get(digest).get(rmnode.getNodeURL()).value();
-                        if (probability == 0) {
+                int nodeId = nodeIds.get(rmnode.getNodeURL());
+                for (ScriptProbabilities scriptProbabilities : scriptsProbabilities) {
+                    Probability probability = scriptProbabilities == null || nodeId < 0 ? null
+                            : scriptProbabilities.get(nodeId);
+                    if (probability != null) {
+                        double value = probability.value();
+                        if (value == 0) {
                             intersection = false;
                             break;
                         } else {
-                            intersectionProbability *= probability;
+                            intersectionProbability *= value;
                         }
                     } else {
                         intersectionProbability *= Probability.defaultValue();
@@ -173,13 +177,13 @@ public class ProbablisticSelectionManager extends SelectionManager {
      * @return true if script will pass on the node
      */
     @Override
-    public synchronized boolean isPassed(SelectionScript script, RMNode rmnode) {
-        String digest;
+    public boolean isPassed(SelectionScript script, RMNode rmnode) {
         try {
-            digest = new String(script.digest());
-            if (probabilities.containsKey(digest) &&
-                probabilities.get(digest).containsKey(rmnode.getNodeURL())) {
-                Probability p = probabilities.get(digest).get(rmnode.getNodeURL());
+            ScriptProbabilities scriptProbabilities = probabilities.get(script.getDigest());
+            int nodeId = nodeIds.get(rmnode.getNodeURL());
+            Probability p = scriptProbabilities == null || nodeId < 0 ? null : scriptProbabilities
+                    .get(nodeId);
+            if (p != null) {
                 String scriptType = script.isDynamic() ? "dynamic" : "static";
                 if (logger.isDebugEnabled())
                     logger.debug(rmnode.getNodeURL() + " : " + script.hashCode() + " known " + scriptType +
@@ -211,13 +215,19 @@ public class ProbablisticSelectionManager extends SelectionManager {
         boolean result = false;
 
         try {
-            String digest = new String(script.digest());
-            Probability probability = new Probability(Probability.defaultValue());
-            if (probabilities.containsKey(digest) &&
-                probabilities.get(digest).containsKey(rmnode.getNodeURL())) {
-                probability = probabilities.get(digest).get(rmnode.getNodeURL());
-                assert (probability.value() >= 0 && probability.value() <= 1);
+            long evictions = probabilities.getEvictions();
+            ScriptProbabilities scriptProbabilities = probabilities.getOrCreate(script.getDigest());
+            if (logger.isDebugEnabled() && probabilities.getEvictions() > evictions) {
+                logger.debug("Removed the least recently used script from the data base " +
+                    "because the limit is reached, scripts cache " + probabilities);
+            }
+
+            int nodeId = nodeIds.getOrAllocate(rmnode.getNodeURL());
+            Probability probability = scriptProbabilities.get(nodeId);
+            if (probability == null) {
+                probability = new Probability(Probability.defaultValue());
             }
+            assert (probability.value() >= 0 && probability.value() <= 1);
 
             if (scriptResult == null || scriptResult != null && scriptResult.errorOccured()) {
                 // error during script execution
@@ -238,29 +248,12 @@ public class ProbablisticSelectionManager extends SelectionManager {
                 }
             }
 
-            if (!probabilities.containsKey(digest)) {
-                // checking if the number of selection script does not exceeded the maximum
-                if (probabilities.size() >= PAResourceManagerProperties.RM_SELECT_SCRIPT_CACHE_SIZE
-                        .getValueAsInt()) {
-                    String oldest = digestQueue.poll();
-                    probabilities.remove(oldest);
-                    if (logger.isDebugEnabled()) {
-                        logger.debug("Removing the script: " + script.hashCode() +
-                            " from the data base because the limit is reached");
-                    }
-                }
-                // adding a new script record
-                probabilities.put(digest, new HashMap<String, Probability>());
-                logger.debug("Scripts cache size " + probabilities.size());
-                digestQueue.offer(digest);
-            }
-
             if (logger.isDebugEnabled()) {
                 logger.debug(rmnode.getNodeURL() + " : script " + script.hashCode() + ", probability " +
                     probability);
             }
 
-            probabilities.get(digest).put(rmnode.getNodeURL().intern(), probability);
+            scriptProbabilities.set(nodeId, probability);
 
         } catch (NoSuchAlgorithmException e) {
             logger.error(e.getMessage(), e);
@@ -269,6 +262,20 @@ public class ProbablisticSelectionManager extends SelectionManager {
         return result;
     }
 
+    /**
+     * Forgets the scripts results of a removed node and frees its id.
+     * Synchronized with {@link #processScriptResult}, the only place where ids are given,
+     * so that a freed id is given again only once the results of the removed node are cleared.
+     */
+    @Override
+    public synchronized void nodeRemoved(String nodeUrl) {
+        int nodeId = nodeIds.get(nodeUrl);
+        if (nodeId >= 0) {
+            probabilities.removeNode(nodeId);
+            nodeIds.remove(nodeUrl);
+        }
+    }
+
     /**
      * @see org.ow2.proactive.authentication.Loggable#getLogger()
      */
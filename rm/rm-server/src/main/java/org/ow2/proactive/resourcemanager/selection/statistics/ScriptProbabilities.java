@@ -0,0 +1,102 @@
+/*
+ * ################################################################
+ *
+ * ProActive Parallel Suite(TM): The Java(TM) library for
+ *    Parallel, Distributed, Multi-Core Computing for
+ *    Enterprise Grids & Clouds
+ *
+ * Copyright (C) 1997-2011 INRIA/University of
+ *                 Nice-Sophia Antipolis/ActiveEon
+ * Contact: proactive@ow2.org or contact@activeeon.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation; version 3 of
+ * the License.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307
+ * USA
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ *
+ *  Initial developer(s):               The ProActive Team
+ *                        http://proactive.inria.fr/team_members.htm
+ *  Contributor(s):
+ *
+ * ################################################################
+ * $$PROACTIVE_INITIAL_DEV$$
+ */
+package org.ow2.proactive.resourcemanager.selection.statistics;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+
+/**
+ * Probabilities of a selection script to pass on the nodes, indexed by
+ * the dense node ids given by the selection manager.
+ * <p>
+ * Reads are lock free, updates are synchronized as the array grows with the
+ * node ids.
+ */
+public class ScriptProbabilities {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private volatile AtomicReferenceArray<Probability> probabilities = new AtomicReferenceArray<Probability>(
+        INITIAL_CAPACITY);
+
+    /** value of the cache clock when the script was used for the last time */
+    volatile long lastUsed;
+
+    /**
+     * @param nodeId id of the node
+     * @return the probability of the script to pass on the node, null if the script
+     * has never been executed on the node
+     */
+    public Probability get(int nodeId) {
+        AtomicReferenceArray<Probability> current = probabilities;
+        if (nodeId >= current.length()) {
+            return null;
+        }
+        return current.get(nodeId);
+    }
+
+    /**
+     * @param nodeId id of the node
+     * @param probability the new probability of the script to pass on the node
+     */
+    public synchronized void set(int nodeId, Probability probability) {
+        AtomicReferenceArray<Probability> current = probabilities;
+        if (nodeId >= current.length()) {
+            AtomicReferenceArray<Probability> grown = new AtomicReferenceArray<Probability>(Math.max(
+                    nodeId + 1, current.length() * 2));
+            for (int i = 0; i < current.length(); i++) {
+                grown.set(i, current.get(i));
+            }
+            probabilities = grown;
+            current = grown;
+        }
+        current.set(nodeId, probability);
+    }
+
+    /**
+     * Forget the probability of the script on a removed node, its id can be given to another node.
+     *
+     * @param nodeId id of the removed node
+     */
+    public synchronized void clear(int nodeId) {
+        AtomicReferenceArray<Probability> current = probabilities;
+        if (nodeId >= 0 && nodeId < current.length()) {
+            current.set(nodeId, null);
+        }
+    }
+
+}
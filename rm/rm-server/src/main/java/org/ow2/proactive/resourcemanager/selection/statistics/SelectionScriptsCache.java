@@ -0,0 +1,158 @@
+/*
+ * ################################################################
+ *
+ * ProActive Parallel Suite(TM): The Java(TM) library for
+ *    Parallel, Distributed, Multi-Core Computing for
+ *    Enterprise Grids & Clouds
+ *
+ * Copyright (C) 1997-2011 INRIA/University of
+ *                 Nice-Sophia Antipolis/ActiveEon
+ * Contact: proactive@ow2.org or contact@activeeon.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation; version 3 of
+ * the License.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307
+ * USA
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ *
+ *  Initial developer(s):               The ProActive Team
+ *                        http://proactive.inria.fr/team_members.htm
+ *  Contributor(s):
+ *
+ * ################################################################
+ * $$PROACTIVE_INITIAL_DEV$$
+ */
+package org.ow2.proactive.resourcemanager.selection.statistics;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+
+/**
+ * Bounded cache of the selection scripts execution results, keyed by the script digest.
+ * <p>
+ * Lookups are lock free. When the cache is full, adding a new script evicts
+ * the least recently used one.
+ */
+public class SelectionScriptsCache {
+
+    private final int maxSize;
+
+    private final ConcurrentHashMap<String, ScriptProbabilities> scripts = new ConcurrentHashMap<String, ScriptProbabilities>();
+
+    /** logical clock used to find the least recently used script */
+    private final AtomicLong clock = new AtomicLong();
+
+    private final AtomicLong hits = new AtomicLong();
+
+    private final AtomicLong misses = new AtomicLong();
+
+    private final AtomicLong evictions = new AtomicLong();
+
+    /**
+     * @param maxSize maximum number of scripts in the cache
+     */
+    public SelectionScriptsCache(int maxSize) {
+        this.maxSize = Math.max(1, maxSize);
+    }
+
+    /**
+     * @param digest digest of the script
+     * @return the results of the script, null if the script is not in the cache
+     */
+    public ScriptProbabilities get(String digest) {
+        ScriptProbabilities probabilities = scripts.get(digest);
+        if (probabilities == null) {
+            misses.incrementAndGet();
+        } else {
+            hits.incrementAndGet();
+            probabilities.lastUsed = clock.incrementAndGet();
+        }
+        return probabilities;
+    }
+
+    /**
+     * Returns the results of the script, adding them to the cache if needed.
+     *
+     * @param digest digest of the script
+     * @return the results of the script
+     */
+    public synchronized ScriptProbabilities getOrCreate(String digest) {
+        ScriptProbabilities probabilities = scripts.get(digest);
+        if (probabilities == null) {
+            if (scripts.size() >= maxSize) {
+                evictLeastRecentlyUsed();
+            }
+            probabilities = new ScriptProbabilities();
+            scripts.put(digest, probabilities);
+        }
+        probabilities.lastUsed = clock.incrementAndGet();
+        return probabilities;
+    }
+
+    /**
+     * Forget the results of all the scripts on a removed node.
+     *
+     * @param nodeId id of the removed node
+     */
+    public synchronized void removeNode(int nodeId) {
+        for (ScriptProbabilities probabilities : scripts.values()) {
+            probabilities.clear(nodeId);
+        }
+    }
+
+    private void evictLeastRecentlyUsed() {
+        String eldest = null;
+        long eldestUse = Long.MAX_VALUE;
+        for (Map.Entry<String, ScriptProbabilities> entry : scripts.entrySet()) {
+            if (entry.getValue().lastUsed < eldestUse) {
+                eldestUse = entry.getValue().lastUsed;
+                eldest = entry.getKey();
+            }
+        }
+        if (eldest != null) {
+            scripts.remove(eldest);
+            evictions.incrementAndGet();
+        }
+    }
+
+    public int size() {
+        return scripts.size();
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    @Override
+    public String toString() {
+        return "size " + size() + "/" + maxSize + ", hits " + getHits() + ", misses " + getMisses() +
+            ", evictions " + getEvictions();
+    }
+
+}
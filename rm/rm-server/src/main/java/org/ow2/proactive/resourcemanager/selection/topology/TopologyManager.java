@@ -204,7 +204,7 @@ public class TopologyManager {
      * Launches the pinging process from new host. It will ping all other hosts
      * according to the pinger logic.
      */
-    private HashMap<InetAddress, Long> pingNode(Node node, NodeSet nodes) {
+    protected HashMap<InetAddress, Long> pingNode(Node node, NodeSet nodes) {
 
         try {
             logger.debug("Launching ping process on node " + node.getNodeInformation().getURL());
@@ -253,6 +253,41 @@ public class TopologyManager {
         }
     }
 
+    /**
+     * Groups the matched nodes by host. Only the hosts known by the topology are returned,
+     * so handlers go through the hosts having matched nodes instead of all the hosts.
+     */
+    private HashMap<InetAddress, List<Node>> getMatchedNodesOnHost(List<Node> matchedNodes) {
+        HashMap<InetAddress, List<Node>> matchedNodesOnHost = new HashMap<InetAddress, List<Node>>();
+        for (Node matchedNode : matchedNodes) {
+            InetAddress host = matchedNode.getVMInformation().getInetAddress();
+            if (!nodesOnHost.containsKey(host)) {
+                continue;
+            }
+            List<Node> nodes = matchedNodesOnHost.get(host);
+            if (nodes == null) {
+                nodes = new LinkedList<Node>();
+                matchedNodesOnHost.put(host, nodes);
+            }
+            nodes.add(matchedNode);
+        }
+        return matchedNodesOnHost;
+    }
+
+    /**
+     * Returns the hosts having no busy nodes, i.e. the hosts all nodes of which are matched.
+     */
+    private List<InetAddress> getFreeHosts(HashMap<InetAddress, List<Node>> matchedNodesOnHost) {
+        List<InetAddress> freeHosts = new LinkedList<InetAddress>();
+        for (InetAddress host : matchedNodesOnHost.keySet()) {
+            List<Node> nodes = nodesOnHost.get(host);
+            if (nodes != null && nodes.size() == matchedNodesOnHost.get(host).size()) {
+                freeHosts.add(host);
+            }
+        }
+        return freeHosts;
+    }
+
     // Handlers implementations
 
     /**
@@ -316,31 +351,20 @@ public class TopologyManager {
             if (number <= 0 || matchedNodes.size() == 0) {
                 return new NodeSet();
             }
-            if (number > matchedNodes.size()) {
-                // cannot select more than matchedNodes.size()
-                number = matchedNodes.size();
-            }
 
-            NodeSet result = new NodeSet();
-            for (InetAddress host : nodesOnHost.keySet()) {
-                if (nodesOnHost.get(host).size() >= number) {
-                    // found the host with required capacity
-                    // checking that all nodes are free
-                    for (Node nodeOnHost : nodesOnHost.get(host)) {
-                        if (matchedNodes.contains(nodeOnHost)) {
-                            result.add(nodeOnHost);
-                            if (result.size() == number) {
-                                // found enough nodes on the same host
-                                return result;
-                            }
-                        } else {
-                            continue;
-                        }
-                    }
-                    result.clear();
+            // only the hosts having matched nodes are considered
+            List<Node> largest = null;
+            for (List<Node> matchedOnHost : getMatchedNodesOnHost(matchedNodes).values()) {
+                if (matchedOnHost.size() >= number) {
+                    // found enough nodes on the same host
+                    return new NodeSet(matchedOnHost.subList(0, number));
+                }
+                if (largest == null || matchedOnHost.size() > largest.size()) {
+                    largest = matchedOnHost;
                 }
             }
-            return select(number - 1, matchedNodes);
+            // best effort: the host with the biggest number of matched nodes
+            return largest == null ? new NodeSet() : new NodeSet(largest);
         }
     }
 
@@ -360,8 +384,15 @@ public class TopologyManager {
             if (number <= 0 || matchedNodes.size() == 0) {
                 return new NodeSet();
             }
+            if (number > matchedNodes.size()) {
+                // cannot select more than matchedNodes.size()
+                number = matchedNodes.size();
+            }
 
-            List<InetAddress> sortedByNodesNumber = new LinkedList<InetAddress>(nodesOnHost.keySet());
+            List<InetAddress> sortedByNodesNumber = getFreeHosts(getMatchedNodesOnHost(matchedNodes));
+            if (sortedByNodesNumber.size() == 0) {
+                return new NodeSet();
+            }
 
             Collections.sort(sortedByNodesNumber, new Comparator<InetAddress>() {
                 public int compare(InetAddress host, InetAddress host2) {
@@ -369,52 +400,26 @@ public class TopologyManager {
                 }
             });
 
-            return selectRecursively(number, sortedByNodesNumber, matchedNodes);
-        }
-
-        private NodeSet selectRecursively(int number, List<InetAddress> hostsSortedByNodesNumber,
-                List<Node> matchedNodes) {
-
-            if (number <= 0 || matchedNodes.size() == 0) {
-                return new NodeSet();
-            }
-            if (number > matchedNodes.size()) {
-                // cannot select more than matchedNodes.size()
-                number = matchedNodes.size();
-            }
-
-            List<InetAddress> busyHosts = new LinkedList<InetAddress>();
-            for (InetAddress host : hostsSortedByNodesNumber) {
+            // the host with the closest capacity bigger than or equal to the number,
+            // or the biggest host if there is no such host
+            InetAddress selectedHost = sortedByNodesNumber.get(sortedByNodesNumber.size() - 1);
+            for (InetAddress host : sortedByNodesNumber) {
                 if (nodesOnHost.get(host).size() >= number) {
-                    // found the host with required capacity
-                    // checking that all nodes are free
-                    boolean busyNode = false;
-                    for (Node nodeOnHost : nodesOnHost.get(host)) {
-                        if (!matchedNodes.contains(nodeOnHost)) {
-                            busyNode = true;
-                            busyHosts.add(host);
-                            break;
-                        }
-                    }
-                    // all nodes are free on host
-                    if (!busyNode) {
-                        // found enough nodes on the same host
-                        if (nodesOnHost.get(host).size() > number) {
-                            // some extra nodes will be provided
-                            List<Node> nodes = nodesOnHost.get(host);
-                            NodeSet result = new NodeSet(nodes.subList(0, number));
-                            result.setExtraNodes(new LinkedList<Node>(nodes.subList(number, nodes.size())));
-                            return result;
-                        } else {
-                            // all nodes required for computation
-                            return new NodeSet(nodesOnHost.get(host));
-                        }
-                    }
+                    selectedHost = host;
+                    break;
                 }
             }
 
-            hostsSortedByNodesNumber.removeAll(busyHosts);
-            return selectRecursively(number - 1, hostsSortedByNodesNumber, matchedNodes);
+            List<Node> nodes = nodesOnHost.get(selectedHost);
+            if (nodes.size() > number) {
+                // some extra nodes will be provided
+                NodeSet result = new NodeSet(nodes.subList(0, number));
+                result.setExtraNodes(new LinkedList<Node>(nodes.subList(number, nodes.size())));
+                return result;
+            } else {
+                // all nodes required for computation
+                return new NodeSet(nodes);
+            }
         }
     }
 
@@ -563,22 +568,12 @@ public class TopologyManager {
 
             // create the map of free hosts: nodes_number -> list of hosts
             HashMap<Integer, List<InetAddress>> hostsMap = new HashMap<Integer, List<InetAddress>>();
-            for (InetAddress host : nodesOnHost.keySet()) {
-                boolean busyNode = false;
-                for (Node nodeOnHost : nodesOnHost.get(host)) {
-                    // TODO: this is n^2 complexity. Change it as in MultipleHostsExclusiveHandler
-                    if (!matchedNodes.contains(nodeOnHost)) {
-                        busyNode = true;
-                        break;
-                    }
-                }
-                if (!busyNode) {
-                    int nodesNumber = nodesOnHost.get(host).size();
-                    if (!hostsMap.containsKey(nodesNumber)) {
-                        hostsMap.put(nodesNumber, new LinkedList<InetAddress>());
-                    }
-                    hostsMap.get(nodesNumber).add(host);
+            for (InetAddress host : getFreeHosts(getMatchedNodesOnHost(matchedNodes))) {
+                int nodesNumber = nodesOnHost.get(host).size();
+                if (!hostsMap.containsKey(nodesNumber)) {
+                    hostsMap.put(nodesNumber, new LinkedList<InetAddress>());
                 }
+                hostsMap.get(nodesNumber).add(host);
             }
 
             // if empty => no entirely free hosts
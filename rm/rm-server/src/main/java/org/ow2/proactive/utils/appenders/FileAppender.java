@@ -38,16 +38,23 @@ package org.ow2.proactive.utils.appenders;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Enumeration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.LinkedBlockingQueue;
 
 import org.apache.log4j.Appender;
+import org.apache.log4j.Layout;
 import org.apache.log4j.Logger;
 import org.apache.log4j.MDC;
 import org.apache.log4j.PatternLayout;
 import org.apache.log4j.RollingFileAppender;
 import org.apache.log4j.WriterAppender;
 import org.apache.log4j.spi.LoggingEvent;
-import org.ow2.proactive.resourcemanager.core.properties.PAResourceManagerProperties;
 
 
 /**
@@ -57,15 +64,45 @@ import org.ow2.proactive.resourcemanager.core.properties.PAResourceManagerProper
  * 
  * Is used to put server logs for tasks and jobs into files with 
  * different names.
+ * <p>
+ * Events are written by a dedicated thread, in the order they were appended. The most
+ * recently used files are kept open (see {@link #setMaxOpenFiles(int)}) and flushed once
+ * per batch of events. Readers of the files must call {@link #flush()} first.
+ * When the writer thread is late and {@link #setMaxPendingEvents(int) too many events} are
+ * waiting, the appending threads write the pending events themselves.
  *
  */
 public class FileAppender extends WriterAppender {
 
     public static final String FILE_NAME = "filename";
+
+    /** Default maximum number of files kept open at the same time */
+    public static final int DEFAULT_MAX_OPEN_FILES = 100;
+
+    /** Default maximum number of events waiting for the writer thread */
+    public static final int DEFAULT_MAX_PENDING_EVENTS = 10000;
+
     private String maxFileSize;
 
     protected String filesLocation;
 
+    private int maxOpenFiles = DEFAULT_MAX_OPEN_FILES;
+
+    private int maxPendingEvents = DEFAULT_MAX_PENDING_EVENTS;
+
+    /** Open files by name, the first one is the least recently used, also guards the writes */
+    private final LinkedHashMap<String, FileWriterAppender> openFiles = new LinkedHashMap<String, FileWriterAppender>(
+        16, 0.75f, true);
+
+    /** Events waiting to be written, bounded by maxPendingEvents */
+    private final LinkedBlockingQueue<PendingEvent> pendingEvents = new LinkedBlockingQueue<PendingEvent>();
+
+    private final Object wakeUp = new Object();
+
+    private Thread writer;
+
+    private volatile boolean stopped;
+
     public FileAppender() {
 
         setLayout(new PatternLayout("[%d{ISO8601} %-5p] %m%n"));
@@ -90,26 +127,144 @@ public class FileAppender extends WriterAppender {
     }
 
     public void append(String fileName, LoggingEvent event) {
+        if (stopped) {
+            return;
+        }
         if (filesLocation != null) {
             fileName = filesLocation + File.separator + fileName;
         }
 
-        try {
-            RollingFileAppender appender = new RollingFileAppender(getLayout(), fileName, true);
-            appender.setMaxBackupIndex(1);
-            if (maxFileSize != null) {
-                appender.setMaxFileSize(maxFileSize);
+        // the event is formatted by the writer thread, get the context of the current thread now
+        event.getNDC();
+        event.getThreadName();
+        event.getMDCCopy();
+        event.getRenderedMessage();
+        event.getThrowableStrRep();
+
+        pendingEvents.add(new PendingEvent(fileName, event));
+        if (pendingEvents.size() > maxPendingEvents) {
+            // the writer thread is late, slow down the appending thread instead of queuing more events
+            flush();
+            return;
+        }
+        startWriterIfNeeded();
+        synchronized (wakeUp) {
+            wakeUp.notify();
+        }
+    }
+
+    /**
+     * Write the pending events in the calling thread. When this method returns, all the events
+     * appended before the call are written to their files.
+     */
+    public void flush() {
+        synchronized (openFiles) {
+            List<PendingEvent> batch = new ArrayList<PendingEvent>();
+            while (pendingEvents.drainTo(batch) > 0) {
+                write(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Write the pending events and close the given file, for instance before deleting it.
+     *
+     * @param fileName name of the file, relative to the files location
+     */
+    public void closeFile(String fileName) {
+        if (filesLocation != null) {
+            fileName = filesLocation + File.separator + fileName;
+        }
+        synchronized (openFiles) {
+            flush();
+            FileWriterAppender appender = openFiles.remove(fileName);
+            if (appender != null) {
+                appender.close();
             }
-            appender.append(event);
-            appender.close();
-        } catch (IOException e) {
-            Logger.getRootLogger().error(e.getMessage(), e);
-            e.printStackTrace();
         }
     }
 
     @Override
     public void close() {
+        stopped = true;
+        synchronized (wakeUp) {
+            wakeUp.notify();
+        }
+        synchronized (openFiles) {
+            flush();
+            for (FileWriterAppender appender : openFiles.values()) {
+                appender.close();
+            }
+            openFiles.clear();
+        }
+    }
+
+    private synchronized void startWriterIfNeeded() {
+        if (writer == null) {
+            writer = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    writeLoop();
+                }
+            }, "FileAppender writer");
+            writer.setDaemon(true);
+            writer.start();
+        }
+    }
+
+    private void writeLoop() {
+        while (!stopped) {
+            try {
+                synchronized (wakeUp) {
+                    while (pendingEvents.isEmpty() && !stopped) {
+                        wakeUp.wait();
+                    }
+                }
+                flush();
+            } catch (InterruptedException e) {
+                return;
+            } catch (Throwable t) {
+                Logger.getRootLogger().error("Failed to write log events", t);
+            }
+        }
+    }
+
+    private void write(List<PendingEvent> batch) {
+        Set<FileWriterAppender> written = new LinkedHashSet<FileWriterAppender>();
+        for (PendingEvent pendingEvent : batch) {
+            try {
+                FileWriterAppender appender = getOpenFile(pendingEvent.fileName);
+                appender.append(pendingEvent.event);
+                written.add(appender);
+            } catch (IOException e) {
+                Logger.getRootLogger().error(e.getMessage(), e);
+            }
+        }
+        for (FileWriterAppender appender : written) {
+            appender.flush();
+        }
+    }
+
+    private FileWriterAppender getOpenFile(String fileName) throws IOException {
+        FileWriterAppender appender = openFiles.get(fileName);
+        if (appender == null) {
+            appender = new FileWriterAppender(getLayout(), fileName);
+            appender.setMaxBackupIndex(1);
+            if (maxFileSize != null) {
+                appender.setMaxFileSize(maxFileSize);
+            }
+            openFiles.put(fileName, appender);
+
+            Iterator<FileWriterAppender> leastRecentlyUsed = openFiles.values().iterator();
+            while (openFiles.size() > maxOpenFiles) {
+                FileWriterAppender evicted = leastRecentlyUsed.next();
+                evicted.flush();
+                evicted.close();
+                leastRecentlyUsed.remove();
+            }
+        }
+        return appender;
     }
 
     @Override
@@ -132,4 +287,49 @@ public class FileAppender extends WriterAppender {
     public void setMaxFileSize(String maxFileSize) {
         this.maxFileSize = maxFileSize;
     }
+
+    public int getMaxOpenFiles() {
+        return maxOpenFiles;
+    }
+
+    public void setMaxOpenFiles(int maxOpenFiles) {
+        this.maxOpenFiles = Math.max(1, maxOpenFiles);
+    }
+
+    public int getMaxPendingEvents() {
+        return maxPendingEvents;
+    }
+
+    public void setMaxPendingEvents(int maxPendingEvents) {
+        this.maxPendingEvents = Math.max(0, maxPendingEvents);
+    }
+
+    private static class PendingEvent {
+
+        private final String fileName;
+
+        private final LoggingEvent event;
+
+        private PendingEvent(String fileName, LoggingEvent event) {
+            this.fileName = fileName;
+            this.event = event;
+        }
+    }
+
+    /**
+     * Rolling file kept open between events, flushed explicitly once per batch.
+     */
+    private static class FileWriterAppender extends RollingFileAppender {
+
+        private FileWriterAppender(Layout layout, String fileName) throws IOException {
+            super(layout, fileName, true);
+            setImmediateFlush(false);
+        }
+
+        private void flush() {
+            if (qw != null) {
+                qw.flush();
+            }
+        }
+    }
 }
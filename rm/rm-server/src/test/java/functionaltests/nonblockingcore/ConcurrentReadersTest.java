@@ -0,0 +1,165 @@
+/*
+ * ################################################################
+ *
+ * ProActive Parallel Suite(TM): The Java(TM) library for
+ *    Parallel, Distributed, Multi-Core Computing for
+ *    Enterprise Grids & Clouds
+ *
+ * Copyright (C) 1997-2011 INRIA/University of
+ *                 Nice-Sophia Antipolis/ActiveEon
+ * Contact: proactive@ow2.org or contact@activeeon.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation; version 3 of
+ * the License.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307
+ * USA
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ *
+ *  Initial developer(s):               The ProActive Team
+ *                        http://proactive.inria.fr/team_members.htm
+ *  Contributor(s): ActiveEon Team - http://www.activeeon.com
+ *
+ * ################################################################
+ * $$ACTIVEEON_CONTRIBUTOR$$
+ */
+package functionaltests.nonblockingcore;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.ow2.proactive.authentication.crypto.CredData;
+import org.ow2.proactive.authentication.crypto.Credentials;
+import org.ow2.proactive.resourcemanager.authentication.RMAuthentication;
+import org.ow2.proactive.resourcemanager.common.RMState;
+import org.ow2.proactive.resourcemanager.frontend.ResourceManager;
+import org.ow2.proactive.utils.NodeSet;
+import org.junit.Assert;
+
+import functionaltests.RMConsecutive;
+import functionaltests.RMTHelper;
+
+
+/**
+ * Benchmark of the read only requests of the core (state, alive nodes) sent by many
+ * concurrent clients while another client keeps getting and releasing nodes.
+ * <p>
+ * The number of clients and of requests per client can be changed with the
+ * "rm.benchmark.clients" and "rm.benchmark.requests" system properties.
+ */
+public class ConcurrentReadersTest extends RMConsecutive {
+
+    private static final int CLIENTS_NUMBER = Integer.getInteger("rm.benchmark.clients", 1000);
+
+    private static final int REQUESTS_NUMBER = Integer.getInteger("rm.benchmark.requests", 20);
+
+    @org.junit.Test
+    public void action() throws Exception {
+        RMTHelper helper = RMTHelper.getDefaultInstance();
+        ResourceManager resourceManager = helper.getResourceManager();
+        int nodesNumber = 2;
+        helper.createNodeSource("ConcurrentReadersTest", nodesNumber);
+
+        final RMAuthentication auth = helper.getRMAuth();
+        final Credentials cred = Credentials.createCredentials(new CredData(RMTHelper.defaultUserName,
+            RMTHelper.defaultUserPassword), auth.getPublicKey());
+
+        final CountDownLatch connected = new CountDownLatch(CLIENTS_NUMBER);
+        final CountDownLatch start = new CountDownLatch(1);
+        final CountDownLatch finished = new CountDownLatch(CLIENTS_NUMBER);
+        final AtomicInteger served = new AtomicInteger();
+        final AtomicInteger inFlight = new AtomicInteger();
+        final AtomicInteger maxInFlight = new AtomicInteger();
+        final List<Throwable> errors = new CopyOnWriteArrayList<Throwable>();
+
+        RMTHelper.log("Connecting " + CLIENTS_NUMBER + " clients");
+        for (int i = 0; i < CLIENTS_NUMBER; i++) {
+            // each thread is a different client
+            Thread client = new Thread() {
+                public void run() {
+                    boolean loggedIn = false;
+                    try {
+                        ResourceManager rm = auth.login(cred);
+                        loggedIn = true;
+                        connected.countDown();
+                        start.await();
+                        for (int j = 0; j < REQUESTS_NUMBER; j++) {
+                            int reading = inFlight.incrementAndGet();
+                            updateMax(maxInFlight, reading);
+                            try {
+                                RMState state = rm.getState();
+                                if (state.getTotalNodesNumber() < state.getFreeNodesNumber()) {
+                                    throw new IllegalStateException("Inconsistent state " + state);
+                                }
+                                rm.listAliveNodeUrls();
+                            } finally {
+                                inFlight.decrementAndGet();
+                            }
+                            served.addAndGet(2);
+                        }
+                        rm.disconnect().getBooleanValue();
+                    } catch (Throwable t) {
+                        errors.add(t);
+                    } finally {
+                        if (!loggedIn) {
+                            connected.countDown();
+                        }
+                        finished.countDown();
+                    }
+                }
+            };
+            client.start();
+        }
+        Assert.assertTrue("Clients did not connect", connected.await(10, TimeUnit.MINUTES));
+
+        RMTHelper.log("Sending " + (2 * CLIENTS_NUMBER * REQUESTS_NUMBER) + " read only requests");
+        long startTime = System.currentTimeMillis();
+        start.countDown();
+
+        // the core keeps modifying the nodes state while the readers are served
+        long deadline = startTime + TimeUnit.MINUTES.toMillis(10);
+        int selections = 0;
+        while (finished.getCount() > 0 && System.currentTimeMillis() < deadline) {
+            NodeSet nodes = resourceManager.getAtMostNodes(nodesNumber, null);
+            resourceManager.releaseNodes(nodes).getBooleanValue();
+            selections++;
+        }
+        Assert.assertEquals("Clients did not finish", 0, finished.getCount());
+        long time = System.currentTimeMillis() - startTime;
+
+        RMTHelper.log(served.get() + " read only requests served in " + time + " ms (" +
+            (served.get() * 1000L / Math.max(1, time)) + " requests/s) with " + selections +
+            " concurrent selections");
+
+        if (!errors.isEmpty()) {
+            AssertionError failure = new AssertionError(errors.size() + " clients failed");
+            failure.initCause(errors.get(0));
+            throw failure;
+        }
+        Assert.assertEquals(2 * CLIENTS_NUMBER * REQUESTS_NUMBER, served.get());
+        Assert.assertTrue("Read only requests were never in flight at the same time",
+                maxInFlight.get() > 1);
+        Assert.assertEquals(nodesNumber, resourceManager.getState().getFreeNodesNumber());
+    }
+
+    private static void updateMax(AtomicInteger max, int value) {
+        int current = max.get();
+        while (value > current && !max.compareAndSet(current, value)) {
+            current = max.get();
+        }
+    }
+}
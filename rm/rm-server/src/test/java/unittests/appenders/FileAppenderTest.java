@@ -0,0 +1,206 @@
+/*
+ * ################################################################
+ *
+ * ProActive Parallel Suite(TM): The Java(TM) library for
+ *    Parallel, Distributed, Multi-Core Computing for
+ *    Enterprise Grids & Clouds
+ *
+ * Copyright (C) 1997-2011 INRIA/University of
+ *                 Nice-Sophia Antipolis/ActiveEon
+ * Contact: proactive@ow2.org or contact@activeeon.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation; version 3 of
+ * the License.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307
+ * USA
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ *
+ *  Initial developer(s):               The ProActive Team
+ *                        http://proactive.inria.fr/team_members.htm
+ *  Contributor(s): ActiveEon Team - http://www.activeeon.com
+ *
+ * ################################################################
+ * $$ACTIVEEON_CONTRIBUTOR$$
+ */
+package unittests.appenders;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.apache.log4j.Level;
+import org.apache.log4j.Logger;
+import org.apache.log4j.MDC;
+import org.apache.log4j.PatternLayout;
+import org.apache.log4j.spi.LoggingEvent;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.ow2.proactive.utils.appenders.FileAppender;
+import org.ow2.proactive.utils.appenders.MultipleFileAppender;
+
+
+public class FileAppenderTest {
+
+    private static final int EVENTS_NUMBER = 10000;
+
+    private static final int FILES_NUMBER = 100;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private FileAppender appender;
+
+    @Before
+    public void createAppender() {
+        appender = new FileAppender();
+        appender.setLayout(new PatternLayout("%m%n"));
+        appender.setFilesLocation(folder.getRoot().getAbsolutePath());
+    }
+
+    @After
+    public void closeAppender() {
+        appender.close();
+    }
+
+    @Test
+    public void eventsAreWrittenInOrderWithFewOpenFiles() throws Exception {
+        appender.setMaxOpenFiles(2);
+        for (int i = 0; i < 10; i++) {
+            for (String file : new String[] { "file1", "file2", "file3" }) {
+                appender.append(file, event(file + " line " + i));
+            }
+        }
+        appender.flush();
+
+        for (String file : new String[] { "file1", "file2", "file3" }) {
+            StringBuilder expected = new StringBuilder();
+            for (int i = 0; i < 10; i++) {
+                expected.append(file).append(" line ").append(i).append(System.getProperty("line.separator"));
+            }
+            Assert.assertEquals(expected.toString(), read(file));
+        }
+    }
+
+    @Test
+    public void eventIsWrittenToAllContextFiles() throws Exception {
+        MultipleFileAppender multipleFileAppender = new MultipleFileAppender();
+        multipleFileAppender.setLayout(new PatternLayout("%m%n"));
+        multipleFileAppender.setFilesLocation(folder.getRoot().getAbsolutePath());
+        MDC.put(MultipleFileAppender.FILE_NAMES, Arrays.asList("file1", "file2"));
+        try {
+            multipleFileAppender.append(event("selection"));
+        } finally {
+            MDC.remove(MultipleFileAppender.FILE_NAMES);
+        }
+        multipleFileAppender.close();
+
+        Assert.assertTrue(read("file1").startsWith("selection"));
+        Assert.assertTrue(read("file2").startsWith("selection"));
+    }
+
+    @Test
+    public void filesAreRolled() throws Exception {
+        appender.setMaxFileSize("10");
+        appender.append("file", event("first line"));
+        appender.append("file", event("second line"));
+        appender.flush();
+
+        Assert.assertTrue(read("file.1").startsWith("second line"));
+        Assert.assertEquals("", read("file"));
+    }
+
+    @Test
+    public void closedFileIsReopened() throws Exception {
+        appender.append("file", event("first line"));
+        appender.closeFile("file");
+        Assert.assertTrue(new File(folder.getRoot(), "file").delete());
+
+        appender.append("file", event("second line"));
+        appender.flush();
+
+        Assert.assertTrue(read("file").startsWith("second line"));
+    }
+
+    @Test
+    public void manyEventsAreWrittenInOrder() throws Exception {
+        for (int i = 0; i < EVENTS_NUMBER; i++) {
+            appender.append("task" + (i % FILES_NUMBER), event("line " + i));
+        }
+        appender.flush();
+
+        assertFilesContent(EVENTS_NUMBER);
+    }
+
+    @Test
+    public void appendingThreadsWriteEventsWhenTooManyArePending() throws Exception {
+        appender.setMaxPendingEvents(10);
+        Thread[] threads = new Thread[FILES_NUMBER];
+        for (int t = 0; t < threads.length; t++) {
+            final int file = t;
+            threads[t] = new Thread() {
+                @Override
+                public void run() {
+                    for (int i = file; i < EVENTS_NUMBER; i += FILES_NUMBER) {
+                        appender.append("task" + file, event("line " + i));
+                    }
+                }
+            };
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        appender.flush();
+
+        assertFilesContent(EVENTS_NUMBER);
+    }
+
+    private void assertFilesContent(int eventsNumber) throws IOException {
+        String nl = System.getProperty("line.separator");
+        for (int file = 0; file < FILES_NUMBER; file++) {
+            StringBuilder expected = new StringBuilder();
+            for (int i = file; i < eventsNumber; i += FILES_NUMBER) {
+                expected.append("line ").append(i).append(nl);
+            }
+            Assert.assertEquals(expected.toString(), read("task" + file));
+        }
+    }
+
+    private static LoggingEvent event(String message) {
+        Logger logger = Logger.getLogger(FileAppenderTest.class);
+        return new LoggingEvent(Logger.class.getName(), logger, Level.INFO, message, null);
+    }
+
+    private String read(String fileName) throws IOException {
+        File file = new File(folder.getRoot(), fileName);
+        byte[] content = new byte[(int) file.length()];
+        FileInputStream in = new FileInputStream(file);
+        try {
+            int offset = 0;
+            while (offset < content.length) {
+                offset += in.read(content, offset, content.length - offset);
+            }
+        } finally {
+            in.close();
+        }
+        return new String(content);
+    }
+
+}
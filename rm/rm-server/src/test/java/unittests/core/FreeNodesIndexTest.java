@@ -0,0 +1,160 @@
+/*
+ * ################################################################
+ *
+ * ProActive Parallel Suite(TM): The Java(TM) library for
+ *    Parallel, Distributed, Multi-Core Computing for
+ *    Enterprise Grids & Clouds
+ *
+ * Copyright (C) 1997-2011 INRIA/University of
+ *                 Nice-Sophia Antipolis/ActiveEon
+ * Contact: proactive@ow2.org or contact@activeeon.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation; version 3 of
+ * the License.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307
+ * USA
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ *
+ *  Initial developer(s):               The ProActive Team
+ *                        http://proactive.inria.fr/team_members.htm
+ *  Contributor(s): ActiveEon Team - http://www.activeeon.com
+ *
+ * ################################################################
+ * $$ACTIVEEON_CONTRIBUTOR$$
+ */
+package unittests.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.ow2.proactive.authentication.principals.IdentityPrincipal;
+import org.ow2.proactive.authentication.principals.TokenPrincipal;
+import org.ow2.proactive.authentication.principals.UserNamePrincipal;
+import org.ow2.proactive.permissions.PrincipalPermission;
+import org.ow2.proactive.resourcemanager.core.FreeNodesIndex;
+import org.ow2.proactive.resourcemanager.rmnode.RMNode;
+import org.junit.Assert;
+import org.junit.Test;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+
+public class FreeNodesIndexTest {
+
+    @Test
+    public void nodesMoveBetweenFreeAndBusy() {
+        FreeNodesIndex index = new FreeNodesIndex();
+        RMNode first = node("first", "ns");
+        RMNode second = node("second", "ns");
+
+        index.add(first);
+        index.add(second);
+        // already free
+        index.add(first);
+        Assert.assertEquals(2, index.size());
+        Assert.assertTrue(index.contains(first));
+
+        // the node becomes busy
+        Assert.assertTrue(index.remove(first));
+        Assert.assertFalse(index.remove(first));
+        Assert.assertFalse(index.contains(first));
+        Assert.assertEquals(1, index.size());
+        Assert.assertEquals(Arrays.asList(second), index.getNodes());
+
+        // the node is free again, after the nodes freed before it
+        index.add(first);
+        Assert.assertEquals(Arrays.asList(second, first), index.getNodes());
+    }
+
+    @Test
+    public void freeNodesAreCopied() {
+        FreeNodesIndex index = new FreeNodesIndex();
+        RMNode node = node("node", "ns");
+        index.add(node);
+
+        ArrayList<RMNode> nodes = index.getNodes();
+        nodes.clear();
+        index.getNodesOfNodeSource("ns").clear();
+
+        Assert.assertEquals(Arrays.asList(node), index.getNodes());
+        Assert.assertEquals(Arrays.asList(node), index.getNodesOfNodeSource("ns"));
+    }
+
+    @Test
+    public void freeNodesAreViewedByNodeSource() {
+        FreeNodesIndex index = new FreeNodesIndex();
+        RMNode first = node("first", "ns1");
+        RMNode second = node("second", "ns2");
+        RMNode third = node("third", "ns1");
+        index.add(first);
+        index.add(second);
+        index.add(third);
+
+        Assert.assertEquals(Arrays.asList(first, third), index.getNodesOfNodeSource("ns1"));
+        Assert.assertEquals(Arrays.asList(second), index.getNodesOfNodeSource("ns2"));
+        Assert.assertTrue(index.getNodesOfNodeSource("unknown").isEmpty());
+
+        index.remove(first);
+        Assert.assertEquals(Arrays.asList(third), index.getNodesOfNodeSource("ns1"));
+        index.remove(second);
+        Assert.assertTrue(index.getNodesOfNodeSource("ns2").isEmpty());
+    }
+
+    @Test
+    public void freeNodesAreViewedByToken() {
+        FreeNodesIndex index = new FreeNodesIndex();
+        RMNode notProtected = node("notProtected", "ns");
+        RMNode protectedByUser = node("protectedByUser", "ns");
+        when(protectedByUser.getUserPermission()).thenReturn(
+                new PrincipalPermission(new UserNamePrincipal("user")));
+        when(protectedByUser.isProtectedByToken()).thenReturn(false);
+        RMNode firstToken = node("firstToken", "ns", "token1");
+        RMNode bothTokens = node("bothTokens", "ns", "token1", "token2");
+        index.add(notProtected);
+        index.add(protectedByUser);
+        index.add(firstToken);
+        index.add(bothTokens);
+
+        Assert.assertEquals(Arrays.asList(firstToken, bothTokens), index.getNodesWithToken("token1"));
+        Assert.assertEquals(Arrays.asList(bothTokens), index.getNodesWithToken("token2"));
+        Assert.assertTrue(index.getNodesWithToken("user").isEmpty());
+        Assert.assertTrue(index.getNodesWithToken("unknown").isEmpty());
+
+        // a busy node is removed from the views of all its tokens
+        index.remove(bothTokens);
+        Assert.assertEquals(Arrays.asList(firstToken), index.getNodesWithToken("token1"));
+        Assert.assertTrue(index.getNodesWithToken("token2").isEmpty());
+        Assert.assertEquals(3, index.size());
+    }
+
+    private static RMNode node(String name, String nodeSourceName, String... tokens) {
+        RMNode node = mock(RMNode.class);
+        when(node.getNodeURL()).thenReturn("rmi://host/" + name);
+        when(node.getNodeSourceName()).thenReturn(nodeSourceName);
+        if (tokens.length > 0) {
+            Set<IdentityPrincipal> principals = new HashSet<IdentityPrincipal>();
+            for (String token : tokens) {
+                principals.add(new TokenPrincipal(token));
+            }
+            when(node.isProtectedByToken()).thenReturn(true);
+            when(node.getUserPermission()).thenReturn(new PrincipalPermission("tokens", principals));
+        }
+        return node;
+    }
+
+}
@@ -0,0 +1,129 @@
+/*
+ * ################################################################
+ *
+ * ProActive Parallel Suite(TM): The Java(TM) library for
+ *    Parallel, Distributed, Multi-Core Computing for
+ *    Enterprise Grids & Clouds
+ *
+ * Copyright (C) 1997-2011 INRIA/University of
+ *                 Nice-Sophia Antipolis/ActiveEon
+ * Contact: proactive@ow2.org or contact@activeeon.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation; version 3 of
+ * the License.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307
+ * USA
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ *
+ *  Initial developer(s):               The ProActive Team
+ *                        http://proactive.inria.fr/team_members.htm
+ *  Contributor(s): ActiveEon Team - http://www.activeeon.com
+ *
+ * ################################################################
+ * $$ACTIVEEON_CONTRIBUTOR$$
+ */
+package unittests.selection;
+
+import org.ow2.proactive.resourcemanager.selection.statistics.NodeIds;
+import org.ow2.proactive.resourcemanager.selection.statistics.Probability;
+import org.ow2.proactive.resourcemanager.selection.statistics.ScriptProbabilities;
+import org.ow2.proactive.resourcemanager.selection.statistics.SelectionScriptsCache;
+import org.junit.Assert;
+import org.junit.Test;
+
+
+public class SelectionScriptsCacheTest {
+
+    @Test
+    public void probabilitiesAreIndexedByNodeId() {
+        ScriptProbabilities probabilities = new ScriptProbabilities();
+        Assert.assertNull(probabilities.get(0));
+        Assert.assertNull(probabilities.get(1000));
+
+        probabilities.set(3, Probability.ONE);
+        probabilities.set(1000, Probability.ZERO);
+
+        Assert.assertSame(Probability.ONE, probabilities.get(3));
+        Assert.assertSame(Probability.ZERO, probabilities.get(1000));
+        Assert.assertNull(probabilities.get(4));
+    }
+
+    @Test
+    public void leastRecentlyUsedScriptIsEvicted() {
+        SelectionScriptsCache cache = new SelectionScriptsCache(2);
+        ScriptProbabilities first = cache.getOrCreate("first");
+        cache.getOrCreate("second");
+
+        // using the first script makes the second one the least recently used
+        Assert.assertSame(first, cache.get("first"));
+        cache.getOrCreate("third");
+
+        Assert.assertEquals(2, cache.size());
+        Assert.assertSame(first, cache.get("first"));
+        Assert.assertNotNull(cache.get("third"));
+        Assert.assertNull(cache.get("second"));
+        Assert.assertEquals(1, cache.getEvictions());
+    }
+
+    @Test
+    public void statisticsAreCounted() {
+        SelectionScriptsCache cache = new SelectionScriptsCache(10);
+        Assert.assertNull(cache.get("script"));
+        cache.getOrCreate("script");
+        cache.get("script");
+        cache.get("script");
+
+        Assert.assertEquals(2, cache.getHits());
+        Assert.assertEquals(1, cache.getMisses());
+        Assert.assertEquals(0, cache.getEvictions());
+    }
+
+    @Test
+    public void idsOfRemovedNodesAreRecycled() {
+        NodeIds nodeIds = new NodeIds();
+        Assert.assertEquals(-1, nodeIds.get("node0"));
+        Assert.assertEquals(0, nodeIds.getOrAllocate("node0"));
+        Assert.assertEquals(1, nodeIds.getOrAllocate("node1"));
+        Assert.assertEquals(0, nodeIds.getOrAllocate("node0"));
+
+        // node urls keep changing, the number of ids stays bounded by the number of nodes
+        for (int i = 2; i < 1000; i++) {
+            Assert.assertEquals(1, nodeIds.remove("node" + (i - 1)));
+            Assert.assertEquals(1, nodeIds.getOrAllocate("node" + i));
+        }
+
+        Assert.assertEquals(2, nodeIds.size());
+        Assert.assertEquals(2, nodeIds.capacity());
+        Assert.assertEquals(-1, nodeIds.remove("node1"));
+    }
+
+    @Test
+    public void resultsOfRemovedNodesAreCleared() {
+        SelectionScriptsCache cache = new SelectionScriptsCache(10);
+        ScriptProbabilities first = cache.getOrCreate("first");
+        ScriptProbabilities second = cache.getOrCreate("second");
+        first.set(1, Probability.ONE);
+        second.set(1, Probability.ZERO);
+        second.set(2, Probability.ONE);
+
+        cache.removeNode(1);
+        cache.removeNode(1000);
+
+        Assert.assertNull(first.get(1));
+        Assert.assertNull(second.get(1));
+        Assert.assertSame(Probability.ONE, second.get(2));
+    }
+
+}
@@ -0,0 +1,196 @@
+/*
+ * ################################################################
+ *
+ * ProActive Parallel Suite(TM): The Java(TM) library for
+ *    Parallel, Distributed, Multi-Core Computing for
+ *    Enterprise Grids & Clouds
+ *
+ * Copyright (C) 1997-2011 INRIA/University of
+ *                 Nice-Sophia Antipolis/ActiveEon
+ * Contact: proactive@ow2.org or contact@activeeon.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation; version 3 of
+ * the License.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307
+ * USA
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ *
+ *  Initial developer(s):               The ProActive Team
+ *                        http://proactive.inria.fr/team_members.htm
+ *  Contributor(s): ActiveEon Team - http://www.activeeon.com
+ *
+ * ################################################################
+ * $$ACTIVEEON_CONTRIBUTOR$$
+ */
+package unittests.topology;
+
+import java.net.InetAddress;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+
+import org.objectweb.proactive.core.node.Node;
+import org.objectweb.proactive.core.node.NodeInformation;
+import org.objectweb.proactive.core.runtime.VMInformation;
+import org.ow2.proactive.resourcemanager.core.properties.PAResourceManagerProperties;
+import org.ow2.proactive.resourcemanager.selection.topology.TopologyHandler;
+import org.ow2.proactive.resourcemanager.selection.topology.TopologyManager;
+import org.ow2.proactive.topology.descriptor.TopologyDescriptor;
+import org.ow2.proactive.utils.NodeSet;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+
+/**
+ * Checks the handlers selecting the nodes by host, with 3 hosts:
+ * hostA (3 nodes, all free), hostB (2 nodes, one busy) and hostC (1 node, free).
+ */
+public class TopologyManagerTest {
+
+    private TopologyManager manager;
+
+    private List<Node> nodesA;
+    private List<Node> nodesB;
+    private List<Node> nodesC;
+
+    /** the free nodes of all hosts */
+    private List<Node> freeNodes;
+
+    @Before
+    public void addNodes() throws Exception {
+        PAResourceManagerProperties.RM_TOPOLOGY_ENABLED.updateProperty("true");
+        manager = new TopologyManager() {
+            @Override
+            protected HashMap<InetAddress, Long> pingNode(Node node, NodeSet nodes) {
+                // the distances are not used by the handlers checked here
+                return new HashMap<InetAddress, Long>();
+            }
+        };
+        nodesA = createNodes("hostA", 1, 3);
+        nodesB = createNodes("hostB", 2, 2);
+        nodesC = createNodes("hostC", 3, 1);
+
+        freeNodes = new LinkedList<Node>(nodesA);
+        freeNodes.add(nodesB.get(0));
+        freeNodes.addAll(nodesC);
+    }
+
+    @Test
+    public void singleHost() {
+        TopologyHandler handler = manager.getHandler(TopologyDescriptor.SINGLE_HOST);
+
+        Assert.assertEquals(nodesA.subList(0, 2), handler.select(2, freeNodes));
+        Assert.assertEquals(nodesA, handler.select(3, freeNodes));
+        // best effort: the host with the biggest number of free nodes
+        Assert.assertEquals(nodesA, handler.select(4, freeNodes));
+        // only the free nodes of a host are selected
+        Assert.assertEquals(nodesB.subList(0, 1), handler.select(2, nodesB.subList(0, 1)));
+        Assert.assertEquals(0, handler.select(0, freeNodes).size());
+        Assert.assertEquals(0, handler.select(2, new LinkedList<Node>()).size());
+    }
+
+    @Test
+    public void singleHostIgnoresUnknownHosts() throws Exception {
+        TopologyHandler handler = manager.getHandler(TopologyDescriptor.SINGLE_HOST);
+        Node unknown = createNode("unknown", InetAddress.getByAddress("unknown", new byte[] { 10, 0, 0,
+                4 }), 0);
+
+        Assert.assertEquals(0, handler.select(1, Arrays.asList(unknown)).size());
+    }
+
+    @Test
+    public void singleHostExclusive() {
+        TopologyHandler handler = manager.getHandler(TopologyDescriptor.SINGLE_HOST_EXCLUSIVE);
+
+        // the smallest free host
+        NodeSet result = handler.select(1, freeNodes);
+        Assert.assertEquals(nodesC, result);
+        Assert.assertNull(result.getExtraNodes());
+
+        // the smallest free host big enough, its other nodes are extra nodes
+        result = handler.select(2, freeNodes);
+        Assert.assertEquals(nodesA.subList(0, 2), result);
+        Assert.assertEquals(nodesA.subList(2, 3), result.getExtraNodes());
+
+        // best effort: the biggest free host, hostB has a busy node
+        Assert.assertEquals(nodesA, handler.select(5, freeNodes));
+
+        // no free host
+        Assert.assertEquals(0, handler.select(1, nodesB.subList(0, 1)).size());
+    }
+
+    @Test
+    public void differentHostsExclusive() {
+        TopologyHandler handler = manager.getHandler(TopologyDescriptor.DIFFERENT_HOSTS_EXCLUSIVE);
+
+        NodeSet result = handler.select(1, freeNodes);
+        Assert.assertEquals(nodesC, result);
+        Assert.assertNull(result.getExtraNodes());
+
+        // one node per free host, the smallest hosts first
+        result = handler.select(2, freeNodes);
+        Assert.assertEquals(Arrays.asList(nodesC.get(0), nodesA.get(0)), result);
+        Assert.assertEquals(nodesA.subList(1, 3), result.getExtraNodes());
+
+        // best effort: hostB has a busy node
+        Assert.assertEquals(2, handler.select(3, freeNodes).size());
+
+        // no free host
+        Assert.assertEquals(0, handler.select(1, nodesB.subList(0, 1)).size());
+    }
+
+    @Test
+    public void removedNodesAreNotSelected() {
+        manager.removeNode(nodesA.get(2));
+        TopologyHandler handler = manager.getHandler(TopologyDescriptor.SINGLE_HOST_EXCLUSIVE);
+        List<Node> matched = new LinkedList<Node>(nodesA.subList(0, 2));
+
+        // hostA has only 2 nodes now, all free
+        NodeSet result = handler.select(2, matched);
+        Assert.assertEquals(matched, result);
+        Assert.assertNull(result.getExtraNodes());
+    }
+
+    private List<Node> createNodes(String hostName, int address, int number) throws Exception {
+        InetAddress host = InetAddress.getByAddress(hostName, new byte[] { 10, 0, 0, (byte) address });
+        List<Node> nodes = new LinkedList<Node>();
+        for (int i = 0; i < number; i++) {
+            Node node = createNode(hostName, host, i);
+            manager.addNode(node);
+            nodes.add(node);
+        }
+        return nodes;
+    }
+
+    private Node createNode(String hostName, InetAddress host, int index) {
+        VMInformation vmInformation = mock(VMInformation.class);
+        when(vmInformation.getInetAddress()).thenReturn(host);
+        when(vmInformation.getHostName()).thenReturn(hostName);
+        NodeInformation nodeInformation = mock(NodeInformation.class);
+        when(nodeInformation.getURL()).thenReturn("rmi://" + hostName + "/node" + index);
+        when(nodeInformation.getVMInformation()).thenReturn(vmInformation);
+
+        Node node = mock(Node.class);
+        when(node.getVMInformation()).thenReturn(vmInformation);
+        when(node.getNodeInformation()).thenReturn(nodeInformation);
+        return node;
+    }
+
+}
@@ -409,6 +409,24 @@ public interface Scheduler extends SchedulerUsage, ThirdPartyCredentials {
     public JobId submit(Job job) throws NotConnectedException, PermissionException,
             SubmissionClosedException, JobCreationException;
 
+    /**
+     * Submit several new jobs to the scheduler at once.
+     * <p>
+     * The jobs are all accepted or all rejected : if one of them cannot be created,
+     * none of them is submitted. Submitting jobs this way is much faster than
+     * submitting them one by one.
+     * </p>
+     *
+     * @param jobs the new jobs to submit.
+     * @return the generated new job IDs, in the same order as the given jobs.
+     * @throws NotConnectedException if you are not authenticated.
+     * @throws PermissionException if you can't access to this particular method.
+     * @throws SubmissionClosedException if the submit action could not be performed.
+     * @throws JobCreationException if Their was a problem while creation one of the jobs
+     */
+    public List<JobId> submit(List<Job> jobs) throws NotConnectedException, PermissionException,
+            SubmissionClosedException, JobCreationException;
+
     /**
      * Get the result for the given jobId.<br>
      * The jobId is given as a string. It's in fact the string returned by the {@link JobId#value()} method.<br>
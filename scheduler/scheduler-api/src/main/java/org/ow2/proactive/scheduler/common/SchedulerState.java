@@ -93,6 +93,14 @@ public interface SchedulerState extends Serializable {
      */
     public SchedulerUsers getUsers();
 
+    /**
+     * Returns false if the finished jobs are still being loaded after the scheduler startup.
+     * The finished jobs list then only contains the finished jobs already loaded.
+     *
+     * @return true if all the finished jobs are loaded
+     */
+    public boolean isFinishedJobsLoaded();
+
     /**
      * Updates the scheduler state given the event passed as a parameter
      */
@@ -37,7 +37,6 @@
 package org.ow2.proactive.scheduler.common.job.factories;
 
 import org.apache.log4j.Logger;
-import org.iso_relax.verifier.VerifierConfigurationException;
 import org.objectweb.proactive.extensions.dataspaces.vfs.selector.FileSelector;
 import org.ow2.proactive.scheduler.common.exception.JobCreationException;
 import org.ow2.proactive.scheduler.common.job.*;
@@ -224,14 +223,21 @@ public class JobFactory_stax extends JobFactory {
             if (!f.exists()) {
                 throw new FileNotFoundException("This file has not been found : " + f.getAbsolutePath());
             }
-            //validate content using the proper XML schema
-            validate(f);
             //set relative path
             relativePathRoot = f.getParentFile().getAbsolutePath();
-            //create and get XML STAX reader
-            XMLStreamReader xmlsr = xmlif.createXMLStreamReader(new FileReader(f));
-            //Create the job starting at the first cursor position of the XML Stream reader
-            createJob(xmlsr, updatedVariables);
+            //create and get XML STAX reader, the content is validated using the proper XML schema
+            //while it is read
+            ValidatingXMLStreamReader xmlsr = new ValidatingXMLStreamReader(xmlif
+                    .createXMLStreamReader(new FileReader(f)));
+            try {
+                //Create the job starting at the first cursor position of the XML Stream reader
+                createJob(xmlsr, updatedVariables);
+            } catch (JobCreationException jce) {
+                //an invalid descriptor is reported as such rather than as a creation error
+                xmlsr.validateToEnd();
+                throw jce;
+            }
+            xmlsr.validateToEnd();
             //Close the stream
             xmlsr.close();
             //make dependencies
@@ -245,6 +251,9 @@ public class JobFactory_stax extends JobFactory {
             throw jce;
         } catch (SAXException e) {
             throw new JobCreationException(true, e);
+        } catch (XMLStreamException e) {
+            //not well formed document
+            throw new JobCreationException(true, e);
         } catch (Exception e) {
             throw new JobCreationException(e);
         }
@@ -256,41 +265,6 @@ public class JobFactory_stax extends JobFactory {
         this.dependencies = null;
     }
 
-    /*
-     * Validate the given job descriptor
-     */
-    private void validate(File file) throws XMLStreamException, JobCreationException,
-            VerifierConfigurationException, SAXException, IOException {
-        String findSchemaByNamespaceUsed = findSchemaByNamespaceUsed(file);
-        InputStream schemaStream = this.getClass().getResourceAsStream(findSchemaByNamespaceUsed);
-        ValidationUtil.validate(file, schemaStream);
-    }
-
-    private String findSchemaByNamespaceUsed(File file) throws FileNotFoundException, XMLStreamException {
-        XMLStreamReader cursorRoot = xmlif.createXMLStreamReader(new FileReader(file));
-        String current;
-        try {
-            int eventType;
-            while (cursorRoot.hasNext()) {
-                eventType = cursorRoot.next();
-                if (eventType == XMLEvent.START_ELEMENT) {
-                    current = cursorRoot.getLocalName();
-                    if (XMLTags.JOB.matches(current)) {
-                        String namespace = cursorRoot.getName().getNamespaceURI();
-                        return Schemas.SCHEMAS_BY_NAMESPACE.get(namespace).location;
-                    }
-                }
-            }
-            return Schemas.SCHEMA_LATEST.location;
-        } catch (Exception e) {
-            return Schemas.SCHEMA_LATEST.location;
-        } finally {
-            if (cursorRoot != null) {
-                cursorRoot.close();
-            }
-        }
-    }
-
     /**
      * Start parsing and creating the job.
      *
@@ -34,8 +34,17 @@
  */
 package org.ow2.proactive.scheduler.common.job.factories;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.iso_relax.verifier.Schema;
+import org.iso_relax.verifier.VerifierConfigurationException;
+import org.iso_relax.verifier.VerifierFactory;
+import org.xml.sax.SAXException;
 
 
 public enum Schemas {
@@ -64,4 +73,50 @@ public enum Schemas {
             SCHEMAS_BY_NAMESPACE.put(schema.namespace, schema);
         }
     }
+
+    /** Compiled schemas by location, compiled schemas are thread safe and can be shared */
+    private static final ConcurrentMap<String, Schema> COMPILED_SCHEMAS = new ConcurrentHashMap<String, Schema>();
+
+    /**
+     * Returns the schema for the given namespace, the latest schema if the namespace is unknown.
+     */
+    static Schemas getSchemaByNamespace(String namespace) {
+        Schemas schema = SCHEMAS_BY_NAMESPACE.get(namespace);
+        return schema != null ? schema : SCHEMA_LATEST;
+    }
+
+    /**
+     * Returns this schema compiled, it is compiled once and cached.
+     */
+    Schema getCompiledSchema() {
+        Schema compiled = COMPILED_SCHEMAS.get(location);
+        if (compiled == null) {
+            compiled = compile();
+            Schema previous = COMPILED_SCHEMAS.putIfAbsent(location, compiled);
+            if (previous != null) {
+                compiled = previous;
+            }
+        }
+        return compiled;
+    }
+
+    private Schema compile() {
+        InputStream schemaStream = Schemas.class.getResourceAsStream(location);
+        try {
+            VerifierFactory vfactory = new com.sun.msv.verifier.jarv.TheFactoryImpl();
+            return vfactory.compileSchema(schemaStream);
+        } catch (VerifierConfigurationException e) {
+            throw new IllegalStateException(e);
+        } catch (SAXException e) {
+            throw new IllegalStateException("Cannot compile schema " + location, e);
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot read schema " + location, e);
+        } finally {
+            try {
+                schemaStream.close();
+            } catch (IOException e) {
+                // nothing to do
+            }
+        }
+    }
 }
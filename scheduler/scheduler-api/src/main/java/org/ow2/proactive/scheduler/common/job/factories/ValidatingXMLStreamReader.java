@@ -0,0 +1,199 @@
+/*
+ * ################################################################
+ *
+ * ProActive Parallel Suite(TM): The Java(TM) library for
+ *    Parallel, Distributed, Multi-Core Computing for
+ *    Enterprise Grids & Clouds
+ *
+ * Copyright (C) 1997-2011 INRIA/University of
+ *                 Nice-Sophia Antipolis/ActiveEon
+ * Contact: proactive@ow2.org or contact@activeeon.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation; version 3 of
+ * the License.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307
+ * USA
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ *
+ *  Initial developer(s):               The ProActive Team
+ *                        http://proactive.inria.fr/team_members.htm
+ *  Contributor(s):
+ *
+ * ################################################################
+ * $$PROACTIVE_INITIAL_DEV$$
+ */
+package org.ow2.proactive.scheduler.common.job.factories;
+
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.util.StreamReaderDelegate;
+
+import org.ow2.proactive.scheduler.common.exception.JobCreationException;
+import org.xml.sax.ContentHandler;
+import org.xml.sax.Locator;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.AttributesImpl;
+
+
+/**
+ * XML stream reader validating the job descriptor while it is read.
+ * <p>
+ * Each event read through this reader is forwarded to a validating content handler, so the
+ * job descriptor is validated and parsed in a single pass. The schema is chosen according to
+ * the namespace of the root element and compiled schemas are shared (see {@link Schemas}).
+ * <p>
+ * A validation error does not interrupt the reading immediately, it is reported as a
+ * {@link XMLStreamException} by {@link #next()} and the validation stops. {@link #validateToEnd()}
+ * must be called once the job is created (or failed to be created) to read the remaining
+ * events and throw the validation error if any.
+ */
+class ValidatingXMLStreamReader extends StreamReaderDelegate {
+
+    private ContentHandler validationHandler;
+
+    private SAXException validationError;
+
+    ValidatingXMLStreamReader(XMLStreamReader reader) {
+        super(reader);
+    }
+
+    @Override
+    public int next() throws XMLStreamException {
+        int eventType = super.next();
+        if (validationError == null) {
+            try {
+                validate(eventType);
+            } catch (SAXException e) {
+                validationError = e;
+                throw new XMLStreamException(e.getMessage(), getLocation(), e);
+            }
+        }
+        return eventType;
+    }
+
+    /**
+     * Read the remaining events of the document and throw the validation error if any.
+     *
+     * @throws JobCreationException if the job descriptor is invalid
+     * @throws SAXException if the validation failed for another reason
+     * @throws XMLStreamException if the document is not well formed
+     */
+    void validateToEnd() throws JobCreationException, SAXException, XMLStreamException {
+        while (validationError == null && hasNext()) {
+            try {
+                next();
+            } catch (XMLStreamException e) {
+                if (validationError == null) {
+                    throw e;
+                }
+            }
+        }
+        if (validationError != null) {
+            throw ValidationUtil.unwrap(validationError);
+        }
+    }
+
+    private void validate(int eventType) throws SAXException {
+        switch (eventType) {
+            case XMLStreamConstants.START_ELEMENT:
+                if (validationHandler == null) {
+                    startDocument();
+                }
+                for (int i = 0; i < getNamespaceCount(); i++) {
+                    validationHandler.startPrefixMapping(nullToEmpty(getNamespacePrefix(i)),
+                            nullToEmpty(getNamespaceURI(i)));
+                }
+                AttributesImpl attributes = new AttributesImpl();
+                for (int i = 0; i < getAttributeCount(); i++) {
+                    attributes.addAttribute(nullToEmpty(getAttributeNamespace(i)), getAttributeLocalName(i),
+                            qualifiedName(getAttributePrefix(i), getAttributeLocalName(i)), "CDATA",
+                            getAttributeValue(i));
+                }
+                validationHandler.startElement(nullToEmpty(getNamespaceURI()), getLocalName(),
+                        qualifiedName(getPrefix(), getLocalName()), attributes);
+                break;
+            case XMLStreamConstants.END_ELEMENT:
+                validationHandler.endElement(nullToEmpty(getNamespaceURI()), getLocalName(),
+                        qualifiedName(getPrefix(), getLocalName()));
+                for (int i = 0; i < getNamespaceCount(); i++) {
+                    validationHandler.endPrefixMapping(nullToEmpty(getNamespacePrefix(i)));
+                }
+                break;
+            case XMLStreamConstants.CHARACTERS:
+            case XMLStreamConstants.CDATA:
+            case XMLStreamConstants.SPACE:
+                if (validationHandler != null) {
+                    validationHandler.characters(getTextCharacters(), getTextStart(), getTextLength());
+                }
+                break;
+            case XMLStreamConstants.END_DOCUMENT:
+                if (validationHandler != null) {
+                    validationHandler.endDocument();
+                }
+                break;
+            default:
+                // comments, processing instructions... are not validated
+        }
+    }
+
+    /*
+     * Called on the root element, the schema depends on its namespace
+     */
+    private void startDocument() throws SAXException {
+        Schemas schema = Schemas.getSchemaByNamespace(getNamespaceURI());
+        validationHandler = ValidationUtil.createValidationHandler(schema.getCompiledSchema());
+        validationHandler.setDocumentLocator(new StreamLocator());
+        validationHandler.startDocument();
+    }
+
+    private static String qualifiedName(String prefix, String localName) {
+        if (prefix == null || prefix.isEmpty()) {
+            return localName;
+        }
+        return prefix + ":" + localName;
+    }
+
+    private static String nullToEmpty(String value) {
+        return value == null ? "" : value;
+    }
+
+    /**
+     * Gives the current position of the stream to the validation errors.
+     */
+    private class StreamLocator implements Locator {
+
+        @Override
+        public String getPublicId() {
+            return getLocation().getPublicId();
+        }
+
+        @Override
+        public String getSystemId() {
+            return getLocation().getSystemId();
+        }
+
+        @Override
+        public int getLineNumber() {
+            return getLocation().getLineNumber();
+        }
+
+        @Override
+        public int getColumnNumber() {
+            return getLocation().getColumnNumber();
+        }
+    }
+
+}
@@ -83,32 +83,69 @@ public class ValidationUtil {
     public static void validate(File jobFile, InputStream schemaIs) throws SAXException, IOException,
             JobCreationException {
         try {
+            VerifierFactory vfactory = new com.sun.msv.verifier.jarv.TheFactoryImpl();
+            validate(jobFile, vfactory.compileSchema(schemaIs));
+        } catch (VerifierConfigurationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
 
+    /**
+     * Validates the job descriptor file against the specified compiled schema.
+     *
+     * @param jobFile
+     *            the job descriptor file
+     * @param schema
+     *            the compiled job schema
+     *
+     * @throws JobCreationException
+     *             if the job descriptor is invalid
+     */
+    public static void validate(File jobFile, Schema schema) throws SAXException, IOException,
+            JobCreationException {
+        try {
             XMLReader reader = XMLReaderFactory.createXMLReader("org.apache.xerces.parsers.SAXParser");
-            VerifierFactory vfactory = new com.sun.msv.verifier.jarv.TheFactoryImpl();
-            Schema schema = vfactory.compileSchema(schemaIs);
+            reader.setContentHandler(createValidationHandler(schema));
+            reader.parse(jobFile.getAbsolutePath());
+        } catch (SAXException se) {
+            throw unwrap(se);
+        }
+    }
 
+    /**
+     * Creates a content handler validating the SAX events it receives against the given schema.
+     * Validation errors are thrown as {@link SAXException} wrapping a {@link JobCreationException}.
+     *
+     * @param schema
+     *            the compiled job schema
+     * @return the validating content handler
+     */
+    static ContentHandler createValidationHandler(Schema schema) throws SAXException {
+        try {
             Verifier verifier = schema.newVerifier();
             VerifierHandler handler = verifier.getVerifierHandler();
             ContentHandlerDecorator contentHandlerDecorator = new ContentHandlerDecorator(handler);
-            reader.setContentHandler(contentHandlerDecorator);
             ValidationErrorHandler errHandler = new ValidationErrorHandler(contentHandlerDecorator);
             verifier.setErrorHandler(errHandler);
-
-            reader.parse(jobFile.getAbsolutePath());
-        } catch (SAXException se) {
-            Throwable cause = se.getCause();
-            if (cause != null && cause instanceof JobCreationException) {
-                // unwrap
-                throw (JobCreationException) cause;
-            } else {
-                throw se;
-            }
+            return contentHandlerDecorator;
         } catch (VerifierConfigurationException e) {
             throw new IllegalStateException(e);
         }
     }
 
+    /**
+     * Returns the job creation exception wrapped by the given validation exception if any.
+     */
+    static SAXException unwrap(SAXException se) throws JobCreationException {
+        Throwable cause = se.getCause();
+        if (cause != null && cause instanceof JobCreationException) {
+            // unwrap
+            throw (JobCreationException) cause;
+        } else {
+            return se;
+        }
+    }
+
     private static class ValidationErrorHandler implements ErrorHandler {
         private ContentHandlerDecorator decorator;
 
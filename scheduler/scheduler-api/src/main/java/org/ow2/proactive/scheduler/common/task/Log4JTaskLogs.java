@@ -233,6 +233,14 @@ public class Log4JTaskLogs implements TaskLogs {
         return (LinkedList<LoggingEvent>) allEvents.clone();
     }
 
+    /**
+     * Return the size of the stored logging events, without restoring them
+     * @return the size in bytes of the compressed logging events
+     */
+    public synchronized int getSerializedSize() {
+        return this.serializedAllEvents == null ? 0 : this.serializedAllEvents.length;
+    }
+
     private void writeObject(java.io.ObjectOutputStream out) throws IOException {
         storeEvents();
         out.defaultWriteObject();
@@ -130,11 +130,28 @@ public enum PASchedulerProperties {
      * until the scheduling loop will block as well.*/
     SCHEDULER_STARTTASK_THREADNUMBER("pa.scheduler.core.starttask.threadnumber", PropertyType.INTEGER),
 
+    /** Maximum number of node requests sent at the same time to the resource manager in a scheduling loop.
+     * Each request concerns a different group of compatible tasks, which are started as soon as their nodes are provided.
+     * Requested nodes never exceed the number of free nodes. 1 means that requests are sent one after the other. */
+    SCHEDULER_NODES_REQUEST_PIPELINE_SIZE("pa.scheduler.core.nodesrequest.pipelinesize", PropertyType.INTEGER),
+
     /** Maximum number of threads used to send events to clients. This property defines the number of clients
      * than can block at the same time. If this number is reached, every clients won't receive events until
      * a thread unlock. */
     SCHEDULER_LISTENERS_THREADNUMBER("pa.scheduler.core.listener.threadnumber", PropertyType.INTEGER),
 
+    /** Maximum number of events waiting to be sent to a client. A client reaching this limit is disconnected
+     * and has to reconnect to get the current state. 0 means no limit. */
+    SCHEDULER_LISTENERS_QUEUE_SIZE("pa.scheduler.core.listener.queuesize", PropertyType.INTEGER),
+
+    /** If true, an update of a job, task or user waiting to be sent to a client is replaced by the next
+     * update of the same kind, for instance only the last progress of a task is sent. */
+    SCHEDULER_LISTENERS_COALESCE_EVENTS("pa.scheduler.core.listener.coalesce", PropertyType.BOOLEAN),
+
+    /** Maximum size (in MB) of the results of finished tasks kept in memory until their children are started.
+     * Results which are not in memory are loaded from the database. 0 disables the cache. */
+    SCHEDULER_TASK_RESULT_CACHE_SIZE("pa.scheduler.core.taskresult.cache.size", PropertyType.INTEGER),
+
     /* ***************************************************************** */
     /* ********************** AUTHENTICATION PROPERTIES **************** */
     /* ***************************************************************** */
@@ -208,6 +225,15 @@ public enum PASchedulerProperties {
     /** If true script tasks are ran in a forked JVM, if false they are ran in the node's JVM */
     FORKED_SCRIPT_TASKS("pa.scheduler.task.scripttasks.fork", PropertyType.BOOLEAN),
 
+    /** If true the launchers of the java and script tasks ran in the node's JVM are reused by the next tasks of the node */
+    TASK_LAUNCHER_POOLED("pa.scheduler.task.launcher.pooled", PropertyType.BOOLEAN),
+
+    /** Maximum number of idle forked JVMs kept on each node for the next forked java tasks, 0 to start a JVM per task */
+    TASK_FORK_POOL_SIZE("pa.scheduler.task.fork.pool.size", PropertyType.INTEGER),
+
+    /** Time in seconds after which an idle forked JVM kept on a node is destroyed */
+    TASK_FORK_POOL_IDLE_TIME("pa.scheduler.task.fork.pool.idletime", PropertyType.INTEGER),
+
     /* ***************************************************************** */
     /* ********************** DATASPACES PROPERTIES ******************** */
     /* ***************************************************************** */
@@ -315,6 +341,32 @@ public enum PASchedulerProperties {
      */
     SCHEDULER_DB_LOAD_JOB_PERIOD("pa.scheduler.db.load.job.period", PropertyType.STRING),
 
+    /** Number of threads (each one with its own database session) loading the jobs at scheduler startup */
+    SCHEDULER_DB_RECOVERY_THREADS("pa.scheduler.db.recovery.threads", PropertyType.INTEGER),
+
+    /**
+     * If true, the scheduler is started as soon as the pending and running jobs are recovered,
+     * the finished jobs are loaded in background. Until they are loaded, the scheduler state
+     * only contains the finished jobs already loaded (see SchedulerState#isFinishedJobsLoaded())
+     * and a request for a finished job which is not loaded yet loads it first.
+     * Set it to false to load all the jobs before starting, as in previous versions.
+     */
+    SCHEDULER_DB_RECOVERY_LAZY_FINISHED_JOBS("pa.scheduler.db.recovery.lazy", PropertyType.BOOLEAN),
+
+    /**
+     * If true, task start, task termination and job counters updates are committed by groups
+     * by a dedicated thread instead of one transaction per update (false means synchronous commits).
+     */
+    SCHEDULER_DB_TRANSACTIONS_GROUP_COMMIT("pa.scheduler.db.transactions.groupcommit", PropertyType.BOOLEAN),
+
+    /** Maximum delay (in ms) before a grouped update is committed */
+    SCHEDULER_DB_TRANSACTIONS_GROUP_COMMIT_PERIOD("pa.scheduler.db.transactions.groupcommit.period",
+            PropertyType.INTEGER),
+
+    /** Maximum number of updates committed in one transaction */
+    SCHEDULER_DB_TRANSACTIONS_GROUP_COMMIT_SIZE("pa.scheduler.db.transactions.groupcommit.size",
+            PropertyType.INTEGER),
+
     EMAIL_NOTIFICATIONS_ENABLED("pa.scheduler.notifications.email.enabled", PropertyType.BOOLEAN),
 
     EMAIL_NOTIFICATIONS_SENDER_ADDRESS("pa.scheduler.notifications.email.from", PropertyType.STRING);
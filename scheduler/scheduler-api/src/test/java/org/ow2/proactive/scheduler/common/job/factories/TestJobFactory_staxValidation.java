@@ -0,0 +1,141 @@
+/*
+ * ################################################################
+ *
+ * ProActive Parallel Suite(TM): The Java(TM) library for
+ *    Parallel, Distributed, Multi-Core Computing for
+ *    Enterprise Grids & Clouds
+ *
+ * Copyright (C) 1997-2011 INRIA/University of
+ *                 Nice-Sophia Antipolis/ActiveEon
+ * Contact: proactive@ow2.org or contact@activeeon.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation; version 3 of
+ * the License.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307
+ * USA
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ *
+ *  Initial developer(s):               The ProActive Team
+ *                        http://proactive.inria.fr/team_members.htm
+ *  Contributor(s):
+ *
+ * ################################################################
+ * $$PROACTIVE_INITIAL_DEV$$
+ */
+package org.ow2.proactive.scheduler.common.job.factories;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.FileFilter;
+import java.io.InputStream;
+import java.net.URI;
+
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+import org.ow2.proactive.scheduler.common.exception.JobCreationException;
+import org.ow2.proactive.scheduler.common.job.Job;
+
+
+public class TestJobFactory_staxValidation {
+
+    private static final String impl = JobFactory_stax.class.getName();
+
+    private JobFactory factory;
+
+    @Before
+    public void setJobFactory() {
+        factory = JobFactory.getFactory(impl);
+    }
+
+    @Test
+    public void test_compiled_schema_is_cached() {
+        assertSame(Schemas.SCHEMA_DEV.getCompiledSchema(), Schemas.SCHEMA_DEV.getCompiledSchema());
+        assertSame(Schemas.SCHEMA_LATEST.getCompiledSchema(), Schemas.SCHEMA_3_2.getCompiledSchema());
+        assertSame(Schemas.SCHEMA_LATEST, Schemas.getSchemaByNamespace("urn:unknown"));
+    }
+
+    @Test
+    public void test_valid_job_is_created() throws Exception {
+        Job job = factory.createJob(getResource("job_update_variables.xml"));
+        assertEquals("updated_job_name", job.getName());
+    }
+
+    @Test
+    public void test_invalid_job_is_rejected_with_validation_error() throws Exception {
+        try {
+            factory.createJob(getResource("job_invalid.xml"));
+            fail("The job descriptor is invalid");
+        } catch (JobCreationException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("at line"));
+            assertEquals("task1", e.getTaskName());
+        }
+    }
+
+    /**
+     * Every sample workflow accepted by the validation pass that was done before the job
+     * creation (whole file parsed with the latest schema) is created with streaming validation.
+     */
+    @Test
+    public void test_samples_accepted_by_separate_validation_are_created() throws Exception {
+        String schedulerHome = System.getProperty("pa.scheduler.home");
+        Assume.assumeNotNull(schedulerHome);
+        File samplesFolder = new File(schedulerHome, "samples" + File.separator + "workflows");
+        File[] samples = samplesFolder.listFiles(new FileFilter() {
+            @Override
+            public boolean accept(File file) {
+                return file.getName().endsWith(".xml");
+            }
+        });
+        Assume.assumeNotNull((Object) samples);
+
+        int validSamples = 0;
+        for (File sample : samples) {
+            if (isValidWithSeparatePass(sample)) {
+                validSamples++;
+                Job job = factory.createJob(sample.getAbsolutePath());
+                assertNotNull(sample.getName(), job);
+                assertNotNull(sample.getName(), job.getName());
+            }
+        }
+        assertTrue("No valid sample workflow in " + samplesFolder, validSamples > 0);
+    }
+
+    /*
+     * Previous validation pass : parse the whole file with the latest schema
+     */
+    private boolean isValidWithSeparatePass(File sample) throws Exception {
+        InputStream schemaStream = getClass().getResourceAsStream(Schemas.SCHEMA_LATEST.location);
+        try {
+            ValidationUtil.validate(sample, schemaStream);
+            return true;
+        } catch (JobCreationException e) {
+            // sample written for an older schema
+            return false;
+        } finally {
+            schemaStream.close();
+        }
+    }
+
+    private URI getResource(String name) throws Exception {
+        return getClass().getResource("/org/ow2/proactive/scheduler/common/job/factories/" + name).toURI();
+    }
+
+}
@@ -253,6 +253,16 @@ public class SchedulerProxyUserInterface implements Scheduler, Serializable {
         return uischeduler.submit(job);
     }
 
+    @Override
+    public List<JobId> submit(List<Job> jobs) throws NotConnectedException, PermissionException,
+            SubmissionClosedException, JobCreationException {
+        if (uischeduler == null) {
+            throw new NotConnectedException("Not connected to the scheduler.");
+        }
+
+        return uischeduler.submit(jobs);
+    }
+
     @Override
     public void changeJobPriority(JobId jobId, JobPriority priority) throws NotConnectedException,
             UnknownJobException, PermissionException, JobAlreadyFinishedException {
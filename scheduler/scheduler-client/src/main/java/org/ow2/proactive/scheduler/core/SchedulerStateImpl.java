@@ -80,6 +80,9 @@ public final class SchedulerStateImpl implements SchedulerState {
     /** List of connected user. */
     private SchedulerUsers sUsers = new SchedulerUsers();
 
+    /** False while the finished jobs are loaded after the scheduler startup */
+    private boolean finishedJobsLoaded = true;
+
     /**
      * keep a map of all jobs (pending, running finished) to facilitate
      * their updates
@@ -186,6 +189,20 @@ public final class SchedulerStateImpl implements SchedulerState {
         sUsers = users;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    public boolean isFinishedJobsLoaded() {
+        return finishedJobsLoaded;
+    }
+
+    /**
+     * @param finishedJobsLoaded true if all the finished jobs are loaded
+     */
+    public void setFinishedJobsLoaded(boolean finishedJobsLoaded) {
+        this.finishedJobsLoaded = finishedJobsLoaded;
+    }
+
     /**
      * Filter the state on the given user name and return a new instance of scheduler state impl
      * After this call, this instance remains the same.
@@ -197,6 +214,7 @@ public final class SchedulerStateImpl implements SchedulerState {
         SchedulerStateImpl ssi = new SchedulerStateImpl();
         ssi.setState(getStatus());
         ssi.setUsers(getUsers());
+        ssi.setFinishedJobsLoaded(isFinishedJobsLoaded());
         //pending
         Vector<JobState> tmp = new Vector<JobState>();
         for (JobState js : getPendingJobs()) {
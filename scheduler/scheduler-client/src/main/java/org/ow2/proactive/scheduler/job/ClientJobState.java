@@ -70,6 +70,18 @@ public final class ClientJobState extends JobState {
 
     }
 
+    /**
+     * Create a copy of the given job state which is not affected by its later updates.
+     *
+     * @param jobState the job state to copy
+     * @return a copy of the job state
+     */
+    public static ClientJobState copyOf(JobState jobState) {
+        ClientJobState copy = new ClientJobState(jobState);
+        copy.jobInfo = new JobInfoImpl((JobInfoImpl) jobState.getJobInfo());
+        return copy;
+    }
+
     @Override
     public int getMaxNumberOfExecution() {
         return this.maxNumberOfExecution;
@@ -44,6 +44,24 @@ public class ClientJobStateTest {
         assertEquals(3, jobState.getJobInfo().getNumberOfFinishedTasks());
     }
 
+    @Test
+    public void copy_ShouldNotBeAffectedBy_LaterUpdates() throws Exception {
+        JobInfoImpl jobInfo = createJobInfo();
+        ClientJobState jobState = new ClientJobState(createJobState(jobInfo));
+        ClientJobState copy = ClientJobState.copyOf(jobState);
+
+        JobInfoImpl updatedJobInfo = createJobInfo();
+        updatedJobInfo.setNumberOfFinishedTasks(1);
+        TaskInfoImpl updatedTask = createTaskInfo(updatedJobInfo);
+
+        jobState.update(updatedTask);
+
+        assertEquals(1, jobState.getJobInfo().getNumberOfFinishedTasks());
+        assertEquals(0, copy.getJobInfo().getNumberOfFinishedTasks());
+        assertSame(updatedTask, jobState.getHMTasks().get(updatedTask.getTaskId()).getTaskInfo());
+        assertNotSame(updatedTask, copy.getHMTasks().get(updatedTask.getTaskId()).getTaskInfo());
+    }
+
     private JobInfoImpl createJobInfo() {
         JobInfoImpl jobInfo = new JobInfoImpl();
         JobIdImpl jobId = new JobIdImpl(1000, "job");
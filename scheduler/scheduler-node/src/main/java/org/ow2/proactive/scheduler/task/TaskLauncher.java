@@ -89,6 +89,7 @@ import org.ow2.proactive.scheduler.task.utils.LocalSpaceAdapter;
 import org.ow2.proactive.scheduler.task.utils.RemoteSpaceAdapter;
 import org.ow2.proactive.scripting.*;
 import org.ow2.proactive.utils.Formatter;
+import org.ow2.proactive.utils.ReusableActiveObject;
 
 import java.io.File;
 import java.io.IOException;
@@ -114,11 +115,14 @@ import static org.ow2.proactive.scheduler.common.util.VariablesUtil.filterAndUpd
  * It is able to launch a java task only.
  * You can extend this launcher in order to create a specific launcher.
  * With this default launcher, you can get the node on which the task is running and kill the task.
+ * <p>
+ * A pooled launcher is not terminated at the end of its task, it is kept on the node
+ * and {@link #reset(TaskLauncherInitializer) reset} to execute the next task of the node.
  *
  * @author The ProActive Team
  * @since ProActive Scheduling 0.9
  */
-public abstract class TaskLauncher implements InitActive {
+public abstract class TaskLauncher implements InitActive, ReusableActiveObject {
 
     public static final Logger logger = Logger.getLogger(TaskLauncher.class);
 
@@ -176,8 +180,7 @@ public abstract class TaskLauncher implements InitActive {
     /**
      * Thread pool used for input/output files parallel transfer
      */
-    protected ExecutorService executorTransfer = Executors.newFixedThreadPool(5, new NamedThreadFactory(
-        "FileTransferThreadPool"));
+    protected ExecutorService executorTransfer = createTransferExecutor();
 
     private int pingPeriodMs = 20000; // ms
     private int pingAttempts = 1;
@@ -239,6 +242,18 @@ public abstract class TaskLauncher implements InitActive {
     /** Propagated variables map */
     private Map<String, Serializable> propagatedVariables = new HashMap<String, Serializable>();
 
+    /** true if this launcher is reused by the next tasks of the node */
+    protected boolean pooled;
+
+    /** true once the active object is being terminated */
+    private volatile boolean terminated = false;
+
+    /** Owner of the job of the current task, a pooled launcher only executes the tasks of this user */
+    private String owner;
+
+    /** Context class loader of the active thread before the first task, restored for the next tasks */
+    private transient ClassLoader initialContextClassLoader;
+
     /**
      * ProActive empty constructor.
      */
@@ -252,7 +267,59 @@ public abstract class TaskLauncher implements InitActive {
      * @param initializer represents the class that contains information to initialize every task launcher.
      */
     public TaskLauncher(TaskLauncherInitializer initializer) {
+        this.initialize(initializer);
+    }
+
+    /**
+     * Reset this pooled launcher so that it executes a new task.
+     * The request is served once the previous task is finalized.
+     *
+     * @param initializer represents the class that contains information to initialize the new task.
+     * @return true if the launcher was reset, false if it cannot be reused.
+     */
+    public boolean reset(TaskLauncherInitializer initializer) {
+        if (!isReusable()) {
+            return false;
+        }
+        if (owner == null || !owner.equals(initializer.getOwner())) {
+            // never share a launcher, and what the previous tasks left in its JVM, between users
+            return false;
+        }
+        // the class loader of the previous job must not be seen by the next task, nor kept alive
+        Thread.currentThread().setContextClassLoader(initialContextClassLoader);
+        try {
+            // the guard of the previous task has been cleaned, it cannot be reused
+            ExecutableGuard guard = new ExecutableGuard();
+            guard.setNode(PAActiveObject.getNode());
+            this.executableGuard = guard;
+        } catch (Exception e) {
+            logger.warn("Cannot reset task launcher of task " + taskId, e);
+            return false;
+        }
+        if (this.executorTransfer.isShutdown()) {
+            this.executorTransfer = createTransferExecutor();
+        }
+        this.dataspaceInitialized = false;
+        this.SCRATCH = null;
+        this.INPUT = null;
+        this.OUTPUT = null;
+        this.GLOBAL = null;
+        this.USER = null;
+        this.decrypter = null;
+        this.killTaskTimer = null;
+        this.wallTime = 0;
+        this.logFileName = null;
+        this.propagatedVariables = new HashMap<String, Serializable>();
+        this.loggersFinalized.set(false);
+        this.loggersActivated.set(false);
+
+        this.initialize(initializer);
+        return true;
+    }
+
+    private void initialize(TaskLauncherInitializer initializer) {
         this.taskId = initializer.getTaskId();
+        this.owner = initializer.getOwner();
         this.pre = initializer.getPreScript();
         this.post = initializer.getPostScript();
         this.flow = initializer.getControlFlowScript();
@@ -275,10 +342,23 @@ public abstract class TaskLauncher implements InitActive {
 
         this.pingAttempts = initializer.getPingAttempts();
         this.pingPeriodMs = initializer.getPingPeriod() * 1000;
+        this.pooled = initializer.isPooled() && !isForkedTask();
 
         this.init();
     }
 
+    private static ExecutorService createTransferExecutor() {
+        return Executors.newFixedThreadPool(5, new NamedThreadFactory("FileTransferThreadPool"));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @ImmediateService
+    public boolean isReusable() {
+        return pooled && !terminated;
+    }
+
     protected static String replace(String input, Map<String, String> replacements) {
         String output = input;
         for (Map.Entry<String, String> replacement : replacements.entrySet()) {
@@ -304,6 +384,7 @@ public abstract class TaskLauncher implements InitActive {
             node = PAActiveObject.getNode();
             stubOnThis = (TaskLauncher) PAActiveObject.getStubOnThis();
             taskLauncherBody = PAActiveObject.getBodyOnThis();
+            initialContextClassLoader = Thread.currentThread().getContextClassLoader();
             executableGuard.setNode(node);
         } catch (Exception e) {
             throw new IllegalStateException("Could not retrieve ProActive Node", e);
@@ -827,6 +908,11 @@ public abstract class TaskLauncher implements InitActive {
             terminate(false);
         }
 
+        if (pooled) {
+            // the job class loader set by the executable container must not outlive the task
+            Thread.currentThread().setContextClassLoader(initialContextClassLoader);
+        }
+
         logger.info("Task " + taskId + " finalized");
     }
 
@@ -852,7 +938,11 @@ public abstract class TaskLauncher implements InitActive {
             }
 
             executableGuard.clean(TaskLauncher.CLEAN_TIMEOUT);
+        } else if (pooled) {
+            logger.info("TaskLauncher kept for the next task");
+            return;
         }
+        terminated = true;
         try {
             if (taskLauncherBody != null) {
                 taskLauncherBody.terminate(!normalTermination);
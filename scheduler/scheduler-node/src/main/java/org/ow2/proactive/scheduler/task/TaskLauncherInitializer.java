@@ -91,6 +91,9 @@ public class TaskLauncherInitializer implements Serializable {
     private Map<String, String> variables;
     private int pingPeriod;
     private int pingAttempts;
+    private boolean pooled;
+    private int forkedJVMPoolSize;
+    private long forkedJVMIdleTime;
 
     /**
      * Get the taskId
@@ -375,4 +378,46 @@ public class TaskLauncherInitializer implements Serializable {
     public int getPingAttempts() {
         return pingAttempts;
     }
+
+    /**
+     * @param pooled true if the launcher is reused by the next tasks of the node
+     */
+    public void setPooled(boolean pooled) {
+        this.pooled = pooled;
+    }
+
+    /**
+     * @return true if the launcher is reused by the next tasks of the node
+     */
+    public boolean isPooled() {
+        return pooled;
+    }
+
+    /**
+     * @param forkedJVMPoolSize maximum number of idle forked JVMs kept on the node, 0 if the forked JVMs are not reused
+     */
+    public void setForkedJVMPoolSize(int forkedJVMPoolSize) {
+        this.forkedJVMPoolSize = forkedJVMPoolSize;
+    }
+
+    /**
+     * @return maximum number of idle forked JVMs kept on the node, 0 if the forked JVMs are not reused
+     */
+    public int getForkedJVMPoolSize() {
+        return forkedJVMPoolSize;
+    }
+
+    /**
+     * @param forkedJVMIdleTime time in ms after which an idle forked JVM is destroyed
+     */
+    public void setForkedJVMIdleTime(long forkedJVMIdleTime) {
+        this.forkedJVMIdleTime = forkedJVMIdleTime;
+    }
+
+    /**
+     * @return time in ms after which an idle forked JVM is destroyed
+     */
+    public long getForkedJVMIdleTime() {
+        return forkedJVMIdleTime;
+    }
 }
@@ -0,0 +1,354 @@
+/*
+ * ################################################################
+ *
+ * ProActive Parallel Suite(TM): The Java(TM) library for
+ *    Parallel, Distributed, Multi-Core Computing for
+ *    Enterprise Grids & Clouds
+ *
+ * Copyright (C) 1997-2011 INRIA/University of
+ *                 Nice-Sophia Antipolis/ActiveEon
+ * Contact: proactive@ow2.org or contact@activeeon.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation; version 3 of
+ * the License.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307
+ * USA
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ *
+ *  Initial developer(s):               The ProActive Team
+ *                        http://proactive.inria.fr/team_members.htm
+ *  Contributor(s): ActiveEon Team - http://www.activeeon.com
+ *
+ * ################################################################
+ * $$ACTIVEEON_CONTRIBUTOR$$
+ */
+package org.ow2.proactive.scheduler.task.forked;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Timer;
+import java.util.TimerTask;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.objectweb.proactive.api.PAActiveObject;
+import org.objectweb.proactive.core.ProActiveException;
+import org.objectweb.proactive.core.node.Node;
+import org.apache.commons.io.FileUtils;
+import org.apache.log4j.Logger;
+
+
+/**
+ * Pool of forked JVMs kept alive between the forked java tasks of a node.
+ * <p>
+ * A forked JVM which has executed its task without being killed is kept idle instead of being
+ * destroyed, and is handed to the next task having the same fork environment signature
+ * (java home, JVM arguments, classpath, working directory and system environment).
+ * An idle JVM is destroyed when it stays unused longer than the idle time, or when the pool
+ * already holds the maximum number of idle JVMs.
+ * <p>
+ * There is one pool per node JVM. The forked JVMs started for the pool call back the pool
+ * active object, which forwards the started node to the task waiting for it.
+ *
+ * @author The ProActive Team
+ */
+public class ForkedJVMPool implements ForkerStarterCallback {
+
+    public static final Logger logger = Logger.getLogger(ForkedJVMPool.class);
+
+    private static ForkedJVMPool instance;
+
+    /** signature => idle JVMs, the most recently released last */
+    private final Map<String, LinkedList<ForkedJVM>> idleJVMs = new HashMap<String, LinkedList<ForkedJVM>>();
+
+    private int idleCount = 0;
+
+    /** name of the node being started => task waiting for it */
+    private final Map<String, ForkerStarterCallback> pendingRegistrations = new ConcurrentHashMap<String, ForkerStarterCallback>();
+
+    private Timer evictionTimer;
+
+    private String callbackUrl;
+
+    /**
+     * ProActive empty constructor
+     */
+    public ForkedJVMPool() {
+    }
+
+    /**
+     * @return the pool of this JVM
+     */
+    public static synchronized ForkedJVMPool getInstance() {
+        if (instance == null) {
+            instance = new ForkedJVMPool();
+        }
+        return instance;
+    }
+
+    /**
+     * Returns the url the forked JVMs started for the pool must call back, the task starting
+     * the JVM is notified of the started node.
+     *
+     * @param nodeName the name of the node to be started by the forked JVM
+     * @param callback the task waiting for the node
+     * @return the url of the pool active object
+     * @throws ProActiveException if the pool active object cannot be created
+     */
+    public synchronized String registerCallback(String nodeName, ForkerStarterCallback callback)
+            throws ProActiveException {
+        if (callbackUrl == null) {
+            ForkedJVMPool stub = PAActiveObject.turnActive(new ForkedJVMPool());
+            callbackUrl = PAActiveObject.registerByName(stub, "ForkedJVMPool-" + UUID.randomUUID(), "pnp");
+        }
+        pendingRegistrations.put(nodeName, callback);
+        return callbackUrl;
+    }
+
+    /**
+     * Forget the task waiting for the given node, if the node was never started.
+     *
+     * @param nodeName the name of the node
+     */
+    public void unregisterCallback(String nodeName) {
+        pendingRegistrations.remove(nodeName);
+    }
+
+    /**
+     * Forward the started node to the task which started the forked JVM.
+     * Served by the pool active object.
+     */
+    public void callback(Node n) {
+        ForkerStarterCallback callback = getInstance().pendingRegistrations.remove(
+                n.getNodeInformation().getName());
+        if (callback != null) {
+            callback.callback(n);
+        } else {
+            logger.warn("No task waiting for the forked node " + n.getNodeInformation().getName());
+        }
+    }
+
+    /**
+     * Take an idle JVM with the given signature.
+     *
+     * @param signature the signature of the fork environment of the task
+     * @return the JVM, null if there is no idle JVM with this signature
+     */
+    public synchronized ForkedJVM acquire(String signature) {
+        LinkedList<ForkedJVM> jvms = idleJVMs.get(signature);
+        while (jvms != null && !jvms.isEmpty()) {
+            ForkedJVM jvm = jvms.removeLast();
+            idleCount--;
+            if (jvms.isEmpty()) {
+                idleJVMs.remove(signature);
+            }
+            if (jvm.isAlive()) {
+                jvm.idleSince = 0;
+                return jvm;
+            }
+            jvm.destroy();
+        }
+        return null;
+    }
+
+    /**
+     * Keep a JVM whose task is terminated for the next tasks, or destroy it if the pool is full.
+     *
+     * @param jvm the JVM whose task is terminated
+     * @param maxIdleJVMs the maximum number of idle JVMs kept by the pool
+     * @param idleTime time (in ms) after which an unused JVM is destroyed
+     * @return true if the JVM is kept, false if it has been destroyed
+     */
+    public synchronized boolean release(final ForkedJVM jvm, int maxIdleJVMs, final long idleTime) {
+        if (idleCount >= maxIdleJVMs || !jvm.isAlive()) {
+            jvm.destroy();
+            return false;
+        }
+        LinkedList<ForkedJVM> jvms = idleJVMs.get(jvm.signature);
+        if (jvms == null) {
+            jvms = new LinkedList<ForkedJVM>();
+            idleJVMs.put(jvm.signature, jvms);
+        }
+        jvm.redirectStreams(null, null);
+        jvm.idleSince = System.currentTimeMillis();
+        jvms.addLast(jvm);
+        idleCount++;
+
+        if (evictionTimer == null) {
+            evictionTimer = new Timer("ForkedJVMPool", true);
+        }
+        evictionTimer.schedule(new TimerTask() {
+            @Override
+            public void run() {
+                evictIdleJVMs(idleTime);
+            }
+        }, idleTime);
+        return true;
+    }
+
+    /**
+     * @return the number of idle JVMs
+     */
+    public synchronized int getIdleCount() {
+        return idleCount;
+    }
+
+    private synchronized void evictIdleJVMs(long idleTime) {
+        long now = System.currentTimeMillis();
+        Iterator<LinkedList<ForkedJVM>> lists = idleJVMs.values().iterator();
+        while (lists.hasNext()) {
+            LinkedList<ForkedJVM> jvms = lists.next();
+            Iterator<ForkedJVM> iterator = jvms.iterator();
+            while (iterator.hasNext()) {
+                ForkedJVM jvm = iterator.next();
+                if (now - jvm.idleSince >= idleTime || !jvm.isAlive()) {
+                    logger.debug("Destroying idle forked JVM " + jvm.node.getNodeInformation().getName());
+                    iterator.remove();
+                    idleCount--;
+                    jvm.destroy();
+                }
+            }
+            if (jvms.isEmpty()) {
+                lists.remove();
+            }
+        }
+    }
+
+    /**
+     * A forked JVM which can execute several tasks one after the other.
+     * Its output is redirected to the output of the task it executes.
+     */
+    public static class ForkedJVM {
+
+        private final String signature;
+
+        private final Process process;
+
+        private final TaskProcessTreeKiller processTreeKiller;
+
+        /** temporary files and directories used by the JVM, deleted with the JVM */
+        private final List<File> files;
+
+        private final RedirectedStream out = new RedirectedStream();
+
+        private final RedirectedStream err = new RedirectedStream();
+
+        private Node node;
+
+        private long idleSince;
+
+        /**
+         * @param signature the signature of the fork environment of the JVM
+         * @param process the process of the JVM
+         * @param processTreeKiller kills the JVM and its children processes
+         * @param files temporary files and directories deleted with the JVM
+         */
+        public ForkedJVM(String signature, Process process, TaskProcessTreeKiller processTreeKiller,
+                List<File> files) {
+            this.signature = signature;
+            this.process = process;
+            this.processTreeKiller = processTreeKiller;
+            this.files = files;
+            startReader(process.getInputStream(), out, "out");
+            startReader(process.getErrorStream(), err, "err");
+        }
+
+        public Process getProcess() {
+            return process;
+        }
+
+        public TaskProcessTreeKiller getProcessTreeKiller() {
+            return processTreeKiller;
+        }
+
+        public Node getNode() {
+            return node;
+        }
+
+        public void setNode(Node node) {
+            this.node = node;
+        }
+
+        /**
+         * Redirect the output of the JVM, the output is dropped while the sinks are null.
+         *
+         * @param outputSink where the standard output is printed to
+         * @param errorSink where the error output is printed to
+         */
+        public void redirectStreams(PrintStream outputSink, PrintStream errorSink) {
+            out.sink = outputSink;
+            err.sink = errorSink;
+        }
+
+        /**
+         * @return true if the process of the JVM is running
+         */
+        public boolean isAlive() {
+            try {
+                process.exitValue();
+                return false;
+            } catch (IllegalThreadStateException e) {
+                return true;
+            }
+        }
+
+        /**
+         * Destroy the JVM, its children processes and its temporary files.
+         */
+        public void destroy() {
+            process.destroy();
+            processTreeKiller.kill();
+            for (File file : files) {
+                FileUtils.deleteQuietly(file);
+            }
+        }
+
+        private void startReader(InputStream stream, final RedirectedStream redirection, String name) {
+            final BufferedReader reader = new BufferedReader(new InputStreamReader(stream));
+            Thread readerThread = new Thread("ForkedJVM " + name + " reader") {
+                @Override
+                public void run() {
+                    String line;
+                    try {
+                        while ((line = reader.readLine()) != null) {
+                            PrintStream sink = redirection.sink;
+                            if (sink != null) {
+                                sink.println(line);
+                            }
+                        }
+                    } catch (IOException e) {
+                        //nothing to do, the process is dead
+                    }
+                }
+            };
+            readerThread.setDaemon(true);
+            readerThread.start();
+        }
+    }
+
+    private static class RedirectedStream {
+        volatile PrintStream sink;
+    }
+
+}
@@ -45,12 +45,15 @@ import java.io.Serializable;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.security.KeyException;
+import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.security.PublicKey;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.TreeMap;
 import java.util.UUID;
 import java.util.concurrent.Callable;
 
@@ -147,6 +150,10 @@ public class JavaForkerExecutable extends JavaExecutable implements ForkerStarte
     private Node forkedNode = null;
     private volatile boolean processStarted = false;
 
+    /** forked JVM taken from or added to the pool, null if the forked JVMs are not pooled */
+    private ForkedJVMPool.ForkedJVM pooledJVM = null;
+    private File pooledJVMWorkingDir = null;
+
     protected LauncherGuard launcherGuard = new LauncherGuard();
 
     final private TaskLauncher taskLauncherStub;
@@ -183,11 +190,34 @@ public class JavaForkerExecutable extends JavaExecutable implements ForkerStarte
 
             launcherGuard.setNode(PAActiveObject.getNode());
 
-            // building command for executing java and start process
-            OSProcessBuilder ospb = createProcessAndPrepareCommand();
-            process = startProcess(ospb);
-            this.initStreamReaders();
-            waitForRegistration(ospb);
+            OSProcessBuilder ospb = createProcessAndPrepareEnvironment();
+            String signature = null;
+            if (isForkedJVMPoolEnabled()) {
+                signature = createForkEnvironmentSignature();
+                pooledJVM = ForkedJVMPool.getInstance().acquire(signature);
+            }
+            if (pooledJVM != null) {
+                logger.debug("Reusing forked JVM " + pooledJVM.getNode().getNodeInformation().getName());
+                process = pooledJVM.getProcess();
+                forkedNode = pooledJVM.getNode();
+                taskProcessTreeKiller = pooledJVM.getProcessTreeKiller();
+                pooledJVM.redirectStreams(execInitializer.getOutputSink(), execInitializer.getErrorSink());
+            } else {
+                // building command for executing java and start process
+                prepareCommand(ospb, signature != null);
+                process = startProcess(ospb);
+                if (signature != null) {
+                    pooledJVM = new ForkedJVMPool.ForkedJVM(signature, process, taskProcessTreeKiller,
+                        Arrays.asList(fpolicy, flog4j, fpaconfig, pooledJVMWorkingDir));
+                    pooledJVM.redirectStreams(execInitializer.getOutputSink(), execInitializer.getErrorSink());
+                } else {
+                    this.initStreamReaders();
+                }
+                waitForRegistration(ospb);
+                if (pooledJVM != null) {
+                    pooledJVM.setNode(forkedNode);
+                }
+            }
 
             //create task launcher on new JVM node
             logger.debug("Create remote task launcher");
@@ -230,10 +260,61 @@ public class JavaForkerExecutable extends JavaExecutable implements ForkerStarte
             }
             return launcherGuard.getResult();
         } finally {
+            if (pooledJVM != null) {
+                ForkedJVMPool.getInstance().unregisterCallback(forkedNodeName);
+            }
             launcherGuard.clean(TaskLauncher.CLEAN_TIMEOUT);
         }
     }
 
+    /**
+     * @return true if the forked JVM of this task can be taken from and given back to the pool
+     */
+    private boolean isForkedJVMPoolEnabled() {
+        return execInitializer.getJavaTaskLauncherInitializer().getForkedJVMPoolSize() > 0 && !isRunAsUser();
+    }
+
+    /**
+     * Compute the signature of the fork environment of this task, two tasks having the same
+     * signature can be executed by the same forked JVM.
+     *
+     * @return the digest of the job owner, the user running the forked JVM, the java home,
+     * 			JVM arguments, classpath, working directory, system environment and configuration
+     * 			files of the forked JVM
+     */
+    private String createForkEnvironmentSignature() throws NoSuchAlgorithmException, KeyException,
+            IllegalAccessException {
+        ForkEnvironment forkEnvironment = execInitializer.getForkEnvironment();
+        TaskLauncherInitializer tli = execInitializer.getJavaTaskLauncherInitializer();
+        StringBuilder signature = new StringBuilder();
+        // a forked JVM is never shared by the tasks of different users
+        signature.append(tli.getOwner()).append('\n');
+        if (isRunAsUser()) {
+            signature.append(execInitializer.getDecrypter().decrypt().getLogin()).append('\n');
+        } else {
+            signature.append(System.getProperty("user.name")).append('\n');
+        }
+        signature.append(createJavaCommand()).append('\n');
+        signature.append(System.getProperty("java.class.path", "")).append('\n');
+        signature.append(OneJar.getClasspath()).append('\n');
+        if (forkEnvironment != null) {
+            signature.append(forkEnvironment.getJVMArguments()).append('\n');
+            signature.append(forkEnvironment.getAdditionalClasspath()).append('\n');
+            signature.append(forkEnvironment.getWorkingDir()).append('\n');
+            signature.append(new TreeMap<String, String>(forkEnvironment.getSystemEnvironment())).append('\n');
+        }
+        signature.append(tli.getPolicyContent()).append('\n');
+        signature.append(tli.getLog4JContent()).append('\n');
+        signature.append(tli.getPaConfigContent());
+
+        byte[] digest = MessageDigest.getInstance("SHA-1").digest(signature.toString().getBytes());
+        StringBuilder hex = new StringBuilder(digest.length * 2);
+        for (byte b : digest) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+
     private void reEncryptForForkedLauncher() throws NoSuchAlgorithmException, IllegalAccessException,
       KeyException {
         PublicKey publicKey = launcherGuard.use().generatePublicKey();
@@ -279,16 +360,13 @@ public class JavaForkerExecutable extends JavaExecutable implements ForkerStarte
      * <li>Create new process builder</li>
      * <li>Update fork env with system env</li>
      * <li>Execute environment script if needed</li>
-     * <li>Create command and add it to process builder</li>
-     * <li>Set working dir</li>
-     * <li>Set system environment</li>
      * <li>And return the created OS process builder</li>
      * </ul>
      *
      * @return the created OS process builder
      * @throws Exception if a problem occurs while creating the process
      */
-    private OSProcessBuilder createProcessAndPrepareCommand() throws Throwable {
+    private OSProcessBuilder createProcessAndPrepareEnvironment() throws Throwable {
         logger.debug("Preparing new java process");
         //create process builder
         OSProcessBuilder ospb = createProcess();
@@ -296,21 +374,35 @@ public class JavaForkerExecutable extends JavaExecutable implements ForkerStarte
         createInternalForkEnvironment(ospb);
         //execute environment script
         launcherGuard.executeEnvScript();
+        return ospb;
+    }
+
+    /**
+     * <ul>
+     * <li>Create command and add it to process builder</li>
+     * <li>Set working dir</li>
+     * <li>Set system environment</li>
+     * </ul>
+     *
+     * @param ospb the process builder of the new process
+     * @param pooled true if the process is kept in the pool after the task
+     * @throws Exception if a problem occurs while creating the command
+     */
+    private void prepareCommand(OSProcessBuilder ospb, boolean pooled) throws Exception {
         //create command and set it to process builder
         List<String> command = createJavaCommand();
         addJVMArguments(command);
         addClasspath(command);
-        addRuntime(command);
+        addRuntime(command, pooled);
         //set command
         setCommand(ospb, command);
         //set working dir
-        setWorkingDir(ospb);
+        setWorkingDir(ospb, pooled);
         //set system environment
         setSystemEnvironment(ospb);
         if (logger.isDebugEnabled()) {
             logger.debug("JVM process and command created with command : " + command);
         }
-        return ospb;
     }
 
     /**
@@ -573,10 +665,17 @@ public class JavaForkerExecutable extends JavaExecutable implements ForkerStarte
      * Add runtime class name to be launched to the given command
      *
      * @param command the command to be completed
+     * @param pooled true if the forked JVM is started for the pool
      */
-    private void addRuntime(List<String> command) throws ProActiveException {
+    private void addRuntime(List<String> command, boolean pooled) throws ProActiveException {
         command.add(ForkerStarter.class.getName());
-        String url = PAActiveObject.registerByName(taskLauncherStub, forkedNodeName, "pnp");
+        String url;
+        if (pooled) {
+            // the pool outlives this task, the forked JVM must call it back
+            url = ForkedJVMPool.getInstance().registerCallback(forkedNodeName, this);
+        } else {
+            url = PAActiveObject.registerByName(taskLauncherStub, forkedNodeName, "pnp");
+        }
         command.add(url);
         command.add(forkedNodeName);
     }
@@ -688,10 +787,18 @@ public class JavaForkerExecutable extends JavaExecutable implements ForkerStarte
      * Set the working directory of the given OS process builder
      *
      * @param ospb the process builder on which to set the working directory
+     * @param pooled true if the forked JVM will execute other tasks
      */
-    private void setWorkingDir(OSProcessBuilder ospb) {
+    private void setWorkingDir(OSProcessBuilder ospb, boolean pooled) throws IOException {
         ForkEnvironment forkEnvironment = execInitializer.getForkEnvironment();
-        if (isUsingSharedSpaceAsWorkingDir(forkEnvironment)) {
+        if (pooled && isUsingSharedSpaceAsWorkingDir(forkEnvironment)) {
+            // the scratch space of this task is removed with the task, the JVM gets its own directory
+            pooledJVMWorkingDir = createTempFile("forked_jvm", null);
+            if (!pooledJVMWorkingDir.delete() || !pooledJVMWorkingDir.mkdir()) {
+                throw new IOException("Cannot create working directory " + pooledJVMWorkingDir);
+            }
+            ospb.directory(pooledJVMWorkingDir);
+        } else if (isUsingSharedSpaceAsWorkingDir(forkEnvironment)) {
             // default it to use the forker shared scratch space so input files are
             // directly accessible from the working dir
             try {
@@ -909,15 +1016,29 @@ public class JavaForkerExecutable extends JavaExecutable implements ForkerStarte
         protected void internalClean() {
             try {
                 logger.info("Cleaning forked java executable");
+                boolean launcherCleaned = false;
                 if (!killMessageReceived && targetInitialized) {
                     // killing remote processes
                     try {
                         target.cleanForkedJavaTaskLauncher();
+                        launcherCleaned = true;
                     } catch (Throwable e) {
                         logger.warn("Exception when Cleaning Forked Java Task Launcher.", e);
                     }
                 }
 
+                if (pooledJVM != null) {
+                    TaskLauncherInitializer tli = execInitializer.getJavaTaskLauncherInitializer();
+                    if (launcherCleaned && resultAvailable() &&
+                        ForkedJVMPool.getInstance().release(pooledJVM, tli.getForkedJVMPoolSize(),
+                                tli.getForkedJVMIdleTime())) {
+                        logger.debug("Forked JVM kept for the next tasks");
+                    } else {
+                        pooledJVM.destroy();
+                    }
+                    return;
+                }
+
                 //if tmp file have been set, destroy it.
                 FileUtils.deleteQuietly(fpolicy);
                 FileUtils.deleteQuietly(flog4j);
@@ -38,6 +38,8 @@ package org.ow2.proactive.scheduler.util.classloading;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.List;
+import java.util.jar.JarFile;
 
 import org.apache.log4j.Logger;
 import org.ow2.proactive.scheduler.task.TaskClassLoader;
@@ -45,8 +47,9 @@ import org.ow2.proactive.scheduler.task.TaskClassLoader;
 
 /**
  * This classLoader is used on nodes provided by the resource manager to instantiate
- * the executable. If a class is not found locally, then this class is asked to the
- * taskClassCerver associated to this TaskClassLoader.
+ * the executable. If a class is not found locally, then this class is looked up in the
+ * job classpath cached on the node (see {@link TaskClasspathCache}), and finally asked to
+ * the taskClassCerver associated to this TaskClassLoader.
  *
  * @see TaskClassServer 
  * @author The ProActive team 
@@ -59,6 +62,9 @@ public class TaskClassLoaderImpl extends ClassLoader implements TaskClassLoader
     /** The associated classserver on the scheduler core side */
     // Can be null if no classpath has been set for the job
     private TaskClassServer remoteServer;
+    /** Jar files of the job classpath cached on this node, null if the classpath is not cached */
+    private List<JarFile> cachedClasspath;
+    private boolean cachedClasspathResolved;
     /** The directory containing extra classpath */
     private File extClasspathDir;
     /** Name of the property that set the extra classpath directory */
@@ -98,6 +104,40 @@ public class TaskClassLoaderImpl extends ClassLoader implements TaskClassLoader
 
     }
 
+    /**
+     * Look for a class in the job classpath cached on this node. The classpath is downloaded
+     * from the remote TaskClassServer the first time it is needed on the node.
+     * @param className the looked up class
+     * @return the byte[] representation of the class if found, null otherwise.
+     */
+    private byte[] lookIntoCachedClasspath(String className) {
+        if (!cachedClasspathResolved) {
+            cachedClasspathResolved = true;
+            try {
+                TaskClasspathCache cache = TaskClasspathCache.getInstance();
+                if (cache != null) {
+                    this.cachedClasspath = cache.getClasspath(this.remoteServer);
+                }
+            } catch (Exception e) {
+                logger.warn("Cannot cache the job classpath, classes will be asked to the TaskClassServer", e);
+            }
+        }
+        if (this.cachedClasspath != null) {
+            try {
+                for (JarFile jarFile : this.cachedClasspath) {
+                    byte[] classBytes = TaskClassUtils.lookIntoJarFile(className, jarFile);
+                    if (classBytes != null) {
+                        logger.debug("Found " + className + " in cached classpath");
+                        return classBytes;
+                    }
+                }
+            } catch (IOException e) {
+                logger.warn("Cannot read cached classpath.", e);
+            }
+        }
+        return null;
+    }
+
     /* (non-Javadoc)
      * @see java.lang.ClassLoader#loadClass(java.lang.String)
      */
@@ -141,8 +181,11 @@ public class TaskClassLoaderImpl extends ClassLoader implements TaskClassLoader
                 }
                 // if class has not been found locally, tries remote TaskClassServer...
                 if (remoteServer != null) {
-                    logger.debug("Ask for class " + className + " to the remote TaskClassServer");
-                    byte[] classBytes = this.remoteServer.getClassBytes(className);
+                    byte[] classBytes = this.lookIntoCachedClasspath(className);
+                    if (classBytes == null) {
+                        logger.debug("Ask for class " + className + " to the remote TaskClassServer");
+                        classBytes = this.remoteServer.getClassBytes(className);
+                    }
                     if (classBytes == null || classBytes.length == 0) {
                         logger.debug("Did not find " + className);
                         throw new ClassNotFoundException(className);
@@ -36,20 +36,20 @@
  */
 package org.ow2.proactive.scheduler.util.classloading;
 
-import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileOutputStream;
-import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.Hashtable;
+import java.util.Map;
 import java.util.jar.JarFile;
-import java.util.zip.CRC32;
 
 import org.ow2.proactive.scheduler.common.job.JobId;
 import org.ow2.proactive.scheduler.common.util.JarUtils;
 import org.ow2.proactive.scheduler.core.properties.PASchedulerProperties;
+import org.ow2.proactive.utils.FileToBytesConverter;
 import org.apache.log4j.Logger;
 import org.objectweb.proactive.extensions.dataspaces.api.DataSpacesFileObject;
 import org.ow2.proactive.scheduler.common.SchedulerConstants;
@@ -79,6 +79,12 @@ public class TaskClassServer {
     private static final boolean useCache = PASchedulerProperties.SCHEDULER_CLASSSERVER_USECACHE
             .getValueAsBoolean();
 
+    // prefix of the classpath files in the temporary directory
+    private static final String CLASSPATH_FILES_PREFIX = "classpath_";
+
+    // number of activated class servers using the classpath files of a classpath key
+    private static final Map<String, Integer> classpathUsers = new HashMap<String, Integer>();
+
     // cache for byte[] classes
     private final Hashtable<String, byte[]> cachedClasses;
 
@@ -91,6 +97,9 @@ public class TaskClassServer {
     // root classpath (directory *or* jar file)
     private final ArrayList<File> classpathSources;
 
+    // SHA-256 digest of the classpath content, identifies the classpath files
+    private String classpathKey;
+
     /**
      * Empty constructor for remote object creation.
      */
@@ -116,8 +125,10 @@ public class TaskClassServer {
     }
 
     /**
-     * Activate this TaskClassServer. The activation creates all needed files (jar file, classes directory and crc file)
+     * Activate this TaskClassServer. The activation creates all needed files (jar file, classes directory and digest file)
      * in the temporary directory defined by {@link org.ow2.proactive.scheduler.core.properties.PASchedulerProperties.SCHEDULER_CLASSSERVER_TMPDIR} property.
+     * These files are named after the content of the classpath, they are shared by the jobs with the same classpath
+     * and deleted when the last of these jobs is removed.
      * @param jobEnvironement the job environment that contains the job classpath
      * @param jobGlobalSpace the globalspace defined in the job, if not null it overrides the default globalspace
      * @param jobUserSpace the userspace defined in the job, if not null it overrides the default userspace
@@ -125,10 +136,6 @@ public class TaskClassServer {
      */
     public void activate(JobEnvironment jobEnvironement, String jobGlobalSpace, String jobUserSpace)
             throws IOException {
-        // check if the classpath exists already in the deflated classpathes
-        // for now, only in case of recovery
-        // TODO cdelbe : look for cp only with crc to avoid mutliple tcs for the same classpath
-
         // Support for dataspaces in job classpath
         String[] pathElements = jobEnvironement.getJobClasspath();
         this.addSourcesRelativeToSpaces(pathElements, jobGlobalSpace, jobUserSpace);
@@ -136,77 +143,34 @@ public class TaskClassServer {
         byte[] userClasspathJarFile = jobEnvironement.clearJobClasspathContent();
         boolean deflateJar = jobEnvironement.containsJarFile();
 
+        this.classpathKey = TaskClassUtils.digest(userClasspathJarFile);
+
         // open files
         File jarFile = new File(this.getPathToJarFile());
         File dirClasspath = new File(this.getPathToClassDir());
-        File crcFile = new File(this.getPathToCrcFile());
-
-        boolean classpathAlreadyExists = jarFile.exists() || (deflateJar && dirClasspath.exists());
-        boolean reuseExistingFiles = false;
-
-        // check if an already defined classpath can be reused
-        if (classpathAlreadyExists) {
-            try {
-                // the classpath for this job has already been deflated
-                reuseExistingFiles = true;
-                // check crc ...
-                if (crcFile.exists()) {
-                    logger.debug("Classpath files for job " + servedJobId +
-                        " already exists... Checking files");
-                    BufferedReader crcReader = new BufferedReader(new FileReader(crcFile));
-                    String read = crcReader.readLine();
-                    CRC32 actualCrc = new CRC32();
-                    actualCrc.update(userClasspathJarFile);
-                    if (Long.parseLong(read) != actualCrc.getValue()) {
-                        // the classpath cannot be reused
-                        reuseExistingFiles = false;
+        File digestFile = new File(this.getPathToDigestFile());
+
+        synchronized (classpathUsers) {
+            Integer users = classpathUsers.get(classpathKey);
+            if (users == null) {
+                // the digest file is written last, the classpath files are complete if it exists
+                // (for instance when the job is recovered), the jar file is checked before being reused
+                if (digestFile.exists() && jarFile.exists() &&
+                    classpathKey.equals(TaskClassUtils.digest(jarFile))) {
+                    logger.debug("Reusing classpath files " + jarFile + " for job " + servedJobId);
+                    if (deflateJar) {
+                        // the deflated classes cannot be checked, they are extracted again
+                        TaskClassUtils.deleteDirectory(dirClasspath);
+                        unjar(jarFile, dirClasspath);
                     }
                 } else {
-                    // no crc : cancel
-                    reuseExistingFiles = false;
+                    createClasspathFiles(userClasspathJarFile, deflateJar, jarFile, dirClasspath, digestFile);
                 }
-                // check deflated cp if any
-                if (deflateJar && !dirClasspath.exists()) {
-                    reuseExistingFiles = false;
-                }
-            } catch (Exception e) {
-                logger.warn("", e);
-                // if any exception occurs, cancel
-                reuseExistingFiles = false;
+                users = 0;
+            } else {
+                logger.debug("Sharing classpath files " + jarFile + " with " + users + " other job(s)");
             }
-        }
-
-        // delete old classpath if it cannot be reused
-        if (classpathAlreadyExists && !reuseExistingFiles) {
-            logger.debug("Deleting classpath files for job " + servedJobId);
-            // delete classpath files
-            jarFile.delete();
-            TaskClassUtils.deleteDirectory(dirClasspath);
-            crcFile.delete();
-        }
-
-        // if no files can be reused, create new ones.
-        if (!reuseExistingFiles) {
-            logger.debug("Creating classpath files for job " + servedJobId);
-            // create jar file
-            FileOutputStream fos = new FileOutputStream(jarFile);
-            fos.write(userClasspathJarFile);
-            fos.flush();
-            fos.close();
-
-            //create tmp directory for delfating classpath
-            if (deflateJar) {
-                dirClasspath.mkdir();
-                JarUtils.unjar(new JarFile(jarFile), dirClasspath);
-            }
-
-            // create crc file
-            FileWriter fosCrc = new FileWriter(crcFile);
-            CRC32 crc = new CRC32();
-            crc.update(userClasspathJarFile);
-            fosCrc.write("" + crc.getValue());
-            fosCrc.flush();
-            fosCrc.close();
+            classpathUsers.put(classpathKey, users + 1);
         }
 
         // set the actual classpath
@@ -216,26 +180,93 @@ public class TaskClassServer {
             this.servedJobId);
     }
 
+    private void createClasspathFiles(byte[] userClasspathJarFile, boolean deflateJar, File jarFile,
+            File dirClasspath, File digestFile) throws IOException {
+        logger.debug("Creating classpath files for job " + servedJobId);
+        // delete incomplete files if any
+        digestFile.delete();
+        jarFile.delete();
+        TaskClassUtils.deleteDirectory(dirClasspath);
+
+        // create jar file
+        FileOutputStream fos = new FileOutputStream(jarFile);
+        fos.write(userClasspathJarFile);
+        fos.flush();
+        fos.close();
+
+        //create tmp directory for delfating classpath
+        if (deflateJar) {
+            unjar(jarFile, dirClasspath);
+        }
+
+        // create digest file
+        FileWriter fosDigest = new FileWriter(digestFile);
+        fosDigest.write(classpathKey);
+        fosDigest.flush();
+        fosDigest.close();
+    }
+
+    private static void unjar(File jarFile, File dirClasspath) throws IOException {
+        dirClasspath.mkdir();
+        JarFile jar = new JarFile(jarFile);
+        try {
+            JarUtils.unjar(jar, dirClasspath);
+        } finally {
+            jar.close();
+        }
+    }
+
     /**
-     * Desactivate this TaskClassServer. The classpath files are deleted, and the
+     * Desactivate this TaskClassServer. The classpath files are deleted if no other job uses them, and the
      * classfiles cache is cleared.
      */
     public void desactivate() {
         logger.info("Desactivated TaskClassServer for classpaths " + this.classpathSources + " for job " +
             this.servedJobId);
-        // delete classpath files
-        File jarFile = new File(this.getPathToJarFile());
-        File deflatedJarFile = new File(this.getPathToClassDir());
-        File crcFile = new File(this.getPathToCrcFile());
-        jarFile.delete();
-        TaskClassUtils.deleteDirectory(deflatedJarFile);
-        crcFile.delete();
+        synchronized (classpathUsers) {
+            Integer users = classpathUsers.remove(classpathKey);
+            if (users != null && users > 1) {
+                classpathUsers.put(classpathKey, users - 1);
+            } else if (users != null) {
+                // delete classpath files
+                File jarFile = new File(this.getPathToJarFile());
+                File deflatedJarFile = new File(this.getPathToClassDir());
+                File digestFile = new File(this.getPathToDigestFile());
+                digestFile.delete();
+                jarFile.delete();
+                TaskClassUtils.deleteDirectory(deflatedJarFile);
+            }
+        }
         // delete cache
         if (this.cachedClasses != null) {
             this.cachedClasses.clear();
         }
     }
 
+    /**
+     * Return the key identifying the content of the classpath served by this class server.
+     * Nodes can use it to cache the classpath content, see {@link #getClasspathContent()}.
+     * @return the key of the classpath content, or null if this class server also serves classes
+     * 			which are not in the classpath content (dataspaces relative path elements).
+     */
+    public String getClasspathKey() {
+        if (this.classpathSources.size() != 1) {
+            return null;
+        }
+        return this.classpathKey;
+    }
+
+    /**
+     * Return the whole classpath content as a jar file, so that nodes can get all the classes
+     * of a job in one transfer instead of one request per class.
+     * @return the byte[] representation of the classpath jar file.
+     * @throws IOException if the classpath jar file cannot be read.
+     */
+    public byte[] getClasspathContent() throws IOException {
+        logger.debug("Sending classpath content " + classpathKey + " of job " + servedJobId);
+        return FileToBytesConverter.convertFileToByteArray(new File(this.getPathToJarFile()));
+    }
+
     /**
      * Return the byte[] representation of the classfile for the class classname.
      * @param classname the name of the looked up class
@@ -255,7 +286,12 @@ public class TaskClassServer {
         try {
             for (File source : this.classpathSources) {
                 if (source.isFile()) {
-                    cb = TaskClassUtils.lookIntoJarFile(classname, new JarFile(source));
+                    JarFile jarFile = new JarFile(source);
+                    try {
+                        cb = TaskClassUtils.lookIntoJarFile(classname, jarFile);
+                    } finally {
+                        jarFile.close();
+                    }
                 } else {
                     cb = TaskClassUtils.lookIntoDirectory(classname, source);
                 }
@@ -284,15 +320,15 @@ public class TaskClassServer {
      * @return the path to the associated jar file
      */
     private String getPathToJarFile() {
-        return tmpJarFilesDir + servedJobId.toString() + ".jar";
+        return tmpJarFilesDir + CLASSPATH_FILES_PREFIX + classpathKey + ".jar";
     }
 
     /**
-     * Return the path to the associated crc file
-     * @return the path to the associated crc file
+     * Return the path to the digest file, written once the classpath files are complete.
+     * @return the path to the associated digest file
      */
-    private String getPathToCrcFile() {
-        return tmpJarFilesDir + servedJobId.toString() + ".crc";
+    private String getPathToDigestFile() {
+        return tmpJarFilesDir + CLASSPATH_FILES_PREFIX + classpathKey + ".sha256";
     }
 
     /**
@@ -300,7 +336,7 @@ public class TaskClassServer {
      * @return the path to the associated classfiles directory
      */
     private String getPathToClassDir() {
-        return tmpJarFilesDir + servedJobId.toString();
+        return tmpJarFilesDir + CLASSPATH_FILES_PREFIX + classpathKey;
     }
 
     private void addSourcesRelativeToSpaces(String[] pathElements, String jobGlobalSpace, String jobUserSpace) {
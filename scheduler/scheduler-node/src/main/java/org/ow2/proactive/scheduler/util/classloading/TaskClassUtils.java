@@ -38,8 +38,11 @@ package org.ow2.proactive.scheduler.util.classloading;
 
 import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.jar.JarFile;
 import java.util.zip.ZipEntry;
 
@@ -69,9 +72,14 @@ public class TaskClassUtils {
                         return resInDir;
                     }
                 } else if (isJarFile(files[i])) {
-                    byte[] resInJar = lookIntoJarFile(classname, new JarFile(files[i]));
-                    if (resInJar != null) {
-                        return resInJar;
+                    JarFile jarFile = new JarFile(files[i]);
+                    try {
+                        byte[] resInJar = lookIntoJarFile(classname, jarFile);
+                        if (resInJar != null) {
+                            return resInJar;
+                        }
+                    } finally {
+                        jarFile.close();
                     }
                 } else if (isClassFile(files[i]) && files[i].getAbsolutePath().endsWith(pathToClass)) {
                     // TODO cdelbe : conlicts possible ?
@@ -85,6 +93,55 @@ public class TaskClassUtils {
         }
     }
 
+    /**
+     * Compute the SHA-256 digest of a content.
+     * @param content the content to digest.
+     * @return the hexadecimal representation of the digest.
+     */
+    public static String digest(byte[] content) {
+        MessageDigest digest = createDigest();
+        digest.update(content);
+        return toHex(digest.digest());
+    }
+
+    /**
+     * Compute the SHA-256 digest of the content of a file.
+     * @param file the file to digest.
+     * @return the hexadecimal representation of the digest.
+     * @throws IOException if the file cannot be read.
+     */
+    public static String digest(File file) throws IOException {
+        MessageDigest digest = createDigest();
+        InputStream in = new FileInputStream(file);
+        try {
+            byte[] buffer = new byte[8192];
+            int count;
+            while ((count = in.read(buffer)) > -1) {
+                digest.update(buffer, 0, count);
+            }
+        } finally {
+            in.close();
+        }
+        return toHex(digest.digest());
+    }
+
+    private static MessageDigest createDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // every Java platform supports SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+
     /**
      * Look for a class definition into a jar file.
      * @param classname the looked up class.
@@ -0,0 +1,325 @@
+/*
+ * ################################################################
+ *
+ * ProActive Parallel Suite(TM): The Java(TM) library for
+ *    Parallel, Distributed, Multi-Core Computing for
+ *    Enterprise Grids & Clouds
+ *
+ * Copyright (C) 1997-2011 INRIA/University of
+ *                 Nice-Sophia Antipolis/ActiveEon
+ * Contact: proactive@ow2.org or contact@activeeon.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation; version 3 of
+ * the License.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307
+ * USA
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ *
+ *  Initial developer(s):               The ProActive Team
+ *                        http://proactive.inria.fr/team_members.htm
+ *  Contributor(s):
+ *
+ * ################################################################
+ * $$PROACTIVE_INITIAL_DEV$$
+ */
+package org.ow2.proactive.scheduler.util.classloading;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+
+import org.apache.log4j.Logger;
+
+
+/**
+ * Node side cache of the job classpaths, shared by all the tasks and jobs executed on the node.
+ * <p>
+ * The classpath content of a job is downloaded in one transfer from its {@link TaskClassServer}
+ * and stored in a directory of the node, named after the SHA-256 digest of the content. The
+ * following tasks of the job, and the tasks of any job with the same classpath, load their
+ * classes from the local files instead of asking each class to the class server. The digest of
+ * a stored classpath is checked before it is used.
+ * The cache directory can be set with the {@link #CACHE_DIRECTORY_PROPERTY} property, it defaults
+ * to a directory of java.io.tmpdir named after the user. It is only accessible by its owner and
+ * shared by the JVMs of this user on the node, entries not used for {@link #EXPIRATION_DELAY} are deleted.
+ *
+ * @author The ProActive Team
+ */
+public final class TaskClasspathCache {
+
+    public static final Logger logger = Logger.getLogger(TaskClasspathCache.class);
+
+    /** Name of the property that set the classpath cache directory */
+    public final static String CACHE_DIRECTORY_PROPERTY = "pas.launcher.classpath.cache.directory";
+
+    /** Entries not used during this delay (in millis) are deleted */
+    public final static long EXPIRATION_DELAY = 7L * 24 * 3600 * 1000;
+
+    /** Permissions of the cache directory */
+    private static final Set<PosixFilePermission> OWNER_ONLY = PosixFilePermissions.fromString("rwx------");
+
+    private static TaskClasspathCache instance;
+
+    private final File directory;
+
+    /** jar files of the classpaths already opened in this JVM */
+    private final Map<String, List<JarFile>> classpaths = new HashMap<String, List<JarFile>>();
+
+    private TaskClasspathCache(File directory) {
+        this.directory = directory;
+        deleteExpiredEntries();
+    }
+
+    /**
+     * @return the classpath cache of this JVM, null if the cache directory cannot be used
+     */
+    public static synchronized TaskClasspathCache getInstance() {
+        if (instance == null) {
+            String path = System.getProperty(CACHE_DIRECTORY_PROPERTY);
+            if (path == null || "".equals(path)) {
+                path = System.getProperty("java.io.tmpdir") + File.separator + "pas_classpath_cache_" +
+                    System.getProperty("user.name");
+            }
+            File directory = new File(path);
+            try {
+                createPrivateDirectory(directory);
+            } catch (IOException e) {
+                logger.warn(directory.getAbsolutePath() +
+                    " is not a private writable directory : job classpaths will not be cached.", e);
+                return null;
+            }
+            logger.debug("Classpath cache directory is set to " + directory);
+            instance = new TaskClasspathCache(directory);
+            Runtime.getRuntime().addShutdownHook(new Thread("TaskClasspathCache shutdown") {
+                @Override
+                public void run() {
+                    instance.close();
+                }
+            });
+        }
+        return instance;
+    }
+
+    /**
+     * Create the directory if needed, so that it is only accessible by its owner. On POSIX file
+     * systems, an existing directory must be owned by the current user, its permissions are
+     * restricted to the owner.
+     */
+    private static void createPrivateDirectory(File directory) throws IOException {
+        Path path = directory.toPath();
+        boolean posix = FileSystems.getDefault().supportedFileAttributeViews().contains("posix");
+        if (!Files.isDirectory(path, LinkOption.NOFOLLOW_LINKS)) {
+            if (posix) {
+                Files.createDirectories(path, PosixFilePermissions.asFileAttribute(OWNER_ONLY));
+            } else {
+                Files.createDirectories(path);
+            }
+        }
+        if (!Files.isDirectory(path, LinkOption.NOFOLLOW_LINKS) || !Files.isWritable(path)) {
+            throw new IOException("Not a writable directory");
+        }
+        if (posix) {
+            String user = System.getProperty("user.name");
+            if (!user.equals(Files.getOwner(path, LinkOption.NOFOLLOW_LINKS).getName())) {
+                throw new IOException("Directory is not owned by " + user);
+            }
+            if (!OWNER_ONLY.equals(Files.getPosixFilePermissions(path, LinkOption.NOFOLLOW_LINKS))) {
+                Files.setPosixFilePermissions(path, OWNER_ONLY);
+            }
+        }
+    }
+
+    /**
+     * Return the jar files of the classpath served by the given class server, downloading
+     * the classpath content if it is not in the cache.
+     *
+     * @param server the class server of the job
+     * @return the jar files of the job classpath, null if the classpath cannot be cached
+     * @throws IOException if the classpath content cannot be downloaded or stored
+     */
+    public synchronized List<JarFile> getClasspath(TaskClassServer server) throws IOException {
+        String key = server.getClasspathKey();
+        if (key == null) {
+            return null;
+        }
+        List<JarFile> jarFiles = classpaths.get(key);
+        if (jarFiles == null) {
+            File jarFile = new File(directory, key + ".jar");
+            File libDirectory = new File(directory, key);
+            if (jarFile.exists() && !key.equals(TaskClassUtils.digest(jarFile))) {
+                logger.warn("Cached classpath " + jarFile + " is corrupted, it is downloaded again");
+                jarFile.delete();
+                TaskClassUtils.deleteDirectory(libDirectory);
+            }
+            if (!jarFile.exists()) {
+                logger.debug("Downloading classpath " + key);
+                byte[] content = server.getClasspathContent();
+                if (!key.equals(TaskClassUtils.digest(content))) {
+                    throw new IOException("Downloaded classpath does not match its digest " + key);
+                }
+                storeClasspath(content, jarFile, libDirectory);
+            } else {
+                logger.debug("Using cached classpath " + key);
+            }
+            jarFile.setLastModified(System.currentTimeMillis());
+
+            jarFiles = openJarFiles(jarFile, libDirectory);
+            classpaths.put(key, jarFiles);
+        }
+        return jarFiles;
+    }
+
+    /**
+     * Open the classpath jar file and the jar files extracted from it. The jar files of a
+     * classpath stay open as long as the JVM, if one of them cannot be opened, the jar files
+     * already opened are closed.
+     */
+    private static List<JarFile> openJarFiles(File jarFile, File libDirectory) throws IOException {
+        List<JarFile> jarFiles = new ArrayList<JarFile>();
+        try {
+            jarFiles.add(new JarFile(jarFile));
+            File[] libs = libDirectory.listFiles();
+            if (libs != null) {
+                for (File lib : libs) {
+                    jarFiles.add(new JarFile(lib));
+                }
+            }
+        } catch (IOException e) {
+            close(jarFiles);
+            throw e;
+        }
+        return Collections.unmodifiableList(jarFiles);
+    }
+
+    /**
+     * Close the jar files of all the classpaths opened by this JVM, called when the JVM exits.
+     */
+    private synchronized void close() {
+        for (List<JarFile> jarFiles : classpaths.values()) {
+            close(jarFiles);
+        }
+        classpaths.clear();
+    }
+
+    private static void close(List<JarFile> jarFiles) {
+        for (JarFile jarFile : jarFiles) {
+            try {
+                jarFile.close();
+            } catch (IOException e) {
+                logger.debug("Cannot close " + jarFile.getName(), e);
+            }
+        }
+    }
+
+    /**
+     * Store the classpath content and the jar files it contains. The files are written under
+     * temporary names then renamed, so other JVMs never see incomplete files.
+     */
+    private void storeClasspath(byte[] content, File jarFile, File libDirectory) throws IOException {
+        String tmpSuffix = ".tmp" + UUID.randomUUID();
+        File tmpJarFile = new File(directory, jarFile.getName() + tmpSuffix);
+        File tmpLibDirectory = new File(directory, libDirectory.getName() + tmpSuffix);
+        try {
+            OutputStream out = new FileOutputStream(tmpJarFile);
+            try {
+                out.write(content);
+            } finally {
+                out.close();
+            }
+
+            // jar files of the classpath are extracted to be opened directly
+            JarFile jar = new JarFile(tmpJarFile);
+            try {
+                Enumeration<JarEntry> entries = jar.entries();
+                while (entries.hasMoreElements()) {
+                    JarEntry entry = entries.nextElement();
+                    if (!entry.isDirectory() && entry.getName().endsWith(".jar")) {
+                        tmpLibDirectory.mkdirs();
+                        String libName = tmpLibDirectory.list().length + "_" +
+                            new File(entry.getName()).getName();
+                        copy(jar.getInputStream(entry), new File(tmpLibDirectory, libName));
+                    }
+                }
+            } finally {
+                jar.close();
+            }
+
+            // the jar file is renamed last, the entry is complete if it exists
+            if (tmpLibDirectory.exists() && !tmpLibDirectory.renameTo(libDirectory) &&
+                !libDirectory.isDirectory()) {
+                throw new IOException("Cannot create " + libDirectory);
+            }
+            if (!tmpJarFile.renameTo(jarFile) && !jarFile.exists()) {
+                throw new IOException("Cannot create " + jarFile);
+            }
+        } finally {
+            // remaining if an other JVM stored the same classpath at the same time
+            tmpJarFile.delete();
+            TaskClassUtils.deleteDirectory(tmpLibDirectory);
+        }
+    }
+
+    private static void copy(InputStream in, File file) throws IOException {
+        try {
+            OutputStream out = new FileOutputStream(file);
+            try {
+                byte[] buffer = new byte[8192];
+                int count;
+                while ((count = in.read(buffer)) > -1) {
+                    out.write(buffer, 0, count);
+                }
+            } finally {
+                out.close();
+            }
+        } finally {
+            in.close();
+        }
+    }
+
+    private void deleteExpiredEntries() {
+        File[] files = directory.listFiles();
+        if (files == null) {
+            return;
+        }
+        long expirationTime = System.currentTimeMillis() - EXPIRATION_DELAY;
+        for (File file : files) {
+            String name = file.getName();
+            if (name.endsWith(".jar") && file.lastModified() < expirationTime) {
+                logger.debug("Deleting expired classpath " + name);
+                file.delete();
+                TaskClassUtils.deleteDirectory(new File(directory, name.substring(0, name.length() - 4)));
+            }
+        }
+    }
+
+}
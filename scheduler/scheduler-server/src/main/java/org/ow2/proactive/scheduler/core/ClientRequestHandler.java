@@ -37,7 +37,15 @@
 package org.ow2.proactive.scheduler.core;
 
 import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
@@ -47,7 +55,11 @@ import java.util.concurrent.atomic.AtomicInteger;
 import org.apache.log4j.Logger;
 import org.objectweb.proactive.core.UniqueID;
 import org.objectweb.proactive.utils.NamedThreadFactory;
+import org.ow2.proactive.scheduler.common.NotificationData;
+import org.ow2.proactive.scheduler.common.SchedulerEvent;
 import org.ow2.proactive.scheduler.common.SchedulerEventListener;
+import org.ow2.proactive.scheduler.common.job.JobInfo;
+import org.ow2.proactive.scheduler.common.task.TaskInfo;
 import org.ow2.proactive.scheduler.core.properties.PASchedulerProperties;
 import org.ow2.proactive.threading.ReifiedMethodCall;
 
@@ -55,6 +67,11 @@ import org.ow2.proactive.threading.ReifiedMethodCall;
 /**
  * ClientRequestHandler is used to delegate event call to client.
  * This class should be used with the ThreadPoolController which handles threads.
+ * <p>
+ * Events waiting to be sent are coalesced: an update of a job, a task or a user replaces
+ * the previous update of the same kind which has not been sent yet. The number of events
+ * waiting for a client is bounded, a client which cannot keep up is disconnected and has to
+ * reconnect to get the current state.
  *
  * @author The ProActive Team
  * @since ProActive Scheduling 2.0
@@ -66,12 +83,21 @@ public class ClientRequestHandler {
     /** Number of threads used by the thread pool for clients events sending */
     private static final int THREAD_NUMBER = PASchedulerProperties.SCHEDULER_LISTENERS_THREADNUMBER
             .getValueAsInt();
+    /** Events for which only the last update of a job, task or user is relevant */
+    private static final Set<SchedulerEvent> COALESCED_EVENTS = EnumSet.of(SchedulerEvent.TASK_PROGRESS,
+            SchedulerEvent.JOB_CHANGE_PRIORITY, SchedulerEvent.JOB_PAUSED, SchedulerEvent.JOB_RESUMED,
+            SchedulerEvent.USERS_UPDATE);
+
     /** thread pool */
     private static final ExecutorService threadPoolForNetworkCalls = Executors.newFixedThreadPool(
             THREAD_NUMBER, new NamedThreadFactory("ClientEventHandlerPool"));
 
     private static final AtomicInteger requestLeft = new AtomicInteger();
 
+    /** Handlers of the listening clients, used to report their queues */
+    private static final Set<ClientRequestHandler> handlers = Collections
+            .newSetFromMap(new ConcurrentHashMap<ClientRequestHandler, Boolean>());
+
     public static void terminate() {
         // Precondition: no new event is emitted
         try {
@@ -87,30 +113,112 @@ public class ClientRequestHandler {
         }
     }
 
+    /**
+     * Describe the events queue of every listening client.
+     *
+     * @return for each client, its user name, the number of events waiting to be sent
+     *          and the age of the oldest of them
+     */
+    public static List<String> getEventQueuesDescription() {
+        List<String> result = new ArrayList<String>();
+        for (ClientRequestHandler handler : handlers) {
+            result.add(handler.userName + " (" + handler.clientId + "): " + handler.getQueueSize() +
+                " events, lag " + handler.getLag() + " ms");
+        }
+        return result;
+    }
+
+    /**
+     * @return the highest number of events waiting to be sent to a client
+     */
+    public static int getMaxQueueSize() {
+        int max = 0;
+        for (ClientRequestHandler handler : handlers) {
+            max = Math.max(max, handler.getQueueSize());
+        }
+        return max;
+    }
+
+    /**
+     * @return the age in milliseconds of the oldest event waiting to be sent to a client
+     */
+    public static long getMaxLag() {
+        long max = 0;
+        for (ClientRequestHandler handler : handlers) {
+            max = Math.max(max, handler.getLag());
+        }
+        return max;
+    }
+
     /** Busy state of this client request queue */
     private final AtomicBoolean busy = new AtomicBoolean(false);
     /** Client id on which to send the request */
     private final UniqueID clientId;
+    /** Name of the user owning the client */
+    private final String userName;
     /** Client (listener) on which to send the request */
     private final SchedulerEventListener client;
     /** Events queue to be stored */
-    private final LinkedList<ReifiedMethodCall> eventCallsToStore;
+    private final LinkedList<EventCall> eventCallsToStore;
+    /** Last stored event of each job, task or user, used to coalesce the updates */
+    private final Map<Object, EventCall> lastEventCalls;
     /** Cross reference to the front-end : used to mark client as dirty */
     private final SchedulerFrontendState frontend;
+    /** Number of events stored or being sent */
+    private final AtomicInteger queueSize = new AtomicInteger();
+    /** Creation time of the oldest event not sent yet, 0 if there is none */
+    private volatile long oldestEventTime;
+    /**
+     * Set when the queue overflowed, events are not stored anymore and the client is disconnected
+     * by the frontend, a new handler is created when it listens again
+     */
+    private volatile boolean dropped;
+    /** Maximum number of events waiting for this client, 0 or less means unbounded */
+    private final int maxQueueSize;
+    /** Whether superseded updates are removed from the events queue */
+    private final boolean coalesceEvents;
 
     /**
      * Create a new instance of ClientRequestHandler
      *
      * @param frontend a link to the front-end
      * @param clientId the Id of the client on which to talk to.
+     * @param userName the name of the user owning the client
      * @param client the reference on the client itself.
      */
-    public ClientRequestHandler(SchedulerFrontendState frontend, UniqueID clientId,
+    public ClientRequestHandler(SchedulerFrontendState frontend, UniqueID clientId, String userName,
             SchedulerEventListener client) {
         this.client = client;
         this.frontend = frontend;
         this.clientId = clientId;
-        this.eventCallsToStore = new LinkedList<ReifiedMethodCall>();
+        this.userName = userName;
+        this.eventCallsToStore = new LinkedList<EventCall>();
+        this.lastEventCalls = new HashMap<Object, EventCall>();
+        this.maxQueueSize = PASchedulerProperties.SCHEDULER_LISTENERS_QUEUE_SIZE.getValueAsInt();
+        this.coalesceEvents = PASchedulerProperties.SCHEDULER_LISTENERS_COALESCE_EVENTS.getValueAsBoolean();
+        handlers.add(this);
+    }
+
+    /**
+     * Stop reporting the queue of this client, called when the client stops listening.
+     */
+    public void close() {
+        handlers.remove(this);
+    }
+
+    /**
+     * @return the number of events waiting to be sent to this client
+     */
+    public int getQueueSize() {
+        return queueSize.get();
+    }
+
+    /**
+     * @return the age in milliseconds of the oldest event waiting to be sent to this client
+     */
+    public long getLag() {
+        long time = oldestEventTime;
+        return time == 0 ? 0 : System.currentTimeMillis() - time;
     }
 
     /**
@@ -121,31 +229,115 @@ public class ClientRequestHandler {
      */
     public void addEvent(Method method, Object... args) {
         synchronized (eventCallsToStore) {
-            eventCallsToStore.add(new ReifiedMethodCall(method, args));
+            if (dropped) {
+                // the client has not been disconnected yet, ask for it again
+                frontend.markAsDirty(clientId);
+                return;
+            }
+            EventCall eventCall = new EventCall(method, args, coalesceEvents);
+            if (eventCall.key != null) {
+                EventCall last = lastEventCalls.get(eventCall.key);
+                if (last != null && last.supersededBy(eventCall)) {
+                    // the pending update is replaced, it keeps its position in the queue
+                    last.setArguments(args);
+                    return;
+                }
+                lastEventCalls.put(eventCall.key, eventCall);
+            }
+            if (maxQueueSize > 0 && queueSize.get() >= maxQueueSize) {
+                overflow();
+                return;
+            }
+            if (queueSize.getAndIncrement() == 0) {
+                oldestEventTime = eventCall.time;
+            }
+            eventCallsToStore.add(eventCall);
             requestLeft.incrementAndGet();
         }
         tryStartTask();
     }
 
+    /**
+     * Drop the stored events and disconnect the client, it will have to reconnect
+     * and get the current state of the scheduler.
+     * Must be called holding the queue lock.
+     */
+    private void overflow() {
+        logger.warn("Too many events waiting for the client " + clientId + " of user " + userName +
+            ", dropping its events and disconnecting it");
+        dropped = true;
+        close();
+        int size = eventCallsToStore.size();
+        eventCallsToStore.clear();
+        lastEventCalls.clear();
+        queueSize.addAndGet(-size);
+        if (requestLeft.addAndGet(-size) == 0) {
+            synchronized (requestLeft) {
+                requestLeft.notify();
+            }
+        }
+        frontend.markAsDirty(clientId);
+    }
+
     /**
      * Try to create a task with new events to send, and start it in the thread pool.
      * Can do nothing if some previous events are currently being sent.
      *
      * Can be called from two different thread, even if it is private!
      */
-    @SuppressWarnings("unchecked")
     private void tryStartTask() {
         synchronized (eventCallsToStore) {
             if (eventCallsToStore.size() > 0 && !busy.get()) {
-                LinkedList<ReifiedMethodCall> tasks = (LinkedList<ReifiedMethodCall>) eventCallsToStore
-                        .clone();
+                LinkedList<EventCall> tasks = new LinkedList<EventCall>(eventCallsToStore);
                 eventCallsToStore.clear();
+                lastEventCalls.clear();
                 busy.set(true);
                 threadPoolForNetworkCalls.execute(new TaskRunnable(tasks));
             }
         }
     }
 
+    /**
+     * An event to send, with the job, task or user it concerns.
+     */
+    private static final class EventCall extends ReifiedMethodCall {
+
+        /** The job, task or user concerned by a coalesced event, null if the event is never coalesced */
+        private final Object key;
+
+        private final SchedulerEvent eventType;
+
+        private final long time;
+
+        EventCall(Method method, Object[] arguments, boolean coalesce) {
+            super(method, arguments);
+            this.time = System.currentTimeMillis();
+            Object eventKey = null;
+            SchedulerEvent type = null;
+            if (coalesce && arguments.length == 1 && arguments[0] instanceof NotificationData) {
+                NotificationData<?> notification = (NotificationData<?>) arguments[0];
+                type = notification.getEventType();
+                if (COALESCED_EVENTS.contains(type)) {
+                    Object data = notification.getData();
+                    if (data instanceof TaskInfo) {
+                        eventKey = ((TaskInfo) data).getTaskId();
+                    } else if (data instanceof JobInfo) {
+                        eventKey = ((JobInfo) data).getJobId();
+                    } else {
+                        eventKey = data;
+                    }
+                }
+            }
+            this.key = eventKey;
+            this.eventType = type;
+        }
+
+        boolean supersededBy(EventCall other) {
+            return getMethod().equals(other.getMethod()) && eventType == other.eventType;
+        }
+
+    }
+
     /**
      * TaskRunnable is the task in charge to send the events in its list.
      *
@@ -155,14 +347,14 @@ public class ClientRequestHandler {
     class TaskRunnable implements Runnable {
 
         /** Events queue to be sent */
-        private final LinkedList<ReifiedMethodCall> eventCallsToSend;
+        private final LinkedList<EventCall> eventCallsToSend;
 
         /**
          * Create a new instance of Task
          *
          * @param eventCallsToSend
          */
-        public TaskRunnable(LinkedList<ReifiedMethodCall> eventCalls) {
+        public TaskRunnable(LinkedList<EventCall> eventCalls) {
             if (eventCalls == null || eventCalls.size() == 0) {
                 throw new IllegalArgumentException("List argument must not be null nor empty !");
             }
@@ -183,9 +375,14 @@ public class ClientRequestHandler {
                 }
                 //loop on the list and send events
                 while (!eventCallsToSend.isEmpty()) {
-                    ReifiedMethodCall methodCall = eventCallsToSend.removeFirst();
+                    EventCall methodCall = eventCallsToSend.removeFirst();
+                    oldestEventTime = methodCall.time;
+                    queueSize.decrementAndGet();
                     methodCall.getMethod().invoke(client, methodCall.getArguments());
                 }
+                synchronized (eventCallsToStore) {
+                    oldestEventTime = eventCallsToStore.isEmpty() ? 0 : eventCallsToStore.getFirst().time;
+                }
                 busy.set(false);
                 //try to empty the events list if no event comes from the core
                 tryStartTask();
@@ -193,6 +390,9 @@ public class ClientRequestHandler {
                 if (logger.isDebugEnabled()) {
                     logger.debug("Error during sending event to the cleint " + clientId, t);
                 }
+                queueSize.addAndGet(-eventCallsToSend.size());
+                oldestEventTime = 0;
+                close();
                 //remove this client from Frontend (client dead or timed out)
                 frontend.markAsDirty(clientId);
                 //do not set busy here, we don't want to wait N times for the network timeout
@@ -36,12 +36,13 @@
  */
 package org.ow2.proactive.scheduler.core;
 
+import java.util.Collection;
 import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.Set;
-import java.util.Vector;
 
 import org.ow2.proactive.resourcemanager.common.RMState;
+import org.ow2.proactive.scheduler.common.job.JobId;
 import org.ow2.proactive.scheduler.common.task.TaskId;
 import org.ow2.proactive.scheduler.core.properties.PASchedulerProperties;
 import org.ow2.proactive.scheduler.descriptor.EligibleTaskDescriptor;
@@ -78,11 +79,13 @@ class InternalPolicy {
      * This method just controls what is provided by scheduling policy
      *
      * @param orderedTasks the list of ordered task provide by the scheduling policy
+     * @param schedulableJobs the jobs that can be scheduled in this loop, tasks of other jobs are skipped
      * @return a filtered and splited list of task to be scheduled
      */
-    public LinkedList<EligibleTaskDescriptor> filter(Vector<EligibleTaskDescriptor> orderedTasks) {
+    public LinkedList<EligibleTaskDescriptor> filter(Collection<EligibleTaskDescriptor> orderedTasks,
+            Set<JobId> schedulableJobs) {
         //safety branch
-        if (orderedTasks == null || orderedTasks.size() == 0) {
+        if (orderedTasks == null || orderedTasks.isEmpty()) {
             return null;
         }
 
@@ -100,7 +103,7 @@ class InternalPolicy {
         //max number of returned tasks will be the number of tasks per loop
         int i = 0;
         for (EligibleTaskDescriptor etd : orderedTasks) {
-            if (!ids.contains(etd.getTaskId())) {
+            if (!ids.contains(etd.getTaskId()) && schedulableJobs.contains(etd.getJobId())) {
                 toReturn.add(etd);
                 ids.add(etd.getTaskId());
                 if (++i == NB_TASKS_PER_LOOP) {
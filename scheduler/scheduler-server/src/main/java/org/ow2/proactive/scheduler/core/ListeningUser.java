@@ -74,6 +74,9 @@ public class ListeningUser {
         if (listener == null) {
             throw new IllegalArgumentException("Listener must not be null !");
         }
+        if (this.listener != null) {
+            this.listener.close();
+        }
         this.listener = listener;
     }
 
@@ -81,6 +84,9 @@ public class ListeningUser {
      * clear the listener associated to this user
      */
     public void clearListener() {
+        if (this.listener != null) {
+            this.listener.close();
+        }
         this.listener = null;
     }
 
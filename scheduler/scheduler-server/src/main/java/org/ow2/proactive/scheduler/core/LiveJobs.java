@@ -2,6 +2,7 @@ package org.ow2.proactive.scheduler.core;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
@@ -28,7 +29,9 @@ import org.ow2.proactive.scheduler.common.task.TaskInfo;
 import org.ow2.proactive.scheduler.common.task.TaskStatus;
 import org.ow2.proactive.scheduler.core.db.SchedulerDBManager;
 import org.ow2.proactive.scheduler.descriptor.EligibleTaskDescriptor;
+import org.ow2.proactive.scheduler.descriptor.EligibleTaskIndex;
 import org.ow2.proactive.scheduler.descriptor.JobDescriptor;
+import org.ow2.proactive.scheduler.descriptor.TaskDescriptor;
 import org.ow2.proactive.scheduler.exception.RunningProcessException;
 import org.ow2.proactive.scheduler.job.ChangedTasksInfo;
 import org.ow2.proactive.scheduler.job.ClientJobState;
@@ -75,9 +78,18 @@ class LiveJobs {
 
     private final ConcurrentHashMap<TaskId, RunningTaskData> runningTasksData = new ConcurrentHashMap<TaskId, RunningTaskData>();
 
-    LiveJobs(SchedulerDBManager dbManager, SchedulerStateUpdate listener) {
+    private final EligibleTaskIndex eligibleTaskIndex = new EligibleTaskIndex();
+
+    private final TaskResultCache taskResultCache;
+
+    LiveJobs(SchedulerDBManager dbManager, SchedulerStateUpdate listener, TaskResultCache taskResultCache) {
         this.dbManager = dbManager;
         this.listener = listener;
+        this.taskResultCache = taskResultCache;
+    }
+
+    EligibleTaskIndex getEligibleTaskIndex() {
+        return eligibleTaskIndex;
     }
 
     Collection<RunningTaskData> getRunningTasks() {
@@ -90,6 +102,7 @@ class LiveJobs {
 
     void jobRecovered(InternalJob job) {
         jobs.put(job.getId(), new JobData(job));
+        job.getJobDescriptor().setEligibleTaskIndex(eligibleTaskIndex);
     }
 
     void unpauseAll() {
@@ -146,6 +159,7 @@ class LiveJobs {
         }
         try {
             jobData.job.setPriority(priority);
+            eligibleTaskIndex.changePriority(jobId, priority);
 
             dbManager.changeJobPriority(jobId, priority);
 
@@ -213,9 +227,29 @@ class LiveJobs {
         classServers.createTaskClassServer(job, spacesSupport);
         ClientJobState clientJobState = new ClientJobState(job);
         jobs.put(job.getId(), new JobData(job));
+        job.getJobDescriptor().setEligibleTaskIndex(eligibleTaskIndex);
         listener.jobSubmitted(clientJobState);
     }
 
+    /**
+     * Submit several jobs, they are all saved in the database in the same transaction.
+     */
+    void jobsSubmitted(List<InternalJob> submittedJobs, SchedulerClassServers classServers,
+            SchedulerSpacesSupport spacesSupport) {
+        for (InternalJob job : submittedJobs) {
+            job.prepareTasks();
+            job.submitAction();
+        }
+        dbManager.newJobsSubmitted(submittedJobs);
+        for (InternalJob job : submittedJobs) {
+            classServers.createTaskClassServer(job, spacesSupport);
+            ClientJobState clientJobState = new ClientJobState(job);
+            jobs.put(job.getId(), new JobData(job));
+            job.getJobDescriptor().setEligibleTaskIndex(eligibleTaskIndex);
+            listener.jobSubmitted(clientJobState);
+        }
+    }
+
     Map<JobId, JobDescriptor> lockJobsToSchedule() {
         Map<JobId, JobDescriptor> result = new HashMap<JobId, JobDescriptor>();
         for (Map.Entry<JobId, JobData> entry : jobs.entrySet()) {
@@ -226,6 +260,31 @@ class LiveJobs {
         return result;
     }
 
+    Map<JobId, JobDescriptor> getJobsToSchedule() {
+        Map<JobId, JobDescriptor> result = new HashMap<JobId, JobDescriptor>();
+        for (JobData jobData : jobs.values()) {
+            result.put(jobData.job.getId(), jobData.job.getJobDescriptor());
+        }
+        return Collections.unmodifiableMap(result);
+    }
+
+    boolean lockJobToStartTask(JobId jobId, TaskId taskId) {
+        JobData jobData = lockJob(jobId);
+        if (jobData == null) {
+            return false;
+        }
+        if (!jobData.job.getJobDescriptor().isEligible(taskId)) {
+            tlogger.info(taskId, "is not eligible anymore");
+            jobData.unlock();
+            return false;
+        }
+        return true;
+    }
+
+    void unlockJob(JobId jobId) {
+        checkJobAccess(jobId).unlock();
+    }
+
     void unlockJobsToSchedule(Collection<JobDescriptor> jobDescriptors) {
         for (JobDescriptor desc : jobDescriptors) {
             JobData jobData = checkJobAccess(desc.getJobId());
@@ -610,7 +669,7 @@ class LiveJobs {
 
         tlogger.info(taskId, "result added to job " + job.getId());
         //to be done before terminating the task, once terminated it is not running anymore..
-        job.getRunningTaskDescriptor(taskId);
+        TaskDescriptor taskDescriptor = job.getRunningTaskDescriptor(taskId);
         ChangedTasksInfo changesInfo = job.terminateTask(errorOccurred, taskId, listener, result.getAction(),
                 result);
 
@@ -622,7 +681,13 @@ class LiveJobs {
             job.terminate();
             jlogger.info(job.getId(), "terminated");
             jobs.remove(job.getId());
+            eligibleTaskIndex.removeJob(job.getId());
+            taskResultCache.removeJob(job.getId());
             terminationData.addJobToTermiante(job.getId());
+        } else if (taskDescriptor != null) {
+            // children are known once the workflow actions are applied
+            taskResultCache.put(result, taskDescriptor.getChildren().size(), job.getEnvironment()
+                    .getJobClasspath());
         }
 
         //Update database
@@ -664,6 +729,8 @@ class LiveJobs {
         JobId jobId = jobData.job.getId();
 
         jobs.remove(jobId);
+        eligibleTaskIndex.removeJob(jobId);
+        taskResultCache.removeJob(jobId);
         terminationData.addJobToTermiante(jobId);
 
         InternalJob job = jobData.job;
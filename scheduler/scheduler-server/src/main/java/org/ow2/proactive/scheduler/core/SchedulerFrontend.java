@@ -39,11 +39,15 @@ package org.ow2.proactive.scheduler.core;
 import java.net.URI;
 import java.security.KeyException;
 import java.security.PublicKey;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
 
 import org.objectweb.proactive.Body;
@@ -244,8 +248,13 @@ public class SchedulerFrontend implements InitActive, Scheduler, RunActive {
             logger.debug("Booting jmx...");
             this.jmxHelper.boot(authentication);
 
-            SchedulerStateRecoverHelper.RecoveredSchedulerState recoveredState = new SchedulerStateRecoverHelper(
-                dbManager).recover(loadJobPeriod);
+            // the finished jobs can be loaded once the scheduler is started
+            boolean lazyRecovery = PASchedulerProperties.SCHEDULER_DB_RECOVERY_LAZY_FINISHED_JOBS
+                    .getValueAsBoolean();
+            long recoveryStart = System.currentTimeMillis();
+            SchedulerStateRecoverHelper recoverHelper = new SchedulerStateRecoverHelper(dbManager);
+            SchedulerStateRecoverHelper.RecoveredSchedulerState recoveredState = lazyRecovery ? recoverHelper
+                    .recoverNotFinishedJobs() : recoverHelper.recover(loadJobPeriod);
 
             this.frontendState = new SchedulerFrontendState(recoveredState.getSchedulerState(), jmxHelper);
 
@@ -260,6 +269,17 @@ public class SchedulerFrontend implements InitActive, Scheduler, RunActive {
             this.schedulingService = new SchedulingService(infrastructure, frontendState, recoveredState,
                 policyFullName, null);
 
+            long recoveryTime = System.currentTimeMillis() - recoveryStart;
+            this.jmxHelper.getSchedulerRuntimeMBean().setRecoveryTime(recoveryTime);
+            if (lazyRecovery) {
+                logger.info("Pending and running jobs recovered in " + recoveryTime +
+                    " ms, loading the finished jobs in background");
+                recoverFinishedJobs(recoverHelper, loadJobPeriod);
+            } else {
+                this.jmxHelper.getSchedulerRuntimeMBean().setFinishedJobsRecoveryTime(recoveryTime);
+                logger.info("Scheduler state recovered in " + recoveryTime + " ms");
+            }
+
             logger.debug("Registering scheduler...");
             PAActiveObject.registerByName(authentication, SchedulerConstants.SCHEDULER_DEFAULT_NAME);
             authentication.setActivated(true);
@@ -274,6 +294,33 @@ public class SchedulerFrontend implements InitActive, Scheduler, RunActive {
         }
     }
 
+    /**
+     * Load the finished jobs in a dedicated thread while the scheduler is running. A request
+     * for a finished job which is not loaded yet loads this job first.
+     */
+    private void recoverFinishedJobs(final SchedulerStateRecoverHelper recoverHelper, final long loadJobPeriod) {
+        final long start = System.currentTimeMillis();
+        frontendState.setFinishedJobsRecovery(dbManager.getLastJobId(), recoverHelper, loadJobPeriod);
+        Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    List<InternalJob> finishedJobs = frontendState.finishedJobsRecovered(recoverHelper
+                            .loadFinishedJobs(loadJobPeriod));
+                    schedulingService.finishedJobsRecovered(finishedJobs);
+                    long recoveryTime = System.currentTimeMillis() - start;
+                    jmxHelper.getSchedulerRuntimeMBean().setFinishedJobsRecoveryTime(recoveryTime);
+                    logger.info(finishedJobs.size() + " finished jobs recovered in " + recoveryTime + " ms");
+                } catch (RuntimeException e) {
+                    logger.error("Failed to recover the finished jobs", e);
+                    schedulingService.finishedJobsRecovered(frontendState.finishedJobsRecoveryFailed());
+                }
+            }
+        }, "FinishedJobsRecovery");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
     /* ########################################################################################### */
     /*                                                                                             */
     /* ################################### SCHEDULING MANAGEMENT ################################# */
@@ -322,6 +369,82 @@ public class SchedulerFrontend implements InitActive, Scheduler, RunActive {
         return job.getId();
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<JobId> submit(List<Job> userJobs) throws NotConnectedException, PermissionException,
+            SubmissionClosedException, JobCreationException {
+        logger.info("Submission of " + userJobs.size() + " jobs requested");
+
+        //check if the scheduler is stopped
+        if (!schedulingService.isSubmitPossible()) {
+            String msg = "Scheduler is stopped, cannot submit job";
+            logger.info(msg);
+            throw new SubmissionClosedException(msg);
+        }
+
+        UserIdentificationImpl ident = frontendState.checkPermission("submit",
+                "You do not have permission to submit a job !");
+
+        List<InternalJob> jobs = createJobs(userJobs, ident);
+
+        schedulingService.submitJobs(jobs);
+
+        frontendState.jobsSubmitted(jobs, ident);
+
+        List<JobId> jobIds = new ArrayList<JobId>(jobs.size());
+        for (InternalJob job : jobs) {
+            jobIds.add(job.getId());
+        }
+        return jobIds;
+    }
+
+    /**
+     * Create the internal jobs in parallel using the client operations thread pool.
+     * If one of the jobs cannot be created, the whole batch is rejected.
+     */
+    private List<InternalJob> createJobs(List<Job> userJobs, final UserIdentificationImpl ident)
+            throws NotConnectedException, PermissionException, JobCreationException {
+        // credentials are bound to the caller, they must be read in the active object thread
+        final Credentials credentials = frontendState.getCallerCredentials();
+
+        List<Future<InternalJob>> futures = new ArrayList<Future<InternalJob>>(userJobs.size());
+        ExecutorService threadPool = schedulingService.getInfrastructure().getClientOperationsThreadPool();
+        for (final Job userJob : userJobs) {
+            futures.add(threadPool.submit(new Callable<InternalJob>() {
+                @Override
+                public InternalJob call() throws Exception {
+                    return frontendState.createJob(userJob, credentials, ident);
+                }
+            }));
+        }
+
+        List<InternalJob> jobs = new ArrayList<InternalJob>(userJobs.size());
+        try {
+            for (Future<InternalJob> future : futures) {
+                jobs.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new JobCreationException("Interrupted while creating the jobs", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof PermissionException) {
+                throw (PermissionException) cause;
+            } else if (cause instanceof JobCreationException) {
+                throw (JobCreationException) cause;
+            } else {
+                throw new JobCreationException(cause);
+            }
+        } finally {
+            for (Future<InternalJob> future : futures) {
+                future.cancel(false);
+            }
+        }
+        return jobs;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -46,6 +46,8 @@ import java.util.Map;
 import java.util.Set;
 import java.util.Timer;
 import java.util.TimerTask;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.objectweb.proactive.api.PAActiveObject;
 import org.objectweb.proactive.core.UniqueID;
@@ -75,6 +77,7 @@ import org.ow2.proactive.scheduler.common.job.UserIdentification;
 import org.ow2.proactive.scheduler.common.task.TaskId;
 import org.ow2.proactive.scheduler.common.task.TaskInfo;
 import org.ow2.proactive.scheduler.common.task.TaskState;
+import org.ow2.proactive.scheduler.core.db.SchedulerStateRecoverHelper;
 import org.ow2.proactive.scheduler.core.jmx.SchedulerJMXHelper;
 import org.ow2.proactive.scheduler.core.properties.PASchedulerProperties;
 import org.ow2.proactive.scheduler.job.ClientJobState;
@@ -138,15 +141,38 @@ class SchedulerFrontendState implements SchedulerStateUpdate {
     /** Scheduler state maintains by this class : avoid charging the core from some request */
     private final SchedulerStateImpl sState;
 
-    private final Map<JobId, JobState> jobsMap;
+    /** Job states updated by the scheduler events, a job state is modified while holding its monitor */
+    private final ConcurrentMap<JobId, JobState> jobsMap;
+
+    /**
+     * Read-only copies of the job states returned to the clients. A copy is shared by the readers
+     * until the next update of the job, which discards it.
+     */
+    private final Map<JobId, JobState> jobSnapshots;
+
+    /**
+     * Id of the last job submitted before startup while the finished jobs are loaded in background,
+     * null once they are loaded. The unknown jobs up to this id may not be loaded yet.
+     */
+    private volatile JobId finishedJobsRecoveryLastId;
+
+    /** Loads the requested finished jobs which are not loaded in background yet */
+    private SchedulerStateRecoverHelper finishedJobsLoader;
+
+    /** Period (in ms) of the finished jobs loaded in background */
+    private long finishedJobsLoadPeriod;
+
+    /** The finished jobs loaded on demand during the background loading, guarded by this */
+    private final Map<JobId, InternalJob> finishedJobsLoadedOnDemand = new HashMap<JobId, InternalJob>();
 
     SchedulerFrontendState(SchedulerStateImpl sState, SchedulerJMXHelper jmxHelper) {
-        this.identifications = new HashMap<UniqueID, ListeningUser>();
-        this.credentials = new HashMap<UniqueID, Credentials>();
+        this.identifications = new ConcurrentHashMap<UniqueID, ListeningUser>();
+        this.credentials = new ConcurrentHashMap<UniqueID, Credentials>();
         this.dirtyList = new HashSet<UniqueID>();
         this.jmxHelper = jmxHelper;
-        this.jobsMap = new HashMap<JobId, JobState>();
-        this.jobs = new HashMap<JobId, IdentifiedJob>();
+        this.jobsMap = new ConcurrentHashMap<JobId, JobState>();
+        this.jobSnapshots = new ConcurrentHashMap<JobId, JobState>();
+        this.jobs = new ConcurrentHashMap<JobId, IdentifiedJob>();
         this.sessionTimer = new Timer("SessionTimer");
         this.sState = sState;
         recover(sState);
@@ -191,6 +217,123 @@ class SchedulerFrontendState implements SchedulerStateUpdate {
         ij.setFinished(finished);
     }
 
+    /**
+     * Notify that the finished jobs are being loaded in background. Until the loading is done,
+     * the state returned to the clients only contains the finished jobs already loaded and is
+     * marked as such, and a request for a job which is not loaded yet loads this job first.
+     *
+     * @param lastJobId the id of the last job submitted before startup, the jobs loaded in
+     * background have a lower or equal id
+     * @param loader loads a requested job which is not loaded yet
+     * @param loadJobPeriod the period (in ms) of the jobs loaded in background
+     */
+    synchronized void setFinishedJobsRecovery(JobId lastJobId, SchedulerStateRecoverHelper loader,
+            long loadJobPeriod) {
+        this.finishedJobsLoader = loader;
+        this.finishedJobsLoadPeriod = loadJobPeriod;
+        this.finishedJobsRecoveryLastId = lastJobId;
+        sState.setFinishedJobsLoaded(lastJobId == null);
+    }
+
+    /**
+     * Add the finished jobs loaded in background to the state. The jobs already known by
+     * the frontend are ignored. The client job states are built before taking the frontend
+     * lock, which is only held to update the state.
+     *
+     * @param finishedJobs the finished jobs loaded from the database
+     * @return the jobs added to the state, including the ones loaded on demand meanwhile
+     */
+    List<InternalJob> finishedJobsRecovered(List<InternalJob> finishedJobs) {
+        List<JobState> jobStates = new ArrayList<JobState>(finishedJobs.size());
+        for (InternalJob job : finishedJobs) {
+            jobStates.add(new ClientJobState(job));
+        }
+        List<InternalJob> recovered = new ArrayList<InternalJob>(finishedJobs.size());
+        synchronized (this) {
+            for (int i = 0; i < finishedJobs.size(); i++) {
+                if (addFinishedJob(jobStates.get(i))) {
+                    recovered.add(finishedJobs.get(i));
+                }
+            }
+            recovered.addAll(finishedJobsRecoveryDone());
+            sState.setFinishedJobsLoaded(true);
+        }
+        return recovered;
+    }
+
+    /**
+     * Notify that the finished jobs could not be loaded in background, the jobs which are not
+     * loaded yet are unknown from now on.
+     *
+     * @return the jobs loaded on demand before the failure
+     */
+    synchronized List<InternalJob> finishedJobsRecoveryFailed() {
+        return finishedJobsRecoveryDone();
+    }
+
+    private List<InternalJob> finishedJobsRecoveryDone() {
+        List<InternalJob> loadedOnDemand = new ArrayList<InternalJob>(finishedJobsLoadedOnDemand.values());
+        finishedJobsLoadedOnDemand.clear();
+        finishedJobsRecoveryLastId = null;
+        finishedJobsLoader = null;
+        return loadedOnDemand;
+    }
+
+    /**
+     * Add a finished job to the state, unless it is already known.
+     *
+     * @param js the state of the finished job
+     * @return true if the job was added
+     */
+    private boolean addFinishedJob(JobState js) {
+        if (jobsMap.putIfAbsent(js.getId(), js) != null) {
+            return false;
+        }
+        IdentifiedJob ij = new IdentifiedJob(js.getId(), new UserIdentificationImpl(js.getOwner()));
+        ij.setFinished(true);
+        jobs.put(js.getId(), ij);
+        sState.getFinishedJobs().add(js);
+        return true;
+    }
+
+    /**
+     * Load the given unknown job if it may be a finished job which is still being loaded in
+     * background, so that the request for this job does not wait for the other finished jobs.
+     * The job is read from the database before taking the frontend lock.
+     *
+     * @param jobId the id of a job unknown by the frontend
+     * @return true if the job is known by the frontend now
+     */
+    private boolean loadFinishedJob(JobId jobId) {
+        JobId lastJobId = finishedJobsRecoveryLastId;
+        if (lastJobId == null || jobId.compareTo(lastJobId) > 0) {
+            return false;
+        }
+        SchedulerStateRecoverHelper loader;
+        synchronized (this) {
+            loader = finishedJobsLoader;
+        }
+        if (loader == null) {
+            return jobs.containsKey(jobId);
+        }
+        InternalJob job = loader.loadFinishedJob(jobId, finishedJobsLoadPeriod);
+        if (job == null) {
+            return false;
+        }
+        JobState js = new ClientJobState(job);
+        synchronized (this) {
+            if (finishedJobsRecoveryLastId == null) {
+                // the background loading ended meanwhile
+                return jobs.containsKey(jobId);
+            }
+            if (addFinishedJob(js)) {
+                finishedJobsLoadedOnDemand.put(jobId, job);
+                jlogger.info(jobId, "loaded on demand while the finished jobs are being recovered");
+            }
+        }
+        return true;
+    }
+
     /**
      * Connect a new user on the scheduler.
      * This user can interact with the scheduler according to his right.
@@ -224,24 +367,28 @@ class SchedulerFrontendState implements SchedulerStateUpdate {
      * @param identification the user on which to renew the session
      */
     private void renewUserSession(final UniqueID id, UserIdentificationImpl identification) {
-        if (identifications.get(id).isListening()) {
-            //if this id has a listener, do not renew user session
-            return;
-        }
-        final String userName = identification.getUsername();
-        TimerTask session = identification.getSession();
-        if (session != null) {
-            session.cancel();
-        }
-        identification.setSession(new TimerTask() {
-            @Override
-            public void run() {
-                logger.info("End of session for user " + userName + ", id=" + id);
-                disconnect(id);
+        // the session of a user can be renewed concurrently by several requests
+        synchronized (identification) {
+            ListeningUser listeningUser = identifications.get(id);
+            if (listeningUser == null || listeningUser.isListening()) {
+                //if this id has a listener or is disconnected, do not renew user session
+                return;
+            }
+            final String userName = identification.getUsername();
+            TimerTask session = identification.getSession();
+            if (session != null) {
+                session.cancel();
             }
-        });
-        sessionTimer.purge();
-        sessionTimer.schedule(identification.getSession(), USER_SESSION_DURATION);
+            identification.setSession(new TimerTask() {
+                @Override
+                public void run() {
+                    logger.info("End of session for user " + userName + ", id=" + id);
+                    disconnect(id);
+                }
+            });
+            sessionTimer.purge();
+            sessionTimer.schedule(identification.getSession(), USER_SESSION_DURATION);
+        }
     }
 
     synchronized SchedulerStatus getStatus() throws NotConnectedException, PermissionException {
@@ -324,9 +471,11 @@ class SchedulerFrontendState implements SchedulerStateUpdate {
         uIdent.getUser().setMyEventsOnly(myEventsOnly);
         //add the listener to the list of listener for this user.
         UniqueID id = PAActiveObject.getContext().getCurrentRequest().getSourceBodyID();
-        uIdent.setListener(new ClientRequestHandler(this, id, sel));
-        //cancel timer for this user : session is now managed by events
-        uIdent.getUser().getSession().cancel();
+        synchronized (uIdent.getUser()) {
+            uIdent.setListener(new ClientRequestHandler(this, id, uIdent.getUser().getUsername(), sel));
+            //cancel timer for this user : session is now managed by events
+            uIdent.getUser().getSession().cancel();
+        }
         //return to the user
         return currentState;
     }
@@ -353,10 +502,26 @@ class SchedulerFrontendState implements SchedulerStateUpdate {
     synchronized InternalJob createJob(Job userJob, UserIdentificationImpl ident)
             throws NotConnectedException, PermissionException, SubmissionClosedException,
             JobCreationException {
+        return createJob(userJob, getCallerCredentials(), ident);
+    }
+
+    /**
+     * Return the credentials of the connected caller. Must be called from the active object thread
+     * serving the caller request.
+     */
+    Credentials getCallerCredentials() throws NotConnectedException {
         UniqueID id = checkAccess();
+        return this.credentials.get(id);
+    }
 
+    /**
+     * Create the internal job of the given user job and check that the user is allowed to submit it.
+     * Does not access the frontend state, so it can be called concurrently for several jobs.
+     */
+    InternalJob createJob(Job userJob, Credentials credentials, UserIdentificationImpl ident)
+            throws PermissionException, JobCreationException {
         //get the internal job.
-        InternalJob job = InternalJobFactory.createJob(userJob, this.credentials.get(id));
+        InternalJob job = InternalJobFactory.createJob(userJob, credentials);
 
         if (!PASchedulerProperties.ALLOW_JAVA_TASKS.getValueAsBoolean()) {
             // java tasks that are executed in nodes are prohibited
@@ -395,12 +560,26 @@ class SchedulerFrontendState implements SchedulerStateUpdate {
     synchronized void jobSubmitted(InternalJob job, UserIdentificationImpl ident)
             throws NotConnectedException, PermissionException, SubmissionClosedException,
             JobCreationException {
+        registerSubmittedJob(job, ident);
+        //send update user event
+        usersUpdated(new NotificationData<UserIdentification>(SchedulerEvent.USERS_UPDATE, ident));
+    }
+
+    /**
+     * Register a batch of submitted jobs. A single users update event is sent for the whole batch.
+     */
+    synchronized void jobsSubmitted(List<InternalJob> submittedJobs, UserIdentificationImpl ident) {
+        for (InternalJob job : submittedJobs) {
+            registerSubmittedJob(job, ident);
+        }
+        usersUpdated(new NotificationData<UserIdentification>(SchedulerEvent.USERS_UPDATE, ident));
+    }
+
+    private void registerSubmittedJob(InternalJob job, UserIdentificationImpl ident) {
         //put the job inside the frontend management list
         jobs.put(job.getId(), new IdentifiedJob(job.getId(), ident));
         //increase number of submit for this user
         ident.addSubmit();
-        //send update user event
-        usersUpdated(new NotificationData<UserIdentification>(SchedulerEvent.USERS_UPDATE, ident));
         jlogger.info(job.getId(), "submitted: name '" + job.getName() + "', tasks '" +
             job.getTotalNumberOfTasks() + "', owner '" + job.getOwner() + "'");
         try {
@@ -410,11 +589,15 @@ class SchedulerFrontendState implements SchedulerStateUpdate {
         }
     }
 
-    synchronized ListeningUser checkPermissionReturningListeningUser(String methodName, String permissionMsg)
+    ListeningUser checkPermissionReturningListeningUser(String methodName, String permissionMsg)
             throws NotConnectedException, PermissionException {
-        UniqueID id = checkAccess();
+        UniqueID id = PAActiveObject.getContext().getCurrentRequest().getSourceBodyID();
 
         ListeningUser ident = identifications.get(id);
+        if (ident == null) {
+            logger.info(ACCESS_DENIED);
+            throw new NotConnectedException(ACCESS_DENIED);
+        }
         //renew session for this user
         renewUserSession(id, ident.getUser());
 
@@ -430,7 +613,7 @@ class SchedulerFrontendState implements SchedulerStateUpdate {
         return ident;
     }
 
-    synchronized UserIdentificationImpl checkPermission(String methodName, String permissionMsg)
+    UserIdentificationImpl checkPermission(String methodName, String permissionMsg)
             throws NotConnectedException, PermissionException {
         return checkPermissionReturningListeningUser(methodName, permissionMsg).getUser();
     }
@@ -464,7 +647,7 @@ class SchedulerFrontendState implements SchedulerStateUpdate {
         }
     }
 
-    synchronized boolean isConnected() {
+    boolean isConnected() {
         try {
             checkAccess();
             return true;
@@ -480,11 +663,14 @@ class SchedulerFrontendState implements SchedulerStateUpdate {
         renewUserSession(id, ident);
     }
 
-    synchronized IdentifiedJob checkJobOwner(String methodName, JobId jobId, String permissionMsg)
+    IdentifiedJob checkJobOwner(String methodName, JobId jobId, String permissionMsg)
             throws NotConnectedException, UnknownJobException, PermissionException {
         ListeningUser ident = checkPermissionReturningListeningUser(methodName, permissionMsg);
 
         IdentifiedJob ij = jobs.get(jobId);
+        if (ij == null && loadFinishedJob(jobId)) {
+            ij = jobs.get(jobId);
+        }
 
         if (ij == null) {
             String msg = "The job represented by this ID '" + jobId + "' is unknown !";
@@ -523,8 +709,34 @@ class SchedulerFrontendState implements SchedulerStateUpdate {
         }
     }
 
-    synchronized Set<TaskId> getJobTasks(JobId jobId) {
+    /**
+     * Return a read-only copy of the state of the given job, or null if the job is unknown.
+     * Readers only wait for an update of this job in progress, never for the frontend lock.
+     */
+    private JobState getJobStateSnapshot(JobId jobId) {
+        JobState snapshot = jobSnapshots.get(jobId);
+        if (snapshot != null) {
+            return snapshot;
+        }
         JobState jobState = jobsMap.get(jobId);
+        if (jobState == null) {
+            return null;
+        }
+        synchronized (jobState) {
+            snapshot = jobSnapshots.get(jobId);
+            if (snapshot == null) {
+                snapshot = ClientJobState.copyOf(jobState);
+                // do not publish the copy of a job removed in the meantime
+                if (jobsMap.get(jobId) == jobState) {
+                    jobSnapshots.put(jobId, snapshot);
+                }
+            }
+            return snapshot;
+        }
+    }
+
+    Set<TaskId> getJobTasks(JobId jobId) {
+        JobState jobState = getJobStateSnapshot(jobId);
         if (jobState == null) {
             return Collections.emptySet();
         } else {
@@ -536,62 +748,63 @@ class SchedulerFrontendState implements SchedulerStateUpdate {
         }
     }
 
-    synchronized JobState getJobState(JobId jobId) throws NotConnectedException, UnknownJobException,
+    JobState getJobState(JobId jobId) throws NotConnectedException, UnknownJobException,
             PermissionException {
         checkJobOwner("getJobState", jobId, "You do not have permission to get the state of this job !");
-        return jobsMap.get(jobId);
+        return getJobStateSnapshot(jobId);
     }
 
-    synchronized TaskState getTaskState(JobId jobId, TaskId taskId) throws NotConnectedException,
-            UnknownJobException, UnknownTaskException, PermissionException {
+    TaskState getTaskState(JobId jobId, TaskId taskId) throws NotConnectedException, UnknownJobException,
+            UnknownTaskException, PermissionException {
         checkJobOwner("getJobState", jobId, "You do not have permission to get the state of this task !");
-        if (jobsMap.get(jobId) == null) {
+        JobState jobState = getJobStateSnapshot(jobId);
+        if (jobState == null) {
             throw new UnknownJobException(jobId);
         }
-        TaskState ts = jobsMap.get(jobId).getHMTasks().get(taskId);
+        TaskState ts = jobState.getHMTasks().get(taskId);
         if (ts == null) {
             throw new UnknownTaskException(taskId, jobId);
         }
         return ts;
     }
 
-    synchronized TaskState getTaskState(JobId jobId, String taskName) throws NotConnectedException,
+    TaskState getTaskState(JobId jobId, String taskName) throws NotConnectedException,
             UnknownJobException, UnknownTaskException, PermissionException {
         checkJobOwner("getJobState", jobId, "You do not have permission to get the state of this task !");
-        if (jobsMap.get(jobId) == null) {
+        JobState jobState = getJobStateSnapshot(jobId);
+        if (jobState == null) {
             throw new UnknownJobException(jobId);
         }
-        TaskId taskId = null;
-        for (TaskId t : getJobTasks(jobId)) {
-            if (t.getReadableName().equals(taskName)) {
-                taskId = t;
-            }
-        }
-        if (taskId == null) {
-            throw new UnknownTaskException(taskName, jobId);
-        }
-        TaskState ts = jobsMap.get(jobId).getHMTasks().get(taskId);
+        TaskState ts = findTask(jobState, taskName);
         if (ts == null) {
-            throw new UnknownTaskException(taskId, jobId);
+            throw new UnknownTaskException(taskName, jobId);
         }
         return ts;
     }
 
-    synchronized TaskId getTaskId(JobId jobId, String taskName) throws UnknownTaskException,
-            UnknownJobException {
-        if (jobsMap.get(jobId) == null) {
-            throw new UnknownJobException(jobId);
+    TaskId getTaskId(JobId jobId, String taskName) throws UnknownTaskException, UnknownJobException {
+        JobState jobState = getJobStateSnapshot(jobId);
+        if (jobState == null && loadFinishedJob(jobId)) {
+            jobState = getJobStateSnapshot(jobId);
         }
-        TaskId taskId = null;
-        for (TaskId t : getJobTasks(jobId)) {
-            if (t.getReadableName().equals(taskName)) {
-                taskId = t;
-            }
+        if (jobState == null) {
+            throw new UnknownJobException(jobId);
         }
-        if (taskId == null) {
+        TaskState ts = findTask(jobState, taskName);
+        if (ts == null) {
             throw new UnknownTaskException(taskName, jobId);
         }
-        return taskId;
+        return ts.getId();
+    }
+
+    private TaskState findTask(JobState jobState, String taskName) {
+        TaskState result = null;
+        for (TaskState ts : jobState.getHMTasks().values()) {
+            if (ts.getId().getReadableName().equals(taskName)) {
+                result = ts;
+            }
+        }
+        return result;
     }
 
     synchronized void checkChangePolicy() throws NotConnectedException, PermissionException {
@@ -894,7 +1107,10 @@ class SchedulerFrontendState implements SchedulerStateUpdate {
     @Override
     public synchronized void jobStateUpdated(String owner, NotificationData<JobInfo> notification) {
         JobState js = jobsMap.get(notification.getData().getJobId());
-        js.update(notification.getData());
+        synchronized (js) {
+            js.update(notification.getData());
+            jobSnapshots.remove(js.getId());
+        }
         switch (notification.getEventType()) {
             case JOB_PENDING_TO_RUNNING:
                 sState.getPendingJobs().remove(js);
@@ -921,7 +1137,10 @@ class SchedulerFrontendState implements SchedulerStateUpdate {
             case JOB_REMOVE_FINISHED:
                 //removing jobs from the global list : this job is no more managed
                 sState.getFinishedJobs().remove(js);
-                jobsMap.remove(js.getId());
+                synchronized (js) {
+                    jobsMap.remove(js.getId());
+                    jobSnapshots.remove(js.getId());
+                }
                 jobs.remove(notification.getData().getJobId());
                 break;
             default:
@@ -935,7 +1154,11 @@ class SchedulerFrontendState implements SchedulerStateUpdate {
 
     @Override
     public synchronized void taskStateUpdated(String owner, NotificationData<TaskInfo> notification) {
-        jobsMap.get(notification.getData().getJobId()).update(notification.getData());
+        JobState js = jobsMap.get(notification.getData().getJobId());
+        synchronized (js) {
+            js.update(notification.getData());
+            jobSnapshots.remove(js.getId());
+        }
         switch (notification.getEventType()) {
             case TASK_PENDING_TO_RUNNING:
             case TASK_RUNNING_TO_FINISHED:
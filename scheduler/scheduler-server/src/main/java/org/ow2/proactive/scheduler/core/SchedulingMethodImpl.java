@@ -100,6 +100,10 @@ public final class SchedulingMethodImpl implements SchedulingMethod {
     protected static final int DOTASK_ACTION_TIMEOUT = PASchedulerProperties.SCHEDULER_STARTTASK_TIMEOUT
             .getValueAsInt();
 
+    /** Maximum number of node requests sent to the RM at the same time in a scheduling loop */
+    protected static final int NODES_REQUEST_PIPELINE_SIZE = Math.max(1,
+            PASchedulerProperties.SCHEDULER_NODES_REQUEST_PIPELINE_SIZE.getValueAsInt());
+
     protected int activeObjectCreationRetryTimeNumber;
 
     protected final SchedulingService schedulingService;
@@ -129,6 +133,23 @@ public final class SchedulingMethodImpl implements SchedulingMethod {
                 .getAbsolutePath(PASchedulerProperties.SCHEDULER_AUTH_PRIVKEY_PATH.getValueAsString()));
     }
 
+    /**
+     * Nodes asked to the RM for a group of compatible tasks
+     */
+    private static final class NodesRequest {
+
+        private final InternalJob job;
+        private final LinkedList<EligibleTaskDescriptor> tasksToSchedule;
+        private final NodeSet nodeSet;
+
+        private NodesRequest(Map<JobId, JobDescriptor> jobMap,
+                LinkedList<EligibleTaskDescriptor> tasksToSchedule, NodeSet nodeSet) {
+            this.job = jobMap.get(tasksToSchedule.getFirst().getJobId()).getInternal();
+            this.tasksToSchedule = tasksToSchedule;
+            this.nodeSet = nodeSet;
+        }
+    }
+
     RMProxiesManager getRMProxiesManager() {
         return schedulingService.getInfrastructure().getRMProxiesManager();
     }
@@ -145,17 +166,28 @@ public final class SchedulingMethodImpl implements SchedulingMethod {
      * 	<li>While returned tasks list is not empty :
      * 		<ul>
      * 			<li>Get n first compatible tasks (same selection script, same node exclusion)
-     * 			<li>Ask nodes to RM according to the previous specification
-     * 			<li>Try to start each tasks
+     * 			<li>Ask nodes to RM according to the previous specification, repeat for up to
+     * 				{@link #NODES_REQUEST_PIPELINE_SIZE} groups while there are enough free nodes
+     * 			<li>As soon as nodes of a group are provided, try to start each tasks
      * 			<li>Job started event if needed
      * 			<li>Task started event
      * 		</ul>
      * 	<li>Manage exception while deploying tasks on nodes
+     * 	<li>Ask the database to commit the pending task updates if they are grouped
      * </ul>
      *
      * @return the number of tasks that have been started
      */
     public int schedule() {
+        try {
+            return startEligibleTasks();
+        } finally {
+            //task start updates of this loop are committed together
+            getDBManager().requestPendingUpdatesCommit();
+        }
+    }
+
+    private int startEligibleTasks() {
         Policy currentPolicy = schedulingService.getPolicy();
 
         int numberOfTaskStarted = 0;
@@ -163,59 +195,115 @@ public final class SchedulingMethodImpl implements SchedulingMethod {
         activeObjectCreationRetryTimeNumber = ACTIVEOBJECT_CREATION_RETRY_TIME_NUMBER;
 
         //get job Descriptor list with eligible jobs (running and pending)
-        Map<JobId, JobDescriptor> jobMap = schedulingService.lockJobsToSchedule();
-        try {
+        //jobs are not locked : each job is locked only while one of its task is started
+        Map<JobId, JobDescriptor> jobMap = schedulingService.getJobsToSchedule();
+
+        //ask the policy all the tasks to be schedule, using the eligible task index if the policy supports it
+        Collection<EligibleTaskDescriptor> orderedTasks = currentPolicy.getOrderedTasks(schedulingService
+                .getEligibleTaskIndex());
+        if (orderedTasks == null) {
+            //the policy needs the whole jobs list
             List<JobDescriptor> descriptors = new ArrayList<JobDescriptor>(jobMap.size());
             descriptors.addAll(jobMap.values());
+            orderedTasks = currentPolicy.getOrderedTasks(descriptors);
+        }
 
-            //ask the policy all the tasks to be schedule according to the jobs list.
-            //and filter them using internal policy
-            LinkedList<EligibleTaskDescriptor> taskRetrievedFromPolicy = internalPolicy.filter(currentPolicy
-                    .getOrderedTasks(descriptors));
+        //and filter them using internal policy
+        LinkedList<EligibleTaskDescriptor> taskRetrievedFromPolicy = internalPolicy.filter(orderedTasks,
+                jobMap.keySet());
 
-            //if there is no task to scheduled, return
-            if (taskRetrievedFromPolicy == null || taskRetrievedFromPolicy.size() == 0) {
-                return numberOfTaskStarted;
-            }
+        //if there is no task to scheduled, return
+        if (taskRetrievedFromPolicy == null || taskRetrievedFromPolicy.size() == 0) {
+            return numberOfTaskStarted;
+        }
 
-            logger.debug("eligible tasks : " + taskRetrievedFromPolicy.size());
-
-            while (!taskRetrievedFromPolicy.isEmpty()) {
-                //get rmState and update it in scheduling policy
-                RMState rmState = getRMProxiesManager().getRmProxy().getState();
-                currentPolicy.setRMState(rmState);
-                internalPolicy.RMState = rmState;
-                int freeResourcesNb = rmState.getFreeNodesNumber();
-                logger.debug("eligible nodes : " + freeResourcesNb);
-                //if there is no free resources, stop it right now
-                if (freeResourcesNb == 0) {
-                    break;
-                }
+        logger.debug("eligible tasks : " + taskRetrievedFromPolicy.size());
+
+        while (!taskRetrievedFromPolicy.isEmpty()) {
+            //get rmState and update it in scheduling policy,
+            //the state is read from the local mirror of the RM state if available
+            RMState rmState = getRMProxiesManager().getRmProxy().getState();
+            currentPolicy.setRMState(rmState);
+            internalPolicy.RMState = rmState;
+            int freeResourcesNb = rmState.getFreeNodesNumber();
+            logger.debug("eligible nodes : " + freeResourcesNb);
+            //if there is no free resources, stop it right now
+            if (freeResourcesNb == 0) {
+                break;
+            }
 
+            //ask nodes for the next groups of compatible tasks without waiting for the RM answers.
+            //the number of requested nodes never exceeds the number of free nodes
+            LinkedList<NodesRequest> requests = new LinkedList<NodesRequest>();
+            int requestedResourcesNumber = 0;
+            while (requests.size() < NODES_REQUEST_PIPELINE_SIZE &&
+                requestedResourcesNumber < freeResourcesNb && !taskRetrievedFromPolicy.isEmpty()) {
                 //get the next compatible tasks from the whole returned policy tasks
                 LinkedList<EligibleTaskDescriptor> tasksToSchedule = new LinkedList<EligibleTaskDescriptor>();
                 int neededResourcesNumber = 0;
                 while (taskRetrievedFromPolicy.size() > 0 && neededResourcesNumber == 0) {
                     //the loop will search for next compatible task until it find something
                     neededResourcesNumber = getNextcompatibleTasks(jobMap, taskRetrievedFromPolicy,
-                            freeResourcesNb, tasksToSchedule);
+                            freeResourcesNb - requestedResourcesNumber, tasksToSchedule);
                 }
                 logger.debug("required number of nodes : " + neededResourcesNumber);
                 if (neededResourcesNumber == 0) {
                     break;
                 }
+                requestedResourcesNumber += neededResourcesNumber;
+
+                NodeSet nodeSet = requestRMNodes(jobMap, neededResourcesNumber, tasksToSchedule);
+                if (nodeSet != null) {
+                    requests.add(new NodesRequest(jobMap, tasksToSchedule, nodeSet));
+                }
+            }
+            if (requestedResourcesNumber == 0) {
+                break;
+            }
 
-                NodeSet nodeSet = getRMNodes(jobMap, neededResourcesNumber, tasksToSchedule);
+            //start selected tasks as soon as their nodes are provided
+            try {
+                while (!requests.isEmpty()) {
+                    NodesRequest request = waitForAnyNodesRequest(requests);
+                    numberOfTaskStarted += startTasks(jobMap, request.tasksToSchedule, request.nodeSet);
+                    if (activeObjectCreationRetryTimeNumber == 0) {
+                        return numberOfTaskStarted;
+                    }
+                }
+            } finally {
+                //get back the nodes of the requests that will not be handled
+                releaseNodes(requests);
+            }
+        }
 
-                //start selected tasks
-                Node node = null;
-                InternalJob currentJob = null;
-                try {
-                    while (nodeSet != null && !nodeSet.isEmpty()) {
-                        EligibleTaskDescriptor taskDescriptor = tasksToSchedule.removeFirst();
-                        currentJob = jobMap.get(taskDescriptor.getJobId()).getInternal();
-                        InternalTask internalTask = currentJob.getIHMTasks().get(taskDescriptor.getTaskId());
+        return numberOfTaskStarted;
+    }
 
+    /**
+     * Start the given tasks on the given nodes.<br>
+     * Each task is started while holding the lock of its job, after having checked that it is still eligible.
+     * Unused nodes are given back to the resource manager.
+     *
+     * @param jobMap the jobs to be scheduled
+     * @param tasksToSchedule the compatible tasks for which the nodes have been requested
+     * @param nodeSet the nodes provided by the resource manager
+     * @return the number of tasks that have been started
+     */
+    private int startTasks(Map<JobId, JobDescriptor> jobMap, LinkedList<EligibleTaskDescriptor> tasksToSchedule,
+            NodeSet nodeSet) {
+        int numberOfTaskStarted = 0;
+        Node node = null;
+        InternalJob currentJob = null;
+        try {
+            while (nodeSet != null && !nodeSet.isEmpty()) {
+                EligibleTaskDescriptor taskDescriptor = tasksToSchedule.removeFirst();
+                currentJob = jobMap.get(taskDescriptor.getJobId()).getInternal();
+                InternalTask internalTask = currentJob.getIHMTasks().get(taskDescriptor.getTaskId());
+
+                //the job may have changed while nodes were selected (killed, paused, ...)
+                //so check that the task can still be started once its job is locked
+                if (schedulingService.lockJobToStartTask(currentJob.getId(), internalTask.getId())) {
+                    try {
                         // load and Initialize the executable container
                         loadAndInit(internalTask);
 
@@ -223,45 +311,86 @@ public final class SchedulingMethodImpl implements SchedulingMethod {
                         node = nodeSet.get(0);
                         numberOfTaskStarted++;
                         createExecution(nodeSet, node, currentJob, internalTask, taskDescriptor);
-
-                        //if every task that should be launched have been removed
-                        if (tasksToSchedule.isEmpty()) {
-                            //get back unused nodes to the RManager
-                            if (!nodeSet.isEmpty()) {
-                                releaseNodes(currentJob, nodeSet);
-                            }
-                            //and leave the loop
-                            break;
-                        }
-                    }
-                } catch (ActiveObjectCreationException e1) {
-                    //Something goes wrong with the active object creation (createLauncher)
-                    logger.warn("An exception occured while creating the task launcher.", e1);
-                    //so try to get back every remaining nodes to the resource manager
-                    try {
-                        releaseNodes(currentJob, nodeSet);
-                    } catch (Exception e2) {
-                        logger.info("Unable to get back the nodeSet to the RM", e2);
+                    } finally {
+                        schedulingService.unlockJob(currentJob.getId());
                     }
-                    if (--activeObjectCreationRetryTimeNumber == 0) {
-                        return numberOfTaskStarted;
-                    }
-                } catch (Exception e1) {
-                    //if we are here, it is that something append while launching the current task.
-                    logger.warn("An exception occured while starting task.", e1);
-                    //so try to get back every remaining nodes to the resource manager
-                    try {
+                }
+
+                //if every task that should be launched have been removed
+                if (tasksToSchedule.isEmpty()) {
+                    //get back unused nodes to the RManager
+                    if (!nodeSet.isEmpty()) {
                         releaseNodes(currentJob, nodeSet);
-                    } catch (Exception e2) {
-                        logger.info("Unable to get back the nodeSet to the RM", e2);
                     }
+                    //and leave the loop
+                    break;
                 }
             }
+        } catch (ActiveObjectCreationException e1) {
+            //Something goes wrong with the active object creation (createLauncher)
+            logger.warn("An exception occured while creating the task launcher.", e1);
+            //so try to get back every remaining nodes to the resource manager
+            try {
+                releaseNodes(currentJob, nodeSet);
+            } catch (Exception e2) {
+                logger.info("Unable to get back the nodeSet to the RM", e2);
+            }
+            --activeObjectCreationRetryTimeNumber;
+        } catch (Exception e1) {
+            //if we are here, it is that something append while launching the current task.
+            logger.warn("An exception occured while starting task.", e1);
+            //so try to get back every remaining nodes to the resource manager
+            try {
+                releaseNodes(currentJob, nodeSet);
+            } catch (Exception e2) {
+                logger.info("Unable to get back the nodeSet to the RM", e2);
+            }
+        }
+        return numberOfTaskStarted;
+    }
+
+    /**
+     * Wait until the nodes of one of the given requests are provided by the resource manager.
+     * The returned request is removed from the given list.
+     *
+     * @param requests the pending node requests (must not be empty)
+     * @return the first request whose nodes have been provided
+     */
+    private NodesRequest waitForAnyNodesRequest(LinkedList<NodesRequest> requests) {
+        int index = 0;
+        if (requests.size() > 1) {
+            List<NodeSet> futures = new ArrayList<NodeSet>(requests.size());
+            for (NodesRequest request : requests) {
+                futures.add(request.nodeSet);
+            }
+            index = PAFuture.waitForAny(futures);
+        }
+        NodesRequest request = requests.remove(index);
+        //the following line is used to unwrap the future, warning when moving or removing
+        //it may also throw a ScriptException which is a RuntimeException
+        PAFuture.waitFor(request.nodeSet, true);
+        logger.debug("provided nodes " + request.nodeSet.size());
+        getRMProxiesManager().getRmProxy().nodesAcquired(request.nodeSet);
+        return request;
+    }
 
-            return numberOfTaskStarted;
-        } finally {
-            schedulingService.unlockJobsToSchedule(jobMap.values());
+    /**
+     * Give back to the resource manager the nodes of requests that will not be used.
+     *
+     * @param requests the node requests to cancel
+     */
+    private void releaseNodes(List<NodesRequest> requests) {
+        for (NodesRequest request : requests) {
+            try {
+                PAFuture.waitFor(request.nodeSet, true);
+                if (!request.nodeSet.isEmpty()) {
+                    releaseNodes(request.job, request.nodeSet);
+                }
+            } catch (Exception e) {
+                logger.info("Unable to get back the nodeSet to the RM", e);
+            }
         }
+        requests.clear();
     }
 
     /**
@@ -333,7 +462,7 @@ public final class SchedulingMethodImpl implements SchedulingMethod {
     }
 
     /**
-     * Ask to the RM the given number of node resources.<br>
+     * Ask to the RM the given number of node resources and wait for them.<br>
      * If there is a problem with these task selection (such as bad selectionScript) this method
      * will terminate the corresponding tasks and jobs. As the selection scripts contain errors, the task
      * and its surrounding jobs must be stopped.
@@ -346,6 +475,29 @@ public final class SchedulingMethodImpl implements SchedulingMethod {
      */
     protected NodeSet getRMNodes(Map<JobId, JobDescriptor> jobMap, int neededResourcesNumber,
             LinkedList<EligibleTaskDescriptor> tasksToSchedule) {
+        NodeSet nodeSet = requestRMNodes(jobMap, neededResourcesNumber, tasksToSchedule);
+        if (nodeSet != null) {
+            //the following line is used to unwrap the future, warning when moving or removing
+            //it may also throw a ScriptException which is a RuntimeException
+            PAFuture.waitFor(nodeSet, true);
+            logger.debug("provided nodes " + nodeSet.size());
+            getRMProxiesManager().getRmProxy().nodesAcquired(nodeSet);
+        }
+        return nodeSet;
+    }
+
+    /**
+     * Ask to the RM the given number of node resources without waiting for them.<br>
+     * The returned nodeSet is a future which is updated when the RM has selected the nodes.
+     * If the user RM proxy cannot be created or if topology is disabled, the corresponding jobs are canceled.
+     *
+     * @param neededResourcesNumber the number of resources to ask for (must be > 0).
+     * @param tasksToSchedule the task to be scheduled
+     * @return A future nodeSet that will contain at most 'neededResourcesNumber' available compatible resources.
+     * 		   null if the nodes could not be requested
+     */
+    protected NodeSet requestRMNodes(Map<JobId, JobDescriptor> jobMap, int neededResourcesNumber,
+            LinkedList<EligibleTaskDescriptor> tasksToSchedule) {
         NodeSet nodeSet = new NodeSet();
 
         if (neededResourcesNumber <= 0) {
@@ -400,10 +552,6 @@ public final class SchedulingMethodImpl implements SchedulingMethod {
                 schedulingService.simulateJobStartAndCancelIt(tasksToSchedule, "Topology is disabled");
                 return null;
             }
-            //the following line is used to unwrap the future, warning when moving or removing
-            //it may also throw a ScriptException which is a RuntimeException
-            PAFuture.waitFor(nodeSet, true);
-            logger.debug("provided nodes " + nodeSet.size());
             return nodeSet;
         } catch (RMProxyCreationException e) {
             logger.info("Failed to create User RM Proxy : " + e.getMessage());
@@ -23,6 +23,7 @@ import org.ow2.proactive.scheduler.common.util.logforwarder.AppenderProvider;
 import org.ow2.proactive.scheduler.core.db.SchedulerStateRecoverHelper;
 import org.ow2.proactive.scheduler.core.properties.PASchedulerProperties;
 import org.ow2.proactive.scheduler.descriptor.EligibleTaskDescriptor;
+import org.ow2.proactive.scheduler.descriptor.EligibleTaskIndex;
 import org.ow2.proactive.scheduler.descriptor.JobDescriptor;
 import org.ow2.proactive.scheduler.exception.ForkedJVMProcessException;
 import org.ow2.proactive.scheduler.exception.ProgressPingerException;
@@ -54,6 +55,8 @@ public class SchedulingService {
 
     final LiveJobs jobs;
 
+    private final TaskResultCache taskResultCache;
+
     final SchedulerStateUpdate listener;
 
     private final ListenJobLogsSupport listenJobLogsSupport;
@@ -76,7 +79,9 @@ public class SchedulingService {
             SchedulingMethod schedulingMethod) throws Exception {
         this.infrastructure = infrastructure;
         this.listener = listener;
-        this.jobs = new LiveJobs(infrastructure.getDBManager(), listener);
+        this.taskResultCache = new TaskResultCache(PASchedulerProperties.SCHEDULER_TASK_RESULT_CACHE_SIZE
+                .getValueAsInt() * 1024L * 1024L);
+        this.jobs = new LiveJobs(infrastructure.getDBManager(), listener, taskResultCache);
         this.listenJobLogsSupport = ListenJobLogsSupport.newInstance(infrastructure.getDBManager(), jobs);
         if (recoveredState != null) {
             recover(recoveredState);
@@ -107,6 +112,10 @@ public class SchedulingService {
         return policy;
     }
 
+    TaskResultCache getTaskResultCache() {
+        return taskResultCache;
+    }
+
     public boolean isSubmitPossible() {
         return status.isSubmittable();
     }
@@ -303,6 +312,36 @@ public class SchedulingService {
         return jobs.lockJobsToSchedule();
     }
 
+    /*
+     * Should be called only by scheduling method impl when job scheduling starts,
+     * returned descriptors are not locked
+     */
+    public Map<JobId, JobDescriptor> getJobsToSchedule() {
+        return jobs.getJobsToSchedule();
+    }
+
+    /*
+     * Should be called only by scheduling method impl before it starts a task, if it
+     * returns true the job is locked and must be released using unlockJob
+     */
+    public boolean lockJobToStartTask(JobId jobId, TaskId taskId) {
+        return jobs.lockJobToStartTask(jobId, taskId);
+    }
+
+    /*
+     * Should be called only by scheduling method impl after a task start
+     */
+    public void unlockJob(JobId jobId) {
+        jobs.unlockJob(jobId);
+    }
+
+    /*
+     * Should be called only by scheduling method impl
+     */
+    public EligibleTaskIndex getEligibleTaskIndex() {
+        return jobs.getEligibleTaskIndex();
+    }
+
     /*
      * Should be called only by scheduling method impl after job scheduling finished
      */
@@ -338,6 +377,17 @@ public class SchedulingService {
         }
     }
 
+    /**
+     * Submit several jobs at once, the jobs are saved in the database in a single transaction.
+     */
+    public void submitJobs(List<InternalJob> jobs) {
+        try {
+            infrastructure.getClientOperationsThreadPool().submit(new SubmitHandler(this, jobs)).get();
+        } catch (Exception e) {
+            throw handleFutureWaitException(e);
+        }
+    }
+
     public boolean pauseJob(final JobId jobId) {
         try {
             if (status.isShuttingDown()) {
@@ -738,10 +788,19 @@ public class SchedulingService {
     private void recover(SchedulerStateRecoverHelper.RecoveredSchedulerState recoveredState) {
         jobsRecovered(recoveredState.getPendingJobs());
         jobsRecovered(recoveredState.getRunningJobs());
+        finishedJobsRecovered(recoveredState.getFinishedJobs());
+    }
 
+    /**
+     * Schedule the removal of recovered finished jobs. Called at startup, or once the finished
+     * jobs are loaded when they are loaded in background.
+     *
+     * @param finishedJobs the recovered finished jobs
+     */
+    public void finishedJobsRecovered(Collection<InternalJob> finishedJobs) {
         if (SCHEDULER_REMOVED_JOB_DELAY > 0 || SCHEDULER_AUTO_REMOVED_JOB_DELAY > 0) {
             logger.debug("Removing non-managed jobs");
-            Iterator<InternalJob> iterJob = recoveredState.getFinishedJobs().iterator();
+            Iterator<InternalJob> iterJob = finishedJobs.iterator();
 
             while (iterJob.hasNext()) {
                 final InternalJob job = iterJob.next();
@@ -1,5 +1,8 @@
 package org.ow2.proactive.scheduler.core;
 
+import java.util.Collections;
+import java.util.List;
+
 import org.apache.log4j.Logger;
 import org.ow2.proactive.scheduler.job.InternalJob;
 
@@ -8,21 +11,33 @@ class SubmitHandler implements Runnable {
 
     static final Logger logger = Logger.getLogger(SchedulingService.class);
 
-    private final InternalJob job;
+    private final List<InternalJob> jobs;
 
     private final SchedulingService service;
 
     SubmitHandler(SchedulingService service, InternalJob job) {
+        this(service, Collections.singletonList(job));
+    }
+
+    SubmitHandler(SchedulingService service, List<InternalJob> jobs) {
         this.service = service;
-        this.job = job;
+        this.jobs = jobs;
     }
 
     @Override
     public void run() {
-        logger.info("Submitting a new job '" + job.getName() + "'");
-
-        service.jobs.jobSubmitted(job, service.infrastructure.getTaskClassServer(), service.infrastructure
-                .getSpacesSupport());
+        if (jobs.size() == 1) {
+            InternalJob job = jobs.get(0);
+            logger.info("Submitting a new job '" + job.getName() + "'");
+
+            service.jobs.jobSubmitted(job, service.infrastructure.getTaskClassServer(),
+                    service.infrastructure.getSpacesSupport());
+        } else {
+            logger.info("Submitting " + jobs.size() + " new jobs");
+
+            service.jobs.jobsSubmitted(jobs, service.infrastructure.getTaskClassServer(),
+                    service.infrastructure.getSpacesSupport());
+        }
 
         service.wakeUpSchedulingThread();
     }
@@ -0,0 +1,248 @@
+/*
+ * ################################################################
+ *
+ * ProActive Parallel Suite(TM): The Java(TM) library for
+ *    Parallel, Distributed, Multi-Core Computing for
+ *    Enterprise Grids & Clouds
+ *
+ * Copyright (C) 1997-2011 INRIA/University of
+ *                 Nice-Sophia Antipolis/ActiveEon
+ * Contact: proactive@ow2.org or contact@activeeon.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation; version 3 of
+ * the License.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307
+ * USA
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ *
+ *  Initial developer(s):               The ProActive Team
+ *                        http://proactive.inria.fr/team_members.htm
+ *  Contributor(s): ActiveEon Team - http://www.activeeon.com
+ *
+ * ################################################################
+ * $$ACTIVEEON_CONTRIBUTOR$$
+ */
+package org.ow2.proactive.scheduler.core;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.ow2.proactive.scheduler.common.job.JobId;
+import org.ow2.proactive.scheduler.common.task.Log4JTaskLogs;
+import org.ow2.proactive.scheduler.common.task.SimpleTaskLogs;
+import org.ow2.proactive.scheduler.common.task.TaskId;
+import org.ow2.proactive.scheduler.common.task.TaskLogs;
+import org.ow2.proactive.scheduler.common.task.TaskResult;
+import org.ow2.proactive.scheduler.task.TaskResultImpl;
+import org.apache.log4j.Logger;
+
+
+/**
+ * Bounded cache of the results of the finished tasks whose children are not started yet.
+ * <p>
+ * When a task is started, the results of its parents are given to its launcher. Instead of
+ * loading them from the database for each child, the results are kept in memory from the
+ * termination of the parent until all its children are started. Results are kept in their
+ * serialized form, the values are never deserialized by the scheduler.
+ * <p>
+ * The cache is bounded by the total size of the results (values, exceptions, logs and
+ * propagated variables). When the limit is reached, the least recently used results are
+ * evicted, and a result which is not in the cache is loaded from the database as before.
+ */
+class TaskResultCache {
+
+    private static final Logger logger = Logger.getLogger(TaskResultCache.class);
+
+    private static class CachedResult {
+
+        final TaskResultImpl result;
+
+        final long size;
+
+        int remainingChildren;
+
+        CachedResult(TaskResultImpl result, long size, int remainingChildren) {
+            this.result = result;
+            this.size = size;
+            this.remainingChildren = remainingChildren;
+        }
+    }
+
+    private final long maxSize;
+
+    /** access ordered, the first entry is the least recently used one */
+    private final LinkedHashMap<TaskId, CachedResult> results = new LinkedHashMap<TaskId, CachedResult>(16,
+        0.75f, true);
+
+    private long size;
+
+    private long hits;
+
+    private long misses;
+
+    /**
+     * @param maxSize maximum total size of the cached results in bytes, 0 disables the cache
+     */
+    TaskResultCache(long maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    boolean isEnabled() {
+        return maxSize > 0;
+    }
+
+    /**
+     * Keep the result of a finished task until its children are started.
+     *
+     * @param result the result of the task
+     * @param childrenCount number of children of the task
+     * @param jobClasspath classpath of the job of the task
+     */
+    synchronized void put(TaskResultImpl result, int childrenCount, String[] jobClasspath) {
+        if (!isEnabled() || childrenCount <= 0) {
+            return;
+        }
+        long resultSize = sizeOf(result);
+        if (resultSize > maxSize) {
+            logger.debug("Result of task " + result.getTaskId() + " is too big to be cached (" + resultSize +
+                " bytes)");
+            return;
+        }
+        remove(result.getTaskId());
+
+        // same content as the result loaded from the database
+        TaskResultImpl copy = new TaskResultImpl(result.getTaskId(), result.getSerializedValue(), result
+                .getSerializedException(), result.getOutput(), result.getPropagatedProperties(), result
+                .getPropagatedVariables());
+        copy.setPreviewerClassName(result.getPreviewerClassName());
+        copy.setJobClasspath(jobClasspath);
+        copy.setAction(result.getAction());
+
+        results.put(result.getTaskId(), new CachedResult(copy, resultSize, childrenCount));
+        size += resultSize;
+
+        Iterator<CachedResult> lru = results.values().iterator();
+        while (size > maxSize && lru.hasNext()) {
+            size -= lru.next().size;
+            lru.remove();
+        }
+    }
+
+    /**
+     * @param taskId id of a finished task
+     * @return the cached result of the task, null if it has to be loaded from the database
+     */
+    synchronized TaskResult get(TaskId taskId) {
+        CachedResult cached = results.get(taskId);
+        if (cached == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        return cached.result;
+    }
+
+    /**
+     * Notify that a child of the given tasks has been started, the result of a task is evicted
+     * once all its children are started.
+     *
+     * @param parentIds ids of the parents of the started task
+     */
+    synchronized void childStarted(Iterable<TaskId> parentIds) {
+        for (TaskId parentId : parentIds) {
+            CachedResult cached = results.get(parentId);
+            if (cached != null && --cached.remainingChildren <= 0) {
+                remove(parentId);
+            }
+        }
+    }
+
+    /**
+     * Evict all the results of a job.
+     *
+     * @param jobId the id of the terminated job
+     */
+    synchronized void removeJob(JobId jobId) {
+        Iterator<Map.Entry<TaskId, CachedResult>> it = results.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<TaskId, CachedResult> entry = it.next();
+            if (entry.getKey().getJobId().equals(jobId)) {
+                size -= entry.getValue().size;
+                it.remove();
+            }
+        }
+    }
+
+    synchronized int getResultsCount() {
+        return results.size();
+    }
+
+    synchronized long getSize() {
+        return size;
+    }
+
+    synchronized long getHits() {
+        return hits;
+    }
+
+    synchronized long getMisses() {
+        return misses;
+    }
+
+    private void remove(TaskId taskId) {
+        CachedResult removed = results.remove(taskId);
+        if (removed != null) {
+            size -= removed.size;
+        }
+    }
+
+    private static long sizeOf(TaskResultImpl result) {
+        long resultSize = 0;
+        if (result.getSerializedValue() != null) {
+            resultSize += result.getSerializedValue().length;
+        }
+        if (result.getSerializedException() != null) {
+            resultSize += result.getSerializedException().length;
+        }
+        if (result.getPropagatedVariables() != null) {
+            for (byte[] variable : result.getPropagatedVariables().values()) {
+                resultSize += variable == null ? 0 : variable.length;
+            }
+        }
+        resultSize += sizeOf(result.getOutput());
+        return resultSize;
+    }
+
+    /**
+     * Estimate the size of the logs from their stored form, the logs are not formatted.
+     */
+    private static long sizeOf(TaskLogs output) {
+        if (output instanceof Log4JTaskLogs) {
+            return ((Log4JTaskLogs) output).getSerializedSize();
+        } else if (output instanceof SimpleTaskLogs) {
+            // java chars
+            return 2L * (length(output.getStdoutLogs(false)) + length(output.getStderrLogs(false)));
+        } else if (output != null) {
+            return 2L * length(output.getAllLogs(false));
+        }
+        return 0;
+    }
+
+    private static long length(String logs) {
+        return logs == null ? 0 : logs.length();
+    }
+
+}
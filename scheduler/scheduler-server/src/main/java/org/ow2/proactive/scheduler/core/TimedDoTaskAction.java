@@ -114,17 +114,29 @@ public class TimedDoTaskAction implements CallableWithTimeoutAction<Void> {
             TaskResult[] params = new TaskResult[0];
             //if job is TASKSFLOW, preparing the list of parameters for this task.
             int resultSize = taskDescriptor.getParents().size();
+            TaskResultCache resultCache = schedulingService.getTaskResultCache();
+            List<TaskId> parentIds = new ArrayList<TaskId>(resultSize);
+            for (int i = 0; i < resultSize; i++) {
+                parentIds.add(taskDescriptor.getParents().get(i).getTaskId());
+            }
             if ((job.getType() == JobType.TASKSFLOW) && (resultSize > 0) && task.handleResultsArguments()) {
                 params = new TaskResult[resultSize];
-                List<TaskId> parentIds = new ArrayList<TaskId>(resultSize);
+                // results of the parents still in memory are not loaded from the database
+                List<TaskId> notCachedIds = new ArrayList<TaskId>(resultSize);
                 for (int i = 0; i < resultSize; i++) {
-                    parentIds.add(taskDescriptor.getParents().get(i).getTaskId());
+                    params[i] = resultCache.get(parentIds.get(i));
+                    if (params[i] == null) {
+                        notCachedIds.add(parentIds.get(i));
+                    }
                 }
-                Map<TaskId, TaskResult> taskResults = schedulingService.getInfrastructure().getDBManager()
-                  .loadTasksResults(
-                  job.getId(), parentIds);
-                for (int i = 0; i < resultSize; i++) {
-                    params[i] = taskResults.get(taskDescriptor.getParents().get(i).getTaskId());
+                if (!notCachedIds.isEmpty()) {
+                    Map<TaskId, TaskResult> taskResults = schedulingService.getInfrastructure()
+                            .getDBManager().loadTasksResults(job.getId(), notCachedIds);
+                    for (int i = 0; i < resultSize; i++) {
+                        if (params[i] == null) {
+                            params[i] = taskResults.get(parentIds.get(i));
+                        }
+                    }
                 }
             }
 
@@ -134,6 +146,7 @@ public class TimedDoTaskAction implements CallableWithTimeoutAction<Void> {
             fillContainer();
             // try launch the task
             launcher.doTask(terminateNotification, task.getExecutableContainer(), params);
+            resultCache.childStarted(parentIds);
         } catch (Throwable e) {
             logger.warn("Failed to start task: " + e.getMessage(), e);
             restartTask();
@@ -9,11 +9,18 @@ import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.objectweb.proactive.core.config.CentralPAPropertyRepository;
+import org.objectweb.proactive.utils.NamedThreadFactory;
 import org.ow2.proactive.authentication.crypto.HybridEncryptionUtil;
 import org.ow2.proactive.db.DatabaseManagerException;
 import org.ow2.proactive.db.FilteredExceptionCallback;
@@ -118,11 +125,39 @@ public class SchedulerDBManager {
         notFinishedJobStatuses.addAll(pendingJobStatuses);
     }
 
+    private static final int DEFAULT_JDBC_BATCH_SIZE = 50;
+
+    /** Number of jobs loaded with the same queries */
+    private static final int LOAD_BATCH_SIZE = 100;
+
     private final SessionFactory sessionFactory;
 
     private final TransactionHelper transactionHelper;
 
+    /** Number of statements sent in one JDBC batch */
+    private final int jdbcBatchSize;
+
+    /** Group commit stage for the task updates, null when updates are committed synchronously */
+    private volatile TransactionBatcher transactionBatcher;
+
+    /** Number of threads loading the jobs in parallel at startup */
+    private volatile int loadThreads = 1;
+
     public static SchedulerDBManager createUsingProperties() {
+        SchedulerDBManager dbManager = createUsingPropertiesWithoutGroupCommit();
+        int threads = PASchedulerProperties.SCHEDULER_DB_RECOVERY_THREADS.getValueAsInt();
+        if (threads > 1) {
+            dbManager.setLoadThreads(threads);
+        }
+        if (PASchedulerProperties.SCHEDULER_DB_TRANSACTIONS_GROUP_COMMIT.getValueAsBoolean()) {
+            int period = PASchedulerProperties.SCHEDULER_DB_TRANSACTIONS_GROUP_COMMIT_PERIOD.getValueAsInt();
+            int size = PASchedulerProperties.SCHEDULER_DB_TRANSACTIONS_GROUP_COMMIT_SIZE.getValueAsInt();
+            dbManager.enableGroupCommit(period > 0 ? period : 100, size > 0 ? size : 500);
+        }
+        return dbManager;
+    }
+
+    private static SchedulerDBManager createUsingPropertiesWithoutGroupCommit() {
         if (System.getProperty(JAVA_PROPERTYNAME_NODB) != null) {
             return createInMemorySchedulerDBManager();
         } else {
@@ -177,6 +212,20 @@ public class SchedulerDBManager {
             configuration.setProperty("hibernate.jdbc.use_streams_for_binary", "true");
             configuration.setProperty("hibernate.connection.isolation", "2");
 
+            // send inserts and updates as JDBC batches unless configured otherwise
+            if (configuration.getProperty("hibernate.jdbc.batch_size") == null) {
+                configuration.setProperty("hibernate.jdbc.batch_size", String
+                        .valueOf(DEFAULT_JDBC_BATCH_SIZE));
+            }
+            if (configuration.getProperty("hibernate.order_updates") == null) {
+                configuration.setProperty("hibernate.order_updates", "true");
+            }
+            if (configuration.getProperty("hibernate.order_inserts") == null) {
+                configuration.setProperty("hibernate.order_inserts", "true");
+            }
+            jdbcBatchSize = Math.max(1, Integer.parseInt(configuration.getProperty(
+                    "hibernate.jdbc.batch_size").trim()));
+
             sessionFactory = configuration.buildSessionFactory();
         } catch (Throwable ex) {
             debugLogger.error("Initial SessionFactory creation failed", ex);
@@ -314,7 +363,65 @@ public class SchedulerDBManager {
         return sessionFactory;
     }
 
+    /**
+     * Commit task start, task termination and job counters updates by groups instead of
+     * one transaction per update. Updates are queued and committed by a dedicated thread
+     * every <code>commitPeriod</code> milliseconds, or as soon as <code>maxBatchSize</code>
+     * updates are pending. Updates are committed in order.
+     * <p>
+     * The other updates, and the reads of the jobs, tasks and results needed by the scheduling
+     * loop and by the clients notified of the task updates, first commit the pending updates.
+     * The other reads (jobs list, statistics, counters, accounting, users) do not wait for the
+     * pending updates and may not see the last <code>commitPeriod</code> milliseconds of updates.
+     *
+     * @param commitPeriod maximum delay in ms before an update is committed
+     * @param maxBatchSize maximum number of updates committed in one transaction
+     */
+    public synchronized void enableGroupCommit(long commitPeriod, int maxBatchSize) {
+        if (transactionBatcher != null) {
+            transactionBatcher.shutdown();
+        }
+        logger.info("Group commit enabled with period = " + commitPeriod + " ms and batch size = " +
+            maxBatchSize);
+        transactionBatcher = new TransactionBatcher(transactionHelper, commitPeriod, maxBatchSize);
+    }
+
+    /**
+     * Load the not finished and finished jobs with several threads, each thread loading a
+     * part of the jobs with its own session.
+     *
+     * @param loadThreads number of threads, 1 to load the jobs in the calling thread
+     */
+    public void setLoadThreads(int loadThreads) {
+        this.loadThreads = Math.max(1, loadThreads);
+    }
+
+    /**
+     * Ask for the pending updates to be committed without waiting for the end of the
+     * group commit period, for instance at the end of a scheduling loop. Does not block.
+     */
+    public void requestPendingUpdatesCommit() {
+        TransactionBatcher batcher = transactionBatcher;
+        if (batcher != null) {
+            batcher.requestCommit();
+        }
+    }
+
+    /**
+     * Commit the pending updates in the calling thread.
+     */
+    public void commitPendingUpdates() {
+        TransactionBatcher batcher = transactionBatcher;
+        if (batcher != null) {
+            batcher.commitPendingWork();
+        }
+    }
+
     public void close() {
+        TransactionBatcher batcher = transactionBatcher;
+        if (batcher != null) {
+            batcher.shutdown();
+        }
         try {
             if (sessionFactory != null) {
                 debugLogger.info("Closing session factory");
@@ -350,6 +457,22 @@ public class SchedulerDBManager {
         });
     }
 
+    /**
+     * @return the id of the last submitted job, or null if no job was ever submitted
+     */
+    public JobId getLastJobId() {
+        return runWithoutTransaction(new SessionWork<JobId>() {
+
+            @Override
+            public JobId executeWork(Session session) {
+                Query query = session.createQuery("select max(id) from JobData");
+                Long id = (Long) query.uniqueResult();
+                return id == null ? null : new JobIdImpl(id, "");
+            }
+
+        });
+    }
+
     private long getJobsNumberWithStatus(final Collection<JobStatus> status) {
         return runWithoutTransaction(new SessionWork<Long>() {
 
@@ -722,10 +845,10 @@ public class SchedulerDBManager {
 
     private List<InternalJob> loadJobs(final boolean fullState, final Collection<JobStatus> status,
             final long period) {
-        return runWithoutTransaction(new SessionWork<List<InternalJob>>() {
+        List<Long> ids = runWithoutTransaction(new SessionWork<List<Long>>() {
             @Override
             @SuppressWarnings("unchecked")
-            public List<InternalJob> executeWork(Session session) {
+            public List<Long> executeWork(Session session) {
                 Query query;
                 if (period > 0) {
                     long minSubmittedTime = System.currentTimeMillis() - period;
@@ -740,16 +863,74 @@ public class SchedulerDBManager {
                             .setParameterList("status", status);
                 }
 
-                List<Long> ids = query.list();
+                return query.list();
+            }
 
+        });
+
+        int threads = Math.min(loadThreads, (ids.size() + LOAD_BATCH_SIZE - 1) / LOAD_BATCH_SIZE);
+        if (threads <= 1) {
+            return loadInternalJobs(fullState, ids);
+        } else {
+            return loadInternalJobs(fullState, ids, threads);
+        }
+    }
+
+    private List<InternalJob> loadInternalJobs(final boolean fullState, final List<Long> ids) {
+        return runWithoutTransaction(new SessionWork<List<InternalJob>>() {
+            @Override
+            public List<InternalJob> executeWork(Session session) {
                 return loadInternalJobs(fullState, session, ids);
             }
 
         });
     }
 
+    /**
+     * Split the ids in contiguous partitions loaded in parallel, each partition with its own
+     * session. The jobs are returned in the order of the ids.
+     */
+    private List<InternalJob> loadInternalJobs(final boolean fullState, List<Long> ids, int threads) {
+        long start = System.currentTimeMillis();
+        ExecutorService executor = Executors.newFixedThreadPool(threads, new NamedThreadFactory(
+            "SchedulerDBLoader"));
+        try {
+            int partitionSize = (ids.size() + threads - 1) / threads;
+            List<Future<List<InternalJob>>> partitions = new ArrayList<Future<List<InternalJob>>>(threads);
+            for (int i = 0; i < ids.size(); i += partitionSize) {
+                final List<Long> partition = ids.subList(i, Math.min(i + partitionSize, ids.size()));
+                partitions.add(executor.submit(new Callable<List<InternalJob>>() {
+                    @Override
+                    public List<InternalJob> call() {
+                        return loadInternalJobs(fullState, partition);
+                    }
+                }));
+            }
+
+            List<InternalJob> result = new ArrayList<InternalJob>(ids.size());
+            for (Future<List<InternalJob>> partition : partitions) {
+                result.addAll(partition.get());
+            }
+            if (logger.isDebugEnabled()) {
+                logger.debug("Loaded " + result.size() + " jobs with " + threads + " threads in " +
+                    (System.currentTimeMillis() - start) + " ms");
+            }
+            return result;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DatabaseManagerException("Interrupted while loading jobs", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof DatabaseManagerException) {
+                throw (DatabaseManagerException) e.getCause();
+            }
+            throw new DatabaseManagerException("Failed to load jobs", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
     public InternalJob loadJobWithTasksIfNotRemoved(final JobId id) {
-        return runWithoutTransaction(new SessionWork<InternalJob>() {
+        return runReadAfterPendingUpdates(new SessionWork<InternalJob>() {
             @Override
             public InternalJob executeWork(Session session) {
                 Query jobQuery = session
@@ -767,7 +948,7 @@ public class SchedulerDBManager {
     }
 
     public List<InternalJob> loadJobs(final boolean fullState, final JobId... jobIds) {
-        return runWithoutTransaction(new SessionWork<List<InternalJob>>() {
+        return runReadAfterPendingUpdates(new SessionWork<List<InternalJob>>() {
             @Override
             public List<InternalJob> executeWork(Session session) {
                 List<Long> ids = new ArrayList<Long>(jobIds.length);
@@ -806,13 +987,11 @@ public class SchedulerDBManager {
 
         List<InternalJob> result = new ArrayList<InternalJob>(ids.size());
 
-        final int BATCH_SIZE = 100;
-
-        List<Long> batchLoadIds = new ArrayList<Long>(BATCH_SIZE);
+        List<Long> batchLoadIds = new ArrayList<Long>(LOAD_BATCH_SIZE);
 
         for (Long id : ids) {
             batchLoadIds.add(id);
-            if (batchLoadIds.size() == BATCH_SIZE) {
+            if (batchLoadIds.size() == LOAD_BATCH_SIZE) {
                 batchLoadJobs(session, fullState, jobQuery, batchLoadIds, result);
                 batchLoadIds.clear();
                 session.clear();
@@ -928,21 +1107,32 @@ public class SchedulerDBManager {
 
     public void jobTaskStarted(final InternalJob job, final InternalTask task,
             final boolean taskStatusToPending) {
-        runWithTransaction(new SessionWork<Void>() {
+        // values are read now, the update can be committed later when group commit is enabled
+        final long jobId = jobId(job);
+        final JobInfo jobInfo = job.getJobInfo();
+        final JobStatus jobStatus = jobInfo.getStatus();
+        final long jobStartTime = jobInfo.getStartTime();
+        final int numberOfPendingTasks = jobInfo.getNumberOfPendingTasks();
+        final int numberOfRunningTasks = jobInfo.getNumberOfRunningTasks();
+
+        final TaskData.DBTaskId taskId = taskId(task);
+        final TaskInfo taskInfo = task.getTaskInfo();
+        final TaskStatus taskStatus = taskInfo.getStatus();
+        final long taskStartTime = taskInfo.getStartTime();
+        final long taskFinishedTime = taskInfo.getFinishedTime();
+        final String executionHostName = taskInfo.getExecutionHostName();
+
+        runUpdate(new SessionWork<Void>() {
             @Override
             public Void executeWork(Session session) {
-                long jobId = jobId(job);
-
                 String jobUpdate = "update JobData set status = :status, "
                     + "startTime = :startTime, numberOfPendingTasks = :numberOfPendingTasks, "
                     + "numberOfRunningTasks = :numberOfRunningTasks where id = :jobId";
 
-                JobInfo jobInfo = job.getJobInfo();
-
-                session.createQuery(jobUpdate).setParameter("status", jobInfo.getStatus()).setParameter(
-                        "startTime", jobInfo.getStartTime()).setParameter("numberOfPendingTasks",
-                        jobInfo.getNumberOfPendingTasks()).setParameter("numberOfRunningTasks",
-                        jobInfo.getNumberOfRunningTasks()).setParameter("jobId", jobId).executeUpdate();
+                session.createQuery(jobUpdate).setParameter("status", jobStatus).setParameter(
+                        "startTime", jobStartTime).setParameter("numberOfPendingTasks",
+                        numberOfPendingTasks).setParameter("numberOfRunningTasks", numberOfRunningTasks)
+                        .setParameter("jobId", jobId).executeUpdate();
 
                 if (taskStatusToPending) {
                     JobData job = (JobData) session.load(JobData.class, jobId);
@@ -952,18 +1142,13 @@ public class SchedulerDBManager {
                             .setParameter("job", job).executeUpdate();
                 }
 
-                TaskData.DBTaskId taskId = taskId(task);
-
                 String taskUpdate = "update TaskData task set task.taskStatus = :taskStatus, "
                     + "task.startTime = :startTime, task.finishedTime = :finishedTime, "
                     + "task.executionHostName = :executionHostName where task.id = :taskId";
 
-                TaskInfo taskInfo = task.getTaskInfo();
-
-                session.createQuery(taskUpdate).setParameter("taskStatus", taskInfo.getStatus())
-                        .setParameter("startTime", taskInfo.getStartTime()).setParameter("finishedTime",
-                                taskInfo.getFinishedTime()).setParameter("executionHostName",
-                                taskInfo.getExecutionHostName()).setParameter("taskId", taskId)
+                session.createQuery(taskUpdate).setParameter("taskStatus", taskStatus).setParameter(
+                        "startTime", taskStartTime).setParameter("finishedTime", taskFinishedTime)
+                        .setParameter("executionHostName", executionHostName).setParameter("taskId", taskId)
                         .executeUpdate();
 
                 return null;
@@ -973,36 +1158,38 @@ public class SchedulerDBManager {
     }
 
     public void taskRestarted(final InternalJob job, final InternalTask task, final TaskResultImpl result) {
-        runWithTransaction(new SessionWork<Void>() {
+        final long jobId = jobId(job);
+        final JobInfo jobInfo = job.getJobInfo();
+        final JobStatus jobStatus = jobInfo.getStatus();
+        final int numberOfPendingTasks = jobInfo.getNumberOfPendingTasks();
+        final int numberOfRunningTasks = jobInfo.getNumberOfRunningTasks();
+
+        final TaskData.DBTaskId taskId = taskId(task);
+        final TaskInfo taskInfo = task.getTaskInfo();
+        final TaskStatus taskStatus = taskInfo.getStatus();
+        final int numberOfExecutionLeft = taskInfo.getNumberOfExecutionLeft();
+        final int numberOfExecutionOnFailureLeft = taskInfo.getNumberOfExecutionOnFailureLeft();
+
+        runUpdate(new SessionWork<Void>() {
             @Override
             public Void executeWork(Session session) {
-                long jobId = jobId(job);
-
                 String jobUpdate = "update JobData set status = :status, "
                     + "numberOfPendingTasks = :numberOfPendingTasks, "
                     + "numberOfRunningTasks = :numberOfRunningTasks where id = :jobId";
 
-                JobInfo jobInfo = job.getJobInfo();
-
-                session.createQuery(jobUpdate).setParameter("status", jobInfo.getStatus()).setParameter(
-                        "numberOfPendingTasks", jobInfo.getNumberOfPendingTasks()).setParameter(
-                        "numberOfRunningTasks", jobInfo.getNumberOfRunningTasks()).setParameter("jobId",
-                        jobId).executeUpdate();
-
-                TaskData.DBTaskId taskId = taskId(task);
+                session.createQuery(jobUpdate).setParameter("status", jobStatus).setParameter(
+                        "numberOfPendingTasks", numberOfPendingTasks).setParameter("numberOfRunningTasks",
+                        numberOfRunningTasks).setParameter("jobId", jobId).executeUpdate();
 
                 String taskUpdate = "update TaskData set taskStatus = :taskStatus, "
                     + "numberOfExecutionLeft = :numberOfExecutionLeft,"
                     + "numberOfExecutionOnFailureLeft = :numberOfExecutionOnFailureLeft"
                     + " where id = :taskId";
 
-                TaskInfo taskInfo = task.getTaskInfo();
-
-                session.createQuery(taskUpdate).setParameter("taskStatus", taskInfo.getStatus())
-                        .setParameter("numberOfExecutionLeft", taskInfo.getNumberOfExecutionLeft())
-                        .setParameter("numberOfExecutionOnFailureLeft",
-                                taskInfo.getNumberOfExecutionOnFailureLeft()).setParameter("taskId", taskId)
-                        .executeUpdate();
+                session.createQuery(taskUpdate).setParameter("taskStatus", taskStatus).setParameter(
+                        "numberOfExecutionLeft", numberOfExecutionLeft).setParameter(
+                        "numberOfExecutionOnFailureLeft", numberOfExecutionOnFailureLeft).setParameter(
+                        "taskId", taskId).executeUpdate();
 
                 if (result != null) {
                     saveTaskResult(taskId, result, session);
@@ -1140,61 +1327,189 @@ public class SchedulerDBManager {
 
     private void updateAfterTaskFinished(final InternalJob job, final InternalTask finishedTask,
             final TaskResultImpl result, final Set<TaskId> tasksToUpdate) {
-        runWithTransaction(new SessionWork<Void>() {
-            @Override
-            public Void executeWork(Session session) {
-                long jobId = jobId(job);
+        if (finishedTask != null) {
+            tasksToUpdate.add(finishedTask.getId());
+        }
+        runUpdate(new TaskTerminationUpdate(job, finishedTask, result, tasksToUpdate));
+    }
 
-                String jobUpdate = "update JobData set status = :status, "
-                    + "finishedTime = :finishedTime, numberOfPendingTasks = :numberOfPendingTasks, "
-                    + "numberOfFinishedTasks = :numberOfFinishedTasks, "
-                    + "numberOfRunningTasks = :numberOfRunningTasks where id = :jobId";
+    /**
+     * Job counters, task status and task result updates done when tasks are finished.
+     * <p>
+     * Values are read when the update is created, it can be committed later when group commit
+     * is enabled. Consecutive updates, possibly of different jobs, are executed together :
+     * only the most recent counters of each job are written and the task rows of the whole
+     * group are updated with JDBC batches, ordered by task id.
+     */
+    private final class TaskTerminationUpdate extends TransactionBatcher.GroupableWork {
 
-                JobInfo jobInfo = job.getJobInfo();
+        private final long jobId;
 
-                session.createQuery(jobUpdate).setParameter("status", jobInfo.getStatus()).setParameter(
-                        "finishedTime", jobInfo.getFinishedTime()).setParameter("numberOfPendingTasks",
-                        jobInfo.getNumberOfPendingTasks()).setParameter("numberOfFinishedTasks",
-                        jobInfo.getNumberOfFinishedTasks()).setParameter("numberOfRunningTasks",
-                        jobInfo.getNumberOfRunningTasks()).setParameter("jobId", jobId).executeUpdate();
+        private final JobStatus jobStatus;
 
-                String taskUpdate = "update TaskData task set task.taskStatus = :taskStatus, "
-                    + "task.finishedTime = :finishedTime, " + "task.executionDuration = :executionDuration "
-                    + "where task.id = :taskId";
+        private final long jobFinishedTime;
 
-                Query taskUpdateQuery = session.createQuery(taskUpdate);
+        private final int numberOfPendingTasks;
 
-                if (finishedTask != null) {
-                    tasksToUpdate.add(finishedTask.getId());
-                }
+        private final int numberOfFinishedTasks;
 
-                for (TaskId id : tasksToUpdate) {
-                    InternalTask task = job.getIHMTasks().get(id);
-                    TaskData.DBTaskId taskId = taskId(task.getId());
+        private final int numberOfRunningTasks;
 
-                    TaskInfo taskInfo = task.getTaskInfo();
+        private final boolean jobFinished;
 
-                    taskUpdateQuery.setParameter("taskStatus", taskInfo.getStatus()).setParameter(
-                            "finishedTime", taskInfo.getFinishedTime()).setParameter("executionDuration",
-                            taskInfo.getExecutionDuration()).setParameter("taskId", taskId).executeUpdate();
-                }
+        private final List<FinishedTaskRow> taskRows;
 
-                if (result != null) {
-                    TaskData.DBTaskId taskId = taskId(finishedTask.getId());
-                    saveTaskResult(taskId, result, session);
+        private final TaskData.DBTaskId resultTaskId;
+
+        private final TaskResultImpl result;
+
+        TaskTerminationUpdate(InternalJob job, InternalTask finishedTask, TaskResultImpl result,
+                Set<TaskId> tasksToUpdate) {
+            this.jobId = jobId(job);
+            JobInfo jobInfo = job.getJobInfo();
+            this.jobStatus = jobInfo.getStatus();
+            this.jobFinishedTime = jobInfo.getFinishedTime();
+            this.numberOfPendingTasks = jobInfo.getNumberOfPendingTasks();
+            this.numberOfFinishedTasks = jobInfo.getNumberOfFinishedTasks();
+            this.numberOfRunningTasks = jobInfo.getNumberOfRunningTasks();
+            this.jobFinished = finishedJobStatuses.contains(job.getStatus());
+
+            this.taskRows = new ArrayList<FinishedTaskRow>(tasksToUpdate.size());
+            for (TaskId id : tasksToUpdate) {
+                InternalTask task = job.getIHMTasks().get(id);
+                taskRows.add(new FinishedTaskRow(taskId(task.getId()), task.getTaskInfo()));
+            }
+
+            this.resultTaskId = result != null ? taskId(finishedTask.getId()) : null;
+            this.result = result;
+        }
+
+        @Override
+        protected void executeGroup(Session session, List<TransactionBatcher.GroupableWork> group) {
+            // the last update of a job holds its most recent counters
+            Map<Long, TaskTerminationUpdate> jobUpdates = new LinkedHashMap<Long, TaskTerminationUpdate>();
+            List<FinishedTaskRow> rows = new ArrayList<FinishedTaskRow>();
+            for (TransactionBatcher.GroupableWork work : group) {
+                TaskTerminationUpdate update = (TaskTerminationUpdate) work;
+                jobUpdates.remove(update.jobId);
+                jobUpdates.put(update.jobId, update);
+                rows.addAll(update.taskRows);
+            }
+
+            String jobUpdate = "update JobData set status = :status, "
+                + "finishedTime = :finishedTime, numberOfPendingTasks = :numberOfPendingTasks, "
+                + "numberOfFinishedTasks = :numberOfFinishedTasks, "
+                + "numberOfRunningTasks = :numberOfRunningTasks where id = :jobId";
+
+            Query jobUpdateQuery = session.createQuery(jobUpdate);
+            for (TaskTerminationUpdate update : jobUpdates.values()) {
+                jobUpdateQuery.setParameter("status", update.jobStatus).setParameter("finishedTime",
+                        update.jobFinishedTime).setParameter("numberOfPendingTasks",
+                        update.numberOfPendingTasks).setParameter("numberOfFinishedTasks",
+                        update.numberOfFinishedTasks).setParameter("numberOfRunningTasks",
+                        update.numberOfRunningTasks).setParameter("jobId", update.jobId).executeUpdate();
+            }
+
+            updateFinishedTasks(session, rows);
+
+            for (TransactionBatcher.GroupableWork work : group) {
+                TaskTerminationUpdate update = (TaskTerminationUpdate) work;
+                if (update.result != null) {
+                    saveTaskResult(update.resultTaskId, update.result, session);
                 }
+            }
 
-                if (finishedJobStatuses.contains(job.getStatus())) {
+            for (TaskTerminationUpdate update : jobUpdates.values()) {
+                if (update.jobFinished) {
                     session.flush();
                     session.clear();
 
-                    removeJobRuntimeData(session, jobId);
+                    removeJobRuntimeData(session, update.jobId);
                 }
+            }
+        }
 
-                return null;
+    }
+
+    /**
+     * Update the status, finished time and execution duration of the given tasks.
+     * The task entities of each job are loaded with one query, modified and flushed by
+     * the session, which sends the updates as JDBC batches (hibernate.jdbc.batch_size).
+     * Rows are sorted by task id (the sort is stable, the last update of a task is still
+     * the one applied) so that concurrent transactions lock the rows in the same order.
+     */
+    private void updateFinishedTasks(Session session, List<FinishedTaskRow> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        List<FinishedTaskRow> sortedRows = new ArrayList<FinishedTaskRow>(rows);
+        Collections.sort(sortedRows);
+
+        Map<Long, Map<Long, FinishedTaskRow>> rowsByJob;
+        rowsByJob = new LinkedHashMap<Long, Map<Long, FinishedTaskRow>>();
+        for (FinishedTaskRow row : sortedRows) {
+            Map<Long, FinishedTaskRow> jobRows = rowsByJob.get(row.taskId.getJobId());
+            if (jobRows == null) {
+                jobRows = new LinkedHashMap<Long, FinishedTaskRow>();
+                rowsByJob.put(row.taskId.getJobId(), jobRows);
+            }
+            jobRows.put(row.taskId.getTaskId(), row);
+        }
+
+        session.flush();
+        Query query = session
+                .createQuery("from TaskData task where task.id.jobId = :jobId and task.id.taskId in (:taskIds) "
+                    + "order by task.id.taskId");
+        for (Map.Entry<Long, Map<Long, FinishedTaskRow>> jobRows : rowsByJob.entrySet()) {
+            List<Long> taskIds = new ArrayList<Long>(jobRows.getValue().keySet());
+            for (int i = 0; i < taskIds.size(); i += jdbcBatchSize) {
+                List<Long> batch = taskIds.subList(i, Math.min(i + jdbcBatchSize, taskIds.size()));
+                List<?> tasks = query.setParameter("jobId", jobRows.getKey()).setParameterList("taskIds",
+                        batch).list();
+                for (Object object : tasks) {
+                    TaskData taskData = (TaskData) object;
+                    FinishedTaskRow row = jobRows.getValue().get(taskData.getId().getTaskId());
+                    taskData.setTaskStatus(row.status);
+                    taskData.setFinishedTime(row.finishedTime);
+                    taskData.setExecutionDuration(row.executionDuration);
+                }
+                session.flush();
+                session.clear();
             }
+        }
+    }
+
+    /**
+     * Task attributes updated when a task is finished, copied when the update is requested.
+     */
+    private static final class FinishedTaskRow implements Comparable<FinishedTaskRow> {
+
+        private final TaskData.DBTaskId taskId;
+
+        private final TaskStatus status;
+
+        private final long finishedTime;
+
+        private final long executionDuration;
+
+        FinishedTaskRow(TaskData.DBTaskId taskId, TaskInfo taskInfo) {
+            this.taskId = taskId;
+            this.status = taskInfo.getStatus();
+            this.finishedTime = taskInfo.getFinishedTime();
+            this.executionDuration = taskInfo.getExecutionDuration();
+        }
+
+        @Override
+        public int compareTo(FinishedTaskRow other) {
+            if (taskId.getJobId() != other.taskId.getJobId()) {
+                return taskId.getJobId() < other.taskId.getJobId() ? -1 : 1;
+            }
+            if (taskId.getTaskId() != other.taskId.getTaskId()) {
+                return taskId.getTaskId() < other.taskId.getTaskId() ? -1 : 1;
+            }
+            return 0;
+        }
 
-        });
     }
 
     private TaskResultData saveTaskResult(TaskData.DBTaskId taskId, TaskResultImpl result, Session session) {
@@ -1227,7 +1542,7 @@ public class SchedulerDBManager {
             throw new IllegalArgumentException("TaskIds list is empty");
         }
 
-        return runWithoutTransaction(new SessionWork<Map<TaskId, TaskResult>>() {
+        return runReadAfterPendingUpdates(new SessionWork<Map<TaskId, TaskResult>>() {
 
             @Override
             public Map<TaskId, TaskResult> executeWork(Session session) {
@@ -1287,7 +1602,7 @@ public class SchedulerDBManager {
     }
 
     public JobResult loadJobResult(final JobId jobId) {
-        return runWithoutTransaction(new SessionWork<JobResult>() {
+        return runReadAfterPendingUpdates(new SessionWork<JobResult>() {
 
             @Override
             public JobResult executeWork(Session session) {
@@ -1356,7 +1671,7 @@ public class SchedulerDBManager {
     }
 
     public TaskResult loadTaskResult(final JobId jobId, final String taskName, final int index) {
-        return runWithoutTransaction(new SessionWork<TaskResult>() {
+        return runReadAfterPendingUpdates(new SessionWork<TaskResult>() {
 
             @Override
             public TaskResult executeWork(Session session) {
@@ -1383,7 +1698,7 @@ public class SchedulerDBManager {
     }
 
     public TaskResult loadTaskResult(final TaskId taskId, final int index) {
-        return runWithoutTransaction(new SessionWork<TaskResult>() {
+        return runReadAfterPendingUpdates(new SessionWork<TaskResult>() {
             @Override
             public TaskResult executeWork(Session session) {
                 return loadTaskResult(session, taskId, index);
@@ -1441,39 +1756,62 @@ public class SchedulerDBManager {
 
             @Override
             public JobData executeWork(Session session) {
-                JobEnvironment jobEnv = job.getEnvironment();
-                saveClasspathContentIfNeeded(session, jobEnv);
-
-                JobData jobRuntimeData = JobData.createJobData(job);
-                session.save(jobRuntimeData);
+                return saveNewJob(session, job);
+            }
 
-                job.setId(new JobIdImpl(jobRuntimeData.getId(), job.getName()));
+        });
+    }
 
-                List<InternalTask> tasksWithNewIds = new ArrayList<InternalTask>();
-                for (int i = 0; i < job.getITasks().size(); i++) {
-                    InternalTask task = job.getITasks().get(i);
-                    task.setId(TaskIdImpl.createTaskId(job.getId(), task.getTaskInfo().getTaskId()
-                            .getReadableName(), i, true));
-                    tasksWithNewIds.add(task);
-                }
-                job.getIHMTasks().clear();
-                for (InternalTask task : tasksWithNewIds) {
-                    job.getIHMTasks().put(task.getId(), task);
-                }
+    /**
+     * Save several new jobs in a single transaction, either all of them are saved or none.
+     */
+    public void newJobsSubmitted(final List<InternalJob> jobs) {
+        runWithTransaction(new SessionWork<Void>() {
 
-                List<InternalTask> tasks = job.getITasks();
-                List<TaskData> taskRuntimeDataList = new ArrayList<TaskData>(tasks.size());
-                for (InternalTask task : tasks) {
-                    taskRuntimeDataList.add(saveNewTask(session, jobRuntimeData, task));
+            @Override
+            public Void executeWork(Session session) {
+                for (InternalJob job : jobs) {
+                    saveNewJob(session, job);
+                    session.flush();
+                    session.clear();
                 }
-                saveTaskDependencies(session, tasks, taskRuntimeDataList);
-
-                return jobRuntimeData;
+                return null;
             }
 
         });
     }
 
+    private JobData saveNewJob(Session session, InternalJob job) {
+        JobEnvironment jobEnv = job.getEnvironment();
+        saveClasspathContentIfNeeded(session, jobEnv);
+
+        JobData jobRuntimeData = JobData.createJobData(job);
+        session.save(jobRuntimeData);
+
+        job.setId(new JobIdImpl(jobRuntimeData.getId(), job.getName()));
+
+        List<InternalTask> tasksWithNewIds = new ArrayList<InternalTask>();
+        for (int i = 0; i < job.getITasks().size(); i++) {
+            InternalTask task = job.getITasks().get(i);
+            task.setId(TaskIdImpl.createTaskId(job.getId(), task.getTaskInfo().getTaskId()
+                    .getReadableName(), i, true));
+            tasksWithNewIds.add(task);
+        }
+        job.getIHMTasks().clear();
+        for (InternalTask task : tasksWithNewIds) {
+            job.getIHMTasks().put(task.getId(), task);
+        }
+
+        List<InternalTask> tasks = job.getITasks();
+        List<TaskData> taskRuntimeDataList = new ArrayList<TaskData>(tasks.size());
+        for (InternalTask task : tasks) {
+            taskRuntimeDataList.add(saveNewTask(session, jobRuntimeData, task));
+        }
+        saveTaskDependencies(session, tasks, taskRuntimeDataList);
+
+        return jobRuntimeData;
+    }
+
     private TaskData getTaskReference(Session session, InternalTask task) {
         return (TaskData) session.get(TaskData.class, taskId(task));
     }
@@ -1545,7 +1883,8 @@ public class SchedulerDBManager {
     }
 
     public JobClasspathContent loadJobClasspathContent(final long crc) {
-        return runWithoutTransaction(new SessionWork<JobClasspathContent>() {
+        // reads data which is never updated, no need to commit pending updates
+        return transactionHelper.runWithoutTransaction(new SessionWork<JobClasspathContent>() {
             @Override
             public JobClasspathContent executeWork(Session session) {
                 return (JobClasspathContent) session.get(JobClasspathContent.class, crc);
@@ -1614,7 +1953,8 @@ public class SchedulerDBManager {
     }
 
     public ExecutableContainer loadExecutableContainer(final InternalTask task) {
-        return runWithoutTransaction(new SessionWork<ExecutableContainer>() {
+        // reads data which is never updated, no need to commit pending updates
+        return transactionHelper.runWithoutTransaction(new SessionWork<ExecutableContainer>() {
             @Override
             public ExecutableContainer executeWork(Session session) {
                 return loadExecutableContainer(session, task);
@@ -1642,19 +1982,45 @@ public class SchedulerDBManager {
         });
     }
 
+    /**
+     * Run a task or job counters update, in its own transaction or queued
+     * in the group commit stage if it is enabled.
+     */
+    private void runUpdate(SessionWork<Void> sessionWork) {
+        TransactionBatcher batcher = transactionBatcher;
+        if (batcher != null) {
+            batcher.add(sessionWork);
+        } else {
+            runWithTransaction(sessionWork);
+        }
+    }
+
     private <T> T runWithTransaction(SessionWork<T> sessionWork) {
+        commitPendingUpdates();
         return transactionHelper.runWithTransaction(sessionWork);
     }
 
     private <T> T runWithTransaction(SessionWork<T> sessionWork, boolean readonly) {
-
+        commitPendingUpdates();
         return transactionHelper.runWithTransaction(sessionWork, readonly);
     }
 
+    /**
+     * Run a read which does not wait for the pending updates, it may not see the updates of
+     * the last group commit period.
+     */
     private <T> T runWithoutTransaction(SessionWork<T> sessionWork) {
         return transactionHelper.runWithoutTransaction(sessionWork);
     }
 
+    /**
+     * Run a read which sees all the updates made so far, the pending updates are committed first.
+     */
+    private <T> T runReadAfterPendingUpdates(SessionWork<T> sessionWork) {
+        commitPendingUpdates();
+        return transactionHelper.runWithoutTransaction(sessionWork);
+    }
+
     private static TaskData.DBTaskId taskId(InternalTask task) {
         return taskId(task.getId());
     }
@@ -1,10 +1,13 @@
 package org.ow2.proactive.scheduler.core.db;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
 import java.util.Vector;
 
+import org.ow2.proactive.scheduler.common.job.JobId;
 import org.ow2.proactive.scheduler.common.job.JobState;
 import org.ow2.proactive.scheduler.common.job.JobStatus;
 import org.ow2.proactive.scheduler.common.task.TaskStatus;
@@ -24,6 +27,12 @@ public class SchedulerStateRecoverHelper {
 
     private final SchedulerDBManager dbManager;
 
+    /** Ids of the jobs recovered by {@link #recoverNotFinishedJobs()} */
+    private final Set<JobId> recoveredJobIds = new HashSet<JobId>();
+
+    /** Time at which the recovery of the not finished jobs started */
+    private long recoveryStartTime;
+
     public static class RecoveredSchedulerState {
 
         private final Vector<InternalJob> pendingJobs;
@@ -75,13 +84,45 @@ public class SchedulerStateRecoverHelper {
         this.dbManager = dbManager;
     }
 
+    /**
+     * Recover all the jobs: pending, running and finished ones.
+     *
+     * @param loadJobPeriod only the finished jobs submitted during this period (in ms) are
+     * loaded, all the finished jobs are loaded if not positive
+     * @return the recovered state
+     */
     public RecoveredSchedulerState recover(long loadJobPeriod) {
-        List<InternalJob> notFinishedJobs = dbManager.loadNotFinishedJobs(true);
+        Vector<InternalJob> pendingJobs = new Vector<InternalJob>();
+        Vector<InternalJob> runningJobs = new Vector<InternalJob>();
+        Vector<InternalJob> finishedJobs = new Vector<InternalJob>();
+        recoverNotFinishedJobs(pendingJobs, runningJobs, finishedJobs);
+        finishedJobs.addAll(loadFinishedJobs(loadJobPeriod));
+        return new RecoveredSchedulerState(pendingJobs, runningJobs, finishedJobs);
+    }
 
+    /**
+     * Recover the pending and running jobs only. The finished jobs of the recovered state are
+     * the jobs which could not be recovered, the other finished jobs can be loaded later with
+     * {@link #loadFinishedJobs(long)}.
+     *
+     * @return the recovered state
+     */
+    public RecoveredSchedulerState recoverNotFinishedJobs() {
         Vector<InternalJob> pendingJobs = new Vector<InternalJob>();
         Vector<InternalJob> runningJobs = new Vector<InternalJob>();
+        Vector<InternalJob> finishedJobs = new Vector<InternalJob>();
+        recoverNotFinishedJobs(pendingJobs, runningJobs, finishedJobs);
+        return new RecoveredSchedulerState(pendingJobs, runningJobs, finishedJobs);
+    }
+
+    private void recoverNotFinishedJobs(Vector<InternalJob> pendingJobs, Vector<InternalJob> runningJobs,
+            Vector<InternalJob> finishedJobs) {
+        recoveryStartTime = System.currentTimeMillis();
+        recoveredJobIds.clear();
+        List<InternalJob> notFinishedJobs = dbManager.loadNotFinishedJobs(true);
 
         for (InternalJob job : notFinishedJobs) {
+            recoveredJobIds.add(job.getId());
             job.getJobDescriptor();
             switch (job.getStatus()) {
                 case PENDING:
@@ -106,8 +147,6 @@ public class SchedulerStateRecoverHelper {
             }
         }
 
-        Vector<InternalJob> finishedJobs = new Vector<InternalJob>();
-          
         for (Iterator<InternalJob> iterator = runningJobs.iterator(); iterator.hasNext(); ) {
             InternalJob job = iterator.next();
             try {
@@ -155,10 +194,52 @@ public class SchedulerStateRecoverHelper {
                 job.setPaused();
             }
         }
+    }
 
-        finishedJobs.addAll(dbManager.loadFinishedJobs(false, loadJobPeriod));
+    /**
+     * Load the finished jobs which were not recovered by {@link #recoverNotFinishedJobs()}.
+     * The jobs submitted after the recovery, which are already managed by the scheduler,
+     * are not loaded.
+     *
+     * @param loadJobPeriod only the jobs submitted during this period (in ms) are loaded,
+     * all the finished jobs are loaded if not positive
+     * @return the finished jobs
+     */
+    public List<InternalJob> loadFinishedJobs(long loadJobPeriod) {
+        List<InternalJob> finishedJobs = dbManager.loadFinishedJobs(false, loadJobPeriod);
+        for (Iterator<InternalJob> iterator = finishedJobs.iterator(); iterator.hasNext();) {
+            InternalJob job = iterator.next();
+            if (recoveredJobIds.contains(job.getId()) ||
+                job.getJobInfo().getSubmittedTime() > recoveryStartTime) {
+                iterator.remove();
+            }
+        }
+        return finishedJobs;
+    }
 
-        return new RecoveredSchedulerState(pendingJobs, runningJobs, finishedJobs);
+    /**
+     * Load one of the jobs returned by {@link #loadFinishedJobs(long)}, to serve a request
+     * for this job before all the finished jobs are loaded.
+     *
+     * @param jobId the id of the job to load
+     * @param loadJobPeriod only the jobs submitted during this period (in ms) are loaded,
+     * all the finished jobs are loaded if not positive
+     * @return the finished job, or null if it is not one of the finished jobs to load
+     */
+    public InternalJob loadFinishedJob(JobId jobId, long loadJobPeriod) {
+        if (recoveredJobIds.contains(jobId)) {
+            return null;
+        }
+        InternalJob job = dbManager.loadJobWithTasksIfNotRemoved(jobId);
+        if (job == null || job.getStatus().isJobAlive()) {
+            return null;
+        }
+        long submittedTime = job.getJobInfo().getSubmittedTime();
+        if (submittedTime > recoveryStartTime ||
+            (loadJobPeriod > 0 && submittedTime < System.currentTimeMillis() - loadJobPeriod)) {
+            return null;
+        }
+        return job;
     }
 
     private void runningTasksToPending(List<InternalTask> tasks) {
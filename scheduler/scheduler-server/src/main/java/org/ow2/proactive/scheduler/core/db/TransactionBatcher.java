@@ -0,0 +1,265 @@
+/*
+ * ################################################################
+ *
+ * ProActive Parallel Suite(TM): The Java(TM) library for
+ *    Parallel, Distributed, Multi-Core Computing for
+ *    Enterprise Grids & Clouds
+ *
+ * Copyright (C) 1997-2011 INRIA/University of
+ *                 Nice-Sophia Antipolis/ActiveEon
+ * Contact: proactive@ow2.org or contact@activeeon.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation; version 3 of
+ * the License.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307
+ * USA
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ *
+ *  Initial developer(s):               The ProActive Team
+ *                        http://proactive.inria.fr/team_members.htm
+ *  Contributor(s): ActiveEon Team - http://www.activeeon.com
+ *
+ * ################################################################
+ * $$ACTIVEEON_CONTRIBUTOR$$
+ */
+package org.ow2.proactive.scheduler.core.db;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.ow2.proactive.scheduler.core.db.TransactionHelper.SessionWork;
+import org.apache.log4j.Logger;
+import org.hibernate.Session;
+
+
+/**
+ * Write-behind stage grouping several update works in a single transaction (group commit).
+ * <p>
+ * Works are queued by the caller and committed by a dedicated writer thread either
+ * periodically, when the queue reaches the maximum batch size or when a commit is requested.
+ * Works are always executed in the order they were queued and a batch is committed atomically,
+ * so the database always reflects a prefix of the updates history. Callers needing to read
+ * up to date data must call {@link #commitPendingWork()} first.
+ * <p>
+ * Consecutive {@link GroupableWork} of the same class are executed as one group.
+ */
+public class TransactionBatcher {
+
+    private static final Logger logger = Logger.getLogger(TransactionBatcher.class);
+
+    private final TransactionHelper transactionHelper;
+
+    private final long commitPeriod;
+
+    private final int maxBatchSize;
+
+    private final LinkedBlockingQueue<SessionWork<?>> pendingWork = new LinkedBlockingQueue<SessionWork<?>>();
+
+    /** Held while a batch is committed, guarantees batches are committed one after the other */
+    private final Object commitLock = new Object();
+
+    private final Object wakeUp = new Object();
+
+    private boolean commitRequested;
+
+    private volatile boolean running = true;
+
+    private final AtomicLong committedBatches = new AtomicLong();
+
+    private final Thread writer;
+
+    /**
+     * @param transactionHelper helper used to run the batches
+     * @param commitPeriod maximum time (in ms) a work can stay in the queue
+     * @param maxBatchSize maximum number of works committed in one transaction
+     */
+    public TransactionBatcher(TransactionHelper transactionHelper, long commitPeriod, int maxBatchSize) {
+        this.transactionHelper = transactionHelper;
+        this.commitPeriod = Math.max(1, commitPeriod);
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        this.writer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                writeLoop();
+            }
+        }, "SchedulerDBWriter");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Queue an update, it will be committed later along with the other pending updates.
+     *
+     * @param work the update to run
+     */
+    public void add(SessionWork<?> work) {
+        pendingWork.add(work);
+        if (!running) {
+            // committed after the updates still queued when the batcher was stopped
+            commitPendingWork();
+        } else if (pendingWork.size() >= maxBatchSize) {
+            requestCommit();
+        }
+    }
+
+    /**
+     * Ask the writer thread to commit the pending updates without waiting for the end of the period.
+     */
+    public void requestCommit() {
+        synchronized (wakeUp) {
+            commitRequested = true;
+            wakeUp.notify();
+        }
+    }
+
+    /**
+     * Commit all pending updates in the calling thread. When this method returns,
+     * all the updates queued before the call are committed.
+     */
+    public void commitPendingWork() {
+        synchronized (commitLock) {
+            List<SessionWork<?>> batch = new ArrayList<SessionWork<?>>();
+            while (pendingWork.drainTo(batch, maxBatchSize) > 0) {
+                commitBatch(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Commit the pending updates and stop the writer thread. Updates added afterwards are
+     * committed synchronously.
+     */
+    public void shutdown() {
+        running = false;
+        requestCommit();
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        commitPendingWork();
+    }
+
+    public int getPendingWorkCount() {
+        return pendingWork.size();
+    }
+
+    /**
+     * @return the number of transactions run so far to commit the queued updates
+     */
+    public long getCommittedBatchCount() {
+        return committedBatches.get();
+    }
+
+    private void writeLoop() {
+        while (running) {
+            try {
+                synchronized (wakeUp) {
+                    if (!commitRequested) {
+                        wakeUp.wait(commitPeriod);
+                    }
+                    commitRequested = false;
+                }
+                commitPendingWork();
+            } catch (InterruptedException e) {
+                logger.warn("DB writer thread interrupted", e);
+                return;
+            } catch (Throwable t) {
+                logger.error("Failed to commit pending updates", t);
+            }
+        }
+    }
+
+    private void commitBatch(final List<SessionWork<?>> batch) {
+        Boolean committed = transactionHelper.runWithTransaction(new SessionWork<Boolean>() {
+            @Override
+            public Boolean executeWork(Session session) {
+                int counter = 0;
+                int i = 0;
+                while (i < batch.size()) {
+                    SessionWork<?> work = batch.get(i);
+                    if (work instanceof GroupableWork) {
+                        // consecutive updates of the same kind are executed together
+                        List<GroupableWork> group = new ArrayList<GroupableWork>();
+                        while (i < batch.size() && batch.get(i).getClass() == work.getClass()) {
+                            group.add((GroupableWork) batch.get(i++));
+                        }
+                        ((GroupableWork) work).executeGroup(session, group);
+                        counter += group.size();
+                    } else {
+                        work.executeWork(session);
+                        counter++;
+                        i++;
+                    }
+                    if (counter >= 50) {
+                        session.flush();
+                        session.clear();
+                        counter = 0;
+                    }
+                }
+                return Boolean.TRUE;
+            }
+        }, false);
+        committedBatches.incrementAndGet();
+
+        if (committed == null && batch.size() > 1) {
+            // the whole batch was rolled back, replay the updates one by one
+            // so that a single failing update does not discard the others
+            logger.warn("Failed to commit a batch of " + batch.size() + " updates, committing them one by one");
+            replayInOrder(batch);
+        } else if (logger.isDebugEnabled()) {
+            logger.debug("Committed a batch of " + batch.size() + " updates");
+        }
+    }
+
+    /**
+     * Commit each update of a rolled back batch in its own transaction. Updates are replayed
+     * strictly in the order they were queued, each one alone (never grouped with the following
+     * ones), so that for instance the start of a task is always committed before its termination.
+     */
+    private void replayInOrder(List<SessionWork<?>> batch) {
+        for (SessionWork<?> work : batch) {
+            transactionHelper.runWithTransaction(work, false);
+            committedBatches.incrementAndGet();
+        }
+    }
+
+    /**
+     * Update which can be executed together with the consecutive queued updates of the
+     * same class, for instance to send their statements as JDBC batches.
+     */
+    public abstract static class GroupableWork implements SessionWork<Void> {
+
+        @Override
+        public Void executeWork(Session session) {
+            executeGroup(session, Collections.<GroupableWork> singletonList(this));
+            return null;
+        }
+
+        /**
+         * Execute a group of updates, in the order they were queued.
+         *
+         * @param session the session of the transaction
+         * @param group updates of the same class as this one, including this one
+         */
+        protected abstract void executeGroup(Session session, List<GroupableWork> group);
+
+    }
+
+}
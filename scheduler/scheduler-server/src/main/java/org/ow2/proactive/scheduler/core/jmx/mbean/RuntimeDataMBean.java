@@ -248,6 +248,44 @@ public interface RuntimeDataMBean {
      */
     public String getFormattedMeanTaskRunningTime(String jobId);
 
+    /**
+     * Returns the highest number of events waiting to be sent to a client.
+     *
+     * @return the highest number of events waiting to be sent to a client.
+     */
+    public int getListenersMaxEventQueueSize();
+
+    /**
+     * Returns the age in milliseconds of the oldest event waiting to be sent to a client.
+     *
+     * @return the age in milliseconds of the oldest event waiting to be sent to a client.
+     */
+    public long getListenersMaxEventLag();
+
+    /**
+     * Returns, for each client listening to the scheduler events, the number of events
+     * waiting to be sent to it and the age of the oldest of them.
+     *
+     * @return a description of the events queue of each listening client.
+     */
+    public String[] getListenersEventQueues();
+
+    /**
+     * Returns the time spent at startup to recover the pending and running jobs, before
+     * the scheduler is started.
+     *
+     * @return the recovery time in milliseconds.
+     */
+    public long getRecoveryTime();
+
+    /**
+     * Returns the time spent at startup to recover the finished jobs, which can be loaded
+     * after the scheduler is started.
+     *
+     * @return the recovery time of the finished jobs in milliseconds, -1 if they are still loading.
+     */
+    public long getFinishedJobsRecoveryTime();
+
     /**
      * Sends the statistics accumulated in the RRD data base
      *
@@ -37,6 +37,7 @@
 package org.ow2.proactive.scheduler.core.jmx.mbean;
 
 import java.io.IOException;
+import java.util.List;
 
 import javax.management.NotCompliantMBeanException;
 import javax.management.StandardMBean;
@@ -46,6 +47,7 @@ import org.ow2.proactive.scheduler.common.NotificationData;
 import org.ow2.proactive.scheduler.common.SchedulerEvent;
 import org.ow2.proactive.scheduler.common.SchedulerUsers;
 import org.ow2.proactive.scheduler.common.job.UserIdentification;
+import org.ow2.proactive.scheduler.core.ClientRequestHandler;
 import org.ow2.proactive.scheduler.core.db.SchedulerDBManager;
 import org.ow2.proactive.scheduler.core.jmx.SchedulerJMXHelper;
 import org.ow2.proactive.utils.Tools;
@@ -66,6 +68,10 @@ public final class RuntimeDataMBeanImpl extends StandardMBean implements Runtime
     /** Current Scheduler status typed as scheduler event */
     private volatile SchedulerEvent schedulerStatus;
 
+    private volatile long recoveryTime;
+
+    private volatile long finishedJobsRecoveryTime = -1;
+
     public RuntimeDataMBeanImpl(SchedulerDBManager dbManager) throws NotCompliantMBeanException {
         super(RuntimeDataMBean.class);
         this.schedulerClients = new SchedulerUsers();
@@ -314,6 +320,50 @@ public final class RuntimeDataMBeanImpl extends StandardMBean implements Runtime
         return Tools.getFormattedDuration(0, getMeanTaskRunningTime(jobId));
     }
 
+    /**
+     * @return the highest number of events waiting to be sent to a client
+     */
+    public int getListenersMaxEventQueueSize() {
+        return ClientRequestHandler.getMaxQueueSize();
+    }
+
+    /**
+     * @return the age in milliseconds of the oldest event waiting to be sent to a client
+     */
+    public long getListenersMaxEventLag() {
+        return ClientRequestHandler.getMaxLag();
+    }
+
+    /**
+     * @return a description of the events queue of each listening client
+     */
+    public String[] getListenersEventQueues() {
+        List<String> queues = ClientRequestHandler.getEventQueuesDescription();
+        return queues.toArray(new String[queues.size()]);
+    }
+
+    /**
+     * @return the time in milliseconds spent to recover the pending and running jobs
+     */
+    public long getRecoveryTime() {
+        return recoveryTime;
+    }
+
+    public void setRecoveryTime(long recoveryTime) {
+        this.recoveryTime = recoveryTime;
+    }
+
+    /**
+     * @return the time in milliseconds spent to recover the finished jobs, -1 while they are loading
+     */
+    public long getFinishedJobsRecoveryTime() {
+        return finishedJobsRecoveryTime;
+    }
+
+    public void setFinishedJobsRecoveryTime(long finishedJobsRecoveryTime) {
+        this.finishedJobsRecoveryTime = finishedJobsRecoveryTime;
+    }
+
     /**
      * Sends the statistics accumulated in the RRD data base
      *
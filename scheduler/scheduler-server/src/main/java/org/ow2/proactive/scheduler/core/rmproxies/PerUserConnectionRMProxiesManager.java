@@ -31,6 +31,7 @@ public final class PerUserConnectionRMProxiesManager extends RMProxiesManager {
         super(schedulerProxyCredentials);
         this.rmURI = rmURI;
         schedulerRMProxy = new RMProxy(rmURI, schedulerProxyCredentials);
+        schedulerRMProxy.enableStateMirror();
     }
 
     @Override
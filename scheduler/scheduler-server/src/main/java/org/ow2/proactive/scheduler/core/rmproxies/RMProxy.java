@@ -65,6 +65,9 @@ public class RMProxy {
     private RMProxyActiveObject proxyActiveObject;
     private URI rmURL;
     private Credentials creds;
+    /** Local mirror of the RM state, null if not enabled or not available */
+    private volatile RMStateMirror stateMirror;
+    private boolean stateMirrorEnabled = false;
 
     RMProxy(URI rmURL, Credentials creds) throws RMException, RMProxyCreationException {
         this.rmURL = rmURL;
@@ -77,9 +80,35 @@ public class RMProxy {
         proxyActiveObject = RMProxyActiveObject.createAOProxy(auth, creds);
         currentRMConnection = new RMProxiesManager.Connection(rmURL, auth);
         proxyActiveObject = RMProxyActiveObject.createAOProxy(auth, creds);
+        if (stateMirrorEnabled) {
+            createStateMirror();
+        }
+    }
+
+    /**
+     * Keep a local mirror of the RM state updated from the RM node events,
+     * so that {@link #getState()} does not need to call the RM anymore.
+     */
+    public synchronized void enableStateMirror() {
+        stateMirrorEnabled = true;
+        if (stateMirror == null && proxyActiveObject != null) {
+            createStateMirror();
+        }
+    }
+
+    private void createStateMirror() {
+        try {
+            stateMirror = RMStateMirror.createStateMirror(proxyActiveObject);
+        } catch (RMProxyCreationException e) {
+            logger.warn("Cannot create the RM state mirror, RM state will be requested to the RM", e);
+        }
     }
 
     public synchronized void terminate() {
+        if (stateMirror != null) {
+            stateMirror.terminate();
+            stateMirror = null;
+        }
         if (proxyActiveObject != null) {
             try {
                 proxyActiveObject.disconnect();
@@ -102,7 +131,29 @@ public class RMProxy {
         if (proxyActiveObject == null) {
             throw new RuntimeException("Proxy is not initialized");
         }
-        return proxyActiveObject.getState();
+        RMStateMirror mirror = stateMirror;
+        if (mirror != null && mirror.isInitialized()) {
+            return mirror.getState();
+        }
+        RMState state = proxyActiveObject.getState();
+        if (mirror != null) {
+            // the RM can be reached, register the mirror again if it was lost
+            mirror.resync();
+        }
+        return state;
+    }
+
+    /**
+     * Notify the RM state mirror that the given nodes have been handed out,
+     * so that they are not counted as free anymore.
+     *
+     * @param nodeSet the nodes provided by the RM
+     */
+    public void nodesAcquired(NodeSet nodeSet) {
+        RMStateMirror mirror = stateMirror;
+        if (mirror != null) {
+            mirror.nodesAcquired(nodeSet);
+        }
     }
 
     public void rebind(URI rmURI) throws RMException, RMProxyCreationException {
@@ -20,6 +20,10 @@ import org.objectweb.proactive.extensions.annotation.ActiveObject;
 import org.ow2.proactive.authentication.crypto.Credentials;
 import org.ow2.proactive.resourcemanager.authentication.RMAuthentication;
 import org.ow2.proactive.resourcemanager.common.RMState;
+import org.ow2.proactive.resourcemanager.common.event.RMEventType;
+import org.ow2.proactive.resourcemanager.common.event.RMInitialState;
+import org.ow2.proactive.resourcemanager.exception.RMException;
+import org.ow2.proactive.resourcemanager.frontend.RMEventListener;
 import org.ow2.proactive.resourcemanager.frontend.ResourceManager;
 import org.ow2.proactive.scripting.Script;
 import org.ow2.proactive.scripting.ScriptHandler;
@@ -85,6 +89,30 @@ public class RMProxyActiveObject {
         return rm.getState();
     }
 
+    /**
+     * Register the given listener for node events and RM shutdown events.
+     * The registration is made on behalf of this proxy which is the RM client.
+     *
+     * @param listener the listener to register
+     * @return the RM initial state
+     */
+    @ImmediateService
+    public RMInitialState addRMEventListener(RMEventListener listener) {
+        return rm.getMonitoring().addRMEventListener(listener, RMEventType.NODE_ADDED,
+                RMEventType.NODE_STATE_CHANGED, RMEventType.NODE_REMOVED, RMEventType.SHUTTING_DOWN,
+                RMEventType.SHUTDOWN);
+    }
+
+    /**
+     * Remove the listener registered by {@link #addRMEventListener(RMEventListener)}.
+     *
+     * @throws RMException if no listener is registered
+     */
+    @ImmediateService
+    public void removeRMEventListener() throws RMException {
+        rm.getMonitoring().removeRMEventListener();
+    }
+
     @ImmediateService
     public NodeSet getNodes(Criteria criteria) {
         return rm.getNodes(criteria);
@@ -0,0 +1,318 @@
+/*
+ * ################################################################
+ *
+ * ProActive Parallel Suite(TM): The Java(TM) library for
+ *    Parallel, Distributed, Multi-Core Computing for
+ *    Enterprise Grids & Clouds
+ *
+ * Copyright (C) 1997-2011 INRIA/University of
+ *                 Nice-Sophia Antipolis/ActiveEon
+ * Contact: proactive@ow2.org or contact@activeeon.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation; version 3 of
+ * the License.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307
+ * USA
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ *
+ *  Initial developer(s):               The ProActive Team
+ *                        http://proactive.inria.fr/team_members.htm
+ *  Contributor(s): ActiveEon Team - http://www.activeeon.com
+ *
+ * ################################################################
+ * $$ACTIVEEON_CONTRIBUTOR$$
+ */
+package org.ow2.proactive.scheduler.core.rmproxies;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.objectweb.proactive.api.PAActiveObject;
+import org.objectweb.proactive.core.node.Node;
+import org.objectweb.proactive.extensions.annotation.ActiveObject;
+import org.ow2.proactive.resourcemanager.common.NodeState;
+import org.ow2.proactive.resourcemanager.common.RMState;
+import org.ow2.proactive.resourcemanager.common.event.RMEvent;
+import org.ow2.proactive.resourcemanager.common.event.RMInitialState;
+import org.ow2.proactive.resourcemanager.common.event.RMNodeEvent;
+import org.ow2.proactive.resourcemanager.common.event.RMNodeSourceEvent;
+import org.ow2.proactive.resourcemanager.exception.RMException;
+import org.ow2.proactive.resourcemanager.frontend.RMEventListener;
+import org.ow2.proactive.utils.NodeSet;
+import org.apache.log4j.Logger;
+
+
+/**
+ * Local mirror of the resource manager state.<br>
+ * The mirror is initialized from the RM initial state and then updated from the node events sent by the RM,
+ * so that the scheduling loop can read the number of free nodes without calling the RM.
+ * Nodes handed out to the scheduler are marked as busy immediately, before the RM event is received.
+ * <p>
+ * If an event is missing, the mirror is registered again and the whole state is reloaded.
+ * After an RM shutdown or a failed registration, the mirror is not used until {@link #resync()}
+ * registers it again.
+ * <p>
+ * Events are received by the active object, the scheduler reads the state through the local reference
+ * returned by {@link #createStateMirror(RMProxyActiveObject)}.
+ */
+@ActiveObject
+public class RMStateMirror implements RMEventListener {
+
+    private static final Logger logger = Logger.getLogger(RMStateMirror.class);
+
+    /** Last known state of each node, by node url */
+    private final Map<String, NodeState> nodes = new HashMap<String, NodeState>();
+
+    private int freeNodesNumber;
+    private int aliveNodesNumber;
+    private int totalNodesNumber;
+
+    /** true once the initial state has been received, false if the RM has been shut down */
+    private volatile boolean initialized = false;
+
+    /** true while a registration is requested or in progress */
+    private volatile boolean registering = false;
+
+    /** Counter of the last event received since the registration */
+    private long counter = 0;
+
+    /** RM proxy used to register this mirror */
+    private RMProxyActiveObject proxy;
+
+    /** Stub on this mirror, used to register and terminate it */
+    private RMStateMirror stub;
+
+    /**
+     * ProActive empty constructor
+     */
+    public RMStateMirror() {
+    }
+
+    /**
+     * Create a mirror and register it as a listener of the RM the given proxy is connected to.
+     * Registration is asynchronous: the mirror is not initialized until the RM initial state is received.
+     *
+     * @param proxy the RM proxy used to register the listener
+     * @return the local reference on the mirror
+     * @throws RMProxyCreationException if the mirror active object cannot be created
+     */
+    static RMStateMirror createStateMirror(RMProxyActiveObject proxy) throws RMProxyCreationException {
+        try {
+            RMStateMirror mirror = new RMStateMirror();
+            mirror.proxy = proxy;
+            mirror.registering = true;
+            mirror.stub = PAActiveObject.turnActive(mirror);
+            mirror.stub.register(proxy);
+            return mirror;
+        } catch (Exception e) {
+            throw new RMProxyCreationException(e);
+        }
+    }
+
+    /**
+     * Register this mirror on the RM and apply the initial state.
+     * This method is served by the active object, so events received meanwhile are applied afterwards.
+     *
+     * @param proxy the RM proxy used to register the listener
+     */
+    public void register(RMProxyActiveObject proxy) {
+        this.proxy = proxy;
+        try {
+            subscribe();
+        } catch (RuntimeException e) {
+            initialized = false;
+            logger.warn("Cannot register the RM state mirror, RM state will be requested to the RM", e);
+        } finally {
+            registering = false;
+        }
+    }
+
+    private void subscribe() {
+        RMInitialState state = proxy.addRMEventListener((RMEventListener) PAActiveObject.getStubOnThis());
+        counter = 0;
+        synchronized (this) {
+            nodes.clear();
+            freeNodesNumber = 0;
+            aliveNodesNumber = 0;
+            totalNodesNumber = 0;
+            for (RMNodeEvent event : state.getNodesEvents()) {
+                setNodeState(event.getNodeUrl(), event.getNodeState());
+            }
+            initialized = true;
+        }
+        logger.debug("RM state mirror initialized with " + totalNodesNumber + " nodes");
+    }
+
+    /**
+     * @return true if the event follows the previous one, otherwise the mirror is registered again
+     */
+    private boolean checkCounter(RMEvent event) {
+        if (counter > 0 && counter != event.getCounter() - 1) {
+            logger.warn("Missing events detected - reloading the RM state mirror");
+            logger.warn("Local event counter is " + counter + " vs. rm event counter " + event.getCounter());
+            initialized = false;
+            try {
+                proxy.removeRMEventListener();
+            } catch (RMException e) {
+                logger.error(e.getMessage(), e);
+            }
+            register(proxy);
+            return false;
+        }
+        counter = event.getCounter();
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public void rmEvent(RMEvent event) {
+        if (!checkCounter(event)) {
+            return;
+        }
+        switch (event.getEventType()) {
+            case SHUTTING_DOWN:
+            case SHUTDOWN:
+                // state cannot be trusted anymore, RM will be asked directly
+                initialized = false;
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public void nodeSourceEvent(RMNodeSourceEvent event) {
+        // nodes of a removed node source are notified with node events
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public void nodeEvent(RMNodeEvent event) {
+        if (!checkCounter(event)) {
+            return;
+        }
+        synchronized (this) {
+            switch (event.getEventType()) {
+                case NODE_ADDED:
+                case NODE_STATE_CHANGED:
+                    setNodeState(event.getNodeUrl(), event.getNodeState());
+                    break;
+                case NODE_REMOVED:
+                    setNodeState(event.getNodeUrl(), null);
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Register the mirror again if it is not initialized, for instance after a failed registration
+     * or after an RM shutdown when the proxy is able to reach the RM again.
+     * The registration is asynchronous, the RM is asked directly until it is done.
+     */
+    void resync() {
+        if (!initialized && !registering && stub != null) {
+            registering = true;
+            try {
+                stub.register(proxy);
+            } catch (RuntimeException e) {
+                registering = false;
+                logger.warn("Cannot register the RM state mirror", e);
+            }
+        }
+    }
+
+    /**
+     * Return true if the mirror can be used instead of asking the RM.
+     *
+     * @return true if the mirror has been initialized and the RM is not shut down.
+     */
+    boolean isInitialized() {
+        return initialized;
+    }
+
+    /**
+     * Return the RM state as currently known by the mirror.
+     *
+     * @return the mirrored RM state
+     */
+    synchronized RMState getState() {
+        return new RMState(freeNodesNumber, aliveNodesNumber, totalNodesNumber);
+    }
+
+    /**
+     * Mark the given nodes as busy, without waiting for the corresponding RM events.
+     *
+     * @param nodeSet the nodes that have just been handed out by the RM
+     */
+    synchronized void nodesAcquired(NodeSet nodeSet) {
+        List<Node> acquired = new ArrayList<Node>(nodeSet);
+        if (nodeSet.getExtraNodes() != null) {
+            acquired.addAll(nodeSet.getExtraNodes());
+        }
+        for (Node node : acquired) {
+            String url = node.getNodeInformation().getURL();
+            if (nodes.get(url) == NodeState.FREE) {
+                setNodeState(url, NodeState.BUSY);
+            }
+        }
+    }
+
+    /**
+     * Terminate the mirror active object.
+     * The RM removes the listener when it fails to send it the next event.
+     */
+    void terminate() {
+        initialized = false;
+        try {
+            PAActiveObject.terminateActiveObject(stub, true);
+        } catch (RuntimeException e) {
+            logger.warn("Cannot terminate the RM state mirror", e);
+        }
+    }
+
+    private void setNodeState(String url, NodeState state) {
+        NodeState previous;
+        if (state == null) {
+            previous = nodes.remove(url);
+        } else {
+            previous = nodes.put(url, state);
+        }
+        count(previous, -1);
+        count(state, 1);
+    }
+
+    private void count(NodeState state, int delta) {
+        // deploying and lost nodes are not registered in the RM core
+        if (state == null || state == NodeState.DEPLOYING || state == NodeState.LOST) {
+            return;
+        }
+        totalNodesNumber += delta;
+        if (state != NodeState.DOWN) {
+            aliveNodesNumber += delta;
+        }
+        if (state == NodeState.FREE) {
+            freeNodesNumber += delta;
+        }
+    }
+
+}
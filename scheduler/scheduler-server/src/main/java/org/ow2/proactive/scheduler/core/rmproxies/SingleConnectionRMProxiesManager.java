@@ -19,6 +19,7 @@ public final class SingleConnectionRMProxiesManager extends RMProxiesManager {
         this.rmURI = rmURI;
 
         rmProxy = new RMProxy(rmURI, schedulerProxyCredentials);
+        rmProxy.enableStateMirror();
     }
 
     @Override
@@ -0,0 +1,207 @@
+/*
+ * ################################################################
+ *
+ * ProActive Parallel Suite(TM): The Java(TM) library for
+ *    Parallel, Distributed, Multi-Core Computing for
+ *    Enterprise Grids & Clouds
+ *
+ * Copyright (C) 1997-2011 INRIA/University of
+ *                 Nice-Sophia Antipolis/ActiveEon
+ * Contact: proactive@ow2.org or contact@activeeon.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation; version 3 of
+ * the License.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307
+ * USA
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ *
+ *  Initial developer(s):               The ProActive Team
+ *                        http://proactive.inria.fr/team_members.htm
+ *  Contributor(s):
+ *
+ * ################################################################
+ * $$PROACTIVE_INITIAL_DEV$$
+ */
+package org.ow2.proactive.scheduler.descriptor;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import org.ow2.proactive.scheduler.common.job.JobId;
+import org.ow2.proactive.scheduler.common.job.JobPriority;
+import org.ow2.proactive.scheduler.common.task.TaskId;
+
+
+/**
+ * EligibleTaskIndex keeps every eligible task of the live jobs ordered by
+ * (job priority, job id, task id), which is the order used by the default FIFO by priority policy.<br>
+ * The index is updated incrementally by the {@link JobDescriptorImpl} each time a task becomes
+ * eligible or stops being eligible (start, terminate, pause, unpause...), so that
+ * the scheduling loop does not have to sort every job on each cycle.
+ * <p>
+ * Updates for a given job are expected to be performed while holding the lock of this job.
+ * Reads are lock free and weakly consistent.
+ *
+ * @author The ProActive Team
+ * @since ProActive Scheduling 6.3
+ */
+public class EligibleTaskIndex {
+
+    /** Eligible tasks in scheduling order */
+    private final ConcurrentSkipListMap<Key, EligibleTaskDescriptor> tasks = new ConcurrentSkipListMap<Key, EligibleTaskDescriptor>();
+
+    /** Keys of the indexed tasks, grouped by job */
+    private final Map<JobId, Map<TaskId, Key>> jobKeys = new ConcurrentHashMap<JobId, Map<TaskId, Key>>();
+
+    /**
+     * Add the given eligible task to the index.
+     *
+     * @param job the descriptor of the job owning the task
+     * @param task the task that has just become eligible
+     */
+    public void add(JobDescriptor job, EligibleTaskDescriptor task) {
+        Map<TaskId, Key> keys = jobKeys.get(job.getJobId());
+        if (keys == null) {
+            keys = new ConcurrentHashMap<TaskId, Key>();
+            jobKeys.put(job.getJobId(), keys);
+        }
+        Key key = new Key(job.getInternal().getPriority(), job.getJobId(), task.getTaskId());
+        Key previous = keys.put(task.getTaskId(), key);
+        if (previous != null) {
+            tasks.remove(previous);
+        }
+        tasks.put(key, task);
+    }
+
+    /**
+     * Remove the given task from the index. Does nothing if the task is not indexed.
+     *
+     * @param jobId the id of the job owning the task
+     * @param taskId the task that is not eligible anymore
+     */
+    public void remove(JobId jobId, TaskId taskId) {
+        Map<TaskId, Key> keys = jobKeys.get(jobId);
+        if (keys == null) {
+            return;
+        }
+        Key key = keys.remove(taskId);
+        if (key != null) {
+            tasks.remove(key);
+        }
+        if (keys.isEmpty()) {
+            jobKeys.remove(jobId);
+        }
+    }
+
+    /**
+     * Remove every task of the given job from the index.
+     *
+     * @param jobId the id of the job that has left the scheduling process
+     */
+    public void removeJob(JobId jobId) {
+        Map<TaskId, Key> keys = jobKeys.remove(jobId);
+        if (keys != null) {
+            for (Key key : keys.values()) {
+                tasks.remove(key);
+            }
+        }
+    }
+
+    /**
+     * Move every indexed task of the given job to its new priority.
+     *
+     * @param jobId the id of the job whose priority has changed
+     * @param priority the new priority of the job
+     */
+    public void changePriority(JobId jobId, JobPriority priority) {
+        Map<TaskId, Key> keys = jobKeys.get(jobId);
+        if (keys == null) {
+            return;
+        }
+        for (Map.Entry<TaskId, Key> entry : keys.entrySet()) {
+            Key oldKey = entry.getValue();
+            EligibleTaskDescriptor task = tasks.remove(oldKey);
+            Key newKey = new Key(priority, jobId, entry.getKey());
+            entry.setValue(newKey);
+            if (task != null) {
+                tasks.put(newKey, task);
+            }
+        }
+    }
+
+    /**
+     * Return a live view of the indexed tasks in scheduling order.
+     * The view is weakly consistent: it reflects some of the modifications made while iterating.
+     *
+     * @return the eligible tasks ordered by priority, job id and task id.
+     */
+    public Collection<EligibleTaskDescriptor> getOrderedTasks() {
+        return tasks.values();
+    }
+
+    /**
+     * Return the number of indexed tasks.
+     *
+     * @return the number of indexed tasks.
+     */
+    public int size() {
+        return tasks.size();
+    }
+
+    /**
+     * Ordering key of an eligible task: highest priority first, then oldest job, then task id.
+     */
+    private static final class Key implements Comparable<Key> {
+
+        private final JobPriority priority;
+        private final JobId jobId;
+        private final TaskId taskId;
+
+        private Key(JobPriority priority, JobId jobId, TaskId taskId) {
+            this.priority = priority;
+            this.jobId = jobId;
+            this.taskId = taskId;
+        }
+
+        @Override
+        public int compareTo(Key other) {
+            int result = other.priority.compareTo(priority);
+            if (result != 0) {
+                return result;
+            }
+            result = jobId.compareTo(other.jobId);
+            if (result != 0) {
+                return result;
+            }
+            return taskId.compareTo(other.taskId);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            return compareTo((Key) obj) == 0;
+        }
+
+        @Override
+        public int hashCode() {
+            return taskId.hashCode();
+        }
+    }
+
+}
@@ -95,6 +95,10 @@ public class JobDescriptorImpl implements JobDescriptor {
     /** Job paused tasks */
     private Map<TaskId, EligibleTaskDescriptor> pausedTasks = new HashMap<TaskId, EligibleTaskDescriptor>();
 
+    /** Scheduler wide index of eligible tasks, kept in sync with eligibleTasks (can be null) */
+    @XmlTransient
+    private EligibleTaskIndex eligibleTaskIndex;
+
     /**
      * Create a new instance of job descriptor using an internal job.
      * Just make a mapping between some fields of the two type of job in order to
@@ -206,6 +210,44 @@ public class JobDescriptorImpl implements JobDescriptor {
         return entryPoint;
     }
 
+    /**
+     * Attach this job descriptor to the given eligible task index.
+     * Every current eligible task is added to the index, and the index will then be updated
+     * each time a task of this job becomes eligible or stops being eligible.
+     *
+     * @param index the index to keep in sync with the eligible tasks of this job.
+     */
+    public void setEligibleTaskIndex(EligibleTaskIndex index) {
+        this.eligibleTaskIndex = index;
+        if (index != null) {
+            for (EligibleTaskDescriptor task : eligibleTasks.values()) {
+                index.add(this, task);
+            }
+        }
+    }
+
+    private void addEligibleTask(TaskId taskId, EligibleTaskDescriptor task) {
+        eligibleTasks.put(taskId, task);
+        if (eligibleTaskIndex != null) {
+            eligibleTaskIndex.add(this, task);
+        }
+    }
+
+    private EligibleTaskDescriptor removeEligibleTask(TaskId taskId) {
+        EligibleTaskDescriptor task = eligibleTasks.remove(taskId);
+        if (eligibleTaskIndex != null) {
+            eligibleTaskIndex.remove(getJobId(), taskId);
+        }
+        return task;
+    }
+
+    private void clearEligibleTasks() {
+        eligibleTasks.clear();
+        if (eligibleTaskIndex != null) {
+            eligibleTaskIndex.removeJob(getJobId());
+        }
+    }
+
     /**
      * Return true if the task represented by the given taskId has children, false if not.
      *
@@ -223,7 +265,7 @@ public class JobDescriptorImpl implements JobDescriptor {
      * @param taskId the task that has just been started.
      */
     public void start(TaskId taskId) {
-        runningTasks.put(taskId, eligibleTasks.remove(taskId));
+        runningTasks.put(taskId, removeEligibleTask(taskId));
     }
 
     /**
@@ -233,7 +275,7 @@ public class JobDescriptorImpl implements JobDescriptor {
      * @param taskId the task that has just been started.
      */
     public void reStart(TaskId taskId) {
-        eligibleTasks.put(taskId, (EligibleTaskDescriptor) runningTasks.remove(taskId));
+        addEligibleTask(taskId, (EligibleTaskDescriptor) runningTasks.remove(taskId));
     }
 
     /**
@@ -313,7 +355,7 @@ public class JobDescriptorImpl implements JobDescriptor {
 
         //    EligibleTaskDescriptorImpl newTask = (EligibleTaskDescriptorImpl) acc.get(target.getId());
 
-        eligibleTasks.put(target.getId(), newStart);
+        addEligibleTask(target.getId(), newStart);
 
         runningTasks.remove(initiator);
     }
@@ -482,7 +524,7 @@ public class JobDescriptorImpl implements JobDescriptor {
         newTask.addParent(oldTask);
         oldTask.addChild(newTask);
 
-        eligibleTasks.put(target.getId(), newTask);
+        addEligibleTask(target.getId(), newTask);
     }
 
     /**
@@ -534,7 +576,7 @@ public class JobDescriptorImpl implements JobDescriptor {
                         if (internalJob.getStatus() == JobStatus.PAUSED) {
                             pausedTasks.put(task.getTaskId(), (EligibleTaskDescriptor) task);
                         } else {
-                            eligibleTasks.put(task.getTaskId(), (EligibleTaskDescriptor) task);
+                            addEligibleTask(task.getTaskId(), (EligibleTaskDescriptor) task);
                         }
                     }
                 }
@@ -548,7 +590,7 @@ public class JobDescriptorImpl implements JobDescriptor {
     }
 
     public void recoverTask(TaskId taskId) {
-        EligibleTaskDescriptor taskToRun = eligibleTasks.remove(taskId);
+        EligibleTaskDescriptor taskToRun = removeEligibleTask(taskId);
         if (taskToRun == null) {
             taskToRun = pausedTasks.remove(taskId);
         }
@@ -562,7 +604,7 @@ public class JobDescriptorImpl implements JobDescriptor {
      * Visibility is package because user cannot use this method.
      */
     public void failed() {
-        eligibleTasks.clear();
+        clearEligibleTasks();
         runningTasks.clear();
     }
 
@@ -571,7 +613,7 @@ public class JobDescriptorImpl implements JobDescriptor {
             TaskDescriptor lt = eligibleTasks.get(taskId);
 
             if (lt != null) {
-                pausedTasks.put(taskId, eligibleTasks.remove(taskId));
+                pausedTasks.put(taskId, removeEligibleTask(taskId));
             }
         }
     }
@@ -581,12 +623,22 @@ public class JobDescriptorImpl implements JobDescriptor {
             EligibleTaskDescriptor lt = pausedTasks.get(taskId);
 
             if (lt != null) {
-                eligibleTasks.put(taskId, lt);
+                addEligibleTask(taskId, lt);
                 pausedTasks.remove(taskId);
             }
         }
     }
 
+    /**
+     * Return true if the task represented by the given taskId is currently eligible.
+     *
+     * @param taskId the id representing the real task.
+     * @return true if the task is eligible and can be started, false if not.
+     */
+    public boolean isEligible(TaskId taskId) {
+        return eligibleTasks.containsKey(taskId);
+    }
+
     /**
      * Get a task descriptor that is in the running task.
      *
@@ -61,7 +61,7 @@ public class IdentifiedJob implements Serializable {
     private UserIdentificationImpl userIdentification;
 
     /** is this job finished */
-    private boolean finished = false;
+    private volatile boolean finished = false;
 
     /**
      * Identify job constructor with a given job and Identification.
@@ -486,8 +486,9 @@ public abstract class InternalJob extends JobState {
                     this.jobInfo.setTasksChanges(changesInfo, this);
                     // notify frontend that tasks were modified
                     if (frontend != null) {
+                        // a copy, the skipped tasks are cleared before the listeners are notified
                         frontend.jobStateUpdated(this.getOwner(), new NotificationData<JobInfo>(
-                            SchedulerEvent.TASK_SKIPPED, this.getJobInfo()));
+                            SchedulerEvent.TASK_SKIPPED, new JobInfoImpl(jobInfo)));
                     }
                     this.jobInfo.clearTasksChanges();
 
@@ -635,8 +636,9 @@ public abstract class InternalJob extends JobState {
                     // notify frontend that tasks were added to the job
                     this.jobInfo.setTasksChanges(changesInfo, this);
                     if (frontend != null) {
+                        // a copy, the new tasks are cleared before the listeners are notified
                         frontend.jobStateUpdated(this.getOwner(), new NotificationData<JobInfo>(
-                            SchedulerEvent.TASK_REPLICATED, this.getJobInfo()));
+                            SchedulerEvent.TASK_REPLICATED, new JobInfoImpl(jobInfo)));
                     }
                     this.jobInfo.clearTasksChanges();
 
@@ -36,6 +36,7 @@
  */
 package org.ow2.proactive.scheduler.policy;
 
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
@@ -43,6 +44,7 @@ import java.util.Vector;
 
 import org.ow2.proactive.scheduler.common.job.JobPriority;
 import org.ow2.proactive.scheduler.descriptor.EligibleTaskDescriptor;
+import org.ow2.proactive.scheduler.descriptor.EligibleTaskIndex;
 import org.ow2.proactive.scheduler.descriptor.JobDescriptor;
 
 
@@ -58,6 +60,9 @@ import org.ow2.proactive.scheduler.descriptor.JobDescriptor;
  */
 public class DefaultPolicy extends Policy {
 
+    /** true if a sub class overrides getOrderedTasks(List), computed on first use */
+    private transient Boolean listOrderingOverridden;
+
     /**
      * {@inheritDoc}
      * Override reload to avoid reading config file
@@ -88,6 +93,39 @@ public class DefaultPolicy extends Policy {
         return toReturn;
     }
 
+    /**
+     * The eligible task index is already sorted using FIFO by priority order,
+     * so it is returned as is without any copy.<br>
+     * If a sub class overrides {@link #getOrderedTasks(List)}, the index is not used and null is
+     * returned so that the scheduler calls the overridden method.
+     *
+     * @see org.ow2.proactive.scheduler.policy.Policy#getOrderedTasks(org.ow2.proactive.scheduler.descriptor.EligibleTaskIndex)
+     */
+    @Override
+    public Collection<EligibleTaskDescriptor> getOrderedTasks(EligibleTaskIndex index) {
+        if (isListOrderingOverridden()) {
+            return null;
+        }
+        return index.getOrderedTasks();
+    }
+
+    private boolean isListOrderingOverridden() {
+        if (listOrderingOverridden == null) {
+            if (getClass() == DefaultPolicy.class) {
+                listOrderingOverridden = Boolean.FALSE;
+            } else {
+                try {
+                    Class<?> declaringClass = getClass().getMethod("getOrderedTasks", List.class)
+                            .getDeclaringClass();
+                    listOrderingOverridden = declaringClass != DefaultPolicy.class;
+                } catch (NoSuchMethodException e) {
+                    listOrderingOverridden = Boolean.TRUE;
+                }
+            }
+        }
+        return listOrderingOverridden;
+    }
+
     public static final Comparator<JobDescriptor> FIFO_BY_PRIORITY_COMPARATOR = new Comparator<JobDescriptor>() {
         @Override
         public int compare(JobDescriptor job1, JobDescriptor job2) {
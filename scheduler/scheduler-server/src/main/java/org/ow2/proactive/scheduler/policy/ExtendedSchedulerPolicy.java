@@ -45,6 +45,7 @@ import java.util.Vector;
 
 import org.apache.log4j.Logger;
 import org.ow2.proactive.scheduler.descriptor.EligibleTaskDescriptor;
+import org.ow2.proactive.scheduler.descriptor.EligibleTaskIndex;
 import org.ow2.proactive.scheduler.descriptor.JobDescriptor;
 import org.ow2.proactive.scheduler.util.policy.ISO8601DateUtil;
 
@@ -68,6 +69,14 @@ public class ExtendedSchedulerPolicy extends DefaultPolicy {
 
     public static final String GENERIC_INFORMATION_KEY_START_AT = "START_AT";
 
+    /*
+     * 'startAt' filtering needs the job descriptors, disable the incremental mode
+     */
+    @Override
+    public Collection<EligibleTaskDescriptor> getOrderedTasks(EligibleTaskIndex index) {
+        return null;
+    }
+
     /*
      * Utilize 'startAt' generic info and filter any tasks that should not be
      * scheduled for current execution cycle.
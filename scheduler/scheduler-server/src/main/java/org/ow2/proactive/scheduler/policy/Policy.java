@@ -40,6 +40,7 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.Serializable;
+import java.util.Collection;
 import java.util.List;
 import java.util.Properties;
 import java.util.Vector;
@@ -50,6 +51,7 @@ import org.ow2.proactive.resourcemanager.common.RMState;
 import org.ow2.proactive.scheduler.common.Scheduler;
 import org.ow2.proactive.scheduler.core.properties.PASchedulerProperties;
 import org.ow2.proactive.scheduler.descriptor.EligibleTaskDescriptor;
+import org.ow2.proactive.scheduler.descriptor.EligibleTaskIndex;
 import org.ow2.proactive.scheduler.descriptor.JobDescriptor;
 
 
@@ -99,6 +101,24 @@ public abstract class Policy implements Serializable {
      */
     public abstract Vector<EligibleTaskDescriptor> getOrderedTasks(List<JobDescriptor> jobs);
 
+    /**
+     * Return the tasks that have to be scheduled, using the eligible task index maintained
+     * incrementally by the scheduler instead of the whole list of job descriptors.<br>
+     * The returned collection can be a lazy view : the scheduler only reads as many tasks as it
+     * can schedule in one loop. Tasks belonging to jobs that cannot be scheduled in the current
+     * loop are skipped by the scheduler.
+     * <br/><br/>
+     * The default implementation returns null, meaning that this policy does not support the
+     * incremental mode and that {@link #getOrderedTasks(List)} will be called instead.
+     *
+     * @param index the index of every eligible task, ordered by job priority, job id and task id.
+     * @return the tasks that are ready to be scheduled in the desired scheduling order,
+     * 		or null if this policy needs the full list of job descriptors.
+     */
+    public Collection<EligibleTaskDescriptor> getOrderedTasks(EligibleTaskIndex index) {
+        return null;
+    }
+
     /**
      * Set the RM state
      *
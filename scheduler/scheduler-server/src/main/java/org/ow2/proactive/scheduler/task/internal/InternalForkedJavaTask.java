@@ -101,6 +101,8 @@ public class InternalForkedJavaTask extends InternalJavaTask {
         tli.setPolicyContent(getJavaPolicy());
         tli.setLog4JContent(getLog4J());
         tli.setPaConfigContent(getPAConfiguration());
+        tli.setForkedJVMPoolSize(PASchedulerProperties.TASK_FORK_POOL_SIZE.getValueAsInt());
+        tli.setForkedJVMIdleTime(PASchedulerProperties.TASK_FORK_POOL_IDLE_TIME.getValueAsInt() * 1000L);
         logger.info("Create forked java task launcher");
         TaskLauncher launcher = (TaskLauncher) PAActiveObject.newActive(JavaTaskLauncherForker.class
                 .getName(), new Object[] { tli }, node);
@@ -40,7 +40,6 @@ import javax.xml.bind.annotation.XmlAccessType;
 import javax.xml.bind.annotation.XmlAccessorType;
 
 import org.objectweb.proactive.ActiveObjectCreationException;
-import org.objectweb.proactive.api.PAActiveObject;
 import org.objectweb.proactive.core.node.Node;
 import org.objectweb.proactive.core.node.NodeException;
 import org.ow2.proactive.scheduler.job.InternalJob;
@@ -89,8 +88,8 @@ public class InternalJavaTask extends InternalTask {
             NodeException {
 
         logger.info(getTaskInfo().getTaskId(), "creating java task launcher");
-        TaskLauncher launcher = (TaskLauncher) PAActiveObject.newActive(JavaTaskLauncher.class.getName(),
-                new Object[] { getDefaultTaskLauncherInitializer(job) }, node);
+        TaskLauncher launcher = createLauncher(JavaTaskLauncher.class.getName(),
+                getDefaultTaskLauncherInitializer(job), node);
         setExecuterInformations(new ExecuterInformations(launcher, node));
 
         return launcher;
@@ -40,7 +40,6 @@ import javax.xml.bind.annotation.XmlAccessType;
 import javax.xml.bind.annotation.XmlAccessorType;
 
 import org.objectweb.proactive.ActiveObjectCreationException;
-import org.objectweb.proactive.api.PAActiveObject;
 import org.objectweb.proactive.core.node.Node;
 import org.objectweb.proactive.core.node.NodeException;
 import org.ow2.proactive.scheduler.job.InternalJob;
@@ -78,8 +77,8 @@ public class InternalScriptTask extends InternalTask {
     public TaskLauncher createLauncher(InternalJob job, Node node) throws ActiveObjectCreationException,
             NodeException {
         logger.info(getTaskInfo().getTaskId(), "creating script task launcher");
-        TaskLauncher launcher = (TaskLauncher) PAActiveObject.newActive(ScriptTaskLauncher.class.getName(),
-                new Object[] { getDefaultTaskLauncherInitializer(job) }, node);
+        TaskLauncher launcher = createLauncher(ScriptTaskLauncher.class.getName(),
+                getDefaultTaskLauncherInitializer(job), node);
         setExecuterInformations(new ExecuterInformations(launcher, node));
 
         return launcher;
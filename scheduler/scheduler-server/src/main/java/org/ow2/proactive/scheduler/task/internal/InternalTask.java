@@ -49,6 +49,8 @@ import javax.xml.bind.annotation.XmlAccessorType;
 import javax.xml.bind.annotation.XmlTransient;
 
 import org.objectweb.proactive.ActiveObjectCreationException;
+import org.objectweb.proactive.api.PAActiveObject;
+import org.objectweb.proactive.core.ProActiveRuntimeException;
 import org.objectweb.proactive.core.node.Node;
 import org.objectweb.proactive.core.node.NodeException;
 import org.objectweb.proactive.core.util.converter.ProActiveMakeDeepCopy;
@@ -71,6 +73,7 @@ import org.ow2.proactive.scheduler.task.TaskIdImpl;
 import org.ow2.proactive.scheduler.task.TaskInfoImpl;
 import org.ow2.proactive.scheduler.task.TaskLauncher;
 import org.ow2.proactive.scheduler.task.TaskLauncherInitializer;
+import org.ow2.proactive.scheduler.util.TaskLogger;
 import org.ow2.proactive.utils.NodeSet;
 
 
@@ -86,6 +89,8 @@ import org.ow2.proactive.utils.NodeSet;
 @XmlAccessorType(XmlAccessType.FIELD)
 public abstract class InternalTask extends TaskState {
 
+    private static final TaskLogger logger = TaskLogger.getInstance();
+
     /** Parents list : null if no dependences */
     @XmlTransient
     private transient List<InternalTask> ideps = null;
@@ -473,6 +478,39 @@ public abstract class InternalTask extends TaskState {
     public abstract TaskLauncher createLauncher(InternalJob job, Node node)
             throws ActiveObjectCreationException, NodeException;
 
+    /**
+     * Create a launcher of the given class on the node. If the launchers are pooled, the launcher
+     * of this class already deployed on the node for the same user is reset and reused instead,
+     * the launchers of the other users are terminated.
+     *
+     * @param launcherClassName the class of the launcher to create.
+     * @param tli the initializer of the launcher.
+     * @param node the node on which to create the launcher.
+     * @return the launcher as an activeObject.
+     */
+    protected TaskLauncher createLauncher(String launcherClassName, TaskLauncherInitializer tli, Node node)
+            throws ActiveObjectCreationException, NodeException {
+        if (PASchedulerProperties.TASK_LAUNCHER_POOLED.getValueAsBoolean()) {
+            tli.setPooled(true);
+            for (Object activeObject : node.getActiveObjects(launcherClassName)) {
+                try {
+                    TaskLauncher launcher = (TaskLauncher) activeObject;
+                    if (launcher.reset(tli)) {
+                        return launcher;
+                    }
+                    // idle launcher of another user, do not keep one launcher per user on the node
+                    PAActiveObject.terminateActiveObject(launcher, false);
+                } catch (ProActiveRuntimeException e) {
+                    // the launcher has been terminated meanwhile, try the next one
+                } catch (RuntimeException e) {
+                    logger.error(getId(), "Cannot reuse a task launcher of node " +
+                        node.getNodeInformation().getURL(), e);
+                }
+            }
+        }
+        return (TaskLauncher) PAActiveObject.newActive(launcherClassName, new Object[] { tli }, node);
+    }
+
     /**
      * Return true if this task can handle parent results arguments in its executable
      *
@@ -37,6 +37,9 @@ package org.ow2.proactive.scheduler.util;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
 import java.util.Set;
 
 import org.apache.log4j.Logger;
@@ -92,6 +95,9 @@ public class ServerJobAndTaskLogs {
     }
 
     private static void removeLog(String id) {
+        for (FileAppender appender : getFileAppenders()) {
+            appender.closeFile(id);
+        }
         for (String suffix : new String[] { "", ".1" }) {
             removeFile(id + suffix);
         }
@@ -123,6 +129,10 @@ public class ServerJobAndTaskLogs {
     }
 
     private static String readLog(String id) {
+        // logs are written asynchronously
+        for (FileAppender appender : getFileAppenders()) {
+            appender.flush();
+        }
         String result = null;
         for (String suffix : new String[] { ".1", "" }) {
             String contents = readFile(new File(getLogsLocation(), id + suffix));
@@ -154,6 +164,20 @@ public class ServerJobAndTaskLogs {
         FileUtils.removeDir(new File(logsLocation));
     }
 
+    private static List<FileAppender> getFileAppenders() {
+        List<FileAppender> appenders = new ArrayList<FileAppender>();
+        for (Class<?> cls : new Class<?>[] { JobLogger.class, TaskLogger.class }) {
+            Enumeration<?> en = Logger.getLogger(cls).getAllAppenders();
+            while (en.hasMoreElements()) {
+                Object appender = en.nextElement();
+                if (appender instanceof FileAppender) {
+                    appenders.add((FileAppender) appender);
+                }
+            }
+        }
+        return appenders;
+    }
+
     private static void addNewFileAppenderToLoggerFor(Class<?> cls) {
         Logger jobLogger = Logger.getLogger(cls);
         FileAppender appender = createFileAppender();
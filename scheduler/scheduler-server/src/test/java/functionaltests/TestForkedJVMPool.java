@@ -0,0 +1,153 @@
+/*
+ * ################################################################
+ *
+ * ProActive Parallel Suite(TM): The Java(TM) library for
+ *    Parallel, Distributed, Multi-Core Computing for
+ *    Enterprise Grids & Clouds
+ *
+ * Copyright (C) 1997-2011 INRIA/University of
+ *                 Nice-Sophia Antipolis/ActiveEon
+ * Contact: proactive@ow2.org or contact@activeeon.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation; version 3 of
+ * the License.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307
+ * USA
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ *
+ *  Initial developer(s):               The ProActive Team
+ *                        http://proactive.inria.fr/team_members.htm
+ *  Contributor(s): ActiveEon Team - http://www.activeeon.com
+ *
+ * ################################################################
+ * $$ACTIVEEON_CONTRIBUTOR$$
+ */
+package functionaltests;
+
+import java.io.File;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.ow2.proactive.authentication.crypto.CredData;
+import org.ow2.proactive.authentication.crypto.Credentials;
+import org.ow2.proactive.scheduler.common.Scheduler;
+import org.ow2.proactive.scheduler.common.SchedulerAuthenticationInterface;
+import org.ow2.proactive.scheduler.common.job.JobId;
+import org.ow2.proactive.scheduler.common.job.JobResult;
+import org.ow2.proactive.scheduler.common.job.TaskFlowJob;
+import org.ow2.proactive.scheduler.common.task.ForkEnvironment;
+import org.ow2.proactive.scheduler.common.task.JavaTask;
+import org.ow2.proactive.scheduler.common.task.TaskResult;
+import org.ow2.tests.FunctionalTest;
+import org.junit.Test;
+
+import functionaltests.executables.JVMName;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+
+/**
+ * Forked java tasks executed with a new JVM per task, then with the JVMs kept in the pool
+ * of each node, which are not reused by the tasks of another user. The number of tasks can be set
+ * with the scheduler.benchmark.tasks system property.
+ */
+public class TestForkedJVMPool extends FunctionalTest {
+
+    private static final int TASKS_NUMBER = Integer.getInteger("scheduler.benchmark.tasks", 20);
+
+    private static final long JOB_TIMEOUT = 300000;
+
+    @Test
+    public void forkedTasksReuseJVMs() throws Throwable {
+        SchedulerTHelper.startScheduler();
+        Set<String> jvms = new HashSet<String>();
+        long newJVMsTime = executeForkedTasks(jvms);
+        assertEquals("Each task has its own JVM", TASKS_NUMBER, jvms.size());
+
+        SchedulerTHelper.killSchedulerAndNodesAndRestart(new File(SchedulerTHelper.class.getResource(
+                "config/scheduler-forkedjvmpool.ini").toURI()).getAbsolutePath());
+        // the first job fills the pools, the second one reuses the JVMs
+        Set<String> pooledJVMs = new HashSet<String>();
+        executeForkedTasks(pooledJVMs);
+        Set<String> reusedJVMs = new HashSet<String>();
+        long pooledJVMsTime = executeForkedTasks(reusedJVMs);
+        assertTrue("Tasks are executed by the pooled JVMs", pooledJVMs.containsAll(reusedJVMs));
+
+        // the JVMs of a user are not reused by the tasks of another user
+        Set<String> otherUserJVMs = executeForkedTasksAsAnotherUser();
+        otherUserJVMs.retainAll(pooledJVMs);
+        assertTrue("JVMs shared between users: " + otherUserJVMs, otherUserJVMs.isEmpty());
+
+        SchedulerTHelper.log("Executed " + TASKS_NUMBER + " forked tasks in " + newJVMsTime +
+            " ms with a JVM per task, " + pooledJVMsTime + " ms with pooled JVMs");
+    }
+
+    private long executeForkedTasks(Set<String> jvms) throws Exception {
+        long start = System.currentTimeMillis();
+        JobId id = SchedulerTHelper.submitJob(createForkedTasksJob());
+        SchedulerTHelper.waitForEventJobFinished(id);
+        long time = System.currentTimeMillis() - start;
+
+        JobResult result = SchedulerTHelper.getJobResult(id);
+        assertFalse(result.hadException());
+        for (TaskResult taskResult : result.getAllResults().values()) {
+            jvms.add((String) taskResult.value());
+        }
+        SchedulerTHelper.removeJob(id);
+        return time;
+    }
+
+    private Set<String> executeForkedTasksAsAnotherUser() throws Exception {
+        SchedulerAuthenticationInterface auth = SchedulerTHelper.getSchedulerAuth();
+        Scheduler scheduler = auth.login(Credentials.createCredentials(new CredData(
+            SchedulerTHelper.user_username, SchedulerTHelper.user_password), auth.getPublicKey()));
+        try {
+            JobId id = scheduler.submit(createForkedTasksJob());
+            long deadline = System.currentTimeMillis() + JOB_TIMEOUT;
+            JobResult result = scheduler.getJobResult(id);
+            while (result == null && System.currentTimeMillis() < deadline) {
+                Thread.sleep(100);
+                result = scheduler.getJobResult(id);
+            }
+            assertNotNull("Job of " + SchedulerTHelper.user_username + " is not finished", result);
+            assertFalse(result.hadException());
+            Set<String> jvms = new HashSet<String>();
+            for (TaskResult taskResult : result.getAllResults().values()) {
+                jvms.add((String) taskResult.value());
+            }
+            scheduler.removeJob(id);
+            return jvms;
+        } finally {
+            scheduler.disconnect();
+        }
+    }
+
+    private TaskFlowJob createForkedTasksJob() throws Exception {
+        TaskFlowJob job = new TaskFlowJob();
+        job.setName(this.getClass().getSimpleName());
+        for (int i = 0; i < TASKS_NUMBER; i++) {
+            JavaTask task = new JavaTask();
+            task.setName("task" + i);
+            task.setExecutableClassName(JVMName.class.getName());
+            task.setForkEnvironment(new ForkEnvironment());
+            job.addTask(task);
+        }
+        return job;
+    }
+
+}
@@ -224,6 +224,26 @@ public class TestJobClasspath extends SchedulerConsecutive {
             Long value = (Long) results.get(taskName).value();
             Assert.assertEquals(firstValueToTest, (Integer) value.intValue());
         }
+
+        {
+            SchedulerTHelper.log("Test 5 : Jobs sharing the same classpath ...");
+            JobId[] ids = new JobId[2];
+            for (int i = 0; i < ids.length; i++) {
+                Job submittedJob = JobFactory.getFactory().createJob(DESCRIPTOR);
+                JobEnvironment env = new JobEnvironment();
+                env.setJobClasspath(new String[] { classPathes[1] });
+                submittedJob.setEnvironment(env);
+                ids[i] = SchedulerTHelper.submitJob(submittedJob);
+            }
+            // the classpath files must still be available after the removal of the first job
+            SchedulerTHelper.waitForEventJobFinished(ids[0]);
+            SchedulerTHelper.removeJob(ids[0]);
+            SchedulerTHelper.waitForEventJobFinished(ids[1]);
+
+            JobResult jr = SchedulerTHelper.getJobResult(ids[1]);
+            Assert.assertFalse(jr.hadException());
+            Assert.assertEquals(SecondValueToTest, (Integer) jr.getResult(taskName).value());
+        }
     }
 
     /**
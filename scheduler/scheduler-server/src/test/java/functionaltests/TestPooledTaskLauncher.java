@@ -0,0 +1,212 @@
+/*
+ * ################################################################
+ *
+ * ProActive Parallel Suite(TM): The Java(TM) library for
+ *    Parallel, Distributed, Multi-Core Computing for
+ *    Enterprise Grids & Clouds
+ *
+ * Copyright (C) 1997-2011 INRIA/University of
+ *                 Nice-Sophia Antipolis/ActiveEon
+ * Contact: proactive@ow2.org or contact@activeeon.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation; version 3 of
+ * the License.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307
+ * USA
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ *
+ *  Initial developer(s):               The ProActive Team
+ *                        http://proactive.inria.fr/team_members.htm
+ *  Contributor(s): ActiveEon Team - http://www.activeeon.com
+ *
+ * ################################################################
+ * $$ACTIVEEON_CONTRIBUTOR$$
+ */
+package functionaltests;
+
+import java.io.File;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.ow2.proactive.authentication.crypto.CredData;
+import org.ow2.proactive.authentication.crypto.Credentials;
+import org.ow2.proactive.scheduler.common.Scheduler;
+import org.ow2.proactive.scheduler.common.SchedulerAuthenticationInterface;
+import org.ow2.proactive.scheduler.common.job.JobEnvironment;
+import org.ow2.proactive.scheduler.common.job.JobId;
+import org.ow2.proactive.scheduler.common.job.JobResult;
+import org.ow2.proactive.scheduler.common.job.TaskFlowJob;
+import org.ow2.proactive.scheduler.common.task.JavaTask;
+import org.ow2.proactive.scheduler.common.task.TaskResult;
+import org.ow2.proactive.scripting.SimpleScript;
+import org.ow2.tests.FunctionalTest;
+import javassist.ClassPool;
+import javassist.CtClass;
+import org.junit.Test;
+
+import functionaltests.executables.LauncherIdentity;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+
+/**
+ * Short tasks executed with launchers created for each task, then with pooled launchers.
+ * Each task returns the identity of its launcher and fails if it sees a variable set by
+ * a previous task of the same launcher.
+ */
+public class TestPooledTaskLauncher extends FunctionalTest {
+
+    private static final int TASKS_NUMBER = 20;
+
+    private static final long JOB_TIMEOUT = 300000;
+
+    private static final String FIRST_JOB_CLASS = "functionaltests.pooled.FirstJobClass";
+
+    private static final String SECOND_JOB_CLASS = "functionaltests.pooled.SecondJobClass";
+
+    @Test
+    public void shortTasksWithPooledLaunchers() throws Throwable {
+        SchedulerTHelper.startScheduler(new File(SchedulerTHelper.class.getResource(
+                "config/scheduler-nonforkedscripttasks.ini").toURI()).getAbsolutePath());
+        Set<String> launchers = executeShortTasks();
+        // each task had its own launcher
+        assertEquals(TASKS_NUMBER, launchers.size());
+
+        SchedulerTHelper.killSchedulerAndNodesAndRestart(new File(SchedulerTHelper.class.getResource(
+                "config/scheduler-pooledlaunchers.ini").toURI()).getAbsolutePath());
+        // the first job deploys the launchers, the second one reuses them
+        Set<String> firstJobLaunchers = executeShortTasks();
+        Set<String> secondJobLaunchers = executeShortTasks();
+
+        assertTrue("Launchers were not reused: " + firstJobLaunchers,
+                firstJobLaunchers.size() < TASKS_NUMBER);
+        assertTrue("Launchers were not reused: " + secondJobLaunchers,
+                secondJobLaunchers.size() < TASKS_NUMBER);
+        secondJobLaunchers.retainAll(firstJobLaunchers);
+        assertFalse("Launchers of the first job were not reused by the second one",
+                secondJobLaunchers.isEmpty());
+    }
+
+    /**
+     * The tasks of a job with its own classpath are followed by the tasks of another user, then
+     * by the tasks of the same user. None of them can load the classes of the first job from the
+     * context class loader, and the launchers are only reused by the tasks of the same user.
+     */
+    @Test
+    public void pooledLaunchersAreNotSharedBetweenUsersAndJobs() throws Throwable {
+        SchedulerTHelper.startScheduler(new File(SchedulerTHelper.class.getResource(
+                "config/scheduler-pooledlaunchers.ini").toURI()).getAbsolutePath());
+
+        Set<String> firstJobLaunchers = executeShortTasks(createShortTasksJob(
+                createClasspath(FIRST_JOB_CLASS), null));
+
+        Set<String> otherUserLaunchers = executeShortTasksAsAnotherUser(createShortTasksJob(
+                createClasspath(SECOND_JOB_CLASS), FIRST_JOB_CLASS));
+        otherUserLaunchers.retainAll(firstJobLaunchers);
+        assertTrue("Launchers shared between users: " + otherUserLaunchers, otherUserLaunchers.isEmpty());
+
+        Set<String> sameUserLaunchers = executeShortTasks(createShortTasksJob(null, FIRST_JOB_CLASS));
+        assertTrue("Launchers were not reused: " + sameUserLaunchers,
+                sameUserLaunchers.size() < TASKS_NUMBER);
+    }
+
+    private Set<String> executeShortTasks() throws Throwable {
+        return executeShortTasks(createShortTasksJob(null, null));
+    }
+
+    /**
+     * @param classpath the job classpath, null for none
+     * @param invisibleClass a class the pre-script of each task must not load from the context
+     * class loader, null for no pre-script
+     */
+    private TaskFlowJob createShortTasksJob(String classpath, String invisibleClass) throws Exception {
+        TaskFlowJob job = new TaskFlowJob();
+        job.setName(this.getClass().getSimpleName());
+        if (classpath != null) {
+            JobEnvironment env = new JobEnvironment();
+            env.setJobClasspath(new String[] { classpath });
+            job.setEnvironment(env);
+        }
+        for (int i = 0; i < TASKS_NUMBER; i++) {
+            JavaTask task = new JavaTask();
+            task.setName("task" + i);
+            task.setExecutableClassName(LauncherIdentity.class.getName());
+            if (invisibleClass != null) {
+                task.setPreScript(new SimpleScript("var visible = true; try { java.lang.Class.forName('" +
+                    invisibleClass + "', false, java.lang.Thread.currentThread().getContextClassLoader());" +
+                    " } catch (e) { visible = false; }" +
+                    " if (visible) { throw 'Class of a previous job visible from the context class " +
+                    "loader'; }", "javascript"));
+            }
+            job.addTask(task);
+        }
+        return job;
+    }
+
+    private String createClasspath(String className) throws Exception {
+        File dir = new File(System.getProperty("java.io.tmpdir"), "SchedTestPooledLaunchers_CP" +
+            File.separator + className);
+        dir.mkdirs();
+        CtClass jobClass = ClassPool.getDefault().makeClass(className);
+        jobClass.writeFile(dir.getAbsolutePath());
+        jobClass.detach();
+        return dir.getAbsolutePath();
+    }
+
+    private Set<String> executeShortTasksAsAnotherUser(TaskFlowJob job) throws Throwable {
+        SchedulerAuthenticationInterface auth = SchedulerTHelper.getSchedulerAuth();
+        Scheduler scheduler = auth.login(Credentials.createCredentials(new CredData(
+            SchedulerTHelper.user_username, SchedulerTHelper.user_password), auth.getPublicKey()));
+        try {
+            JobId id = scheduler.submit(job);
+            long deadline = System.currentTimeMillis() + JOB_TIMEOUT;
+            JobResult result = scheduler.getJobResult(id);
+            while (result == null && System.currentTimeMillis() < deadline) {
+                Thread.sleep(100);
+                result = scheduler.getJobResult(id);
+            }
+            assertNotNull("Job of " + SchedulerTHelper.user_username + " is not finished", result);
+            Set<String> launchers = launchers(result);
+            scheduler.removeJob(id);
+            return launchers;
+        } finally {
+            scheduler.disconnect();
+        }
+    }
+
+    private Set<String> executeShortTasks(TaskFlowJob job) throws Throwable {
+        JobId id = SchedulerTHelper.submitJob(job);
+        SchedulerTHelper.waitForEventJobFinished(id);
+
+        JobResult result = SchedulerTHelper.getJobResult(id);
+        Set<String> launchers = launchers(result);
+        SchedulerTHelper.removeJob(id);
+        return launchers;
+    }
+
+    private Set<String> launchers(JobResult result) throws Throwable {
+        assertFalse(result.getExceptionResults().toString(), result.hadException());
+        assertEquals(TASKS_NUMBER, result.getAllResults().size());
+        Set<String> launchers = new HashSet<String>();
+        for (TaskResult taskResult : result.getAllResults().values()) {
+            launchers.add((String) taskResult.value());
+        }
+        return launchers;
+    }
+
+}
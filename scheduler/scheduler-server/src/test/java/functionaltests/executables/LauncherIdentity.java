@@ -0,0 +1,68 @@
+/*
+ *  *
+ * ProActive Parallel Suite(TM): The Java(TM) library for
+ *    Parallel, Distributed, Multi-Core Computing for
+ *    Enterprise Grids & Clouds
+ *
+ * Copyright (C) 1997-2013 INRIA/University of
+ *                 Nice-Sophia Antipolis/ActiveEon
+ * Contact: proactive@ow2.org or contact@activeeon.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation; version 3 of
+ * the License.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307
+ * USA
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ *
+ *  Initial developer(s):               The ProActive Team
+ *                        http://proactive.inria.fr/team_members.htm
+ *  Contributor(s):
+ *
+ *  * $$ACTIVEEON_INITIAL_DEV$$
+ */
+package functionaltests.executables;
+
+package functionaltests.executables;
+
+import java.io.Serializable;
+import java.lang.management.ManagementFactory;
+
+import org.ow2.proactive.scheduler.common.task.TaskResult;
+import org.ow2.proactive.scheduler.common.task.executable.JavaExecutable;
+
+
+/**
+ * Returns the JVM and the thread executing the task, which identify the task launcher.
+ * Fails if a variable set by a previous task of the launcher is still visible.
+ *
+ * @author The ProActive Team
+ **/
+public class LauncherIdentity extends JavaExecutable {
+
+    public static final String VARIABLE = "launcher.identity.previous.task";
+
+    @Override
+    public Serializable execute(TaskResult... results) throws Throwable {
+        if (getVariables().containsKey(VARIABLE)) {
+            throw new IllegalStateException("Variable set by a previous task on " +
+                getVariables().get(VARIABLE) + " is visible");
+        }
+        String identity = ManagementFactory.getRuntimeMXBean().getName() + "#" +
+            Thread.currentThread().getId();
+        getVariables().put(VARIABLE, identity);
+        return identity;
+    }
+
+}
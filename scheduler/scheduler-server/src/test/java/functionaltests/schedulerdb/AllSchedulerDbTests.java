@@ -15,7 +15,8 @@ import org.junit.runners.Suite.SuiteClasses;
         TestNativeTaskData.class, TestReadSchedulerAccount.class, TestReportingQueries.class,
         TestSchedulerTasksStateRecover.class, TestJobOperations.class, TestTaskAttributes.class,
         TestTaskIdGeneration.class, TestTaskResultData.class, TestTaskRuntimeData.class,
-        TestRestoreWorkflowJobs.class, TestRestoreWorkflowJobs2.class })
+        TestRestoreWorkflowJobs.class, TestRestoreWorkflowJobs2.class, TestGroupCommit.class,
+        TestSubmitJobs.class })
 public class AllSchedulerDbTests {
 
 }
@@ -0,0 +1,198 @@
+/*
+ * ################################################################
+ *
+ * ProActive Parallel Suite(TM): The Java(TM) library for
+ *    Parallel, Distributed, Multi-Core Computing for
+ *    Enterprise Grids & Clouds
+ *
+ * Copyright (C) 1997-2011 INRIA/University of
+ *                 Nice-Sophia Antipolis/ActiveEon
+ * Contact: proactive@ow2.org or contact@activeeon.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation; version 3 of
+ * the License.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307
+ * USA
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ *
+ *  Initial developer(s):               The ProActive Team
+ *                        http://proactive.inria.fr/team_members.htm
+ *  Contributor(s): ActiveEon Team - http://www.activeeon.com
+ *
+ * ################################################################
+ * $$ACTIVEEON_CONTRIBUTOR$$
+ */
+package functionaltests.schedulerdb;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.ow2.proactive.scheduler.common.job.JobStatus;
+import org.ow2.proactive.scheduler.common.job.TaskFlowJob;
+import org.ow2.proactive.scheduler.common.task.TaskStatus;
+import org.ow2.proactive.scheduler.job.InternalJob;
+import org.ow2.proactive.scheduler.task.TaskResultImpl;
+import org.ow2.proactive.scheduler.task.internal.InternalTask;
+
+
+public class TestGroupCommit extends BaseSchedulerDBTest {
+
+    private static final int TASKS_NUMBER = 200;
+
+    @Test
+    public void testPendingUpdatesCommittedBeforeRead() throws Exception {
+        // long period : updates are only committed when the job is read
+        dbManager.enableGroupCommit(60000, 1000);
+
+        TaskFlowJob jobDef = new TaskFlowJob();
+        jobDef.addTask(createDefaultTask("task1"));
+        jobDef.addTask(createDefaultTask("task2"));
+        InternalJob job = defaultSubmitJobAndLoadInternal(true, jobDef);
+
+        job.start();
+        InternalTask task1 = startTask(job, job.getTask("task1"));
+        dbManager.jobTaskStarted(job, task1, true);
+
+        InternalJob loaded = loadInternalJob(true, job.getId());
+        Assert.assertEquals(JobStatus.RUNNING, loaded.getStatus());
+        Assert.assertEquals(TaskStatus.RUNNING, loaded.getTask("task1").getStatus());
+        Assert.assertEquals(TaskStatus.PENDING, loaded.getTask("task2").getStatus());
+    }
+
+    @Test
+    public void testStatisticsReadWithoutCommittingPendingUpdates() throws Exception {
+        dbManager.enableGroupCommit(60000, 1000);
+
+        TaskFlowJob jobDef = new TaskFlowJob();
+        jobDef.addTask(createDefaultTask("task1"));
+        InternalJob job = defaultSubmitJobAndLoadInternal(true, jobDef);
+
+        job.start();
+        InternalTask task = startTask(job, job.getTask("task1"));
+        dbManager.jobTaskStarted(job, task, true);
+
+        // the counters do not wait for the batch, they see the data of the last commit
+        Assert.assertEquals(0, dbManager.getRunningTasksCount());
+        Assert.assertEquals(1, dbManager.getPendingJobsCount());
+        Assert.assertEquals(1, dbManager.getTotalJobsCount());
+
+        InternalJob loaded = loadInternalJob(true, job.getId());
+        Assert.assertEquals(TaskStatus.RUNNING, loaded.getTask("task1").getStatus());
+        Assert.assertEquals(1, dbManager.getRunningTasksCount());
+        Assert.assertEquals(1, dbManager.getRunningJobsCount());
+    }
+
+    @Test
+    public void testUpdatesCommittedInOrder() throws Throwable {
+        dbManager.enableGroupCommit(60000, 1000);
+
+        TaskFlowJob jobDef = new TaskFlowJob();
+        jobDef.addTask(createDefaultTask("task1"));
+        InternalJob job = defaultSubmitJobAndLoadInternal(true, jobDef);
+
+        job.start();
+        InternalTask task = startTask(job, job.getTask("task1"));
+        dbManager.jobTaskStarted(job, task, true);
+
+        TaskResultImpl result = new TaskResultImpl(task.getId(), "ok", null, 0, null);
+        job.terminateTask(false, task.getId(), null, null, result);
+        dbManager.updateAfterTaskFinished(job, task, result);
+
+        InternalJob loaded = loadInternalJob(true, job.getId());
+        Assert.assertEquals(JobStatus.FINISHED, loaded.getStatus());
+        Assert.assertEquals(TaskStatus.FINISHED, loaded.getTask("task1").getStatus());
+        Assert.assertEquals("ok", dbManager.loadTaskResult(task.getId(), 0).value());
+    }
+
+    @Test
+    public void testTerminationsOfSeveralJobsGrouped() throws Exception {
+        dbManager.enableGroupCommit(60000, 1000);
+
+        List<InternalJob> jobs = new ArrayList<InternalJob>();
+        for (int i = 0; i < 3; i++) {
+            InternalJob job = defaultSubmitJobAndLoadInternal(true, createJob(10));
+            job.start();
+            for (InternalTask task : job.getITasks()) {
+                startTask(job, task);
+                dbManager.jobTaskStarted(job, task, false);
+            }
+            jobs.add(job);
+        }
+        // the terminations of the different jobs are interleaved in the same group
+        for (int i = 0; i < 10; i++) {
+            for (InternalJob job : jobs) {
+                InternalTask task = job.getITasks().get(i);
+                TaskResultImpl result = new TaskResultImpl(task.getId(), "ok", null, 0, null);
+                job.terminateTask(false, task.getId(), null, null, result);
+                dbManager.updateAfterTaskFinished(job, task, result);
+            }
+        }
+
+        for (InternalJob job : jobs) {
+            InternalJob loaded = loadInternalJob(true, job.getId());
+            Assert.assertEquals(JobStatus.FINISHED, loaded.getStatus());
+            Assert.assertEquals(10, loaded.getJobInfo().getNumberOfFinishedTasks());
+            Assert.assertEquals(0, loaded.getJobInfo().getNumberOfRunningTasks());
+            for (InternalTask task : loaded.getITasks()) {
+                Assert.assertEquals(TaskStatus.FINISHED, task.getStatus());
+                Assert.assertTrue(task.getFinishedTime() > 0);
+            }
+        }
+    }
+
+    @Test
+    public void testManyTaskUpdatesCommittedInBatches() throws Exception {
+        // batches are smaller than the number of updates, several batches are committed
+        dbManager.enableGroupCommit(60000, 50);
+
+        startAndFinishTasks(createJob(TASKS_NUMBER));
+    }
+
+    private TaskFlowJob createJob(int tasksNumber) {
+        TaskFlowJob jobDef = new TaskFlowJob();
+        for (int i = 0; i < tasksNumber; i++) {
+            jobDef.addTask(createDefaultTask("task" + i));
+        }
+        return jobDef;
+    }
+
+    private void startAndFinishTasks(TaskFlowJob jobDef) throws Exception {
+        InternalJob job = defaultSubmitJobAndLoadInternal(true, jobDef);
+        job.start();
+
+        boolean firstTask = true;
+        for (InternalTask task : job.getITasks()) {
+            startTask(job, task);
+            dbManager.jobTaskStarted(job, task, firstTask);
+            firstTask = false;
+        }
+        for (InternalTask task : job.getITasks()) {
+            TaskResultImpl result = new TaskResultImpl(task.getId(), "ok", null, 0, null);
+            job.terminateTask(false, task.getId(), null, null, result);
+            dbManager.updateAfterTaskFinished(job, task, result);
+        }
+        dbManager.commitPendingUpdates();
+
+        InternalJob loaded = loadInternalJob(true, job.getId());
+        Assert.assertEquals(JobStatus.FINISHED, loaded.getStatus());
+        for (InternalTask task : loaded.getITasks()) {
+            Assert.assertEquals(TaskStatus.FINISHED, task.getStatus());
+        }
+        Assert.assertEquals(TASKS_NUMBER, loaded.getJobInfo().getNumberOfFinishedTasks());
+    }
+
+}
@@ -0,0 +1,149 @@
+/*
+ * ################################################################
+ *
+ * ProActive Parallel Suite(TM): The Java(TM) library for
+ *    Parallel, Distributed, Multi-Core Computing for
+ *    Enterprise Grids & Clouds
+ *
+ * Copyright (C) 1997-2011 INRIA/University of
+ *                 Nice-Sophia Antipolis/ActiveEon
+ * Contact: proactive@ow2.org or contact@activeeon.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation; version 3 of
+ * the License.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307
+ * USA
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ *
+ *  Initial developer(s):               The ProActive Team
+ *                        http://proactive.inria.fr/team_members.htm
+ *  Contributor(s): ActiveEon Team - http://www.activeeon.com
+ *
+ * ################################################################
+ * $$ACTIVEEON_CONTRIBUTOR$$
+ */
+package functionaltests.schedulerdb;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.ow2.proactive.scheduler.common.job.JobId;
+import org.ow2.proactive.scheduler.common.job.TaskFlowJob;
+import org.ow2.proactive.scheduler.core.db.SchedulerStateRecoverHelper;
+import org.ow2.proactive.scheduler.job.InternalJob;
+import org.ow2.proactive.scheduler.task.TaskResultImpl;
+import org.ow2.proactive.scheduler.task.internal.InternalTask;
+
+
+public class TestParallelRecovery extends BaseSchedulerDBTest {
+
+    private static final int JOBS_NUMBER = 250;
+
+    @Test
+    public void testParallelLoadingSameAsSequential() throws Exception {
+        for (int i = 0; i < JOBS_NUMBER; i++) {
+            InternalJob job = defaultSubmitJobAndLoadInternal(true, new TaskFlowJob());
+            if (i % 3 == 0) {
+                finishJob(job);
+            }
+        }
+
+        dbManager.setLoadThreads(1);
+        Set<JobId> notFinished = ids(dbManager.loadNotFinishedJobs(true));
+        Set<JobId> finished = ids(dbManager.loadFinishedJobs(false, -1));
+        Assert.assertEquals(JOBS_NUMBER, notFinished.size() + finished.size());
+
+        dbManager.setLoadThreads(4);
+        List<InternalJob> parallelNotFinished = dbManager.loadNotFinishedJobs(true);
+        List<InternalJob> parallelFinished = dbManager.loadFinishedJobs(false, -1);
+
+        Assert.assertEquals(notFinished.size(), parallelNotFinished.size());
+        Assert.assertEquals(notFinished, ids(parallelNotFinished));
+        Assert.assertEquals(finished.size(), parallelFinished.size());
+        Assert.assertEquals(finished, ids(parallelFinished));
+        // the partitions are returned in the order of the ids
+        assertSorted(parallelNotFinished);
+        assertSorted(parallelFinished);
+        for (InternalJob job : parallelNotFinished) {
+            Assert.assertEquals(1, job.getTasks().size());
+            Assert.assertNotNull(job.getEnvironment());
+        }
+    }
+
+    @Test
+    public void testFinishedJobsLoadedAfterRecovery() throws Exception {
+        InternalJob pendingJob = defaultSubmitJob(new TaskFlowJob());
+        InternalJob finishedJob = defaultSubmitJobAndLoadInternal(true, new TaskFlowJob());
+        finishJob(finishedJob);
+
+        SchedulerStateRecoverHelper recoverHelper = new SchedulerStateRecoverHelper(dbManager);
+        SchedulerStateRecoverHelper.RecoveredSchedulerState state = recoverHelper.recoverNotFinishedJobs();
+        Assert.assertEquals(1, state.getPendingJobs().size());
+        Assert.assertEquals(pendingJob.getId(), state.getPendingJobs().get(0).getId());
+        Assert.assertEquals(0, state.getFinishedJobs().size());
+        Assert.assertEquals(0, state.getSchedulerState().getFinishedJobs().size());
+
+        // jobs submitted and finished once the scheduler is started are already known
+        InternalJob newJob = defaultSubmitJob(new TaskFlowJob(), DEFAULT_USER_NAME,
+                System.currentTimeMillis() + 1000);
+        finishJob(loadInternalJob(true, newJob.getId()));
+        finishJob(state.getPendingJobs().get(0));
+
+        List<InternalJob> finishedJobs = recoverHelper.loadFinishedJobs(-1);
+        Assert.assertEquals(1, finishedJobs.size());
+        Assert.assertEquals(finishedJob.getId(), finishedJobs.get(0).getId());
+    }
+
+    @Test
+    public void testLastJobId() throws Exception {
+        Assert.assertNull(dbManager.getLastJobId());
+
+        InternalJob firstJob = defaultSubmitJob(new TaskFlowJob());
+        Assert.assertEquals(firstJob.getId(), dbManager.getLastJobId());
+
+        InternalJob lastJob = defaultSubmitJobAndLoadInternal(true, new TaskFlowJob());
+        finishJob(lastJob);
+        Assert.assertEquals(lastJob.getId(), dbManager.getLastJobId());
+        Assert.assertTrue(firstJob.getId().compareTo(dbManager.getLastJobId()) < 0);
+    }
+
+    private void finishJob(InternalJob job) throws Exception {
+        job.start();
+        InternalTask task = job.getITasks().get(0);
+        startTask(job, task);
+        dbManager.jobTaskStarted(job, task, true);
+        TaskResultImpl result = new TaskResultImpl(task.getId(), "ok", null, 0, null);
+        job.terminateTask(false, task.getId(), null, null, result);
+        dbManager.updateAfterTaskFinished(job, task, result);
+    }
+
+    private void assertSorted(List<InternalJob> jobs) {
+        for (int i = 1; i < jobs.size(); i++) {
+            Assert.assertTrue(jobs.get(i - 1).getId().compareTo(jobs.get(i).getId()) < 0);
+        }
+    }
+
+    private Set<JobId> ids(List<InternalJob> jobs) {
+        Set<JobId> ids = new HashSet<JobId>(jobs.size());
+        for (InternalJob job : jobs) {
+            ids.add(job.getId());
+        }
+        return ids;
+    }
+
+}
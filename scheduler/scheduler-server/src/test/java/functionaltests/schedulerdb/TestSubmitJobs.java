@@ -0,0 +1,91 @@
+/*
+ * ################################################################
+ *
+ * ProActive Parallel Suite(TM): The Java(TM) library for
+ *    Parallel, Distributed, Multi-Core Computing for
+ *    Enterprise Grids & Clouds
+ *
+ * Copyright (C) 1997-2011 INRIA/University of
+ *                 Nice-Sophia Antipolis/ActiveEon
+ * Contact: proactive@ow2.org or contact@activeeon.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation; version 3 of
+ * the License.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307
+ * USA
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ *
+ *  Initial developer(s):               The ProActive Team
+ *                        http://proactive.inria.fr/team_members.htm
+ *  Contributor(s): ActiveEon Team - http://www.activeeon.com
+ *
+ * ################################################################
+ * $$ACTIVEEON_CONTRIBUTOR$$
+ */
+package functionaltests.schedulerdb;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.ow2.proactive.scheduler.common.job.JobId;
+import org.ow2.proactive.scheduler.common.job.JobStatus;
+import org.ow2.proactive.scheduler.common.job.TaskFlowJob;
+import org.ow2.proactive.scheduler.common.task.JavaTask;
+import org.ow2.proactive.scheduler.job.InternalJob;
+import org.ow2.proactive.scheduler.job.InternalJobFactory;
+import org.ow2.proactive.scheduler.task.internal.InternalTask;
+
+
+public class TestSubmitJobs extends BaseSchedulerDBTest {
+
+    @Test
+    public void testSubmitJobs() throws Exception {
+        List<InternalJob> jobs = new ArrayList<InternalJob>();
+        for (int i = 0; i < 5; i++) {
+            TaskFlowJob jobDef = new TaskFlowJob();
+            jobDef.setName("job" + i);
+            JavaTask task1 = createDefaultTask("task1");
+            JavaTask task2 = createDefaultTask("task2");
+            task2.addDependence(task1);
+            jobDef.addTask(task1);
+            jobDef.addTask(task2);
+            InternalJob job = InternalJobFactory.createJob(jobDef, getDefaultCredentials());
+            job.setOwner(DEFAULT_USER_NAME);
+            job.submitAction();
+            jobs.add(job);
+        }
+
+        dbManager.newJobsSubmitted(jobs);
+
+        Set<JobId> ids = new HashSet<JobId>();
+        for (InternalJob job : jobs) {
+            Assert.assertTrue(ids.add(job.getId()));
+            for (InternalTask task : job.getITasks()) {
+                Assert.assertEquals(job.getId(), task.getJobId());
+            }
+
+            InternalJob loaded = loadInternalJob(true, job.getId());
+            Assert.assertEquals(job.getName(), loaded.getName());
+            Assert.assertEquals(JobStatus.PENDING, loaded.getStatus());
+            Assert.assertEquals(2, loaded.getITasks().size());
+            Assert.assertEquals(1, loaded.getTask("task2").getIDependences().size());
+        }
+    }
+
+}
@@ -7,6 +7,7 @@ import org.ow2.proactive.scheduler.common.job.JobId;
 import org.ow2.proactive.scheduler.common.job.TaskFlowJob;
 import org.ow2.proactive.scheduler.common.task.JavaTask;
 import org.ow2.proactive.scheduler.common.task.TaskId;
+import org.ow2.proactive.scheduler.descriptor.EligibleTaskDescriptor;
 import org.ow2.proactive.scheduler.descriptor.JobDescriptor;
 import org.ow2.proactive.scheduler.task.TaskResultImpl;
 import org.junit.Assert;
@@ -62,6 +63,35 @@ public class SchedulingServiceTest1 extends BaseServiceTest {
         infrastructure.assertRequests(0);
     }
 
+    @Test
+    public void testLockJobToStartTask() throws Exception {
+        service.submitJob(createJob(createTestJob()));
+        Map<JobId, JobDescriptor> jobsMap = service.getJobsToSchedule();
+        assertEquals(1, jobsMap.size());
+        final JobDescriptor jobDesc = jobsMap.values().iterator().next();
+        final EligibleTaskDescriptor taskDesc = jobDesc.getEligibleTasks().iterator().next();
+
+        Assert.assertTrue(service.lockJobToStartTask(jobDesc.getJobId(), taskDesc.getTaskId()));
+        runInAnotherThread(new TestRunnable() {
+            @Override
+            public void run() {
+                // snapshot does not need any lock
+                Assert.assertEquals(1, service.getJobsToSchedule().size());
+            }
+        });
+        taskStarted(jobDesc, taskDesc);
+        service.unlockJob(jobDesc.getJobId());
+
+        // task is already running
+        Assert.assertFalse(service.lockJobToStartTask(jobDesc.getJobId(), taskDesc.getTaskId()));
+
+        service.killJob(jobDesc.getJobId());
+
+        // job does not exist anymore
+        Assert.assertFalse(service.lockJobToStartTask(jobDesc.getJobId(), taskDesc.getTaskId()));
+        assertEquals(0, service.getJobsToSchedule().size());
+    }
+
     @Test
     public void testSimpleJob() throws Exception {
         service.submitJob(createJob(createTestJob()));
@@ -0,0 +1,109 @@
+package functionaltests.service;
+
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.ow2.proactive.scheduler.common.job.JobId;
+import org.ow2.proactive.scheduler.common.job.TaskFlowJob;
+import org.ow2.proactive.scheduler.common.task.JavaTask;
+import org.ow2.proactive.scheduler.common.task.TaskId;
+import org.ow2.proactive.scheduler.descriptor.EligibleTaskDescriptor;
+import org.ow2.proactive.scheduler.descriptor.JobDescriptor;
+import org.ow2.proactive.scheduler.job.InternalJob;
+import org.ow2.proactive.scheduler.task.TaskResultImpl;
+import org.junit.Assert;
+import org.junit.Test;
+
+
+/**
+ * While the scheduling loop holds the lock of the job whose task it is starting,
+ * the tasks of the other jobs can still be started and terminated, and the jobs to
+ * schedule can still be listed.
+ */
+public class SchedulingServiceTest11 extends BaseServiceTest {
+
+    private static final long TIMEOUT_SECONDS = 30;
+
+    private TaskFlowJob createTestJob() throws Exception {
+        TaskFlowJob job = new TaskFlowJob();
+        job.setName(this.getClass().getSimpleName());
+        for (int i = 0; i < 2; i++) {
+            JavaTask task = new JavaTask();
+            task.setName("task" + i);
+            task.setExecutableClassName("class");
+            job.addTask(task);
+        }
+        return job;
+    }
+
+    @Test
+    public void testOtherJobsAreNotBlockedByStartingJob() throws Exception {
+        InternalJob job1 = createJob(createTestJob());
+        InternalJob job2 = createJob(createTestJob());
+        service.submitJob(job1);
+        service.submitJob(job2);
+
+        Map<JobId, JobDescriptor> jobsMap = service.getJobsToSchedule();
+        final JobDescriptor jobDesc1 = jobsMap.get(job1.getId());
+        final JobDescriptor jobDesc2 = jobsMap.get(job2.getId());
+        final EligibleTaskDescriptor task1 = jobDesc1.getEligibleTasks().iterator().next();
+
+        // the scheduling loop holds the lock of job1 while it starts one of its tasks
+        final CountDownLatch job1Locked = new CountDownLatch(1);
+        final CountDownLatch releaseJob1 = new CountDownLatch(1);
+        Future<Boolean> lockingLoop = executorService.submit(new Callable<Boolean>() {
+            public Boolean call() throws Exception {
+                boolean locked = service.lockJobToStartTask(jobDesc1.getJobId(), task1.getTaskId());
+                job1Locked.countDown();
+                if (locked) {
+                    try {
+                        releaseJob1.await(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+                        taskStarted(jobDesc1, task1);
+                    } finally {
+                        service.unlockJob(jobDesc1.getJobId());
+                    }
+                }
+                return locked;
+            }
+        });
+        Assert.assertTrue(job1Locked.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+
+        try {
+            // the jobs snapshot is not blocked by the job lock
+            Map<JobId, JobDescriptor> snapshot = executorService.submit(
+                    new Callable<Map<JobId, JobDescriptor>>() {
+                        public Map<JobId, JobDescriptor> call() {
+                            return service.getJobsToSchedule();
+                        }
+                    }).get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            Assert.assertEquals(2, snapshot.size());
+
+            // a task of job2 can be started and terminated meanwhile
+            final EligibleTaskDescriptor task2 = jobDesc2.getEligibleTasks().iterator().next();
+            executorService.submit(new Callable<Void>() {
+                public Void call() throws Exception {
+                    Assert.assertTrue(service.lockJobToStartTask(jobDesc2.getJobId(), task2.getTaskId()));
+                    try {
+                        taskStarted(jobDesc2, task2);
+                    } finally {
+                        service.unlockJob(jobDesc2.getJobId());
+                    }
+                    TaskId taskId = task2.getTaskId();
+                    service.taskTerminatedWithResult(taskId, new TaskResultImpl(taskId, "Result", null, 0));
+                    return null;
+                }
+            }).get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+
+            Assert.assertFalse(lockingLoop.isDone());
+        } finally {
+            releaseJob1.countDown();
+        }
+
+        Assert.assertTrue(lockingLoop.get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        Assert.assertFalse(service.lockJobToStartTask(jobDesc1.getJobId(), task1.getTaskId()));
+    }
+
+}
@@ -0,0 +1,216 @@
+/*
+ * ################################################################
+ *
+ * ProActive Parallel Suite(TM): The Java(TM) library for
+ *    Parallel, Distributed, Multi-Core Computing for
+ *    Enterprise Grids & Clouds
+ *
+ * Copyright (C) 1997-2011 INRIA/University of
+ *                 Nice-Sophia Antipolis/ActiveEon
+ * Contact: proactive@ow2.org or contact@activeeon.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation; version 3 of
+ * the License.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307
+ * USA
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ *
+ *  Initial developer(s):               The ProActive Team
+ *                        http://proactive.inria.fr/team_members.htm
+ *  Contributor(s): ActiveEon Team - http://www.activeeon.com
+ *
+ * ################################################################
+ * $$ACTIVEEON_CONTRIBUTOR$$
+ */
+package org.ow2.proactive.scheduler.core;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.objectweb.proactive.core.UniqueID;
+import org.ow2.proactive.scheduler.common.NotificationData;
+import org.ow2.proactive.scheduler.common.SchedulerEvent;
+import org.ow2.proactive.scheduler.common.SchedulerEventListener;
+import org.ow2.proactive.scheduler.common.job.JobInfo;
+import org.ow2.proactive.scheduler.common.job.JobState;
+import org.ow2.proactive.scheduler.common.job.UserIdentification;
+import org.ow2.proactive.scheduler.common.task.TaskInfo;
+import org.ow2.proactive.scheduler.core.properties.PASchedulerProperties;
+import org.ow2.proactive.scheduler.job.JobIdImpl;
+import org.ow2.proactive.scheduler.task.TaskIdImpl;
+import org.ow2.proactive.scheduler.task.TaskInfoImpl;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+
+public class ClientRequestHandlerTest {
+
+    private SchedulerFrontendState frontend;
+
+    private RecordingListener listener;
+
+    private UniqueID clientId;
+
+    @BeforeClass
+    public static void setThreadNumber() {
+        PASchedulerProperties.SCHEDULER_LISTENERS_THREADNUMBER.updateProperty("2");
+    }
+
+    @Before
+    public void setUp() {
+        frontend = mock(SchedulerFrontendState.class);
+        listener = new RecordingListener();
+        clientId = new UniqueID("client");
+    }
+
+    @Test
+    public void pending_updates_of_a_task_are_coalesced() throws Exception {
+        PASchedulerProperties.SCHEDULER_LISTENERS_COALESCE_EVENTS.updateProperty("true");
+        PASchedulerProperties.SCHEDULER_LISTENERS_QUEUE_SIZE.updateProperty("0");
+        ClientRequestHandler handler = new ClientRequestHandler(frontend, clientId, "john", listener);
+
+        // the first event blocks the listener, the next ones wait in the queue
+        handler.addEvent(taskEventMethod(), notification(SchedulerEvent.TASK_PENDING_TO_RUNNING, 1));
+        assertTrue(listener.firstEventReceived.await(10, TimeUnit.SECONDS));
+
+        handler.addEvent(taskEventMethod(), notification(SchedulerEvent.TASK_PENDING_TO_RUNNING, 2));
+        NotificationData<TaskInfo> lastProgress = null;
+        for (int i = 0; i < 10; i++) {
+            lastProgress = notification(SchedulerEvent.TASK_PROGRESS, 1);
+            handler.addEvent(taskEventMethod(), lastProgress);
+        }
+        handler.addEvent(taskEventMethod(), notification(SchedulerEvent.TASK_RUNNING_TO_FINISHED, 1));
+        assertEquals(3, handler.getQueueSize());
+
+        listener.release.countDown();
+        listener.awaitEvents(4);
+
+        assertEquals(SchedulerEvent.TASK_PENDING_TO_RUNNING, listener.events.get(0).getEventType());
+        assertEquals(SchedulerEvent.TASK_PENDING_TO_RUNNING, listener.events.get(1).getEventType());
+        assertSame(lastProgress, listener.events.get(2));
+        assertEquals(SchedulerEvent.TASK_RUNNING_TO_FINISHED, listener.events.get(3).getEventType());
+        handler.close();
+    }
+
+    @Test
+    public void client_is_disconnected_when_its_queue_is_full() throws Exception {
+        PASchedulerProperties.SCHEDULER_LISTENERS_COALESCE_EVENTS.updateProperty("true");
+        PASchedulerProperties.SCHEDULER_LISTENERS_QUEUE_SIZE.updateProperty("3");
+        ClientRequestHandler handler = new ClientRequestHandler(frontend, clientId, "lagging", listener);
+        assertTrue(queuesDescription().contains("lagging"));
+
+        handler.addEvent(taskEventMethod(), notification(SchedulerEvent.TASK_PENDING_TO_RUNNING, 1));
+        assertTrue(listener.firstEventReceived.await(10, TimeUnit.SECONDS));
+
+        for (int i = 2; i <= 5; i++) {
+            handler.addEvent(taskEventMethod(), notification(SchedulerEvent.TASK_PENDING_TO_RUNNING, i));
+        }
+
+        verify(frontend).markAsDirty(clientId);
+        assertEquals(0, handler.getQueueSize());
+        // the handler is not reported anymore, it is replaced when the client listens again
+        assertFalse(queuesDescription().contains("lagging"));
+
+        // events received before the client is disconnected ask again for its disconnection
+        handler.addEvent(taskEventMethod(), notification(SchedulerEvent.TASK_PENDING_TO_RUNNING, 6));
+        verify(frontend, times(2)).markAsDirty(clientId);
+        assertEquals(0, handler.getQueueSize());
+
+        listener.release.countDown();
+        Thread.sleep(500);
+        assertEquals(1, listener.events.size());
+        handler.close();
+    }
+
+    private static String queuesDescription() {
+        return ClientRequestHandler.getEventQueuesDescription().toString();
+    }
+
+    private static Method taskEventMethod() throws NoSuchMethodException {
+        return SchedulerEventListener.class.getMethod("taskStateUpdatedEvent", NotificationData.class);
+    }
+
+    private static NotificationData<TaskInfo> notification(SchedulerEvent eventType, int taskNumber) {
+        TaskInfoImpl taskInfo = new TaskInfoImpl();
+        taskInfo.setTaskId(TaskIdImpl.createTaskId(new JobIdImpl(1, "job"), "task" + taskNumber,
+                taskNumber, false));
+        return new NotificationData<TaskInfo>(eventType, taskInfo);
+    }
+
+    private static class RecordingListener implements SchedulerEventListener {
+
+        final CountDownLatch firstEventReceived = new CountDownLatch(1);
+
+        final CountDownLatch release = new CountDownLatch(1);
+
+        final List<NotificationData<?>> events = Collections
+                .synchronizedList(new ArrayList<NotificationData<?>>());
+
+        void awaitEvents(int number) throws InterruptedException {
+            long deadline = System.currentTimeMillis() + 10000;
+            while (events.size() < number && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(number, events.size());
+        }
+
+        private void received(NotificationData<?> notification) {
+            events.add(notification);
+            firstEventReceived.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        @Override
+        public void schedulerStateUpdatedEvent(SchedulerEvent eventType) {
+        }
+
+        @Override
+        public void jobSubmittedEvent(JobState job) {
+        }
+
+        @Override
+        public void jobStateUpdatedEvent(NotificationData<JobInfo> notification) {
+            received(notification);
+        }
+
+        @Override
+        public void taskStateUpdatedEvent(NotificationData<TaskInfo> notification) {
+            received(notification);
+        }
+
+        @Override
+        public void usersUpdatedEvent(NotificationData<UserIdentification> notification) {
+            received(notification);
+        }
+    }
+
+}
@@ -1,5 +1,8 @@
 package org.ow2.proactive.scheduler.core;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
@@ -9,15 +12,31 @@ import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
 import org.objectweb.proactive.core.UniqueID;
+import org.ow2.proactive.scheduler.common.exception.UnknownJobException;
+import org.ow2.proactive.scheduler.common.job.JobId;
+import org.ow2.proactive.scheduler.common.job.JobPriority;
+import org.ow2.proactive.scheduler.common.task.TaskId;
+import org.ow2.proactive.scheduler.core.db.SchedulerStateRecoverHelper;
 import org.ow2.proactive.scheduler.core.jmx.SchedulerJMXHelper;
 import org.ow2.proactive.scheduler.core.jmx.mbean.RuntimeDataMBeanImpl;
 import org.ow2.proactive.scheduler.core.properties.PASchedulerProperties;
+import org.ow2.proactive.scheduler.job.InternalJob;
+import org.ow2.proactive.scheduler.job.InternalTaskFlowJob;
+import org.ow2.proactive.scheduler.job.JobIdImpl;
 import org.ow2.proactive.scheduler.job.UserIdentificationImpl;
+import org.ow2.proactive.scheduler.task.internal.InternalNativeTask;
+import org.ow2.proactive.scheduler.task.internal.InternalTask;
 import org.ow2.tests.ProActiveTest;
 import org.junit.Test;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 
@@ -59,4 +78,77 @@ public class SchedulerFrontendStateTest extends ProActiveTest {
             // expected timeout exception after two seconds
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    public void finished_job_is_loaded_on_demand_while_finished_jobs_are_recovered() throws Exception {
+        SchedulerStateImpl sState = new SchedulerStateImpl();
+        SchedulerFrontendState frontendState = new SchedulerFrontendState(sState,
+            mock(SchedulerJMXHelper.class));
+
+        InternalJob requestedJob = createFinishedJob("5");
+        InternalJob otherJob = createFinishedJob("6");
+        SchedulerStateRecoverHelper loader = mock(SchedulerStateRecoverHelper.class);
+        when(loader.loadFinishedJob(requestedJob.getId(), 0)).thenReturn(requestedJob);
+        frontendState.setFinishedJobsRecovery(JobIdImpl.makeJobId("10"), loader, 0);
+        assertFalse(sState.isFinishedJobsLoaded());
+
+        // the background loading is still running, the job is loaded once on demand
+        TaskId taskId = frontendState.getTaskId(requestedJob.getId(), "task");
+        assertEquals(requestedJob.getId(), taskId.getJobId());
+        assertEquals(taskId, frontendState.getTaskId(requestedJob.getId(), "task"));
+        verify(loader, times(1)).loadFinishedJob(requestedJob.getId(), 0);
+        assertEquals(1, sState.getFinishedJobs().size());
+        assertFalse(sState.isFinishedJobsLoaded());
+
+        // the background loading ends, the job loaded on demand is not added twice
+        List<InternalJob> recovered = frontendState.finishedJobsRecovered(Arrays.asList(
+                createFinishedJob("5"), otherJob));
+        assertEquals(2, recovered.size());
+        assertTrue(recovered.contains(requestedJob));
+        assertTrue(recovered.contains(otherJob));
+        assertEquals(2, sState.getFinishedJobs().size());
+        assertTrue(sState.isFinishedJobsLoaded());
+    }
+
+    @Test
+    public void unknown_job_is_not_loaded_on_demand() throws Exception {
+        SchedulerFrontendState frontendState = new SchedulerFrontendState(new SchedulerStateImpl(),
+            mock(SchedulerJMXHelper.class));
+        SchedulerStateRecoverHelper loader = mock(SchedulerStateRecoverHelper.class);
+        frontendState.setFinishedJobsRecovery(JobIdImpl.makeJobId("10"), loader, 0);
+
+        // not a finished job to recover
+        assertUnknownJob(frontendState, JobIdImpl.makeJobId("5"));
+        verify(loader).loadFinishedJob(JobIdImpl.makeJobId("5"), 0);
+
+        // submitted after the startup
+        assertUnknownJob(frontendState, JobIdImpl.makeJobId("11"));
+        verify(loader, never()).loadFinishedJob(JobIdImpl.makeJobId("11"), 0);
+
+        // the background loading is done
+        assertTrue(frontendState.finishedJobsRecovered(new ArrayList<InternalJob>()).isEmpty());
+        assertUnknownJob(frontendState, JobIdImpl.makeJobId("6"));
+        verify(loader, never()).loadFinishedJob(JobIdImpl.makeJobId("6"), 0);
+    }
+
+    private void assertUnknownJob(SchedulerFrontendState frontendState, JobId jobId) throws Exception {
+        try {
+            frontendState.getTaskId(jobId, "task");
+            fail("Job " + jobId + " should be unknown");
+        } catch (UnknownJobException e) {
+            // expected
+        }
+    }
+
+    private InternalJob createFinishedJob(String id) {
+        InternalTaskFlowJob job = new InternalTaskFlowJob("test", JobPriority.NORMAL, true, "");
+        job.setId(JobIdImpl.makeJobId(id));
+        job.setOwner("admin");
+        InternalTask task = new InternalNativeTask();
+        task.setName("task");
+        ArrayList<InternalTask> tasks = new ArrayList<InternalTask>();
+        tasks.add(task);
+        job.addTasks(tasks);
+        return job;
+    }
+}
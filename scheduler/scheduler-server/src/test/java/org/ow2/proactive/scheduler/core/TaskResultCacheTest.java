@@ -0,0 +1,158 @@
+/*
+ * ################################################################
+ *
+ * ProActive Parallel Suite(TM): The Java(TM) library for
+ *    Parallel, Distributed, Multi-Core Computing for
+ *    Enterprise Grids & Clouds
+ *
+ * Copyright (C) 1997-2011 INRIA/University of
+ *                 Nice-Sophia Antipolis/ActiveEon
+ * Contact: proactive@ow2.org or contact@activeeon.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation; version 3 of
+ * the License.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307
+ * USA
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ *
+ *  Initial developer(s):               The ProActive Team
+ *                        http://proactive.inria.fr/team_members.htm
+ *  Contributor(s): ActiveEon Team - http://www.activeeon.com
+ *
+ * ################################################################
+ * $$ACTIVEEON_CONTRIBUTOR$$
+ */
+package org.ow2.proactive.scheduler.core;
+
+import java.util.Arrays;
+import java.util.LinkedList;
+
+import org.ow2.proactive.scheduler.common.job.JobId;
+import org.ow2.proactive.scheduler.common.task.Log4JTaskLogs;
+import org.ow2.proactive.scheduler.common.task.SimpleTaskLogs;
+import org.ow2.proactive.scheduler.common.task.TaskId;
+import org.ow2.proactive.scheduler.common.task.TaskResult;
+import org.ow2.proactive.scheduler.job.JobIdImpl;
+import org.ow2.proactive.scheduler.task.TaskIdImpl;
+import org.ow2.proactive.scheduler.task.TaskResultImpl;
+import org.apache.log4j.Logger;
+import org.apache.log4j.spi.LoggingEvent;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+
+public class TaskResultCacheTest {
+
+    private final JobId jobId = new JobIdImpl(1L, "job");
+
+    @Test
+    public void result_is_evicted_when_all_children_are_started() throws Exception {
+        TaskResultCache cache = new TaskResultCache(1024);
+        TaskId parent = taskId(jobId, 1);
+        cache.put(result(parent, 10), 2, new String[] { "classpath" });
+
+        TaskResult cached = cache.get(parent);
+        assertNotNull(cached);
+        assertArrayEquals(new byte[10], ((TaskResultImpl) cached).getSerializedValue());
+        assertArrayEquals(new String[] { "classpath" }, ((TaskResultImpl) cached).getJobClasspath());
+
+        cache.childStarted(Arrays.asList(parent));
+        assertNotNull(cache.get(parent));
+
+        cache.childStarted(Arrays.asList(parent));
+        assertNull(cache.get(parent));
+        assertEquals(0, cache.getSize());
+        assertEquals(2, cache.getHits());
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    public void least_recently_used_results_are_evicted_when_full() throws Exception {
+        TaskResultCache cache = new TaskResultCache(100);
+        TaskId first = taskId(jobId, 1);
+        TaskId second = taskId(jobId, 2);
+        TaskId third = taskId(jobId, 3);
+        cache.put(result(first, 40), 1, null);
+        cache.put(result(second, 40), 1, null);
+        cache.get(first);
+        cache.put(result(third, 40), 1, null);
+
+        assertNotNull(cache.get(first));
+        assertNull(cache.get(second));
+        assertNotNull(cache.get(third));
+        assertEquals(80, cache.getSize());
+    }
+
+    @Test
+    public void results_without_children_or_too_big_are_not_cached() throws Exception {
+        TaskResultCache cache = new TaskResultCache(100);
+        cache.put(result(taskId(jobId, 1), 10), 0, null);
+        cache.put(result(taskId(jobId, 2), 1000), 1, null);
+
+        assertEquals(0, cache.getResultsCount());
+    }
+
+    @Test
+    public void results_of_a_job_are_evicted_with_the_job() throws Exception {
+        TaskResultCache cache = new TaskResultCache(1024);
+        JobId otherJobId = new JobIdImpl(2L, "other");
+        cache.put(result(taskId(jobId, 1), 10), 1, null);
+        cache.put(result(taskId(otherJobId, 1), 10), 1, null);
+
+        cache.removeJob(jobId);
+
+        assertNull(cache.get(taskId(jobId, 1)));
+        assertNotNull(cache.get(taskId(otherJobId, 1)));
+        assertEquals(10, cache.getSize());
+    }
+
+    @Test
+    public void disabled_cache_keeps_nothing() throws Exception {
+        TaskResultCache cache = new TaskResultCache(0);
+        cache.put(result(taskId(jobId, 1), 10), 1, null);
+
+        assertFalse(cache.isEnabled());
+        assertNull(cache.get(taskId(jobId, 1)));
+    }
+
+    @Test
+    public void logs_size_is_estimated_from_their_stored_form() throws Exception {
+        TaskResultCache cache = new TaskResultCache(100000);
+        LinkedList<LoggingEvent> events = new LinkedList<LoggingEvent>();
+        Logger logger = Logger.getLogger("task");
+        events.add(new LoggingEvent(null, logger, Log4JTaskLogs.STDOUT_LEVEL, "output", null));
+        Log4JTaskLogs log4jLogs = new Log4JTaskLogs(events, "1");
+        cache.put(new TaskResultImpl(taskId(jobId, 1), new byte[10], null, log4jLogs, null, null), 1, null);
+        assertEquals(10 + log4jLogs.getSerializedSize(), cache.getSize());
+
+        cache.put(new TaskResultImpl(taskId(jobId, 2), new byte[10], null, new SimpleTaskLogs("out", null),
+            null, null), 1, null);
+        assertEquals(10 + log4jLogs.getSerializedSize() + 10 + 2 * 3, cache.getSize());
+    }
+
+    private static TaskId taskId(JobId jobId, int id) {
+        return TaskIdImpl.createTaskId(jobId, "task" + id, id, false);
+    }
+
+    private static TaskResultImpl result(TaskId taskId, int size) {
+        return new TaskResultImpl(taskId, new byte[size], null, null, null, null);
+    }
+
+}
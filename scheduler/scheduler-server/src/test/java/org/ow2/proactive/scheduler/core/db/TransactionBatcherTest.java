@@ -0,0 +1,203 @@
+/*
+ * ################################################################
+ *
+ * ProActive Parallel Suite(TM): The Java(TM) library for
+ *    Parallel, Distributed, Multi-Core Computing for
+ *    Enterprise Grids & Clouds
+ *
+ * Copyright (C) 1997-2011 INRIA/University of
+ *                 Nice-Sophia Antipolis/ActiveEon
+ * Contact: proactive@ow2.org or contact@activeeon.com
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation; version 3 of
+ * the License.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307
+ * USA
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ *
+ *  Initial developer(s):               The ProActive Team
+ *                        http://proactive.inria.fr/team_members.htm
+ *  Contributor(s): ActiveEon Team - http://www.activeeon.com
+ *
+ * ################################################################
+ * $$ACTIVEEON_CONTRIBUTOR$$
+ */
+package org.ow2.proactive.scheduler.core.db;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.ow2.proactive.scheduler.core.db.TransactionHelper.SessionWork;
+import org.hibernate.Session;
+import org.junit.After;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+
+public class TransactionBatcherTest {
+
+    private final RecordingTransactionHelper transactionHelper = new RecordingTransactionHelper();
+
+    private TransactionBatcher batcher;
+
+    @After
+    public void shutdown() {
+        if (batcher != null) {
+            batcher.shutdown();
+        }
+    }
+
+    @Test
+    public void pending_updates_are_committed_in_batches() throws Exception {
+        batcher = new TransactionBatcher(transactionHelper, 60000, 4);
+
+        addUpdates(0, 10);
+        batcher.commitPendingWork();
+
+        assertEquals(range(0, 10), transactionHelper.committed);
+        // the writer thread may commit a batch before it is full
+        assertTrue(transactionHelper.transactions >= 3);
+        assertTrue(transactionHelper.maxTransactionSize <= 4);
+        assertEquals(transactionHelper.transactions, batcher.getCommittedBatchCount());
+        assertEquals(0, batcher.getPendingWorkCount());
+    }
+
+    @Test
+    public void pending_updates_are_committed_periodically() throws Exception {
+        batcher = new TransactionBatcher(transactionHelper, 50, 1000);
+        transactionHelper.commitLatch = new CountDownLatch(1);
+
+        addUpdates(0, 1);
+
+        assertTrue(transactionHelper.commitLatch.await(30, TimeUnit.SECONDS));
+        assertEquals(range(0, 1), transactionHelper.committed);
+        assertEquals(1, batcher.getCommittedBatchCount());
+    }
+
+    @Test
+    public void failed_batch_is_replayed_in_queue_order() throws Exception {
+        batcher = new TransactionBatcher(transactionHelper, 60000, 1000);
+
+        addUpdates(0, 2);
+        batcher.add(new RecordingWork(2, true));
+        addUpdates(3, 6);
+        batcher.commitPendingWork();
+
+        assertEquals(Arrays.asList(0, 1, 3, 4, 5), transactionHelper.committed);
+        // the failed batch, then one transaction per update
+        assertEquals(7, batcher.getCommittedBatchCount());
+    }
+
+    @Test
+    public void updates_added_after_shutdown_are_committed_after_pending_ones() throws Exception {
+        batcher = new TransactionBatcher(transactionHelper, 60000, 1000);
+
+        addUpdates(0, 2);
+        batcher.shutdown();
+        addUpdates(2, 3);
+
+        assertEquals(range(0, 3), transactionHelper.committed);
+        assertEquals(0, batcher.getPendingWorkCount());
+    }
+
+    private void addUpdates(int from, int to) {
+        for (int i = from; i < to; i++) {
+            batcher.add(new RecordingWork(i, false));
+        }
+    }
+
+    private static List<Integer> range(int from, int to) {
+        List<Integer> result = new ArrayList<Integer>();
+        for (int i = from; i < to; i++) {
+            result.add(i);
+        }
+        return result;
+    }
+
+    /**
+     * Runs the works with a mock session, the updates recorded by a work are kept only
+     * if the whole transaction succeeds.
+     */
+    private static class RecordingTransactionHelper extends TransactionHelper {
+
+        final List<Integer> committed = Collections.synchronizedList(new ArrayList<Integer>());
+
+        volatile int transactions;
+
+        volatile int maxTransactionSize;
+
+        volatile CountDownLatch commitLatch;
+
+        private final Session session = Mockito.mock(Session.class);
+
+        private List<Integer> transaction;
+
+        RecordingTransactionHelper() {
+            super(null);
+        }
+
+        @Override
+        public synchronized <T> T runWithTransaction(SessionWork<T> sessionWork, boolean readonly) {
+            transaction = new ArrayList<Integer>();
+            try {
+                T result = sessionWork.executeWork(session);
+                committed.addAll(transaction);
+                transactions++;
+                maxTransactionSize = Math.max(maxTransactionSize, transaction.size());
+                if (commitLatch != null) {
+                    commitLatch.countDown();
+                }
+                return result;
+            } catch (RuntimeException e) {
+                return null;
+            }
+        }
+
+        void record(int update) {
+            transaction.add(update);
+        }
+    }
+
+    private final class RecordingWork extends TransactionBatcher.GroupableWork {
+
+        private final int update;
+
+        private final boolean failing;
+
+        RecordingWork(int update, boolean failing) {
+            this.update = update;
+            this.failing = failing;
+        }
+
+        @Override
+        protected void executeGroup(Session session, List<TransactionBatcher.GroupableWork> group) {
+            for (TransactionBatcher.GroupableWork work : group) {
+                RecordingWork recordingWork = (RecordingWork) work;
+                if (recordingWork.failing) {
+                    throw new IllegalStateException("update " + recordingWork.update + " failed");
+                }
+                transactionHelper.record(recordingWork.update);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,114 @@
+package org.ow2.proactive.scheduler.descriptor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.ow2.proactive.scheduler.common.job.JobPriority;
+import org.ow2.proactive.scheduler.common.task.TaskId;
+import org.ow2.proactive.scheduler.job.InternalTaskFlowJob;
+import org.ow2.proactive.scheduler.job.JobIdImpl;
+import org.ow2.proactive.scheduler.task.internal.InternalNativeTask;
+import org.ow2.proactive.scheduler.task.internal.InternalTask;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+
+public class EligibleTaskIndexTest {
+
+    private int jobId;
+
+    private EligibleTaskIndex index;
+
+    @Before
+    public void createIndex() {
+        index = new EligibleTaskIndex();
+    }
+
+    @Test
+    public void tasks_are_ordered_by_priority_then_job_id() throws Exception {
+        JobDescriptorImpl jobLow = createJob(JobPriority.LOW, 1);
+        JobDescriptorImpl jobNormal1 = createJob(JobPriority.NORMAL, 2);
+        JobDescriptorImpl jobHigh = createJob(JobPriority.HIGH, 1);
+        JobDescriptorImpl jobNormal2 = createJob(JobPriority.NORMAL, 1);
+
+        List<EligibleTaskDescriptor> orderedTasks = orderedTasks();
+
+        assertEquals(5, orderedTasks.size());
+        assertEquals(jobHigh.getJobId(), orderedTasks.get(0).getJobId());
+        assertEquals(jobNormal1.getJobId(), orderedTasks.get(1).getJobId());
+        assertEquals(jobNormal1.getJobId(), orderedTasks.get(2).getJobId());
+        assertTrue(orderedTasks.get(1).getTaskId().compareTo(orderedTasks.get(2).getTaskId()) < 0);
+        assertEquals(jobNormal2.getJobId(), orderedTasks.get(3).getJobId());
+        assertEquals(jobLow.getJobId(), orderedTasks.get(4).getJobId());
+    }
+
+    @Test
+    public void started_task_is_removed_and_restarted_task_is_added_back() throws Exception {
+        JobDescriptorImpl job = createJob(JobPriority.NORMAL, 2);
+        TaskId started = orderedTasks().get(0).getTaskId();
+
+        job.start(started);
+        assertEquals(1, index.size());
+
+        job.reStart(started);
+        assertEquals(2, index.size());
+        assertEquals(started, orderedTasks().get(0).getTaskId());
+    }
+
+    @Test
+    public void paused_tasks_are_not_indexed() throws Exception {
+        JobDescriptorImpl job = createJob(JobPriority.NORMAL, 2);
+        TaskId paused = orderedTasks().get(0).getTaskId();
+
+        job.pause(paused);
+        assertEquals(1, index.size());
+
+        job.unpause(paused);
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    public void priority_change_moves_tasks() throws Exception {
+        JobDescriptorImpl job1 = createJob(JobPriority.NORMAL, 1);
+        JobDescriptorImpl job2 = createJob(JobPriority.NORMAL, 1);
+        assertEquals(job1.getJobId(), orderedTasks().get(0).getJobId());
+
+        job2.getInternal().setPriority(JobPriority.HIGH);
+        index.changePriority(job2.getJobId(), JobPriority.HIGH);
+
+        assertEquals(job2.getJobId(), orderedTasks().get(0).getJobId());
+        assertEquals(job1.getJobId(), orderedTasks().get(1).getJobId());
+    }
+
+    @Test
+    public void failed_and_removed_jobs_are_not_indexed() throws Exception {
+        JobDescriptorImpl job1 = createJob(JobPriority.NORMAL, 2);
+        JobDescriptorImpl job2 = createJob(JobPriority.NORMAL, 2);
+
+        job1.failed();
+        assertEquals(2, index.size());
+
+        index.removeJob(job2.getJobId());
+        assertEquals(0, index.size());
+    }
+
+    private List<EligibleTaskDescriptor> orderedTasks() {
+        return new ArrayList<EligibleTaskDescriptor>(index.getOrderedTasks());
+    }
+
+    private JobDescriptorImpl createJob(JobPriority jobPriority, int numberOfTasks) {
+        InternalTaskFlowJob taskFlowJob = new InternalTaskFlowJob("test", jobPriority, true, "");
+        taskFlowJob.setId(JobIdImpl.makeJobId(Integer.toString(jobId++)));
+        ArrayList<InternalTask> tasks = new ArrayList<InternalTask>();
+        for (int i = 0; i < numberOfTasks; i++) {
+            tasks.add(new InternalNativeTask());
+        }
+        taskFlowJob.addTasks(tasks);
+        JobDescriptorImpl descriptor = new JobDescriptorImpl(taskFlowJob);
+        descriptor.setEligibleTaskIndex(index);
+        return descriptor;
+    }
+}
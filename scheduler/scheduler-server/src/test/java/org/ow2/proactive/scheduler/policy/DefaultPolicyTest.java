@@ -7,6 +7,7 @@ import java.util.Vector;
 
 import org.ow2.proactive.scheduler.common.job.JobPriority;
 import org.ow2.proactive.scheduler.descriptor.EligibleTaskDescriptor;
+import org.ow2.proactive.scheduler.descriptor.EligibleTaskIndex;
 import org.ow2.proactive.scheduler.descriptor.JobDescriptor;
 import org.ow2.proactive.scheduler.descriptor.JobDescriptorImpl;
 import org.ow2.proactive.scheduler.job.InternalTaskFlowJob;
@@ -16,6 +17,8 @@ import org.ow2.proactive.scheduler.task.internal.InternalTask;
 import org.junit.Test;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 
@@ -71,6 +74,29 @@ public class DefaultPolicyTest {
         assertEquals(job3.getJobId(), orderedTasks.get(2).getJobId());
     }
 
+    @Test
+    public void index_is_used_when_list_ordering_is_not_overridden() throws Exception {
+        EligibleTaskIndex index = new EligibleTaskIndex();
+
+        assertNotNull(new DefaultPolicy().getOrderedTasks(index));
+        assertNotNull(new DefaultPolicy() {
+        }.getOrderedTasks(index));
+    }
+
+    @Test
+    public void index_is_not_used_when_list_ordering_is_overridden() throws Exception {
+        Policy lifoPolicy = new DefaultPolicy() {
+            @Override
+            public Vector<EligibleTaskDescriptor> getOrderedTasks(List<JobDescriptor> jobs) {
+                Vector<EligibleTaskDescriptor> tasks = super.getOrderedTasks(jobs);
+                Collections.reverse(tasks);
+                return tasks;
+            }
+        };
+
+        assertNull(lifoPolicy.getOrderedTasks(new EligibleTaskIndex()));
+    }
+
     private JobDescriptorImpl createSingleTaskJob(JobPriority jobPriority) {
         InternalTaskFlowJob taskFlowJob = new InternalTaskFlowJob("test", jobPriority, true, "");
         taskFlowJob.setId(JobIdImpl.makeJobId(Integer.toString(jobId++)));
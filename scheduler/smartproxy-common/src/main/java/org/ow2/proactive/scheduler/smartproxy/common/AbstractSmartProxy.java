@@ -739,6 +739,9 @@ public abstract class AbstractSmartProxy<T extends JobTracker> implements Schedu
     public abstract JobId submit(Job job) throws NotConnectedException, PermissionException,
             SubmissionClosedException, JobCreationException;
 
+    public abstract List<JobId> submit(List<Job> jobs) throws NotConnectedException, PermissionException,
+            SubmissionClosedException, JobCreationException;
+
     @Override
     public JobResult getJobResult(String jobId) throws NotConnectedException, PermissionException, UnknownJobException {
         return getScheduler().getJobResult(jobId);
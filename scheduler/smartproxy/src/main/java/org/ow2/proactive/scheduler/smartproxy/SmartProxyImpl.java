@@ -468,6 +468,16 @@ public class SmartProxyImpl extends AbstractSmartProxy<JobTrackerImpl> implement
         return schedulerProxy.submit(job);
     }
 
+    @Override
+    public List<JobId> submit(List<Job> jobs) throws NotConnectedException, PermissionException,
+            SubmissionClosedException, JobCreationException {
+        if (schedulerProxy == null) {
+            throw new NotConnectedException("Not connected to the scheduler.");
+        }
+
+        return schedulerProxy.submit(jobs);
+    }
+
     @Override
     public JobState getJobState(String jobId) throws NotConnectedException, UnknownJobException, PermissionException {
         return schedulerProxy.getJobState(jobId);